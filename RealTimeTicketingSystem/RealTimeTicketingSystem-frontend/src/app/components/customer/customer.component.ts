@@ -1,7 +1,8 @@
 import { Component, OnInit, OnDestroy } from '@angular/core';
 import { CommonModule } from '@angular/common';
 import { Customer } from '../../models/customer';
-import { HttpClient } from '@angular/common/http';
+import { ChangeSet } from '../../models/change-set';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { WebSocketService } from '../../services/websocket.service';
 import { Subscription } from 'rxjs';
 
@@ -15,6 +16,11 @@ import { Subscription } from 'rxjs';
 export class CustomerComponent implements OnInit, OnDestroy {
   customers: Customer[] = []; // Array to store customer statistics
   private customerSubscription: Subscription | null = null; // Subscribe to websocket logs
+  private known = new Map<string, Customer>(); // Customers fetched so far, by id
+  private version = 0; // Version of the last changes fetched
+  private after: string | null = null; // Id to continue from when the last changes had more
+  private loading = false; // Whether changes are being fetched
+  private reloadRequested = false; // Whether another refresh was asked for while fetching
 
   constructor(
     private http: HttpClient, // To fetch customer data using API calls
@@ -43,12 +49,44 @@ export class CustomerComponent implements OnInit, OnDestroy {
 
   // Fetches customer statistics from the backend
   loadCustomerStats() {
-    this.http.get<Customer[]>('http://localhost:8080/api/customers').subscribe({
-      next: (data) => {
-        // Sort customers by ticket purchases
-        this.customers = data.sort((a, b) => b.totalTicketsPurchased - a.totalTicketsPurchased);
+    // Only fetch the customers changed since the last version, a refresh requested meanwhile runs afterwards
+    if (this.loading) {
+      this.reloadRequested = true;
+      return;
+    }
+    this.loading = true;
+    this.fetchChanges();
+  }
+
+  private fetchChanges() {
+    let params = new HttpParams().set('since', this.version);
+    if (this.after) {
+      params = params.set('after', this.after);
+    }
+    this.http.get<ChangeSet<Customer>>('http://localhost:8080/api/customers/changes', { params }).subscribe({
+      next: (changes) => {
+        changes.items.forEach(item => this.known.set(item.customerId, item));
+        this.version = changes.version;
+        this.after = changes.after;
+        if (changes.hasMore) {
+          this.fetchChanges();
+          return;
+        }
+        this.customers = [...this.known.values()].sort((a, b) => b.totalTicketsPurchased - a.totalTicketsPurchased);
+        this.finishLoading();
       },
-      error: (error) => console.error('Error loading customer stats:', error)
+      error: (error) => {
+        console.error('Error loading customer stats:', error);
+        this.finishLoading();
+      }
     });
   }
+
+  private finishLoading() {
+    this.loading = false;
+    if (this.reloadRequested) {
+      this.reloadRequested = false;
+      this.loadCustomerStats();
+    }
+  }
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+// Interface representing the records changed since a version
+export interface ChangeSet<T> {
+  items: T[]; // Records changed since the requested version
+  version: number; // Version to ask for changes since next time
+  after: string | null; // Id to pass with the version when more changes are left
+  hasMore: boolean; // Whether more changes are left
+}
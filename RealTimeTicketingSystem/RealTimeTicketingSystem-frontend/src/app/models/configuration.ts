@@ -7,4 +7,5 @@ export interface Configuration {
   maxTicketCapacity: number; // Maximum capacity of tickets
   noOfVendors: number; // Number of vendors in the system
   noOfCustomers: number; // Number of customers in the system
+  executionMode?: 'SCHEDULED' | 'PLATFORM' | 'VIRTUAL'; // How the agents are run, SCHEDULED if not set
 }
@@ -47,10 +47,11 @@ export class WebSocketService {
       });
 
       // Subscribe and parse system logs after successful websocket connection
+      // The backend sends the logs in batches, each log is passed on separately
       this.stompClient.subscribe('/topic/logs', (message) => {
         try {
           const data = JSON.parse(message.body);
-          this.logsSubject.next(data);
+          (Array.isArray(data) ? data : [data]).forEach(log => this.logsSubject.next(log));
         } catch (error) {
           console.error('Error parsing logs message:', error);
         }
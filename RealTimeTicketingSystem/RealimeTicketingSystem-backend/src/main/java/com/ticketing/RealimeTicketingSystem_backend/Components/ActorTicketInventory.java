@@ -0,0 +1,245 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-writer inventory engine, in the style of an actor.
+ * One owner thread applies every change of the inventory, so its counts are plain fields that no other thread writes.
+ * Callers submit reset, release, reserve and return commands through a multi-producer single-consumer queue,
+ * and wait for the owner to complete them, spinning briefly before parking.
+ * The owner drains the queue in batches of up to MAX_BATCH commands, and publishes an immutable snapshot
+ * of the counts after each batch, before completing the commands of the batch.
+ * Reads never go through the queue, they read the latest snapshot.
+ * The owner thread runs until the inventory is closed, then completes the commands left in the queue as closed,
+ * so a caller racing with close gets an IllegalStateException instead of waiting forever.
+ */
+public class ActorTicketInventory implements TicketInventory {
+
+    private static final int MAX_BATCH = 256;
+    private static final int SPINS_BEFORE_PARK = 256;
+    private static final int CLOSED = Integer.MIN_VALUE; // Result of a command submitted after the inventory was closed
+    private static final AtomicInteger OWNER_COUNT = new AtomicInteger();
+
+    private final Queue<Command> commands = new ConcurrentLinkedQueue<>();
+    private final Thread owner;
+    private volatile boolean ownerParked;
+    private volatile boolean running = true;
+    private volatile Snapshot snapshot = new Snapshot(0, 0, 0);
+
+    // Owned by the owner thread only
+    private int released;
+    private int sold;
+    private int maxCapacity;
+
+    /**
+     * Constructor for ActorTicketInventory, starts the owner thread.
+     */
+    public ActorTicketInventory() {
+        this.owner = new Thread(this::runOwner, "pool-owner-" + OWNER_COUNT.incrementAndGet());
+        owner.setDaemon(true);
+        owner.start();
+    }
+
+    @Override
+    public void reset(int maxCapacity, int initialTickets) {
+        submit(Command.RESET, maxCapacity, initialTickets);
+    }
+
+    @Override
+    public int release(String vendorId, int numTickets) {
+        return submit(Command.RELEASE, numTickets, 0);
+    }
+
+    @Override
+    public boolean reserve(String customerId, int numTickets) {
+        return submit(Command.RESERVE, numTickets, 0) != 0;
+    }
+
+    @Override
+    public void returnTickets(String customerId, int[] seats, int numTickets) {
+        submit(Command.RETURN, numTickets, 0);
+    }
+
+    @Override
+    public int getAvailable() {
+        Snapshot current = snapshot;
+        return current.released() - current.sold();
+    }
+
+    @Override
+    public int getReleased() {
+        return snapshot.released();
+    }
+
+    @Override
+    public int getSold() {
+        return snapshot.sold();
+    }
+
+    @Override
+    public int getMaxCapacity() {
+        return snapshot.maxCapacity();
+    }
+
+    /**
+     * Method to get the latest snapshot published by the owner thread.
+     * @return (released, sold and maximum capacity after the last batch of commands)
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Stops the owner thread once it has completed the commands already submitted.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(owner);
+    }
+
+    /**
+     * Submits a command to the owner thread and waits for its result.
+     * @param type (command type)
+     * @param first (first argument of the command)
+     * @param second (second argument of the command)
+     * @return (result of the command)
+     * @throws IllegalStateException (if the inventory is closed)
+     */
+    private int submit(int type, int first, int second) {
+        if (!running) {
+            throw new IllegalStateException("Inventory is closed");
+        }
+        Command command = new Command(type, first, second, Thread.currentThread());
+        commands.offer(command);
+        // Closed in between, the owner may have drained the queue already, unless it took the command it completes it
+        if (!running && commands.remove(command)) {
+            throw new IllegalStateException("Inventory is closed");
+        }
+        if (ownerParked) {
+            LockSupport.unpark(owner);
+        }
+        for (int spins = 0; !command.done; spins++) {
+            if (spins < SPINS_BEFORE_PARK) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.park(this);
+            }
+        }
+        if (command.result == CLOSED) {
+            throw new IllegalStateException("Inventory is closed");
+        }
+        return command.result;
+    }
+
+    /**
+     * Owner loop, drains the commands in batches and publishes a snapshot after each batch.
+     */
+    private void runOwner() {
+        Command[] batch = new Command[MAX_BATCH];
+        while (true) {
+            int size = 0;
+            Command command;
+            while (size < MAX_BATCH && (command = commands.poll()) != null) {
+                command.result = apply(command);
+                batch[size++] = command;
+            }
+            if (size == 0) {
+                if (!running) {
+                    completeClosed();
+                    return;
+                }
+                ownerParked = true;
+                if (commands.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                ownerParked = false;
+                continue;
+            }
+
+            snapshot = new Snapshot(released, sold, maxCapacity);
+            for (int i = 0; i < size; i++) {
+                Command completed = batch[i];
+                batch[i] = null;
+                completed.done = true;
+                LockSupport.unpark(completed.caller);
+            }
+        }
+    }
+
+    /**
+     * Completes the commands submitted after the owner saw the inventory closed, their callers get an exception.
+     */
+    private void completeClosed() {
+        Command command;
+        while ((command = commands.poll()) != null) {
+            command.result = CLOSED;
+            command.done = true;
+            LockSupport.unpark(command.caller);
+        }
+    }
+
+    private int apply(Command command) {
+        switch (command.type) {
+            case Command.RESET -> {
+                maxCapacity = command.first;
+                released = Math.max(0, Math.min(command.second, maxCapacity));
+                sold = 0;
+                return 0;
+            }
+            case Command.RELEASE -> {
+                int ticketsToAdd = Math.max(0, Math.min(command.first, maxCapacity - released));
+                released += ticketsToAdd;
+                return ticketsToAdd;
+            }
+            case Command.RESERVE -> {
+                if (released - sold < command.first) {
+                    return 0;
+                }
+                sold += command.first;
+                return 1;
+            }
+            case Command.RETURN -> {
+                sold -= command.first;
+                return 0;
+            }
+            default -> throw new IllegalArgumentException("Unknown command " + command.type);
+        }
+    }
+
+    /**
+     * Counts of the inventory published by the owner thread after a batch of commands.
+     * @param released (total tickets released)
+     * @param sold (total tickets sold)
+     * @param maxCapacity (maximum ticket capacity)
+     */
+    public record Snapshot(int released, int sold, int maxCapacity) {
+    }
+
+    /**
+     * Command submitted to the owner thread, completed by setting its result and then its done flag.
+     */
+    private static final class Command {
+        static final int RESET = 0;
+        static final int RELEASE = 1;
+        static final int RESERVE = 2;
+        static final int RETURN = 3;
+
+        final int type;
+        final int first;
+        final int second;
+        final Thread caller;
+        int result;
+        volatile boolean done;
+
+        Command(int type, int first, int second, Thread caller) {
+            this.type = type;
+            this.first = first;
+            this.second = second;
+            this.caller = caller;
+        }
+    }
+}
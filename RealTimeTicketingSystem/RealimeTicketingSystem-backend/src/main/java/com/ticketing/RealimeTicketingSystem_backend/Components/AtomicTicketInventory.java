@@ -0,0 +1,112 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free inventory engine.
+ * The released count (high 32 bits) and sold count (low 32 bits) are packed into a single long,
+ * so a release or a purchase of any number of tickets is one compare-and-set,
+ * and readers always see a consistent pair. Available tickets are released minus sold.
+ * Each reset starts a new Sale with its own state and capacity, and every operation reads the sale once,
+ * so a release racing a reset never checks the counts of one sale against the capacity of the other.
+ */
+public class AtomicTicketInventory implements TicketInventory {
+
+    private volatile Sale sale = new Sale(0, 0);
+
+    /**
+     * Packed counts and capacity of the sale started by a reset.
+     */
+    private static final class Sale {
+        private final AtomicLong state;
+        private final int maxCapacity;
+
+        Sale(int maxCapacity, int initialTickets) {
+            this.maxCapacity = maxCapacity;
+            this.state = new AtomicLong(pack(Math.max(0, Math.min(initialTickets, maxCapacity)), 0));
+        }
+    }
+
+    @Override
+    public void reset(int maxCapacity, int initialTickets) {
+        sale = new Sale(maxCapacity, initialTickets);
+    }
+
+    @Override
+    public int release(String vendorId, int numTickets) {
+        Sale sale = this.sale;
+        AtomicLong state = sale.state;
+        while (true) {
+            long current = state.get();
+            int released = released(current);
+            int remainingCapacity = sale.maxCapacity - released;
+            if (remainingCapacity <= 0) {
+                return 0;
+            }
+
+            int ticketsToAdd = Math.min(numTickets, remainingCapacity);
+            if (state.compareAndSet(current, pack(released + ticketsToAdd, sold(current)))) {
+                return ticketsToAdd;
+            }
+        }
+    }
+
+    @Override
+    public boolean reserve(String customerId, int numTickets) {
+        AtomicLong state = sale.state;
+        while (true) {
+            long current = state.get();
+            int sold = sold(current);
+            if (released(current) - sold < numTickets) {
+                return false;
+            }
+            if (state.compareAndSet(current, pack(released(current), sold + numTickets))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void returnTickets(String customerId, int[] seats, int numTickets) {
+        AtomicLong state = sale.state;
+        while (true) {
+            long current = state.get();
+            if (state.compareAndSet(current, pack(released(current), sold(current) - numTickets))) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public int getAvailable() {
+        long current = sale.state.get();
+        return released(current) - sold(current);
+    }
+
+    @Override
+    public int getReleased() {
+        return released(sale.state.get());
+    }
+
+    @Override
+    public int getSold() {
+        return sold(sale.state.get());
+    }
+
+    @Override
+    public int getMaxCapacity() {
+        return sale.maxCapacity;
+    }
+
+    private static long pack(int released, int sold) {
+        return ((long) released << 32) | (sold & 0xFFFFFFFFL);
+    }
+
+    private static int released(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static int sold(long state) {
+        return (int) state;
+    }
+}
@@ -0,0 +1,149 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.Configuration;
+import com.ticketing.RealimeTicketingSystem_backend.Repo.ConfigurationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Write-through cache of the configurations of the events, keyed by event id.
+ * The last "ticketing.configuration.history-size" configurations of an event are loaded with one query on first access,
+ * after that the latest configuration and the history are read from memory
+ * until they are "ticketing.configuration.ttl" old, so configurations saved by other nodes are picked up.
+ * At most "ticketing.configuration.max-events" events are cached, with or without configuration,
+ * the event cached first is dropped when a new event is cached into a full cache.
+ * Saved configurations are written to MongoDB and added to the cached history before the save returns.
+ * Histories are immutable lists replaced on every save, so readers never lock,
+ * and saves of the same event are serialized so the history stays in save order.
+ * The id MongoDB gives a configuration identifies its version, later configurations have greater ids.
+ * Saved configurations are shared between readers and must not be modified.
+ */
+@Component
+public class ConfigurationCache {
+
+    private final ConfigurationRepository configRepository;
+    private final int historySize;
+    private final int maxEvents;
+    private final long ttlNanos;
+    private final ConcurrentMap<String, CachedHistory> histories = new ConcurrentHashMap<>();
+    private final Queue<String> cachedOrder = new ConcurrentLinkedQueue<>(); // Cached events, first cached first
+
+    /**
+     * Constructor for ConfigurationCache
+     * @param configRepository (Repository managing configuration data)
+     * @param historySize (number of configurations kept per event)
+     * @param maxEvents (number of events cached)
+     * @param ttl (time a history is cached before it is loaded again)
+     */
+    public ConfigurationCache(ConfigurationRepository configRepository,
+                              @Value("${ticketing.configuration.history-size:20}") int historySize,
+                              @Value("${ticketing.configuration.max-events:10000}") int maxEvents,
+                              @Value("${ticketing.configuration.ttl:5m}") Duration ttl) {
+        this.configRepository = configRepository;
+        this.historySize = Math.max(1, historySize);
+        this.maxEvents = Math.max(1, maxEvents);
+        this.ttlNanos = Math.max(0, ttl.toNanos());
+    }
+
+    /**
+     * Method to get the latest configuration of an event.
+     * @param eventId (event identifier)
+     * @return (latest configuration, or null if none was saved for the event)
+     */
+    public Configuration getLatest(String eventId) {
+        List<Configuration> history = getHistory(eventId);
+        return history.isEmpty() ? null : history.get(0);
+    }
+
+    /**
+     * Method to get the last configurations saved for an event.
+     * @param eventId (event identifier)
+     * @return (configurations, latest first, empty if none was saved for the event)
+     */
+    public List<Configuration> getHistory(String eventId) {
+        long now = System.nanoTime();
+        CachedHistory cached = histories.get(eventId);
+        if (cached != null && cached.isFresh(now, ttlNanos)) {
+            return cached.history;
+        }
+        CachedHistory loaded = new CachedHistory(load(eventId), now);
+        if (cached != null) {
+            // A save in the meantime replaced the history, which is newer than the loaded one
+            return histories.replace(eventId, cached, loaded) ? loaded.history : getHistory(eventId);
+        }
+        cached = histories.putIfAbsent(eventId, loaded);
+        if (cached != null) {
+            return cached.history;
+        }
+        cachedAdded(eventId);
+        return loaded.history;
+    }
+
+    /**
+     * Method to save a new configuration for an event, in MongoDB and in the cache.
+     * @param eventId (event identifier)
+     * @param config (configuration to save)
+     * @return (saved configuration, with its id)
+     */
+    public Configuration save(String eventId, Configuration config) {
+        config.setEventId(TicketEvent.DEFAULT_EVENT.equals(eventId) ? null : eventId);
+        Configuration[] saved = new Configuration[1];
+        boolean[] added = new boolean[1];
+        histories.compute(eventId, (id, cached) -> {
+            long now = System.nanoTime();
+            added[0] = cached == null;
+            // The age of the history is the age of its load, the configurations of other nodes are in the reload
+            CachedHistory previous = cached != null && cached.isFresh(now, ttlNanos)
+                    ? cached : new CachedHistory(load(id), now);
+            saved[0] = configRepository.save(config);
+            List<Configuration> updated = new ArrayList<>(Math.min(previous.history.size() + 1, historySize));
+            updated.add(saved[0]);
+            for (int i = 0; i < previous.history.size() && updated.size() < historySize; i++) {
+                updated.add(previous.history.get(i));
+            }
+            return new CachedHistory(List.copyOf(updated), previous.loadedAtNanos);
+        });
+        if (added[0]) {
+            cachedAdded(eventId);
+        }
+        return saved[0];
+    }
+
+    /**
+     * Records a newly cached event and drops the events cached first while the cache is over its size.
+     * An event dropped here is loaded again on its next access.
+     * @param eventId (event identifier)
+     */
+    private void cachedAdded(String eventId) {
+        cachedOrder.add(eventId);
+        while (histories.size() > maxEvents) {
+            String eldest = cachedOrder.poll();
+            if (eldest == null) {
+                return;
+            }
+            histories.remove(eldest);
+        }
+    }
+
+    private List<Configuration> load(String eventId) {
+        PageRequest last = PageRequest.of(0, historySize);
+        return List.copyOf(TicketEvent.DEFAULT_EVENT.equals(eventId)
+                ? configRepository.findByEventIdIsNullOrderByIdDesc(last)
+                : configRepository.findByEventIdOrderByIdDesc(eventId, last));
+    }
+
+    private record CachedHistory(List<Configuration> history, long loadedAtNanos) {
+        boolean isFresh(long now, long ttlNanos) {
+            return now - loadedAtNanos < ttlNanos;
+        }
+    }
+}
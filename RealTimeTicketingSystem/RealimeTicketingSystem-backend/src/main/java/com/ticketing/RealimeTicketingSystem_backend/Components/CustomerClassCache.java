@@ -0,0 +1,89 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.Customer;
+import com.ticketing.RealimeTicketingSystem_backend.Repo.CustomerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read-through cache of the rate limit classes of the customers, keyed by customer id.
+ * The class is read from the customer record, so a client can never choose its own class,
+ * and customers without a record or without a class get the default class.
+ * A class is kept for "ticketing.rate-limit.class-ttl" so a changed class is picked up without a restart,
+ * and at most "ticketing.rate-limit.max-cached-customers" customers are cached, the least recently used one
+ * is dropped when a new customer is cached into a full cache, so a miss never scans the cache.
+ * The cache is locked only to read or put an entry, the customer records are looked up outside the lock.
+ */
+@Component
+public class CustomerClassCache {
+
+    private static final Logger logger = Logger.getLogger(CustomerClassCache.class.getName());
+
+    private final CustomerRepository customerRepository;
+    private final long ttlNanos;
+    private final int maxCustomers;
+    private final Map<String, CachedClass> classes; // In access order, guarded by itself
+
+    /**
+     * Constructor for CustomerClassCache
+     * @param customerRepository (Repository managing customer data)
+     * @param ttl (time a class is cached before it is looked up again)
+     * @param maxCustomers (number of customers cached)
+     */
+    public CustomerClassCache(CustomerRepository customerRepository,
+                              @Value("${ticketing.rate-limit.class-ttl:60s}") Duration ttl,
+                              @Value("${ticketing.rate-limit.max-cached-customers:100000}") int maxCustomers) {
+        this.customerRepository = customerRepository;
+        this.ttlNanos = Math.max(0, ttl.toNanos());
+        this.maxCustomers = Math.max(1, maxCustomers);
+        this.classes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedClass> eldest) {
+                return size() > CustomerClassCache.this.maxCustomers;
+            }
+        };
+    }
+
+    /**
+     * Method to get the rate limit class of a customer.
+     * @param customerId (Unique identifier for the customer)
+     * @return (class of the customer record, the default class if the customer has none or cannot be looked up)
+     */
+    public String classOf(String customerId) {
+        long now = System.nanoTime();
+        CachedClass cached;
+        synchronized (classes) {
+            cached = classes.get(customerId);
+        }
+        if (cached != null && now - cached.loadedAtNanos < ttlNanos) {
+            return cached.customerClass;
+        }
+
+        String customerClass;
+        try {
+            customerClass = customerRepository.findById(customerId)
+                    .map(Customer::getCustomerClass)
+                    .orElse(RateLimiter.DEFAULT_CLASS);
+        } catch (RuntimeException e) {
+            // Not cached, the next request looks the customer up again
+            logger.log(Level.WARNING, "Could not look up the class of customer " + customerId, e);
+            return RateLimiter.DEFAULT_CLASS;
+        }
+        if (customerClass == null) {
+            customerClass = RateLimiter.DEFAULT_CLASS;
+        }
+        synchronized (classes) {
+            classes.put(customerId, new CachedClass(customerClass, now));
+        }
+        return customerClass;
+    }
+
+    private record CachedClass(String customerClass, long loadedAtNanos) {
+    }
+}
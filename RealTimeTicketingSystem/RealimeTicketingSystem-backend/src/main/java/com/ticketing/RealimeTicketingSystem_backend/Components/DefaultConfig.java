@@ -1,36 +1,38 @@
 package com.ticketing.RealimeTicketingSystem_backend.Components;
 
 import com.ticketing.RealimeTicketingSystem_backend.Models.Configuration;
-import com.ticketing.RealimeTicketingSystem_backend.Repo.ConfigurationRepository;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 /**
  * Component used to initialize the default configuration for the application.
  */
 @Component
+@Order(1)
 public class DefaultConfig implements CommandLineRunner {
 
-    private final ConfigurationRepository configRepository;
+    private final ConfigurationCache configurationCache;
 
     /**
-     * Constructor for injecting the ConfigurationRepository.
-     * @param configRepository  (Repository managing configuration data)
+     * Constructor for injecting the ConfigurationCache.
+     * @param configurationCache  (Cache of the saved configurations)
      */
-    public DefaultConfig(ConfigurationRepository configRepository) {
-        this.configRepository = configRepository;
+    public DefaultConfig(ConfigurationCache configurationCache) {
+        this.configurationCache = configurationCache;
     }
 
     /**
      * Runs at application startup to initialize a  default configuration for the application.
-     * If no configuration exists in the database, a default configuration is created and saved.
+     * If the default event has no configuration, a default configuration is created and saved.
      * If a configuration already exists, the default initialization is skipped.
+     * The lookup also loads the configuration of the default event into the cache.
      * @param args  (Command line arguments)
      */
     @Override
     public void run(String... args) {
 
-        if (configRepository.count() == 0) {
+        if (configurationCache.getLatest(TicketEvent.DEFAULT_EVENT) == null) {
 
             Configuration defaultConfig = new Configuration(
                     null, // No ID is set, MongoDB will generate one.
@@ -43,7 +45,7 @@ public class DefaultConfig implements CommandLineRunner {
             );
 
 
-            configRepository.save(defaultConfig);
+            configurationCache.save(TicketEvent.DEFAULT_EVENT, defaultConfig);
             System.out.println("Default configuration saved to MongoDB.");
         } else {
             System.out.println("Configuration already exists. Skipping default initialization.");
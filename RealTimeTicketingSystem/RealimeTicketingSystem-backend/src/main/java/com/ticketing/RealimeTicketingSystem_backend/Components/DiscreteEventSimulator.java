@@ -0,0 +1,244 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.Configuration;
+import com.ticketing.RealimeTicketingSystem_backend.Models.SimulationReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/**
+ * Discrete-event simulation of an event, running the vendors and customers against a virtual clock on one thread.
+ * Each agent is kept in a priority queue ordered by the virtual time of its next run,
+ * the simulator takes the earliest agent, moves the clock to its time and runs it, instead of sleeping until then.
+ * The agents behave like the scheduled agents of the VendorService and CustomerService:
+ * vendors release 1 to 20 tickets every "ticketReleaseRate" seconds until all tickets are released,
+ * customers try to purchase 1 to 5 tickets every "customerRetrievalRate" seconds until all tickets are sold,
+ * and every interval randomly varies by the jitter of the timing wheel.
+ * They run against their own TicketPool, so the outcome is the same as a real simulation,
+ * but nothing is saved to the database or added to the leaderboards.
+ * The wait of a purchase is the virtual time since the first attempt of the customer that found the pool short,
+ * 0 when the customer got the tickets on their first attempt.
+ * Runs with the same seed give the same report.
+ */
+public class DiscreteEventSimulator {
+
+    private final Configuration config;
+    private final TicketPool ticketPool;
+    private final double jitter;
+    private final SplittableRandom random;
+
+    /**
+     * Agents waiting for their next run, earliest first, agents due at the same time run in the order they were queued.
+     */
+    private final PriorityQueue<Agent> agents = new PriorityQueue<>(
+            Comparator.comparingLong((Agent agent) -> agent.nextRunMillis).thenComparingLong(agent -> agent.sequence));
+    private final Map<String, Long> vendorReleases = new LinkedHashMap<>();
+    private final Map<String, Long> customerPurchases = new LinkedHashMap<>();
+    private long clockMillis;
+    private long sequence;
+    private long releaseAttempts;
+    private long rejectedReleases;
+    private long purchaseAttempts;
+    private long missedPurchases;
+    private long[] purchaseWaits = new long[1024];
+    private int purchases;
+
+    /**
+     * Constructor for DiscreteEventSimulator
+     * @param config (configuration of the simulation)
+     * @param engine (inventory engine of the simulated ticket pool)
+     * @param broadcaster (broadcaster the logs and status of the simulated ticket pool are sent to)
+     * @param scheduler (timing wheel of the simulated ticket pool, the agents do not run on it)
+     * @param jitter (fraction of the agent interval each run randomly varies by)
+     * @param seed (seed of the random ticket numbers and jitter)
+     */
+    public DiscreteEventSimulator(Configuration config, PoolEngine engine, UpdateBroadcaster broadcaster,
+                                  TimingWheelScheduler scheduler, double jitter, long seed) {
+        this.config = config;
+        this.ticketPool = new TicketPool(broadcaster, engine, "/topic/simulations", scheduler,
+                new PoolMetrics(new SimpleMeterRegistry(), "simulation"));
+        this.jitter = Math.max(0, jitter);
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Method to run the simulation until all tickets are sold, every agent has stopped,
+     * or the virtual time limit is reached.
+     * @param maxVirtualTime (virtual time after which the simulation is stopped)
+     * @return (report of the simulation)
+     */
+    public SimulationReport run(Duration maxVirtualTime) {
+        long startNanos = System.nanoTime();
+        long maxVirtualMillis = maxVirtualTime.toMillis();
+        long eventsProcessed = 0;
+        long releasedAtMillis = -1;
+        long soldOutAtMillis = -1;
+
+        try {
+            ticketPool.initialize(config);
+            for (int i = 0; i < config.getNoOfVendors(); i++) {
+                String vendorId = "V" + (i + 1);
+                vendorReleases.put(vendorId, 0L);
+                queue(new Agent(vendorId, true, config.getTicketReleaseRate()), true);
+            }
+            for (int i = 0; i < config.getNoOfCustomers(); i++) {
+                String customerId = "C" + (i + 1);
+                customerPurchases.put(customerId, 0L);
+                queue(new Agent(customerId, false, config.getCustomerRetrievalRate()), true);
+            }
+
+            // Same end as the monitoring of a real simulation, which stops once the pool is complete
+            while (!agents.isEmpty() && !ticketPool.isComplete()) {
+                Agent agent = agents.poll();
+                if (agent.nextRunMillis > maxVirtualMillis) {
+                    clockMillis = maxVirtualMillis;
+                    break;
+                }
+                clockMillis = agent.nextRunMillis;
+                eventsProcessed++;
+
+                if (agent.vendor ? releaseTickets(agent.id) : purchaseTickets(agent)) {
+                    queue(agent, false);
+                }
+                if (releasedAtMillis < 0 && ticketPool.areAllTicketsReleased()) {
+                    releasedAtMillis = clockMillis;
+                }
+                if (soldOutAtMillis < 0 && ticketPool.areAllTicketsSold()) {
+                    soldOutAtMillis = clockMillis;
+                }
+            }
+
+            SimulationReport report = new SimulationReport();
+            report.setVirtualMillis(clockMillis);
+            report.setWallClockMillis((System.nanoTime() - startNanos) / 1_000_000);
+            report.setEventsProcessed(eventsProcessed);
+            report.setReleasedAtMillis(releasedAtMillis);
+            report.setSoldOutAtMillis(soldOutAtMillis);
+            report.setTotalTicketsReleased(ticketPool.getTotalTicketsReleased());
+            report.setTotalTicketsSold(ticketPool.getTotalTicketsSold());
+            report.setRemainingTickets(ticketPool.getRemainingTickets());
+            report.setAllTicketsReleased(ticketPool.areAllTicketsReleased());
+            report.setAllTicketsSold(ticketPool.areAllTicketsSold());
+            report.setReleaseAttempts(releaseAttempts);
+            report.setRejectedReleases(rejectedReleases);
+            report.setPurchaseAttempts(purchaseAttempts);
+            report.setMissedPurchases(missedPurchases);
+            report.setVendorReleases(vendorReleases);
+            report.setCustomerPurchases(customerPurchases);
+            report.setTicketsPerSecond(clockMillis > 0 ? ticketPool.getTotalTicketsSold() * 1000.0 / clockMillis : 0);
+            long[] waits = Arrays.copyOf(purchaseWaits, purchases);
+            Arrays.sort(waits);
+            report.setPurchaseWaitP50Millis(percentile(waits, 0.50));
+            report.setPurchaseWaitP95Millis(percentile(waits, 0.95));
+            report.setPurchaseWaitP99Millis(percentile(waits, 0.99));
+            report.setPurchaseWaitMaxMillis(percentile(waits, 1.0));
+            return report;
+        } finally {
+            ticketPool.close();
+        }
+    }
+
+    /**
+     * Releases one batch of tickets for a vendor, like the release of a scheduled vendor.
+     * @param vendorId (ID of the vendor)
+     * @return (false once all tickets are released and the vendor stops)
+     */
+    private boolean releaseTickets(String vendorId) {
+        if (ticketPool.areAllTicketsReleased()) {
+            return false;
+        }
+        int ticketsToRelease = random.nextInt(20) + 1; // Release a random number of tickets between 1 and 20
+        releaseAttempts++;
+        // The last release can be cut short by the capacity, only the tickets actually added are counted
+        int ticketsAdded = ticketPool.releaseTickets(vendorId, ticketsToRelease);
+        if (ticketsAdded > 0) {
+            vendorReleases.merge(vendorId, (long) ticketsAdded, Long::sum);
+        } else {
+            rejectedReleases++;
+        }
+        return true;
+    }
+
+    /**
+     * Makes one purchase attempt for a customer, like the purchase of a scheduled customer.
+     * Records how long the customer waited for the tickets when the purchase succeeds.
+     * @param customer (customer agent)
+     * @return (false once all tickets are sold and the customer stops)
+     */
+    private boolean purchaseTickets(Agent customer) {
+        int ticketsToPurchase = random.nextInt(5) + 1; // Purchasing a random number of tickets between 1 and 5
+        purchaseAttempts++;
+        if (ticketPool.tryRemoveTickets(customer.id, ticketsToPurchase)) {
+            customerPurchases.merge(customer.id, (long) ticketsToPurchase, Long::sum);
+            recordWait(customer.waitingSinceMillis < 0 ? 0 : clockMillis - customer.waitingSinceMillis);
+            customer.waitingSinceMillis = -1;
+        } else {
+            missedPurchases++;
+            if (customer.waitingSinceMillis < 0) {
+                customer.waitingSinceMillis = clockMillis;
+            }
+        }
+        return !ticketPool.areAllTicketsSold();
+    }
+
+    private void recordWait(long waitMillis) {
+        if (purchases == purchaseWaits.length) {
+            purchaseWaits = Arrays.copyOf(purchaseWaits, purchases * 2);
+        }
+        purchaseWaits[purchases++] = waitMillis;
+    }
+
+    /**
+     * Method to get a percentile of sorted values, with the nearest-rank method.
+     * @param sorted (values sorted in ascending order)
+     * @param fraction (percentile as a fraction, for example 0.95)
+     * @return (value at the percentile, 0 if there are no values)
+     */
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Queues the next run of an agent, with the same delays as TimingWheelScheduler.scheduleAtInterval:
+     * the first run happens after a random part of the jitter, and the next ones after the interval plus jitter.
+     * The timing wheel never runs a task sooner than its 1ms tick, neither does the simulator.
+     * @param agent (agent to queue)
+     * @param first (true for the first run of the agent)
+     */
+    private void queue(Agent agent, boolean first) {
+        long maxJitter = (long) (agent.intervalMillis * jitter);
+        long randomJitter = maxJitter > 0 ? random.nextLong(-maxJitter, maxJitter + 1) : 0;
+        long delay = first ? randomJitter + maxJitter : agent.intervalMillis + randomJitter;
+        agent.nextRunMillis = clockMillis + Math.max(1, delay);
+        agent.sequence = sequence++;
+        agents.add(agent);
+    }
+
+    /**
+     * Vendor or customer of the simulation, with the virtual time of its next run.
+     */
+    private static final class Agent {
+        private final String id;
+        private final boolean vendor;
+        private final long intervalMillis;
+        private long nextRunMillis;
+        private long sequence;
+        private long waitingSinceMillis = -1; // Virtual time of the first attempt that found the pool short
+
+        Agent(String id, boolean vendor, int intervalSeconds) {
+            this.id = id;
+            this.vendor = vendor;
+            this.intervalMillis = intervalSeconds * 1000L;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+/**
+ * Journal of the changes made to the ticket pool of one event.
+ * The TicketPool appends a record for every initialization, release and purchase,
+ * and restores its counts from the journal state when the event is loaded again after a restart.
+ */
+public interface EventJournal {
+
+    /**
+     * Journal used when journaling is disabled, records nothing and has nothing to restore.
+     */
+    EventJournal NONE = new EventJournal() {
+        @Override
+        public void recordInitialize(int maxCapacity, int initialTickets) {
+        }
+
+        @Override
+        public void recordRelease(int numTickets) {
+        }
+
+        @Override
+        public void recordPurchase(int numTickets) {
+        }
+
+        @Override
+        public State getState() {
+            return State.EMPTY;
+        }
+
+        @Override
+        public void commit() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * Method to record that the pool was initialized.
+     * @param maxCapacity (maximum number of tickets that can be released)
+     * @param initialTickets (number of tickets released straight away)
+     */
+    void recordInitialize(int maxCapacity, int initialTickets);
+
+    /**
+     * Method to record tickets released into the pool.
+     * @param numTickets (number of tickets released)
+     */
+    void recordRelease(int numTickets);
+
+    /**
+     * Method to record tickets sold from the pool.
+     * @param numTickets (number of tickets sold)
+     */
+    void recordPurchase(int numTickets);
+
+    /**
+     * Method to get the pool counts after every record appended so far.
+     * @return (journal state)
+     */
+    State getState();
+
+    /**
+     * Method to force the records appended so far to disk.
+     * The journals are also committed in the background, callers only need this to know their records are durable.
+     */
+    void commit();
+
+    /**
+     * Method to write the pending records to disk and stop appending.
+     */
+    void close();
+
+    /**
+     * Pool counts rebuilt from the journal.
+     * @param sequence (sequence number of the last record applied)
+     * @param initialized (true if the pool was initialized since the journal was created)
+     * @param maxCapacity (maximum ticket capacity)
+     * @param released (total tickets released)
+     * @param sold (total tickets sold)
+     */
+    record State(long sequence, boolean initialized, int maxCapacity, int released, int sold) {
+
+        /**
+         * State of a journal with no records.
+         */
+        public static final State EMPTY = new State(0, false, 0, 0, 0);
+    }
+}
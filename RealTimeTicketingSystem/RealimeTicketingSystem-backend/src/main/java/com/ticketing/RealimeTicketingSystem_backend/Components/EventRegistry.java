@@ -0,0 +1,215 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.Configuration;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Registry of the events currently held in memory, keyed by event id.
+ * Events are loaded from their latest saved configuration on first access,
+ * and evicted again once they are not running and have been idle for "ticketing.events.idle-timeout".
+ * The default event keeps the original "/topic" websocket routes,
+ * every other event publishes on "/topic/events/{id}".
+ * The pool of a loaded event is restored from its journal, if the event was journaled before.
+ * With the LEASED engine the pools lease their tickets from the shared block store instead,
+ * which is the source of truth of the event and is not restored from the journal of a single node.
+ */
+@Component
+public class EventRegistry {
+
+    private static final Logger logger = Logger.getLogger(EventRegistry.class.getName());
+
+    private final ConcurrentMap<String, TicketEvent> events = new ConcurrentHashMap<>();
+    private final ConfigurationCache configurationCache;
+    private final UpdateBroadcaster broadcaster;
+    private final TimingWheelScheduler scheduler;
+    private final TimingWheelScheduler holdScheduler;
+    private final MeterRegistry meterRegistry;
+    private final PurchaseJournal purchaseJournal;
+    private final PurchasePipeline pipeline;
+    private final PoolEngine engine;
+    private final TicketBlockStore blockStore;
+    private final String nodeId;
+    private final int leaseBlockSize;
+    private final Duration leaseTtl;
+    private final long idleMillis;
+    private final int maxWaiters;
+    private final Duration maxQueueDelay;
+    private final ScheduledExecutorService evictionExecutor;
+
+    /**
+     * Constructor for EventRegistry
+     * @param configurationCache (cache of the saved configurations)
+     * @param broadcaster (broadcaster sending the real-time updates)
+     * @param scheduler (timing wheel running the timeouts of the purchase requests)
+     * @param meterRegistry (registry of the ticket pool meters)
+     * @param purchaseJournal (journals the ticket pools are restored from)
+     * @param pipeline (pipeline journaling and broadcasting the changes of the ticket pools)
+     * @param engine (inventory engine used by the ticket pools)
+     * @param idleTimeout (time after which an event that is not running is evicted)
+     * @param holdTick (tick of the timing wheel expiring the ticket holds)
+     * @param holdWheelSize (number of buckets of the timing wheel expiring the ticket holds)
+     * @param maxWaiters (maximum number of purchase requests waiting in the queue of a ticket pool)
+     * @param maxQueueDelay (maximum time a purchase request waits in the queue of a ticket pool)
+     * @param mongoBlockStore (shared store the LEASED ticket pools lease their blocks from)
+     * @param leaseStore (MONGO to lease from the shared store, MEMORY to lease from a store of this node)
+     * @param leaseBlockSize (number of tickets a LEASED ticket pool leases at a time)
+     * @param leaseTtl (time a lease lasts without being renewed)
+     * @param nodeId (identifier of this node in the lease store, empty for a random one)
+     */
+    public EventRegistry(ConfigurationCache configurationCache,
+                         UpdateBroadcaster broadcaster,
+                         TimingWheelScheduler scheduler,
+                         MeterRegistry meterRegistry,
+                         PurchaseJournal purchaseJournal,
+                         PurchasePipeline pipeline,
+                         @Value("${ticketing.pool.engine:ATOMIC}") PoolEngine engine,
+                         @Value("${ticketing.events.idle-timeout:10m}") Duration idleTimeout,
+                         @Value("${ticketing.holds.tick:100ms}") Duration holdTick,
+                         @Value("${ticketing.holds.wheel-size:4096}") int holdWheelSize,
+                         @Value("${ticketing.admission.max-waiters:10000}") int maxWaiters,
+                         @Value("${ticketing.admission.max-queue-delay:30s}") Duration maxQueueDelay,
+                         MongoTicketBlockStore mongoBlockStore,
+                         @Value("${ticketing.leases.store:MONGO}") String leaseStore,
+                         @Value("${ticketing.leases.block-size:100}") int leaseBlockSize,
+                         @Value("${ticketing.leases.ttl:30s}") Duration leaseTtl,
+                         @Value("${ticketing.leases.node-id:}") String nodeId) {
+        this.configurationCache = configurationCache;
+        this.broadcaster = broadcaster;
+        this.scheduler = scheduler;
+        this.meterRegistry = meterRegistry;
+        this.purchaseJournal = purchaseJournal;
+        this.pipeline = pipeline;
+        this.engine = engine;
+        this.idleMillis = idleTimeout.toMillis();
+        this.maxWaiters = maxWaiters;
+        this.maxQueueDelay = maxQueueDelay;
+        this.blockStore = "MEMORY".equalsIgnoreCase(leaseStore) ? new InMemoryTicketBlockStore() : mongoBlockStore;
+        this.leaseBlockSize = leaseBlockSize;
+        this.leaseTtl = leaseTtl;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        // Holds last minutes and need no millisecond precision, one round of this wheel covers a whole hold
+        this.holdScheduler = new TimingWheelScheduler(holdTick, holdWheelSize, 1);
+        this.evictionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, idleMillis / 2);
+        evictionExecutor.scheduleWithFixedDelay(this::evictIdleEvents, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Method to get an event, loading it from its latest configuration if it is not in memory.
+     * An event found closed is being evicted, the lookup is retried until it is removed or kept.
+     * @param eventId (event identifier)
+     * @return (event, or null if no configuration was saved for it)
+     */
+    public TicketEvent getEvent(String eventId) {
+        while (true) {
+            TicketEvent event = events.computeIfAbsent(eventId, id -> {
+                Configuration config = configurationCache.getLatest(id);
+                return config != null ? newEvent(id, config) : null;
+            });
+            if (event == null) {
+                return null;
+            }
+            event.touch();
+            if (!event.isClosed()) {
+                return event;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Method to save a new configuration for an event.
+     * The configuration is used the next time the simulation of the event is started.
+     * @param eventId (event identifier)
+     * @param config (configuration to save)
+     * @return (saved configuration)
+     */
+    public Configuration saveConfiguration(String eventId, Configuration config) {
+        Configuration savedConfig = configurationCache.save(eventId, config);
+        events.compute(eventId, (id, event) -> {
+            if (event == null) {
+                return newEvent(id, savedConfig);
+            }
+            event.setConfiguration(savedConfig);
+            event.touch();
+            return event;
+        });
+        return savedConfig;
+    }
+
+    /**
+     * Method to get the events currently held in memory.
+     * @return (events in memory)
+     */
+    public Collection<TicketEvent> getEvents() {
+        return Collections.unmodifiableCollection(events.values());
+    }
+
+    /**
+     * Removes the events that are not running, have no waiting requests, holds or users,
+     * and have not been accessed recently.
+     * They are loaded again from their configuration when they are next accessed.
+     */
+    void evictIdleEvents() {
+        for (String eventId : events.keySet()) {
+            events.computeIfPresent(eventId, (id, event) -> {
+                if (event.tryClose(idleMillis)) {
+                    logger.info("Evicting idle event " + id);
+                    event.getTicketPool().getMetrics().remove();
+                    event.getTicketPool().close();
+                    purchaseJournal.close(id);
+                    broadcaster.removeTopic(event.topic("status"));
+                    broadcaster.removeTopic(event.topic("logs"));
+                    return null;
+                }
+                return event;
+            });
+        }
+    }
+
+    /**
+     * Stops the eviction thread and the hold timing wheel when the application shuts down.
+     * The ticket pools are closed, so LEASED pools give their unsold tickets back for the other nodes.
+     */
+    @PreDestroy
+    public void shutdown() {
+        evictionExecutor.shutdownNow();
+        events.values().forEach(event -> event.getTicketPool().close());
+        holdScheduler.shutdown();
+    }
+
+    private TicketEvent newEvent(String eventId, Configuration config) {
+        String topicPrefix = TicketEvent.DEFAULT_EVENT.equals(eventId) ? "/topic" : "/topic/events/" + eventId;
+        TicketInventory inventory = engine == PoolEngine.LEASED
+                ? new LeasedTicketInventory(blockStore, eventId, nodeId, leaseBlockSize, leaseTtl, scheduler)
+                : engine.newInventory();
+        TicketPool ticketPool = new TicketPool(broadcaster, engine, inventory, topicPrefix, scheduler, holdScheduler,
+                new PoolMetrics(meterRegistry, eventId));
+        EventJournal journal = purchaseJournal.open(eventId);
+        ticketPool.setJournal(journal);
+        ticketPool.setPipeline(pipeline);
+        ticketPool.setAdmissionLimits(maxWaiters, maxQueueDelay);
+        if (engine != PoolEngine.LEASED && journal.getState().initialized()) {
+            ticketPool.restore(journal.getState());
+        }
+        return new TicketEvent(eventId, topicPrefix, ticketPool, config);
+    }
+}
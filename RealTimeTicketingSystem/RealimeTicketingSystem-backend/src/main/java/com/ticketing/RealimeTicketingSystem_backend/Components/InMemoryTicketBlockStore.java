@@ -0,0 +1,159 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * In-memory stand-in for the shared block store, for several nodes in one JVM.
+ * Each method updates the counters and leases under the store lock,
+ * the same single conditional update the MongoTicketBlockStore makes with a find-and-modify.
+ * Used by the LEASED inventories of a single backend, and by the tests.
+ */
+public class InMemoryTicketBlockStore implements TicketBlockStore {
+
+    private final Map<String, Counter> counters = new HashMap<>();
+    private final Map<String, Map<String, Lease>> leases = new HashMap<>();
+
+    /**
+     * Lease of a node, with the tickets of its block not reported as sold yet.
+     */
+    private record Lease(long generation, int tickets, Instant expiresAt) {
+    }
+
+    @Override
+    public synchronized Counter get(String eventId) {
+        return counters.getOrDefault(eventId, Counter.EMPTY);
+    }
+
+    @Override
+    public synchronized Counter reset(String eventId, int maxCapacity, int initialTickets) {
+        Counter current = get(eventId);
+        int released = Math.max(0, Math.min(initialTickets, maxCapacity));
+        leases.remove(eventId);
+        return update(eventId, new Counter(current.generation() + 1, current.version() + 1,
+                maxCapacity, released, released, 0, 0));
+    }
+
+    @Override
+    public synchronized Counter release(String eventId, long generation, int expectedReleased, int numTickets) {
+        Counter current = get(eventId);
+        if (current.generation() != generation || current.released() != expectedReleased
+                || current.released() + numTickets > current.maxCapacity()) {
+            return null;
+        }
+        return update(eventId, new Counter(generation, current.version() + 1, current.maxCapacity(),
+                current.released() + numTickets, current.free() + numTickets, current.sold(), current.stranded()));
+    }
+
+    @Override
+    public synchronized Counter takeFree(String eventId, long generation, int numTickets) {
+        Counter current = get(eventId);
+        if (current.generation() != generation || current.free() < numTickets) {
+            return null;
+        }
+        return update(eventId, new Counter(generation, current.version() + 1, current.maxCapacity(),
+                current.released(), current.free() - numTickets, current.sold(), current.stranded()));
+    }
+
+    @Override
+    public synchronized boolean openLease(String eventId, long generation, String nodeId, int numTickets,
+                                          Instant expiresAt) {
+        Map<String, Lease> eventLeases = leases.computeIfAbsent(eventId, id -> new HashMap<>());
+        if (get(eventId).generation() != generation || eventLeases.containsKey(nodeId)) {
+            return false;
+        }
+        eventLeases.put(nodeId, new Lease(generation, numTickets, expiresAt));
+        return true;
+    }
+
+    @Override
+    public synchronized boolean addToLease(String eventId, long generation, String nodeId, int numTickets,
+                                           Instant expiresAt) {
+        Map<String, Lease> eventLeases = leases.get(eventId);
+        Lease lease = eventLeases != null ? eventLeases.get(nodeId) : null;
+        if (lease == null || lease.generation() != generation) {
+            return false;
+        }
+        eventLeases.put(nodeId, new Lease(generation, lease.tickets() + numTickets, expiresAt));
+        return true;
+    }
+
+    @Override
+    public synchronized Counter renew(String eventId, long generation, String nodeId, int soldTickets,
+                                      Instant expiresAt) {
+        Map<String, Lease> eventLeases = leases.get(eventId);
+        Lease lease = eventLeases != null ? eventLeases.get(nodeId) : null;
+        if (lease == null || lease.generation() != generation) {
+            return null;
+        }
+        eventLeases.put(nodeId, new Lease(generation, lease.tickets() - soldTickets, expiresAt));
+        return addSold(eventId, soldTickets, 0);
+    }
+
+    @Override
+    public synchronized Counter giveBack(String eventId, long generation, String nodeId, int unsoldTickets,
+                                         int soldTickets) {
+        Map<String, Lease> eventLeases = leases.get(eventId);
+        Lease lease = eventLeases != null ? eventLeases.get(nodeId) : null;
+        if (lease == null || lease.generation() != generation) {
+            return null;
+        }
+        eventLeases.remove(nodeId);
+        return addSold(eventId, soldTickets, unsoldTickets);
+    }
+
+    @Override
+    public synchronized Counter returnSold(String eventId, long generation, int numTickets) {
+        Counter current = get(eventId);
+        if (current.generation() != generation || current.sold() < numTickets) {
+            return null;
+        }
+        return addSold(eventId, -numTickets, numTickets);
+    }
+
+    @Override
+    public synchronized Counter returnStranded(String eventId, long generation, int numTickets) {
+        Counter current = get(eventId);
+        if (current.generation() != generation || current.stranded() < numTickets) {
+            return null;
+        }
+        return update(eventId, new Counter(current.generation(), current.version() + 1, current.maxCapacity(),
+                current.released(), current.free() + numTickets, current.sold(), current.stranded() - numTickets));
+    }
+
+    @Override
+    public synchronized int reapExpired(String eventId, Instant now) {
+        Map<String, Lease> eventLeases = leases.get(eventId);
+        if (eventLeases == null) {
+            return 0;
+        }
+        int reaped = 0;
+        Iterator<Lease> iterator = eventLeases.values().iterator();
+        while (iterator.hasNext()) {
+            Lease lease = iterator.next();
+            if (lease.expiresAt().isBefore(now)) {
+                iterator.remove();
+                reaped++;
+                Counter current = get(eventId);
+                if (current.generation() == lease.generation()) {
+                    update(eventId, new Counter(current.generation(), current.version() + 1, current.maxCapacity(),
+                            current.released(), current.free(), current.sold(), current.stranded() + lease.tickets()));
+                }
+            }
+        }
+        return reaped;
+    }
+
+    private Counter addSold(String eventId, int soldTickets, int freeTickets) {
+        Counter current = get(eventId);
+        return update(eventId, new Counter(current.generation(), current.version() + 1, current.maxCapacity(),
+                current.released(), current.free() + freeTickets, current.sold() + soldTickets, current.stranded()));
+    }
+
+    private Counter update(String eventId, Counter counter) {
+        counters.put(eventId, counter);
+        return counter;
+    }
+}
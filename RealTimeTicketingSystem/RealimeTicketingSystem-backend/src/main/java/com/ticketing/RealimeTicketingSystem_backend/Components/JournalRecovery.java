@@ -0,0 +1,46 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.logging.Logger;
+
+/**
+ * Component used to restore the ticket pools from their journals at application startup.
+ * Runs before the DefaultConfig, so the pools hold the tickets released and sold before the restart
+ * by the time any simulation can be started.
+ */
+@Component
+@Order(0)
+public class JournalRecovery implements CommandLineRunner {
+
+    private static final Logger logger = Logger.getLogger(JournalRecovery.class.getName());
+
+    private final PurchaseJournal purchaseJournal;
+    private final EventRegistry eventRegistry;
+
+    /**
+     * Constructor for JournalRecovery
+     * @param purchaseJournal (journals of the ticket pools)
+     * @param eventRegistry (registry the journaled events are loaded into)
+     */
+    public JournalRecovery(PurchaseJournal purchaseJournal, EventRegistry eventRegistry) {
+        this.purchaseJournal = purchaseJournal;
+        this.eventRegistry = eventRegistry;
+    }
+
+    /**
+     * Loads every event that has a journal, the EventRegistry restores its pool while loading it.
+     * Journals of events without a saved configuration are left alone.
+     * @param args (Command line arguments)
+     */
+    @Override
+    public void run(String... args) {
+        for (String eventId : purchaseJournal.getJournaledEvents()) {
+            if (eventRegistry.getEvent(eventId) == null) {
+                logger.warning("Skipping the journal of event " + eventId + ", it has no saved configuration");
+            }
+        }
+    }
+}
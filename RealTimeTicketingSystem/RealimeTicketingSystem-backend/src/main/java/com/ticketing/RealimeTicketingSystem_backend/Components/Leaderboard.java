@@ -0,0 +1,89 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.LeaderboardEntry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ranking of customers or vendors by their ticket totals, kept up to date on every purchase or release.
+ * Totals are kept in a map by id, and the entries in a skip list ordered by total,
+ * so an update is O(log n) and the top K are the first K entries of the skip list.
+ * Updates of the same id are serialized by the map, updates of different ids run in parallel.
+ */
+public class Leaderboard {
+
+    private static final Comparator<Entry> RANKING = Comparator.comparingLong(Entry::total).reversed()
+            .thenComparing(Entry::id);
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(RANKING);
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Method to add tickets to the total of a customer or vendor.
+     * @param id (customer or vendor identifier)
+     * @param tickets (number of tickets to add)
+     */
+    public void add(String id, long tickets) {
+        entries.compute(id, (key, current) -> {
+            Entry updated = new Entry(key, current != null ? current.total() + tickets : tickets);
+            if (current != null) {
+                ranking.remove(current);
+            }
+            ranking.add(updated);
+            return updated;
+        });
+        version.incrementAndGet();
+    }
+
+    /**
+     * Method to get the highest ranked customers or vendors.
+     * @param k (number of entries to return)
+     * @return (top entries, highest total first, ties ordered by id)
+     */
+    public List<LeaderboardEntry> top(int k) {
+        List<LeaderboardEntry> top = new ArrayList<>(Math.min(Math.max(0, k), entries.size()));
+        Iterator<Entry> iterator = ranking.iterator();
+        while (top.size() < k && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            top.add(new LeaderboardEntry(top.size() + 1, entry.id(), entry.total()));
+        }
+        return top;
+    }
+
+    /**
+     * Method to get the total of a customer or vendor.
+     * @param id (customer or vendor identifier)
+     * @return (ticket total, 0 if the id has no tickets)
+     */
+    public long getTotal(String id) {
+        Entry entry = entries.get(id);
+        return entry != null ? entry.total() : 0;
+    }
+
+    /**
+     * Method to get the number of ranked customers or vendors.
+     * @return (number of entries)
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Method to get the number of updates made to the leaderboard, used to tell if the ranking changed.
+     * @return (update count)
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    private record Entry(String id, long total) {
+    }
+}
@@ -0,0 +1,156 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.Customer;
+import com.ticketing.RealimeTicketingSystem_backend.Models.LeaderboardEntry;
+import com.ticketing.RealimeTicketingSystem_backend.Models.Vendor;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Leaderboards of the customers by tickets purchased and of the vendors by tickets released.
+ * The leaderboards are updated on every purchase and release, and seeded at startup with the totals saved in MongoDB,
+ * so the top customers and vendors are read from memory instead of sorting the whole collections.
+ * When a leaderboard changed, its top "ticketing.leaderboard.push-size" entries are published
+ * to "/topic/leaderboard/customers" or "/topic/leaderboard/vendors" at most once per "ticketing.leaderboard.push-interval".
+ */
+@Component
+@Order(2)
+public class Leaderboards implements CommandLineRunner {
+
+    /**
+     * Websocket topics the leaderboards are published to.
+     */
+    public static final String CUSTOMERS_TOPIC = "/topic/leaderboard/customers";
+    public static final String VENDORS_TOPIC = "/topic/leaderboard/vendors";
+
+    private static final Logger logger = Logger.getLogger(Leaderboards.class.getName());
+
+    private final MongoTemplate mongoTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final int pushSize;
+    private final Leaderboard customers = new Leaderboard();
+    private final Leaderboard vendors = new Leaderboard();
+    private final TimingWheelScheduler.ScheduledTask pushTask;
+    private long pushedCustomersVersion;
+    private long pushedVendorsVersion;
+
+    /**
+     * Constructor for Leaderboards
+     * @param mongoTemplate (template used to read the saved totals at startup)
+     * @param messagingTemplate (messaging template the leaderboards are published with)
+     * @param scheduler (timing wheel running the publishing)
+     * @param pushInterval (time between two publications of a changed leaderboard)
+     * @param pushSize (number of entries published)
+     */
+    public Leaderboards(MongoTemplate mongoTemplate,
+                        SimpMessagingTemplate messagingTemplate,
+                        TimingWheelScheduler scheduler,
+                        @Value("${ticketing.leaderboard.push-interval:1s}") Duration pushInterval,
+                        @Value("${ticketing.leaderboard.push-size:10}") int pushSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.pushSize = Math.max(1, pushSize);
+        long interval = Math.max(1, pushInterval.toMillis());
+        this.pushTask = scheduler.scheduleRepeating(() -> {
+            pushChanged();
+            return interval;
+        }, interval);
+    }
+
+    /**
+     * Seeds the leaderboards with the totals saved in MongoDB at application startup.
+     * Only the totals are read, one batch of documents at a time.
+     * @param args (Command line arguments)
+     */
+    @Override
+    public void run(String... args) {
+        seed(Customer.class, "totalTicketsPurchased",
+                customer -> customers.add(customer.getCustomerId(), customer.getTotalTicketsPurchased()));
+        seed(Vendor.class, "totalTicketsReleased",
+                vendor -> vendors.add(vendor.getVendorId(), vendor.getTotalTicketsReleased()));
+        logger.info("Leaderboards seeded with " + customers.size() + " customers and " + vendors.size() + " vendors");
+    }
+
+    private <T> void seed(Class<T> type, String totalField, Consumer<T> add) {
+        Query query = new Query();
+        query.fields().include(totalField);
+        try (Stream<T> records = mongoTemplate.stream(query, type)) {
+            records.forEach(add);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Could not seed the " + type.getSimpleName() + " leaderboard", e);
+        }
+    }
+
+    /**
+     * Method to record tickets purchased by a customer.
+     * @param customerId (customer identifier)
+     * @param ticketsPurchased (number of tickets purchased)
+     */
+    public void recordPurchase(String customerId, int ticketsPurchased) {
+        customers.add(customerId, ticketsPurchased);
+    }
+
+    /**
+     * Method to record tickets released by a vendor.
+     * @param vendorId (vendor identifier)
+     * @param ticketsReleased (number of tickets released)
+     */
+    public void recordRelease(String vendorId, int ticketsReleased) {
+        vendors.add(vendorId, ticketsReleased);
+    }
+
+    /**
+     * Method to get the customers who purchased the most tickets.
+     * @param k (number of customers to return)
+     * @return (top customers, highest total first)
+     */
+    public List<LeaderboardEntry> topCustomers(int k) {
+        return customers.top(k);
+    }
+
+    /**
+     * Method to get the vendors who released the most tickets.
+     * @param k (number of vendors to return)
+     * @return (top vendors, highest total first)
+     */
+    public List<LeaderboardEntry> topVendors(int k) {
+        return vendors.top(k);
+    }
+
+    /**
+     * Publishes the leaderboards that changed since they were last published.
+     */
+    private void pushChanged() {
+        long customersVersion = customers.getVersion();
+        if (customersVersion != pushedCustomersVersion) {
+            pushedCustomersVersion = customersVersion;
+            messagingTemplate.convertAndSend(CUSTOMERS_TOPIC, customers.top(pushSize));
+        }
+        long vendorsVersion = vendors.getVersion();
+        if (vendorsVersion != pushedVendorsVersion) {
+            pushedVendorsVersion = vendorsVersion;
+            messagingTemplate.convertAndSend(VENDORS_TOPIC, vendors.top(pushSize));
+        }
+    }
+
+    /**
+     * Stops publishing the leaderboards when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        pushTask.cancel();
+    }
+}
@@ -0,0 +1,503 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Distributed inventory engine, for an event sold by several backend nodes at once.
+ * The node leases blocks of tickets from a shared TicketBlockStore and sells from its block with no coordination,
+ * the block remaining (high 32 bits) and the sales not reported yet (low 32 bits) are packed into a single long,
+ * so a purchase is one compare-and-set like the ATOMIC engine.
+ * Purchases never wait for the store: a background task takes a new block from the free tickets of the event
+ * once the block drops below half a block or cannot cover a purchase, and that purchase fails in the meantime.
+ * Without a scheduler the block is topped up by the purchase itself instead.
+ * A maintenance task renews the lease every third of the lease time-to-live and reports the sales,
+ * and the block is given back when the inventory is closed.
+ * The lease of a node that stops renewing it expires, and its tickets are counted as stranded and never leased again,
+ * since some of them may have been sold, so the nodes together never sell more than the maximum capacity.
+ * Every multi-step change of the store removes tickets before it adds them elsewhere,
+ * so a node failing half way loses tickets but never sells one twice.
+ * Vendors release straight into the store, and a reset by any node starts a new sale the other nodes join
+ * the next time they see the counter of the event.
+ * Each sale is tagged with the lease it was made from: claimSeats returns an empty array, like UNNUMBERED,
+ * created for each lease, and a return brings it back.
+ * Tickets of the current lease go back to the block, tickets of an older lease of the same sale go back to the store
+ * from a background task,
+ * out of the stranded tickets for the sales a lost lease never reported and out of the sold tickets for the others,
+ * and tickets of an older sale are not returned at all.
+ * The released, sold and available counts are the ones of the last counter the node saw, plus its own unreported sales.
+ * The maintenance task tells the change listener when it sees a new counter, and the background tasks when they are done,
+ * so the pool re-checks its sold out state and fills its waiting requests with the tickets that came in.
+ */
+public class LeasedTicketInventory implements TicketInventory {
+
+    private static final Logger logger = Logger.getLogger(LeasedTicketInventory.class.getName());
+    private static final Instant NEVER = Instant.parse("9999-12-31T23:59:59Z");
+
+    private final TicketBlockStore store;
+    private final String eventId;
+    private final String nodeId;
+    private final int blockSize;
+    private final Duration leaseTtl;
+    private final int lowWatermark; // Block size below which the block is topped up ahead of time
+    private final TimingWheelScheduler scheduler; // Runs the store updates of the purchases, null to run them inline
+    private final AtomicBoolean topUpScheduled = new AtomicBoolean(false);
+    private final AtomicInteger topUpWanted = new AtomicInteger(); // Largest purchase the block could not cover
+    private final AtomicLong state = new AtomicLong();
+    private final ReentrantLock leaseLock = new ReentrantLock();
+    private final TimingWheelScheduler.ScheduledTask maintenanceTask;
+    private volatile TicketBlockStore.Counter counter;
+    private volatile long generation; // Sale the block belongs to, guarded by the lease lock
+    private boolean leased; // True if the node holds a lease, guarded by the lease lock
+    private volatile boolean closed; // True once the block was given back, set under the lease lock
+    private volatile int[] saleTag = new int[0]; // Tag of the sales of the current lease, replaced when the lease ends
+    private final Map<int[], EndedLease> oldSaleTags = new ConcurrentHashMap<>(); // Each ended lease, by tag identity
+    private volatile Runnable changeListener = () -> { };
+
+    /**
+     * Constructor for LeasedTicketInventory, joins the current sale of the event in the store.
+     * @param store (shared store the blocks are leased from)
+     * @param eventId (event identifier in the store)
+     * @param nodeId (identifier of this node, a random suffix is added so a restarted node never reuses a lease)
+     * @param blockSize (number of tickets leased at a time)
+     * @param leaseTtl (time a lease lasts without being renewed, zero for leases that never expire)
+     * @param scheduler (timing wheel running the lease maintenance and the top-ups,
+     *                  null to call maintain directly and top up from the purchases)
+     */
+    public LeasedTicketInventory(TicketBlockStore store, String eventId, String nodeId, int blockSize,
+                                 Duration leaseTtl, TimingWheelScheduler scheduler) {
+        this.store = store;
+        this.eventId = eventId;
+        this.nodeId = nodeId + "#" + UUID.randomUUID().toString().substring(0, 8);
+        this.blockSize = Math.max(1, blockSize);
+        this.leaseTtl = leaseTtl;
+        this.lowWatermark = this.blockSize / 2;
+        this.scheduler = scheduler;
+        this.counter = TicketBlockStore.Counter.EMPTY;
+        adopt(store.get(eventId));
+        long interval = leaseTtl.toMillis() / 3;
+        this.maintenanceTask = scheduler != null && interval > 0
+                ? scheduler.scheduleAtInterval(() -> {
+                    maintain();
+                    return true;
+                }, interval, 0.1)
+                : null;
+    }
+
+    @Override
+    public void reset(int maxCapacity, int initialTickets) {
+        adopt(store.reset(eventId, maxCapacity, initialTickets));
+    }
+
+    @Override
+    public int release(String vendorId, int numTickets) {
+        while (true) {
+            TicketBlockStore.Counter current = store.get(eventId);
+            adopt(current);
+            int remainingCapacity = current.maxCapacity() - current.released();
+            if (remainingCapacity <= 0) {
+                return 0;
+            }
+
+            int ticketsToAdd = Math.min(numTickets, remainingCapacity);
+            TicketBlockStore.Counter updated = store.release(eventId, current.generation(), current.released(), ticketsToAdd);
+            if (updated != null) {
+                adopt(updated);
+                return ticketsToAdd;
+            }
+        }
+    }
+
+    @Override
+    public boolean reserve(String customerId, int numTickets) {
+        return claimSeats(customerId, numTickets) != null;
+    }
+
+    /**
+     * Method to reserve tickets for a customer, tagged with the lease they were sold from.
+     * @param customerId (customer identifier)
+     * @param numTickets (number of tickets to reserve)
+     * @return (empty array tagging the lease, to pass back to returnTickets, null if not enough are available)
+     */
+    @Override
+    public int[] claimSeats(String customerId, int numTickets) {
+        boolean toppedUp = false;
+        while (true) {
+            if (closed) {
+                return null;
+            }
+            // Read before the sale, so a sale is never tagged with a newer lease than the one it is made from
+            int[] tag = saleTag;
+            long current = state.get();
+            int block = block(current);
+            if (block < numTickets) {
+                if (scheduler == null && !toppedUp) {
+                    toppedUp = true;
+                    topUp(numTickets);
+                    continue;
+                }
+                scheduleTopUp(numTickets);
+                return null;
+            }
+            if (state.compareAndSet(current, pack(block - numTickets, unreported(current) + numTickets))) {
+                if (block - numTickets < lowWatermark) {
+                    scheduleTopUp(0);
+                }
+                return tag;
+            }
+        }
+    }
+
+    @Override
+    public void returnTickets(String customerId, int[] seats, int numTickets) {
+        if (scheduler == null) {
+            returnNow(customerId, seats, numTickets);
+            return;
+        }
+        // The lease lock is held over the store calls, the caller never waits for it
+        if (leaseLock.tryLock()) {
+            try {
+                if (seats == saleTag) {
+                    addToState(numTickets, -numTickets);
+                    return;
+                }
+            } finally {
+                leaseLock.unlock();
+            }
+        }
+        scheduler.schedule(() -> {
+            try {
+                returnNow(customerId, seats, numTickets);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Could not return the tickets of customer " + customerId + " for event "
+                        + eventId, e);
+            }
+            changeListener.run();
+        }, 0);
+    }
+
+    /**
+     * Returns tickets to the block if they were sold from the current lease, to the store otherwise.
+     * @param customerId (customer identifier)
+     * @param seats (tag of the lease the tickets were sold from)
+     * @param numTickets (number of tickets to return)
+     */
+    private void returnNow(String customerId, int[] seats, int numTickets) {
+        leaseLock.lock();
+        try {
+            if (seats == saleTag) {
+                addToState(numTickets, -numTickets);
+                return;
+            }
+            EndedLease ended = oldSaleTags.get(seats);
+            if (ended == null || ended.generation != generation) {
+                logger.warning("Tickets of customer " + customerId + " were sold in an older sale of event " + eventId
+                        + ", they are not returned");
+                return;
+            }
+            // Sold from a lease that has ended, the unreported sales of a lost lease are counted as stranded
+            int fromStranded = Math.min(numTickets, ended.strandedSales);
+            if (fromStranded > 0) {
+                TicketBlockStore.Counter updated = store.returnStranded(eventId, ended.generation, fromStranded);
+                if (updated == null) {
+                    logger.warning("Tickets of customer " + customerId + " are not counted as stranded yet for event "
+                            + eventId + ", they are not returned");
+                    return;
+                }
+                ended.strandedSales -= fromStranded;
+                adopt(updated);
+            }
+            if (numTickets > fromStranded) {
+                TicketBlockStore.Counter updated = store.returnSold(eventId, ended.generation, numTickets - fromStranded);
+                if (updated == null) {
+                    logger.warning("Tickets of customer " + customerId + " are not counted as sold for event "
+                            + eventId + ", they are not returned");
+                }
+                adopt(updated);
+            }
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    @Override
+    public int getAvailable() {
+        return block(state.get()) + counter.free();
+    }
+
+    @Override
+    public int getReleased() {
+        return counter.released();
+    }
+
+    @Override
+    public int getSold() {
+        return counter.sold() + unreported(state.get());
+    }
+
+    @Override
+    public int getMaxCapacity() {
+        return counter.maxCapacity();
+    }
+
+    /**
+     * Method to check if tickets can still come back to the inventory, from the store or the open leases.
+     * @return (true if the last counter seen has free tickets or tickets in open leases)
+     */
+    @Override
+    public boolean hasTicketsElsewhere() {
+        TicketBlockStore.Counter current = counter;
+        int leasedTickets = current.released() - current.free() - current.sold() - current.stranded();
+        return current.free() > 0 || leasedTickets > 0;
+    }
+
+    @Override
+    public void setChangeListener(Runnable listener) {
+        this.changeListener = listener;
+    }
+
+    /**
+     * Method to reap the expired leases of the event, renew the lease of the node and report its sales.
+     * Run every third of the lease time-to-live, a node that loses its lease drops its block.
+     * Tells the change listener once the locks are released if a new counter was seen.
+     */
+    void maintain() {
+        TicketBlockStore.Counter before = counter;
+        try {
+            store.reapExpired(eventId, Instant.now());
+            leaseLock.lock();
+            try {
+                if (leased) {
+                    int sold = unreported(state.get());
+                    TicketBlockStore.Counter renewed = store.renew(eventId, generation, nodeId, sold, expiresAt());
+                    if (renewed == null) {
+                        logger.warning("Lease of node " + nodeId + " on event " + eventId + " was lost, dropping its block");
+                        dropBlock(generation);
+                    } else {
+                        addToState(0, -sold);
+                        adopt(renewed);
+                    }
+                }
+                adopt(store.get(eventId));
+            } finally {
+                leaseLock.unlock();
+            }
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Lease maintenance of event " + eventId + " failed", e);
+        }
+        if (counter != before) {
+            changeListener.run();
+        }
+    }
+
+    /**
+     * Method to stop the lease maintenance and give the unsold tickets of the block back to the store.
+     * No lease is taken after that, purchases fail once the inventory is closed.
+     */
+    @Override
+    public void close() {
+        if (maintenanceTask != null) {
+            maintenanceTask.cancel();
+        }
+        leaseLock.lock();
+        try {
+            closed = true;
+            if (leased) {
+                long current = state.getAndSet(0);
+                // Ends the lease first, the block is lost if the store cannot be updated
+                EndedLease ended = dropBlock(generation);
+                // The sales stay counted as stranded unless the store takes the report
+                ended.strandedSales = unreported(current);
+                TicketBlockStore.Counter givenBack = store.giveBack(eventId, generation, nodeId, block(current),
+                        unreported(current));
+                if (givenBack != null) {
+                    ended.strandedSales = 0;
+                }
+                adopt(givenBack);
+            }
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Could not give the block of event " + eventId + " back, it will expire", e);
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    /**
+     * Method to get the identifier the lease of this node is stored under.
+     * @return (node identifier with its random suffix)
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Schedules a background top-up of the block, unless one is scheduled already.
+     * The prefetch of a block below the low watermark is skipped while the last counter seen has no free tickets.
+     * @param numTickets (number of tickets of the purchase the block could not cover, 0 to top up ahead of time)
+     */
+    private void scheduleTopUp(int numTickets) {
+        if (scheduler == null || closed || (numTickets == 0 && counter.free() == 0)) {
+            return;
+        }
+        topUpWanted.accumulateAndGet(numTickets, Math::max);
+        if (topUpScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::runTopUp, 0);
+        }
+    }
+
+    /**
+     * Tops the block up to a full block, or to the largest purchase it could not cover,
+     * and tells the change listener if tickets were added so the waiting requests are filled.
+     */
+    private void runTopUp() {
+        topUpScheduled.set(false);
+        int wanted = topUpWanted.getAndSet(0);
+        int before = block(state.get());
+        try {
+            topUp(Math.max(wanted, blockSize));
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Could not top the block of event " + eventId + " up", e);
+        }
+        if (block(state.get()) > before) {
+            changeListener.run();
+        }
+    }
+
+    /**
+     * Takes free tickets from the store into the block until it covers a purchase, a block at a time.
+     * Takes what is free if that is less, so the last tickets of the event are leased too.
+     * Only one thread of the node tops up at a time, the others find the block topped up when they get the lock.
+     * @param numTickets (number of tickets the block must cover)
+     * @return (true if the block now covers the purchase, false if not enough tickets are free or the inventory is closed)
+     */
+    private boolean topUp(int numTickets) {
+        leaseLock.lock();
+        try {
+            while (true) {
+                if (closed) {
+                    return false;
+                }
+                int needed = numTickets - block(state.get());
+                if (needed <= 0) {
+                    return true;
+                }
+                TicketBlockStore.Counter current = store.get(eventId);
+                adopt(current);
+                if (current.generation() != generation || current.free() == 0) {
+                    return false;
+                }
+
+                int ticketsToTake = Math.min(Math.max(blockSize, needed), current.free());
+                TicketBlockStore.Counter taken = store.takeFree(eventId, generation, ticketsToTake);
+                if (taken == null) {
+                    continue;
+                }
+                adopt(taken);
+                boolean added = leased
+                        ? store.addToLease(eventId, generation, nodeId, ticketsToTake, expiresAt())
+                        : store.openLease(eventId, generation, nodeId, ticketsToTake, expiresAt());
+                if (!added) {
+                    // The lease expired or the sale changed, the tickets taken are lost rather than sold twice
+                    dropBlock(generation);
+                    continue;
+                }
+                leased = true;
+                addToState(ticketsToTake, 0);
+            }
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    /**
+     * Keeps the newest counter seen, and joins the sale of the counter if it is a new one.
+     * @param newCounter (counter returned by the store, ignored if null)
+     */
+    private void adopt(TicketBlockStore.Counter newCounter) {
+        if (newCounter == null) {
+            return;
+        }
+        leaseLock.lock();
+        try {
+            if (newCounter.generation() > generation) {
+                dropBlock(newCounter.generation());
+            }
+            TicketBlockStore.Counter current = counter;
+            if (newCounter.generation() == generation
+                    && (newCounter.generation() > current.generation() || newCounter.version() > current.version())) {
+                counter = newCounter;
+            }
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    /**
+     * Drops the block and the unreported sales of the node, its lease is gone or belongs to an old sale.
+     * The unreported sales are counted as stranded by the store once the lease expires.
+     * The sales of the lease get a new tag, returns of the old one go to the store.
+     * Called with the lease lock held.
+     * @param newGeneration (sale the node sells from now on)
+     * @return (the ended lease)
+     */
+    private EndedLease dropBlock(long newGeneration) {
+        EndedLease ended = new EndedLease(generation, unreported(state.getAndSet(0)));
+        leased = false;
+        oldSaleTags.put(saleTag, ended);
+        if (newGeneration != generation) {
+            // Tickets of an older sale are never returned, their tags are forgotten
+            oldSaleTags.values().removeIf(lease -> lease.generation < newGeneration);
+        }
+        saleTag = new int[0];
+        generation = newGeneration;
+        return ended;
+    }
+
+    private void addToState(int blockDelta, int unreportedDelta) {
+        while (true) {
+            long current = state.get();
+            if (state.compareAndSet(current, pack(block(current) + blockDelta, unreported(current) + unreportedDelta))) {
+                return;
+            }
+        }
+    }
+
+    private Instant expiresAt() {
+        return leaseTtl.isZero() || leaseTtl.isNegative() ? NEVER : Instant.now().plus(leaseTtl);
+    }
+
+    /**
+     * Lease the node no longer holds, with the sales the store counts as stranded rather than sold.
+     * Guarded by the lease lock.
+     */
+    private static final class EndedLease {
+        private final long generation; // Sale the lease belonged to
+        private int strandedSales; // Sales never reported, not returned yet
+
+        EndedLease(long generation, int strandedSales) {
+            this.generation = generation;
+            this.strandedSales = strandedSales;
+        }
+    }
+
+    private static long pack(int block, int unreported) {
+        return ((long) block << 32) | (unreported & 0xFFFFFFFFL);
+    }
+
+    private static int block(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static int unreported(long state) {
+        return (int) state;
+    }
+}
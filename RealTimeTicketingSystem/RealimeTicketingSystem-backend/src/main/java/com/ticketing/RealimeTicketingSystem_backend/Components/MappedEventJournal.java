@@ -0,0 +1,296 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal of one event, appended to a memory-mapped file of fixed-size records.
+ * Appending only writes to the mapped memory, the records are forced to disk in groups by commit,
+ * which the PurchaseJournal calls every "ticketing.journal.commit-interval".
+ * A snapshot of the counts is written next to the journal by snapshot, after which the journal starts over,
+ * so the file never fills up and recovery only replays the records since the last snapshot.
+ *
+ * Record layout, 32 bytes: sequence (8), time (8), type (4), count (4), max capacity (4), CRC32C of the first 28 bytes (4).
+ * Recovery stops at the first record that fails its checksum or does not follow the previous sequence number,
+ * which is where the journal was last written before a crash or a snapshot.
+ */
+class MappedEventJournal implements EventJournal {
+
+    private static final Logger logger = Logger.getLogger(MappedEventJournal.class.getName());
+
+    static final int RECORD_SIZE = 32;
+    private static final int SNAPSHOT_SIZE = 40;
+    private static final int SNAPSHOT_MAGIC = 0x54534e50; // "TSNP"
+
+    private static final int INITIALIZE = 1;
+    private static final int RELEASE = 2;
+    private static final int PURCHASE = 3;
+
+    private final Path journalFile;
+    private final Path snapshotFile;
+    private final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ByteBuffer scratch = ByteBuffer.allocate(RECORD_SIZE);
+    private final CRC32C crc = new CRC32C();
+
+    // Guarded by the append lock
+    private int position;
+    private int committedPosition;
+    private long generation;
+    private State state;
+    private boolean closed;
+
+    // Only one commit forces the file at a time
+    private final ReentrantLock commitLock = new ReentrantLock();
+
+    /**
+     * Opens the journal of an event, rebuilding its state from the snapshot and the records after it.
+     * @param journalFile (file of the records)
+     * @param snapshotFile (file of the last snapshot)
+     * @param capacity (number of records the file holds)
+     * @throws IOException (if the files cannot be read or mapped)
+     */
+    MappedEventJournal(Path journalFile, Path snapshotFile, int capacity) throws IOException {
+        this.journalFile = journalFile;
+        this.snapshotFile = snapshotFile;
+        this.capacity = capacity;
+        this.channel = FileChannel.open(journalFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE);
+        this.state = readSnapshot(snapshotFile);
+        replay();
+        this.committedPosition = position;
+    }
+
+    @Override
+    public void recordInitialize(int maxCapacity, int initialTickets) {
+        append(INITIALIZE, initialTickets, maxCapacity);
+    }
+
+    @Override
+    public void recordRelease(int numTickets) {
+        append(RELEASE, numTickets, 0);
+    }
+
+    @Override
+    public void recordPurchase(int numTickets) {
+        append(PURCHASE, numTickets, 0);
+    }
+
+    @Override
+    public State getState() {
+        appendLock.lock();
+        try {
+            return state;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Appends a record and applies it to the state.
+     * Takes a snapshot first when the file is full, so the record always fits.
+     */
+    private void append(int type, int count, int maxCapacity) {
+        appendLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            if (position == capacity) {
+                snapshotLocked();
+            }
+
+            long sequence = state.sequence() + 1;
+            scratch.clear();
+            scratch.putLong(sequence).putLong(System.currentTimeMillis()).putInt(type).putInt(count).putInt(maxCapacity);
+            crc.reset();
+            crc.update(scratch.array(), 0, RECORD_SIZE - 4);
+            scratch.putInt((int) crc.getValue());
+            buffer.put(position * RECORD_SIZE, scratch.array(), 0, RECORD_SIZE);
+            position++;
+            state = apply(state, sequence, type, count, maxCapacity);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private static State apply(State state, long sequence, int type, int count, int maxCapacity) {
+        return switch (type) {
+            case INITIALIZE -> new State(sequence, true, maxCapacity, count, 0);
+            case RELEASE -> new State(sequence, state.initialized(), state.maxCapacity(), state.released() + count, state.sold());
+            case PURCHASE -> new State(sequence, state.initialized(), state.maxCapacity(), state.released(), state.sold() + count);
+            default -> new State(sequence, state.initialized(), state.maxCapacity(), state.released(), state.sold());
+        };
+    }
+
+    /**
+     * Applies the records following the snapshot, stops at the first record that does not follow on.
+     */
+    private void replay() {
+        byte[] record = new byte[RECORD_SIZE];
+        ByteBuffer view = ByteBuffer.wrap(record);
+        while (position < capacity) {
+            buffer.get(position * RECORD_SIZE, record);
+            crc.reset();
+            crc.update(record, 0, RECORD_SIZE - 4);
+            long sequence = view.getLong(0);
+            if (view.getInt(RECORD_SIZE - 4) != (int) crc.getValue() || sequence != state.sequence() + 1) {
+                break;
+            }
+            state = apply(state, sequence, view.getInt(16), view.getInt(20), view.getInt(24));
+            position++;
+        }
+        if (position > 0) {
+            logger.info("Replayed " + position + " journal records from " + journalFile.getFileName());
+        }
+    }
+
+    /**
+     * Method to force the records appended since the last commit to disk.
+     * Only the part of the file written since the last commit is forced.
+     */
+    @Override
+    public void commit() {
+        commitLock.lock();
+        try {
+            int start;
+            int end;
+            long commitGeneration;
+            appendLock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                start = committedPosition;
+                end = position;
+                commitGeneration = generation;
+            } finally {
+                appendLock.unlock();
+            }
+            if (end > start) {
+                buffer.force(start * RECORD_SIZE, (end - start) * RECORD_SIZE);
+            }
+            appendLock.lock();
+            try {
+                // A snapshot taken meanwhile already forced the journal and started it over
+                if (generation == commitGeneration) {
+                    committedPosition = end;
+                }
+            } finally {
+                appendLock.unlock();
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Method to write a snapshot of the state and start the journal over.
+     */
+    void snapshot() {
+        appendLock.lock();
+        try {
+            if (!closed && position > 0) {
+                snapshotLocked();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void snapshotLocked() {
+        // Records before the snapshot must be on disk before the journal is overwritten
+        buffer.force(0, position * RECORD_SIZE);
+        writeSnapshot(snapshotFile, state);
+        position = 0;
+        committedPosition = 0;
+        generation++;
+    }
+
+    /**
+     * Method to get the number of records appended since the last snapshot.
+     * @return (records in the journal)
+     */
+    int getRecords() {
+        appendLock.lock();
+        try {
+            return position;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        commit();
+        appendLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private static void writeSnapshot(Path snapshotFile, State state) {
+        ByteBuffer snapshot = ByteBuffer.allocate(SNAPSHOT_SIZE);
+        snapshot.putInt(SNAPSHOT_MAGIC).putLong(state.sequence()).putInt(state.initialized() ? 1 : 0)
+                .putInt(state.maxCapacity()).putInt(state.released()).putInt(state.sold())
+                .putLong(System.currentTimeMillis());
+        CRC32C crc = new CRC32C();
+        crc.update(snapshot.array(), 0, SNAPSHOT_SIZE - 4);
+        snapshot.putInt((int) crc.getValue());
+        snapshot.flip();
+
+        Path temporaryFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (snapshot.hasRemaining()) {
+                out.write(snapshot);
+            }
+            out.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static State readSnapshot(Path snapshotFile) throws IOException {
+        if (!Files.exists(snapshotFile)) {
+            return State.EMPTY;
+        }
+        byte[] bytes = Files.readAllBytes(snapshotFile);
+        ByteBuffer snapshot = ByteBuffer.wrap(bytes);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, Math.max(0, Math.min(bytes.length, SNAPSHOT_SIZE) - 4));
+        if (bytes.length != SNAPSHOT_SIZE || snapshot.getInt(0) != SNAPSHOT_MAGIC
+                || snapshot.getInt(SNAPSHOT_SIZE - 4) != (int) crc.getValue()) {
+            throw new IOException("Corrupt journal snapshot " + snapshotFile);
+        }
+        return new State(snapshot.getLong(4), snapshot.getInt(12) == 1,
+                snapshot.getInt(16), snapshot.getInt(20), snapshot.getInt(24));
+    }
+}
@@ -0,0 +1,180 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Block store shared by the backend nodes through MongoDB.
+ * The counter of an event is a document of "ticketBlockCounters" keyed by event id,
+ * and the lease of a node a document of "ticketBlockLeases" keyed by event id and node id.
+ * Every change is one findAndModify of a single document, with the expected generation and counts in its query,
+ * so concurrent changes of several nodes are serialized by MongoDB.
+ */
+@Component
+public class MongoTicketBlockStore implements TicketBlockStore {
+
+    static final String COUNTERS = "ticketBlockCounters";
+    static final String LEASES = "ticketBlockLeases";
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructor for MongoTicketBlockStore
+     * @param mongoTemplate (template used for the find-and-modify updates)
+     */
+    public MongoTicketBlockStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Counter get(String eventId) {
+        Document counter = mongoTemplate.findById(eventId, Document.class, COUNTERS);
+        return counter != null ? toCounter(counter) : Counter.EMPTY;
+    }
+
+    @Override
+    public Counter reset(String eventId, int maxCapacity, int initialTickets) {
+        int released = Math.max(0, Math.min(initialTickets, maxCapacity));
+        Update update = new Update()
+                .inc("generation", 1L)
+                .inc("version", 1L)
+                .set("maxCapacity", maxCapacity)
+                .set("released", released)
+                .set("free", released)
+                .set("sold", 0)
+                .set("stranded", 0);
+        Document counter = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(eventId)), update,
+                FindAndModifyOptions.options().returnNew(true).upsert(true), Document.class, COUNTERS);
+        mongoTemplate.remove(Query.query(Criteria.where("eventId").is(eventId)
+                .and("generation").lt(toCounter(counter).generation())), LEASES);
+        return toCounter(counter);
+    }
+
+    @Override
+    public Counter release(String eventId, long generation, int expectedReleased, int numTickets) {
+        Query query = counterQuery(eventId, generation).addCriteria(Criteria.where("released").is(expectedReleased)
+                .and("maxCapacity").gte(expectedReleased + numTickets));
+        Update update = new Update().inc("released", numTickets).inc("free", numTickets).inc("version", 1L);
+        return updateCounter(query, update);
+    }
+
+    @Override
+    public Counter takeFree(String eventId, long generation, int numTickets) {
+        Query query = counterQuery(eventId, generation).addCriteria(Criteria.where("free").gte(numTickets));
+        Update update = new Update().inc("free", -numTickets).inc("version", 1L);
+        return updateCounter(query, update);
+    }
+
+    @Override
+    public boolean openLease(String eventId, long generation, String nodeId, int numTickets, Instant expiresAt) {
+        if (get(eventId).generation() != generation) {
+            return false;
+        }
+        Document lease = new Document("_id", leaseId(eventId, nodeId))
+                .append("eventId", eventId)
+                .append("nodeId", nodeId)
+                .append("generation", generation)
+                .append("tickets", numTickets)
+                .append("expiresAt", Date.from(expiresAt));
+        try {
+            mongoTemplate.insert(lease, LEASES);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean addToLease(String eventId, long generation, String nodeId, int numTickets, Instant expiresAt) {
+        Update update = new Update().inc("tickets", numTickets).set("expiresAt", Date.from(expiresAt));
+        return mongoTemplate.findAndModify(leaseQuery(eventId, generation, nodeId), update,
+                RETURN_NEW, Document.class, LEASES) != null;
+    }
+
+    @Override
+    public Counter renew(String eventId, long generation, String nodeId, int soldTickets, Instant expiresAt) {
+        Update update = new Update().inc("tickets", -soldTickets).set("expiresAt", Date.from(expiresAt));
+        Document lease = mongoTemplate.findAndModify(leaseQuery(eventId, generation, nodeId), update,
+                RETURN_NEW, Document.class, LEASES);
+        if (lease == null) {
+            return null;
+        }
+        return updateCounter(counterQuery(eventId, generation),
+                new Update().inc("sold", soldTickets).inc("version", 1L));
+    }
+
+    @Override
+    public Counter giveBack(String eventId, long generation, String nodeId, int unsoldTickets, int soldTickets) {
+        Document lease = mongoTemplate.findAndRemove(leaseQuery(eventId, generation, nodeId), Document.class, LEASES);
+        if (lease == null) {
+            return null;
+        }
+        return updateCounter(counterQuery(eventId, generation),
+                new Update().inc("free", unsoldTickets).inc("sold", soldTickets).inc("version", 1L));
+    }
+
+    @Override
+    public Counter returnSold(String eventId, long generation, int numTickets) {
+        Query query = counterQuery(eventId, generation).addCriteria(Criteria.where("sold").gte(numTickets));
+        Update update = new Update().inc("sold", -numTickets).inc("free", numTickets).inc("version", 1L);
+        return updateCounter(query, update);
+    }
+
+    @Override
+    public Counter returnStranded(String eventId, long generation, int numTickets) {
+        Query query = counterQuery(eventId, generation).addCriteria(Criteria.where("stranded").gte(numTickets));
+        Update update = new Update().inc("stranded", -numTickets).inc("free", numTickets).inc("version", 1L);
+        return updateCounter(query, update);
+    }
+
+    @Override
+    public int reapExpired(String eventId, Instant now) {
+        Query expired = Query.query(Criteria.where("eventId").is(eventId).and("expiresAt").lt(Date.from(now)));
+        int reaped = 0;
+        Document lease;
+        while ((lease = mongoTemplate.findAndRemove(expired, Document.class, LEASES)) != null) {
+            reaped++;
+            updateCounter(counterQuery(eventId, number(lease, "generation")),
+                    new Update().inc("stranded", (int) number(lease, "tickets")).inc("version", 1L));
+        }
+        return reaped;
+    }
+
+    private Counter updateCounter(Query query, Update update) {
+        Document counter = mongoTemplate.findAndModify(query, update, RETURN_NEW, Document.class, COUNTERS);
+        return counter != null ? toCounter(counter) : null;
+    }
+
+    private static Query counterQuery(String eventId, long generation) {
+        return Query.query(Criteria.where("_id").is(eventId).and("generation").is(generation));
+    }
+
+    private static Query leaseQuery(String eventId, long generation, String nodeId) {
+        return Query.query(Criteria.where("_id").is(leaseId(eventId, nodeId)).and("generation").is(generation));
+    }
+
+    private static String leaseId(String eventId, String nodeId) {
+        return eventId + "/" + nodeId;
+    }
+
+    private static Counter toCounter(Document counter) {
+        return new Counter(number(counter, "generation"), number(counter, "version"),
+                (int) number(counter, "maxCapacity"), (int) number(counter, "released"), (int) number(counter, "free"),
+                (int) number(counter, "sold"), (int) number(counter, "stranded"));
+    }
+
+    private static long number(Document document, String field) {
+        Object value = document.get(field);
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+}
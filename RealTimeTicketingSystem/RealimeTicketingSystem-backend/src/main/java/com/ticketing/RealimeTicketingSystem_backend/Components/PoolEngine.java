@@ -0,0 +1,62 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import java.time.Duration;
+
+/**
+ * Inventory engines that can back the TicketPool.
+ * Selected with the "ticketing.pool.engine" application property.
+ */
+public enum PoolEngine {
+
+    /**
+     * Original engine, a synchronized list holding one entry per ticket.
+     */
+    SYNCHRONIZED,
+
+    /**
+     * Lock-free engine, released and sold counts updated with compare-and-set.
+     */
+    ATOMIC,
+
+    /**
+     * Striped engine, one sub-pool per core with work stealing between them.
+     */
+    SHARDED,
+
+    /**
+     * Seat-level engine, numbered seats with free seats kept in a bitmap.
+     */
+    SEAT_MAP,
+
+    /**
+     * Single-writer engine, one owner thread applies every change submitted through a command queue.
+     */
+    ACTOR,
+
+    /**
+     * Distributed engine, each node sells from blocks of tickets leased from a shared block store.
+     */
+    LEASED;
+
+    /**
+     * Number of tickets leased at a time by an inventory created with newInventory.
+     */
+    private static final int LOCAL_BLOCK_SIZE = 64;
+
+    /**
+     * Method to create a new, empty inventory for this engine.
+     * A LEASED inventory created here leases from a store of its own, the EventRegistry shares one between the events.
+     * @return (new inventory)
+     */
+    public TicketInventory newInventory() {
+        return switch (this) {
+            case SYNCHRONIZED -> new SynchronizedTicketInventory();
+            case ATOMIC -> new AtomicTicketInventory();
+            case SHARDED -> new ShardedTicketInventory(Runtime.getRuntime().availableProcessors());
+            case SEAT_MAP -> new SeatMapTicketInventory();
+            case ACTOR -> new ActorTicketInventory();
+            case LEASED -> new LeasedTicketInventory(new InMemoryTicketBlockStore(), TicketEvent.DEFAULT_EVENT, "local",
+                    LOCAL_BLOCK_SIZE, Duration.ZERO, null);
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.PurchaseResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Micrometer meters of the ticket pool of one event, tagged with the event id.
+ * Timers publish percentile histograms, so the latency percentiles can be computed by Prometheus.
+ * The meters are removed from the registry when the event is evicted.
+ */
+public class PoolMetrics {
+
+    private final MeterRegistry registry;
+    private final String eventId;
+    private final List<Meter> meters = new ArrayList<>();
+    private final Timer purchaseTimer;
+    private final Timer releaseTimer;
+    private final Timer lockHoldTimer;
+    private final Counter admittedCounter;
+    private final Counter rejectedCounter;
+    private final Map<PurchaseResult.Status, Timer> queueWaitTimers = new EnumMap<>(PurchaseResult.Status.class);
+
+    /**
+     * Constructor for PoolMetrics
+     * @param registry (registry the meters are registered in)
+     * @param eventId (event the ticket pool belongs to)
+     */
+    public PoolMetrics(MeterRegistry registry, String eventId) {
+        this.registry = registry;
+        this.eventId = eventId;
+        this.purchaseTimer = timer("ticketing.pool.purchase", "Time taken by a purchase call, including any wait");
+        this.releaseTimer = timer("ticketing.pool.release", "Time taken to release tickets and fill waiting requests");
+        this.lockHoldTimer = timer("ticketing.pool.queue.lock.hold", "Time the purchase queue lock is held");
+        this.admittedCounter = admissionCounter("admitted");
+        this.rejectedCounter = admissionCounter("rejected");
+        for (PurchaseResult.Status status : PurchaseResult.Status.values()) {
+            queueWaitTimers.put(status, add(Timer.builder("ticketing.pool.queue.wait")
+                    .description("Time purchase requests spend waiting in the queue")
+                    .tag("event", eventId)
+                    .tag("status", status.name())
+                    .publishPercentileHistogram()
+                    .register(registry)));
+        }
+    }
+
+    /**
+     * Method to register the gauges of a ticket pool.
+     * @param pool (ticket pool to observe)
+     */
+    void registerGauges(TicketPool pool) {
+        gauge("ticketing.pool.available", "Tickets available in the pool", pool, TicketPool::getRemainingTickets);
+        gauge("ticketing.pool.waiting", "Purchase requests waiting for tickets", pool, TicketPool::getWaitingRequests);
+        gauge("ticketing.pool.held", "Tickets held for customers and not yet confirmed", pool, TicketPool::getHeldTickets);
+        gauge("ticketing.pool.released", "Tickets released since the pool was initialized", pool, TicketPool::getTotalTicketsReleased);
+        gauge("ticketing.pool.sold", "Tickets sold since the pool was initialized", pool, TicketPool::getTotalTicketsSold);
+    }
+
+    /**
+     * Method to remove the meters of the pool from the registry.
+     */
+    public void remove() {
+        synchronized (meters) {
+            meters.forEach(registry::remove);
+            meters.clear();
+        }
+    }
+
+    void recordPurchase(long startNanos) {
+        purchaseTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordRelease(long startNanos) {
+        releaseTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordLockHold(long startNanos) {
+        lockHoldTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordAdmission(boolean admitted) {
+        (admitted ? admittedCounter : rejectedCounter).increment();
+    }
+
+    void recordQueueWait(PurchaseResult.Status status, long enqueuedNanos) {
+        queueWaitTimers.get(status).record(System.nanoTime() - enqueuedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String name, String description) {
+        return add(Timer.builder(name)
+                .description(description)
+                .tag("event", eventId)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    private Counter admissionCounter(String outcome) {
+        return add(Counter.builder("ticketing.pool.admission")
+                .description("Purchase requests admitted to or rejected from the queue")
+                .tag("event", eventId)
+                .tag("outcome", outcome)
+                .register(registry));
+    }
+
+    private void gauge(String name, String description, TicketPool pool, ToDoubleFunction<TicketPool> value) {
+        add(Gauge.builder(name, pool, value)
+                .description(description)
+                .tag("event", eventId)
+                .register(registry));
+    }
+
+    private <T extends Meter> T add(T meter) {
+        synchronized (meters) {
+            meters.add(meter);
+        }
+        return meter;
+    }
+}
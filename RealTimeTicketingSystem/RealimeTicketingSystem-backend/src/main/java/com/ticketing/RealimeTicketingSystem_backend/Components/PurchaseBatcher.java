@@ -0,0 +1,247 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.PurchaseLine;
+import com.ticketing.RealimeTicketingSystem_backend.Models.PurchaseResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Group commit of the purchases made over HTTP.
+ * Purchase requests are queued, and a single committer thread takes every request that arrives
+ * within "ticketing.purchases.commit-window" of the first one, up to "ticketing.purchases.max-batch-lines" lines.
+ * The lines of the whole group are applied to the ticket pools in arrival order, the journals they touched
+ * are forced to disk once, and the purchases are recorded in the write-behind store once per customer,
+ * before any request of the group gets its results.
+ * Once the tickets are taken out of the pools the sales are real, so a step recording them that fails
+ * is retried until it succeeds, and each request still gets the real result of its lines.
+ * A line whose purchase throws gets a FAILED result, the other lines of its request keep their results.
+ */
+@Component
+public class PurchaseBatcher {
+
+    private static final Logger logger = Logger.getLogger(PurchaseBatcher.class.getName());
+    private static final long MAX_RETRY_DELAY_MILLIS = 1000;
+
+    private final WriteBehindStore writeBehindStore;
+    private final Leaderboards leaderboards;
+    private final PurchasePipeline pipeline;
+    private final long commitWindowNanos;
+    private final int maxBatchLines;
+    private final BlockingQueue<PendingPurchase> queue = new LinkedBlockingQueue<>();
+    private final Thread committer;
+    private final Timer commitTimer;
+    private final DistributionSummary groupSize;
+    private volatile boolean running = true;
+
+    /**
+     * Constructor for PurchaseBatcher
+     * @param writeBehindStore (store the purchases of the customers are recorded in)
+     * @param leaderboards (leaderboards ranking the customers by tickets purchased)
+     * @param pipeline (pipeline journaling the purchases)
+     * @param meterRegistry (registry of the group commit meters)
+     * @param commitWindow (time the committer waits for more requests after the first one)
+     * @param maxBatchLines (number of purchase lines that commits a group straight away)
+     */
+    public PurchaseBatcher(WriteBehindStore writeBehindStore,
+                           Leaderboards leaderboards,
+                           PurchasePipeline pipeline,
+                           MeterRegistry meterRegistry,
+                           @Value("${ticketing.purchases.commit-window:2ms}") Duration commitWindow,
+                           @Value("${ticketing.purchases.max-batch-lines:1000}") int maxBatchLines) {
+        this.writeBehindStore = writeBehindStore;
+        this.leaderboards = leaderboards;
+        this.pipeline = pipeline;
+        this.commitWindowNanos = Math.max(0, commitWindow.toNanos());
+        this.maxBatchLines = Math.max(1, maxBatchLines);
+        this.commitTimer = Timer.builder("ticketing.purchases.commit")
+                .description("Time taken to apply and commit a group of purchase requests")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.groupSize = DistributionSummary.builder("ticketing.purchases.group.lines")
+                .description("Purchase lines committed together")
+                .register(meterRegistry);
+        this.committer = new Thread(this::runCommitter, "purchase-committer");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    /**
+     * Method to purchase tickets of an event for several customers.
+     * Lines are purchased straight away or not at all, nobody waits for vendors to release tickets.
+     * @param event (event the tickets are purchased from)
+     * @param lines (customers and quantities to purchase)
+     * @return (future completed with one result per line, in the order of the lines, once the group is committed)
+     */
+    public CompletableFuture<List<PurchaseResult>> purchase(TicketEvent event, List<PurchaseLine> lines) {
+        PendingPurchase purchase = new PendingPurchase(event, lines);
+        // The event is not evicted while the purchase waits for its group
+        event.retain();
+        purchase.future.whenComplete((results, failure) -> event.release());
+        if (!running) {
+            purchase.future.completeExceptionally(new IllegalStateException("Purchases are shutting down"));
+        } else {
+            queue.add(purchase);
+        }
+        return purchase.future;
+    }
+
+    /**
+     * Committer loop, waits for a request and gathers the requests arriving in the commit window.
+     */
+    private void runCommitter() {
+        List<PendingPurchase> group = new ArrayList<>();
+        while (running) {
+            try {
+                PendingPurchase first = queue.take();
+                group.add(first);
+                int lines = first.lines.size();
+                long deadline = System.nanoTime() + commitWindowNanos;
+                while (lines < maxBatchLines) {
+                    PendingPurchase next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                    lines += next.lines.size();
+                }
+                commit(group, lines);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Purchase group commit failed", e);
+                group.forEach(purchase -> purchase.future.completeExceptionally(e));
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    /**
+     * Applies a group of requests to the ticket pools and commits it.
+     * @param group (requests of the group, in arrival order)
+     * @param lines (number of purchase lines in the group)
+     */
+    private void commit(List<PendingPurchase> group, int lines) {
+        long startNanos = System.nanoTime();
+        Set<EventJournal> journals = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<String, Integer> customerPurchases = new HashMap<>();
+
+        for (PendingPurchase purchase : group) {
+            TicketPool ticketPool = purchase.event.getTicketPool();
+            for (PurchaseLine line : purchase.lines) {
+                PurchaseResult result;
+                try {
+                    result = ticketPool.purchaseNow(line.getCustomerId(), line.getTickets());
+                } catch (RuntimeException e) {
+                    // Earlier lines may already hold tickets, so only this line fails
+                    logger.log(Level.WARNING, "Purchase of customer " + line.getCustomerId() + " failed", e);
+                    result = new PurchaseResult(line.getCustomerId(), line.getTickets(), 0, new int[0],
+                            PurchaseResult.Status.FAILED);
+                }
+                if (result.getPurchasedTickets() > 0) {
+                    journals.add(ticketPool.getJournal());
+                    customerPurchases.merge(result.getCustomerId(), result.getPurchasedTickets(), Integer::sum);
+                }
+                purchase.results.add(result);
+            }
+        }
+
+        // One fsync per journal for the whole group, the results are only sent once the sales are durable
+        if (!journals.isEmpty()) {
+            retryUntilDone("Journal commit", () -> {
+                pipeline.awaitJournaled();
+                journals.forEach(EventJournal::commit);
+            });
+        }
+        // Each customer is recorded once, a retry never records the customers already recorded again
+        customerPurchases.forEach((customerId, tickets) -> retryUntilDone("Write-behind record of " + customerId,
+                () -> writeBehindStore.recordPurchase(customerId, tickets)));
+        customerPurchases.forEach((customerId, tickets) -> retryUntilDone("Leaderboard record of " + customerId,
+                () -> leaderboards.recordPurchase(customerId, tickets)));
+
+        commitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        groupSize.record(lines);
+        for (PendingPurchase purchase : group) {
+            purchase.future.complete(purchase.results);
+        }
+    }
+
+    /**
+     * Runs a step recording the sales of a group until it succeeds, waiting longer after each failure.
+     * Gives up only when the batcher shuts down, the sales are then logged as not recorded.
+     * @param step (name of the step, for the log)
+     * @param action (step to run)
+     */
+    private void retryUntilDone(String step, Runnable action) {
+        long delayMillis = 1;
+        while (true) {
+            try {
+                action.run();
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    logger.log(Level.SEVERE, step + " failed while shutting down, the sales are not recorded", e);
+                    return;
+                }
+                logger.log(Level.WARNING, step + " failed, retrying in " + delayMillis + " ms", e);
+            }
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                // Interrupted by shutdown, the next failure gives up
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            delayMillis = Math.min(MAX_RETRY_DELAY_MILLIS, delayMillis * 2);
+        }
+    }
+
+    /**
+     * Stops the committer and fails the requests still queued when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        committer.interrupt();
+        PendingPurchase purchase;
+        while ((purchase = queue.poll()) != null) {
+            purchase.future.completeExceptionally(new IllegalStateException("Purchases are shutting down"));
+        }
+    }
+
+    /**
+     * Purchase request waiting for its group to be committed.
+     */
+    private static final class PendingPurchase {
+        private final TicketEvent event;
+        private final List<PurchaseLine> lines;
+        private final List<PurchaseResult> results;
+        private final CompletableFuture<List<PurchaseResult>> future = new CompletableFuture<>();
+
+        PendingPurchase(TicketEvent event, List<PurchaseLine> lines) {
+            this.event = event;
+            this.lines = lines;
+            this.results = new ArrayList<>(lines.size());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Journals of the ticket pools, one memory-mapped file per event in "ticketing.journal.directory".
+ * The pools append their releases and purchases to memory only,
+ * a background thread forces the new records of all journals to disk every "ticketing.journal.commit-interval",
+ * so many sales share one fsync, and snapshots the journals every "ticketing.journal.snapshot-interval".
+ * On startup the JournalRecovery loads the journaled events, restoring their pools before the simulations start.
+ */
+@Component
+public class PurchaseJournal {
+
+    private static final Logger logger = Logger.getLogger(PurchaseJournal.class.getName());
+    private static final String JOURNAL_EXTENSION = ".journal";
+    private static final String SNAPSHOT_EXTENSION = ".snapshot";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int capacity;
+    private final ConcurrentMap<String, MappedEventJournal> journals = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService commitExecutor;
+
+    /**
+     * Constructor for PurchaseJournal
+     * @param enabled (false to run without journals, the pools are then not recovered after a restart)
+     * @param directory (directory holding the journal and snapshot files)
+     * @param capacity (number of records a journal holds before it is snapshotted)
+     * @param commitInterval (time between two group commits)
+     * @param snapshotInterval (time between two snapshots)
+     */
+    public PurchaseJournal(@Value("${ticketing.journal.enabled:true}") boolean enabled,
+                           @Value("${ticketing.journal.directory:journal}") String directory,
+                           @Value("${ticketing.journal.capacity:65536}") int capacity,
+                           @Value("${ticketing.journal.commit-interval:10ms}") Duration commitInterval,
+                           @Value("${ticketing.journal.snapshot-interval:30s}") Duration snapshotInterval) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.capacity = Math.max(1, capacity);
+        this.commitExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-commit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            long commitPeriod = Math.max(1, commitInterval.toMillis());
+            long snapshotPeriod = Math.max(1, snapshotInterval.toMillis());
+            commitExecutor.scheduleWithFixedDelay(this::commitAll, commitPeriod, commitPeriod, TimeUnit.MILLISECONDS);
+            commitExecutor.scheduleWithFixedDelay(this::snapshotAll, snapshotPeriod, snapshotPeriod, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Method to open the journal of an event, recovering its state from the files left by the last run.
+     * @param eventId (event identifier)
+     * @return (journal of the event, EventJournal.NONE if journaling is disabled or the files cannot be opened)
+     */
+    public EventJournal open(String eventId) {
+        if (!enabled) {
+            return EventJournal.NONE;
+        }
+        try {
+            Files.createDirectories(directory);
+            String fileName = URLEncoder.encode(eventId, StandardCharsets.UTF_8);
+            MappedEventJournal journal = new MappedEventJournal(directory.resolve(fileName + JOURNAL_EXTENSION),
+                    directory.resolve(fileName + SNAPSHOT_EXTENSION), capacity);
+            MappedEventJournal previous = journals.put(eventId, journal);
+            if (previous != null) {
+                previous.close();
+            }
+            return journal;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not open the journal of event " + eventId + ", sales will not be journaled", e);
+            return EventJournal.NONE;
+        }
+    }
+
+    /**
+     * Method to close the journal of an event, used when the event is evicted from memory.
+     * The files are kept, the journal is recovered when the event is loaded again.
+     * @param eventId (event identifier)
+     */
+    public void close(String eventId) {
+        MappedEventJournal journal = journals.remove(eventId);
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Method to get the events that have journal files in the journal directory.
+     * @return (event identifiers)
+     */
+    public List<String> getJournaledEvents() {
+        if (!enabled || !Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(JOURNAL_EXTENSION))
+                    .map(name -> URLDecoder.decode(name.substring(0, name.length() - JOURNAL_EXTENSION.length()),
+                            StandardCharsets.UTF_8))
+                    .toList();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not list the journals in " + directory, e);
+            return List.of();
+        }
+    }
+
+    private void commitAll() {
+        journals.values().forEach(journal -> {
+            try {
+                journal.commit();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Journal commit failed, the records will be retried", e);
+            }
+        });
+    }
+
+    private void snapshotAll() {
+        journals.values().forEach(journal -> {
+            try {
+                journal.snapshot();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Journal snapshot failed", e);
+            }
+        });
+    }
+
+    /**
+     * Commits and closes all journals when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        commitExecutor.shutdownNow();
+        journals.keySet().forEach(this::close);
+    }
+}
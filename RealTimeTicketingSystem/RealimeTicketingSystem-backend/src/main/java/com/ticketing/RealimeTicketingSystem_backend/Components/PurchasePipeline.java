@@ -0,0 +1,521 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Staged pipeline of the work following a change of the ticket pools, in the style of the LMAX Disruptor.
+ * The inventory is changed by the caller with compare and set,
+ * the caller then claims a slot of a preallocated ring buffer, copies the change into it and publishes it,
+ * which takes no lock and allocates nothing.
+ * Events are processed in the order of their slots, which is not always the order of the compare and set:
+ * a release and a purchase made at the same time can be journaled in either order.
+ * Journal replay only adds up the releases and the purchases, so it does not depend on their order,
+ * and restoring a pool never sells more than the released tickets.
+ * Two stage threads follow the ring, each taking every event published since its last batch:
+ * the journal stage appends the releases and purchases to the journals of the pools,
+ * then the broadcast stage builds the log messages and publishes one status per pool and batch.
+ * A stage with nothing to do spins for a while, then parks until publish or the stage before it wakes it up,
+ * so an idle pipeline uses no CPU.
+ * Callers only wait when the ring is full, until the slowest stage frees a slot.
+ * Once the pipeline is shut down, callers wait for the stages to finish the events already published
+ * and then process their events themselves, so no event is lost or processed before an earlier one.
+ * The pipeline is shared by the pools of all events. Pools that are not given one run both stages inline, see INLINE.
+ */
+@Component
+public class PurchasePipeline {
+
+    private static final Logger logger = Logger.getLogger(PurchasePipeline.class.getName());
+
+    /**
+     * Pipeline running the stages on the calling thread, used by the pools that are not given a pipeline.
+     */
+    public static final PurchasePipeline INLINE = new InlinePipeline();
+
+    private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int SPINS_BEFORE_PARKING = 100;
+
+    private final PipelineEvent[] ring;
+    private final int mask;
+    private final int indexShift;
+    private final AtomicIntegerArray published;
+    private final AtomicLong cursor = new AtomicLong();
+    private final Stage journalStage;
+    private final Stage broadcastStage;
+    private volatile boolean running = true;
+
+    /**
+     * Pools whose status changed in the current batch of the broadcast stage, only used by that stage.
+     */
+    private final Set<TicketPool> changedPools = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Constructor for the pipelines that override the ring methods and run no stages.
+     */
+    private PurchasePipeline() {
+        this.ring = null;
+        this.mask = 0;
+        this.indexShift = 0;
+        this.published = null;
+        this.journalStage = null;
+        this.broadcastStage = null;
+    }
+
+    /**
+     * Constructor for PurchasePipeline
+     * @param meterRegistry (registry of the batch size and backlog meters)
+     * @param ringSize (number of slots of the ring buffer, rounded up to a power of two)
+     */
+    @Autowired
+    public PurchasePipeline(MeterRegistry meterRegistry,
+                            @Value("${ticketing.pipeline.ring-size:65536}") int ringSize) {
+        int size = Integer.highestOneBit(Math.max(2, ringSize) - 1) << 1;
+        this.ring = new PipelineEvent[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new PipelineEvent();
+        }
+        this.mask = size - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(size);
+        this.published = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+        this.journalStage = new Stage("journal", null, meterRegistry);
+        this.broadcastStage = new Stage("broadcast", journalStage, meterRegistry);
+        Gauge.builder("ticketing.pipeline.backlog", this, pipeline -> pipeline.cursor.get() - 1 - pipeline.broadcastStage.sequence)
+                .description("Events published to the purchase pipeline and not yet broadcast")
+                .register(meterRegistry);
+        journalStage.start();
+        broadcastStage.start();
+    }
+
+    /**
+     * Method to publish the initialization of a pool, journaled before any later change of the pool.
+     * @param pool (initialized pool)
+     * @param maxCapacity (maximum capacity of the pool)
+     * @param initialTickets (tickets in the pool after the initialization)
+     */
+    void publishInitialize(TicketPool pool, int maxCapacity, int initialTickets) {
+        long sequence = next();
+        PipelineEvent event = slot(sequence);
+        event.set(PipelineEvent.INITIALIZE, pool, null, initialTickets, null, true, false);
+        event.setCounts(initialTickets, initialTickets, maxCapacity);
+        publish(sequence, event);
+    }
+
+    /**
+     * Method to publish tickets released by a vendor, journaled and logged.
+     * @param pool (pool the tickets were released to)
+     * @param vendorId (vendor identifier)
+     * @param numTickets (number of tickets released)
+     * @param available (tickets available after the release)
+     * @param released (tickets released since the pool was initialized)
+     * @param maxCapacity (maximum capacity of the pool)
+     */
+    void publishRelease(TicketPool pool, String vendorId, int numTickets, int available, int released, int maxCapacity) {
+        long sequence = next();
+        PipelineEvent event = slot(sequence);
+        event.set(PipelineEvent.RELEASE, pool, vendorId, numTickets, null, true, true);
+        event.setCounts(available, released, maxCapacity);
+        publish(sequence, event);
+    }
+
+    /**
+     * Method to publish tickets purchased by a customer.
+     * @param pool (pool the tickets were purchased from)
+     * @param customerId (customer identifier)
+     * @param numTickets (number of tickets purchased)
+     * @param seats (seat numbers purchased, empty if the pool has no seat numbers)
+     * @param journal (true to journal the purchase)
+     * @param log (true to log the purchase and broadcast the status)
+     * @param available (tickets available after the purchase)
+     * @param sold (tickets sold since the pool was initialized)
+     * @param maxCapacity (maximum capacity of the pool)
+     */
+    void publishPurchase(TicketPool pool, String customerId, int numTickets, int[] seats, boolean journal, boolean log,
+                         int available, int sold, int maxCapacity) {
+        long sequence = next();
+        PipelineEvent event = slot(sequence);
+        event.set(PipelineEvent.PURCHASE, pool, customerId, numTickets, seats, journal, log);
+        event.setCounts(available, sold, maxCapacity);
+        publish(sequence, event);
+    }
+
+    /**
+     * Method to publish a log message of a pool.
+     * @param pool (pool the message is about)
+     * @param message (log message)
+     * @param level (log level)
+     */
+    void publishLog(TicketPool pool, String message, String level) {
+        long sequence = next();
+        PipelineEvent event = slot(sequence);
+        event.set(PipelineEvent.LOG, pool, level, 0, null, false, true);
+        event.message = message;
+        publish(sequence, event);
+    }
+
+    /**
+     * Method to publish that the status of a pool changed, the status is broadcast once per batch.
+     * @param pool (pool whose status changed)
+     */
+    void publishStatus(TicketPool pool) {
+        long sequence = next();
+        PipelineEvent event = slot(sequence);
+        event.set(PipelineEvent.STATUS, pool, null, 0, null, false, true);
+        publish(sequence, event);
+    }
+
+    /**
+     * Method to wait until every event published so far has been journaled.
+     * Called before forcing the journals to disk, so the forced records include the changes made by the caller.
+     */
+    public void awaitJournaled() {
+        long target = cursor.get() - 1;
+        int idle = 0;
+        while (journalStage.sequence < target && journalStage.isAlive()) {
+            idle = idle(idle);
+        }
+    }
+
+    /**
+     * Method to get the number of slots of the ring buffer.
+     * @return (ring size, 0 for the inline pipeline)
+     */
+    public int getRingSize() {
+        return ring.length;
+    }
+
+    /**
+     * Stops the stages once they have processed the events already published, when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(journalStage);
+        try {
+            journalStage.join(TimeUnit.SECONDS.toMillis(5));
+            broadcastStage.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Claims the next sequence, waiting while the ring is full.
+     * @return (claimed sequence, -1 to process the event inline)
+     */
+    long next() {
+        if (!running) {
+            // Events published after the stages stopped are processed by the caller, after the earlier events
+            awaitStagesStopped();
+            return -1;
+        }
+        long sequence = cursor.getAndIncrement();
+        long wrapPoint = sequence - ring.length;
+        int idle = 0;
+        while (wrapPoint > broadcastStage.sequence && broadcastStage.isAlive()) {
+            idle = idle(idle);
+        }
+        return sequence;
+    }
+
+    private PipelineEvent slot(long sequence) {
+        return sequence < 0 ? new PipelineEvent() : ring[(int) sequence & mask];
+    }
+
+    private void publish(long sequence, PipelineEvent event) {
+        if (sequence < 0) {
+            journal(event);
+            broadcast(event, null);
+            return;
+        }
+        published.set((int) sequence & mask, (int) (sequence >>> indexShift));
+        journalStage.wake();
+        if (!running) {
+            // The sequence was claimed while the pipeline stopped, the stages may have exited without it
+            awaitStagesStopped();
+            if (broadcastStage.sequence < sequence) {
+                journal(event);
+                broadcast(event, null);
+            }
+        }
+    }
+
+    /**
+     * Waits until both stages have exited, once the pipeline is shut down.
+     * The stages exit once every claimed sequence is published and processed, so this does not wait for long.
+     */
+    private void awaitStagesStopped() {
+        boolean interrupted = false;
+        while (broadcastStage.isAlive()) {
+            try {
+                journalStage.join();
+                broadcastStage.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Finds the last sequence published without gaps, starting from a sequence.
+     * @param from (first sequence to check)
+     * @return (last contiguous published sequence, from - 1 if the first one is not published yet)
+     */
+    private long highestPublished(long from) {
+        long claimed = cursor.get() - 1;
+        long sequence = from;
+        while (sequence <= claimed && published.get((int) sequence & mask) == (int) (sequence >>> indexShift)) {
+            sequence++;
+        }
+        return sequence - 1;
+    }
+
+    private void journal(PipelineEvent event) {
+        if (!event.journal) {
+            return;
+        }
+        EventJournal journal = event.pool.getJournal();
+        switch (event.type) {
+            case PipelineEvent.INITIALIZE -> journal.recordInitialize(event.maxCapacity, event.numTickets);
+            case PipelineEvent.RELEASE -> journal.recordRelease(event.numTickets);
+            case PipelineEvent.PURCHASE -> journal.recordPurchase(event.numTickets);
+            default -> { }
+        }
+    }
+
+    /**
+     * Logs an event, and adds its pool to the pools whose status is broadcast at the end of the batch.
+     * @param event (event to broadcast)
+     * @param changed (pools whose status changed in the batch, null to broadcast the status straight away)
+     */
+    private void broadcast(PipelineEvent event, Set<TicketPool> changed) {
+        if (event.log) {
+            TicketPool pool = event.pool;
+            switch (event.type) {
+                case PipelineEvent.RELEASE -> pool.emitLog("Vendor " + event.actorId + " added " + event.numTickets +
+                        " tickets. Pool size: " + event.available +
+                        ". Total released: " + event.total + "/" + event.maxCapacity, "INFO");
+                case PipelineEvent.PURCHASE -> {
+                    pool.emitLog("Customer " + event.actorId + " purchased " + event.numTickets +
+                            (event.seats.length > 0 ? " tickets (seats " + Arrays.toString(event.seats) + ")" : " tickets") +
+                            ". Pool size: " + event.available +
+                            ". Total sold: " + event.total + "/" + event.maxCapacity, "INFO");
+                    statusChanged(pool, changed);
+                }
+                case PipelineEvent.LOG -> pool.emitLog(event.message, event.actorId);
+                case PipelineEvent.STATUS -> statusChanged(pool, changed);
+                default -> { }
+            }
+        }
+        event.clear();
+    }
+
+    private static void statusChanged(TicketPool pool, Set<TicketPool> changed) {
+        if (changed != null) {
+            changed.add(pool);
+        } else {
+            pool.emitStatus();
+        }
+    }
+
+    private static int idle(int idle) {
+        if (idle < 100) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(Math.min(MAX_IDLE_NANOS, 1000L << Math.min(10, idle - 100)));
+        }
+        return idle + 1;
+    }
+
+    /**
+     * Stage thread following the ring buffer, or the stage before it.
+     */
+    private final class Stage extends Thread {
+        private final Stage previous;
+        private final DistributionSummary batchSize;
+        private volatile long sequence = -1;
+        private volatile boolean sleeping; // True while the stage is parked or about to park
+
+        Stage(String name, Stage previous, MeterRegistry meterRegistry) {
+            super("pipeline-" + name);
+            this.previous = previous;
+            this.batchSize = DistributionSummary.builder("ticketing.pipeline.batch")
+                    .description("Events processed together by a stage of the purchase pipeline")
+                    .tag("stage", name)
+                    .register(meterRegistry);
+            setDaemon(true);
+        }
+
+        /**
+         * Wakes the stage up if it is parked, called after publishing an event it is waiting for.
+         */
+        void wake() {
+            if (sleeping) {
+                LockSupport.unpark(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                follow();
+            } finally {
+                // The next stage exits once it has processed what this stage left
+                if (this == journalStage) {
+                    LockSupport.unpark(broadcastStage);
+                }
+            }
+        }
+
+        private void follow() {
+            int spins = 0;
+            while (true) {
+                long next = sequence + 1;
+                long available = available(next);
+                if (available < next) {
+                    // The journal stage waits for the sequences claimed before the shutdown to be published
+                    boolean upstreamDone = previous != null ? !previous.isAlive() : !running && cursor.get() == next;
+                    if (upstreamDone && available(next) < next) {
+                        return;
+                    }
+                    if (spins < SPINS_BEFORE_PARKING) {
+                        Thread.onSpinWait();
+                        spins++;
+                        continue;
+                    }
+                    // Sleeping is set before checking again, so a publish either sees it or is seen by the check
+                    sleeping = true;
+                    if (available(next) < next && (previous != null ? previous.isAlive() : running)) {
+                        LockSupport.park(this);
+                    }
+                    sleeping = false;
+                    continue;
+                }
+                spins = 0;
+                for (long s = next; s <= available; s++) {
+                    PipelineEvent event = ring[(int) s & mask];
+                    try {
+                        if (previous == null) {
+                            journal(event);
+                        } else {
+                            broadcast(event, changedPools);
+                        }
+                    } catch (RuntimeException e) {
+                        logger.log(Level.WARNING, getName() + " failed to process a pipeline event", e);
+                    }
+                }
+                if (previous != null) {
+                    try {
+                        changedPools.forEach(TicketPool::emitStatus);
+                    } catch (RuntimeException e) {
+                        logger.log(Level.WARNING, getName() + " failed to broadcast the pool statuses", e);
+                    }
+                    changedPools.clear();
+                }
+                batchSize.record(available - next + 1);
+                sequence = available;
+                if (this == journalStage) {
+                    broadcastStage.wake();
+                }
+            }
+        }
+
+        private long available(long next) {
+            return previous != null ? previous.sequence : highestPublished(next);
+        }
+    }
+
+    /**
+     * Pipeline processing every event on the publishing thread, see INLINE.
+     */
+    private static final class InlinePipeline extends PurchasePipeline {
+
+        @Override
+        long next() {
+            return -1;
+        }
+
+        @Override
+        public void awaitJournaled() {
+        }
+
+        @Override
+        public int getRingSize() {
+            return 0;
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+
+    /**
+     * Preallocated slot of the ring buffer, reused for every event published to it.
+     */
+    private static final class PipelineEvent {
+        static final int INITIALIZE = 0;
+        static final int RELEASE = 1;
+        static final int PURCHASE = 2;
+        static final int LOG = 3;
+        static final int STATUS = 4;
+
+        int type;
+        TicketPool pool;
+        String actorId; // Vendor or customer identifier, or the level of a log message
+        String message;
+        int numTickets;
+        int[] seats;
+        boolean journal;
+        boolean log;
+        int available;
+        int total; // Tickets released or sold after the change
+        int maxCapacity;
+
+        void set(int type, TicketPool pool, String actorId, int numTickets, int[] seats, boolean journal, boolean log) {
+            this.type = type;
+            this.pool = pool;
+            this.actorId = actorId;
+            this.numTickets = numTickets;
+            this.seats = seats;
+            this.journal = journal;
+            this.log = log;
+        }
+
+        void setCounts(int available, int total, int maxCapacity) {
+            this.available = available;
+            this.total = total;
+            this.maxCapacity = maxCapacity;
+        }
+
+        /**
+         * Drops the references held by the slot once the last stage is done with it.
+         */
+        void clear() {
+            pool = null;
+            actorId = null;
+            message = null;
+            seats = null;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.PurchaseResult;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Purchase request waiting in the FIFO queue of a TicketPool.
+ * Fields other than the future are only changed while holding the queue lock of the pool.
+ */
+class PurchaseRequest {
+
+    final String customerId;
+    final int numTickets;
+    final boolean acceptPartialFill;
+    final CompletableFuture<PurchaseResult> future = new CompletableFuture<>();
+    final long enqueuedNanos = System.nanoTime();
+    TimingWheelScheduler.ScheduledTask timeout;
+    boolean done;
+    private int filled;
+    private int[] seats = TicketInventory.UNNUMBERED;
+
+    /**
+     * Constructor for PurchaseRequest
+     * @param customerId (customer identifier)
+     * @param numTickets (number of tickets requested)
+     * @param acceptPartialFill (true if the request can be filled a few tickets at a time)
+     */
+    PurchaseRequest(String customerId, int numTickets, boolean acceptPartialFill) {
+        this.customerId = customerId;
+        this.numTickets = numTickets;
+        this.acceptPartialFill = acceptPartialFill;
+    }
+
+    /**
+     * Adds tickets claimed for the request.
+     * @param claimedSeats (seat numbers claimed, empty if the pool has no seat numbers)
+     * @param count (number of tickets claimed)
+     */
+    void fill(int[] claimedSeats, int count) {
+        if (claimedSeats.length > 0) {
+            int[] merged = Arrays.copyOf(seats, seats.length + claimedSeats.length);
+            System.arraycopy(claimedSeats, 0, merged, seats.length, claimedSeats.length);
+            seats = merged;
+        }
+        filled += count;
+    }
+
+    int remaining() {
+        return numTickets - filled;
+    }
+
+    int filled() {
+        return filled;
+    }
+
+    /**
+     * Creates the result of the request.
+     * @param unfilledStatus (status used when the request ends without all its tickets)
+     * @return (result of the request)
+     */
+    PurchaseResult toResult(PurchaseResult.Status unfilledStatus) {
+        PurchaseResult.Status status = filled == numTickets ? PurchaseResult.Status.FILLED
+                : filled > 0 ? PurchaseResult.Status.PARTIAL
+                : unfilledStatus;
+        return new PurchaseResult(customerId, numTickets, filled, seats, status);
+    }
+}
@@ -0,0 +1,201 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Token bucket rate limiter keyed by customer id, used to pace the simulated customers and to guard the purchase endpoints.
+ * Every customer class has a rate in permits per second and a burst, the number of permits a full bucket holds.
+ * Classes are configured in "ticketing.rate-limit.classes" as "name=rate:burst" pairs separated by commas,
+ * customers of an unknown class get the "default" class.
+ * A bucket is a single timestamp, the time it will be full again, moved forward by one emission interval per permit
+ * with compare and set, so taking a permit needs no lock and has nanosecond precision.
+ * Full buckets are equivalent to new ones, they are evicted every "ticketing.rate-limit.evict-interval",
+ * so only the customers active within one refill time of their bucket take memory.
+ */
+@Component
+public class RateLimiter {
+
+    /**
+     * Class used for customers without a class, or with a class that is not configured.
+     */
+    public static final String DEFAULT_CLASS = "default";
+
+    /**
+     * Time a bucket will be full again of an evicted bucket, callers holding it look it up again.
+     */
+    private static final long EVICTED = Long.MIN_VALUE;
+
+    private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Limit> classes;
+    private final TimingWheelScheduler.ScheduledTask evictTask;
+
+    /**
+     * Constructor for RateLimiter
+     * @param scheduler (timing wheel running the eviction of full buckets)
+     * @param meterRegistry (registry of the bucket count gauge)
+     * @param classes (customer classes, as "name=rate:burst" pairs separated by commas)
+     * @param evictInterval (time between two evictions of full buckets)
+     */
+    public RateLimiter(TimingWheelScheduler scheduler,
+                       MeterRegistry meterRegistry,
+                       @Value("${ticketing.rate-limit.classes:default=5:10}") String classes,
+                       @Value("${ticketing.rate-limit.evict-interval:10s}") Duration evictInterval) {
+        this.classes = parseClasses(classes);
+        Gauge.builder("ticketing.ratelimit.buckets", buckets, Map::size)
+                .description("Customers with a rate limit bucket that is not full")
+                .register(meterRegistry);
+        long interval = Math.max(1, evictInterval.toMillis());
+        this.evictTask = scheduler.scheduleRepeating(() -> {
+            evictFullBuckets();
+            return interval;
+        }, interval);
+    }
+
+    /**
+     * Method to get the limit of a customer class.
+     * @param customerClass (class name, null for the default class)
+     * @return (limit of the class, the default limit if the class is not configured)
+     */
+    public Limit limitFor(String customerClass) {
+        Limit limit = customerClass != null ? classes.get(customerClass) : null;
+        return limit != null ? limit : classes.get(DEFAULT_CLASS);
+    }
+
+    /**
+     * Method to take permits from the bucket of a customer without waiting.
+     * @param key (customer id the bucket is kept for)
+     * @param limit (rate and burst of the bucket)
+     * @param permits (number of permits to take)
+     * @return (0 if the permits were taken, else the nanoseconds until they will be available)
+     */
+    public long tryAcquire(String key, Limit limit, int permits) {
+        long interval = limit.intervalNanos();
+        if (interval == 0) {
+            return 0;
+        }
+        long cost = interval * permits;
+        long tolerance = limit.toleranceNanos();
+        while (true) {
+            Bucket bucket = buckets.computeIfAbsent(key, id -> new Bucket());
+            while (true) {
+                long fullAt = bucket.fullAt.get();
+                if (fullAt == EVICTED) {
+                    break;
+                }
+                long now = System.nanoTime();
+                long newFullAt = Math.max(fullAt, now) + cost;
+                long wait = newFullAt - now - tolerance;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (bucket.fullAt.compareAndSet(fullAt, newFullAt)) {
+                    return 0;
+                }
+            }
+            buckets.remove(key, bucket);
+        }
+    }
+
+    /**
+     * Method to take a permit from the bucket of a customer, waiting until it is available.
+     * @param key (customer id the bucket is kept for)
+     * @param limit (rate and burst of the bucket)
+     * @throws InterruptedException (if the thread is interrupted while waiting)
+     */
+    public void acquire(String key, Limit limit) throws InterruptedException {
+        long wait;
+        while ((wait = tryAcquire(key, limit, 1)) > 0) {
+            LockSupport.parkNanos(this, wait);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Method to get the number of buckets held in memory.
+     * @return (number of buckets)
+     */
+    public int getBuckets() {
+        return buckets.size();
+    }
+
+    /**
+     * Removes the buckets that are full again.
+     * A bucket is marked evicted before it is removed, so a permit taken concurrently is never lost.
+     */
+    void evictFullBuckets() {
+        for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+            Bucket bucket = entry.getValue();
+            long fullAt = bucket.fullAt.get();
+            if (fullAt != EVICTED && fullAt - System.nanoTime() <= 0 && bucket.fullAt.compareAndSet(fullAt, EVICTED)) {
+                buckets.remove(entry.getKey(), bucket);
+            }
+        }
+    }
+
+    /**
+     * Stops the eviction when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        evictTask.cancel();
+    }
+
+    private static Map<String, Limit> parseClasses(String classes) {
+        Map<String, Limit> limits = new HashMap<>();
+        for (String entry : classes.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] nameAndLimit = entry.trim().split("=");
+            String[] rateAndBurst = nameAndLimit.length == 2 ? nameAndLimit[1].split(":") : new String[0];
+            if (rateAndBurst.length != 2) {
+                throw new IllegalArgumentException("Rate limit class must be name=rate:burst, got " + entry);
+            }
+            limits.put(nameAndLimit[0].trim(), Limit.of(Double.parseDouble(rateAndBurst[0].trim()),
+                    Integer.parseInt(rateAndBurst[1].trim())));
+        }
+        limits.putIfAbsent(DEFAULT_CLASS, Limit.of(5, 10));
+        return Map.copyOf(limits);
+    }
+
+    /**
+     * Rate and burst of a bucket, kept as the emission interval of one permit and the time a full bucket lasts.
+     * @param intervalNanos (nanoseconds between two permits, 0 for no limit)
+     * @param toleranceNanos (nanoseconds of permits a full bucket holds)
+     */
+    public record Limit(long intervalNanos, long toleranceNanos) {
+
+        /**
+         * Method to create a limit from a rate and a burst.
+         * @param permitsPerSecond (permits added to the bucket per second, 0 or less for no limit)
+         * @param burst (permits a full bucket holds, at least 1)
+         * @return (limit)
+         */
+        public static Limit of(double permitsPerSecond, int burst) {
+            long interval = permitsPerSecond > 0 ? Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / permitsPerSecond)) : 0;
+            return new Limit(interval, interval * Math.max(1, burst));
+        }
+    }
+
+    /**
+     * Bucket of a customer, holding the time it will be full again.
+     */
+    private static final class Bucket {
+        private final AtomicLong fullAt = new AtomicLong(System.nanoTime());
+    }
+}
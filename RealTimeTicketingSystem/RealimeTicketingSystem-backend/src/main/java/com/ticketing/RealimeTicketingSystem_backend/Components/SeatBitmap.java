@@ -0,0 +1,129 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import java.util.Arrays;
+
+/**
+ * Word-packed bitmap of seats, one bit per seat.
+ * A summary bitmap keeps one bit per non-empty word, so finding set bits skips
+ * 4096 seats per summary word. 120,000 seats take about 15 KB.
+ * Not thread safe, callers must hold a lock.
+ */
+public class SeatBitmap {
+
+    private final long[] words;
+    private final long[] summary;
+    private final int size;
+    private int cardinality;
+
+    /**
+     * Constructor for SeatBitmap, all bits start cleared.
+     * @param size (number of bits)
+     */
+    public SeatBitmap(int size) {
+        this.size = size;
+        this.words = new long[(size + 63) >>> 6];
+        this.summary = new long[(words.length + 63) >>> 6];
+    }
+
+    /**
+     * Method to set a bit.
+     * @param index (bit index)
+     * @return (true if the bit was cleared before, false if it was already set)
+     */
+    public boolean set(int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        if ((words[word] & mask) != 0) {
+            return false;
+        }
+        words[word] |= mask;
+        summary[word >>> 6] |= 1L << word;
+        cardinality++;
+        return true;
+    }
+
+    /**
+     * Method to set a range of bits.
+     * @param from (first bit index, inclusive)
+     * @param to (last bit index, exclusive)
+     */
+    public void setRange(int from, int to) {
+        for (int index = from; index < to; index++) {
+            set(index);
+        }
+    }
+
+    /**
+     * Method to clear a bit.
+     * @param index (bit index)
+     * @return (true if the bit was set before, false if it was already cleared)
+     */
+    public boolean clear(int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        if ((words[word] & mask) == 0) {
+            return false;
+        }
+        words[word] &= ~mask;
+        if (words[word] == 0) {
+            summary[word >>> 6] &= ~(1L << word);
+        }
+        cardinality--;
+        return true;
+    }
+
+    /**
+     * Method to check a bit.
+     * @param index (bit index)
+     * @return (true if the bit is set)
+     */
+    public boolean get(int index) {
+        return index >= 0 && index < size && (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Method to clear the lowest set bits.
+     * @param count (number of bits to clear)
+     * @param cleared (array receiving the cleared bit indexes)
+     * @return (number of bits cleared, less than count if not enough bits are set)
+     */
+    public int clearLowest(int count, int[] cleared) {
+        int found = 0;
+        for (int s = 0; s < summary.length && found < count; s++) {
+            while (summary[s] != 0 && found < count) {
+                int word = (s << 6) + Long.numberOfTrailingZeros(summary[s]);
+                while (words[word] != 0 && found < count) {
+                    int index = (word << 6) + Long.numberOfTrailingZeros(words[word]);
+                    clear(index);
+                    cleared[found++] = index;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Method to clear all bits.
+     */
+    public void clearAll() {
+        Arrays.fill(words, 0L);
+        Arrays.fill(summary, 0L);
+        cardinality = 0;
+    }
+
+    /**
+     * Method to get the number of set bits.
+     * @return (number of set bits)
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Method to get the number of bits in the bitmap.
+     * @return (number of bits)
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,149 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Seat-level inventory engine.
+ * Every ticket is a numbered seat, from 1 to the maximum capacity.
+ * Vendors release the next seats in order and customers claim the lowest free seats.
+ * Free seats are kept in a SeatBitmap, so the engine holds no object per ticket
+ * and the available count is the bitmap cardinality.
+ */
+public class SeatMapTicketInventory implements TicketInventory {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private SeatBitmap freeSeats = new SeatBitmap(0);
+    private volatile int maxCapacity;
+    private volatile int totalTicketsReleased;
+    private volatile int totalTicketsSold;
+    private volatile int availableSeats;
+
+    @Override
+    public void reset(int maxCapacity, int initialTickets) {
+        lock.lock();
+        try {
+            if (freeSeats.size() == maxCapacity) {
+                freeSeats.clearAll();
+            } else {
+                freeSeats = new SeatBitmap(Math.max(0, maxCapacity));
+            }
+            this.maxCapacity = maxCapacity;
+            totalTicketsReleased = Math.max(0, Math.min(initialTickets, maxCapacity));
+            totalTicketsSold = 0;
+            freeSeats.setRange(0, totalTicketsReleased);
+            availableSeats = freeSeats.cardinality();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int release(String vendorId, int numTickets) {
+        lock.lock();
+        try {
+            int ticketsToAdd = Math.min(numTickets, maxCapacity - totalTicketsReleased);
+            if (ticketsToAdd <= 0) {
+                return 0;
+            }
+
+            freeSeats.setRange(totalTicketsReleased, totalTicketsReleased + ticketsToAdd);
+            totalTicketsReleased += ticketsToAdd;
+            availableSeats = freeSeats.cardinality();
+            return ticketsToAdd;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean reserve(String customerId, int numTickets) {
+        return claimSeats(customerId, numTickets) != null;
+    }
+
+    /**
+     * Method to claim the lowest free seats for a customer, all or nothing.
+     * @param customerId (customer identifier)
+     * @param numTickets (number of seats to claim)
+     * @return (claimed seat numbers, null if not enough seats are free)
+     */
+    @Override
+    public int[] claimSeats(String customerId, int numTickets) {
+        lock.lock();
+        try {
+            if (freeSeats.cardinality() < numTickets) {
+                return null;
+            }
+
+            int[] seats = new int[numTickets];
+            freeSeats.clearLowest(numTickets, seats);
+            for (int i = 0; i < seats.length; i++) {
+                seats[i]++; // Bit indexes start at 0, seat numbers at 1
+            }
+            totalTicketsSold += numTickets;
+            availableSeats = freeSeats.cardinality();
+            return seats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to return a sold seat to the pool.
+     * @param seat (seat number)
+     * @return (true if the seat was sold and is free again, false if it was not sold)
+     */
+    public boolean releaseSeat(int seat) {
+        lock.lock();
+        try {
+            if (seat < 1 || seat > totalTicketsReleased || !freeSeats.set(seat - 1)) {
+                return false;
+            }
+            totalTicketsSold--;
+            availableSeats = freeSeats.cardinality();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void returnTickets(String customerId, int[] seats, int numTickets) {
+        for (int seat : seats) {
+            releaseSeat(seat);
+        }
+    }
+
+    /**
+     * Method to check if a seat is released and free.
+     * @param seat (seat number)
+     * @return (true if the seat can be claimed)
+     */
+    public boolean isSeatAvailable(int seat) {
+        lock.lock();
+        try {
+            return freeSeats.get(seat - 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getAvailable() {
+        return availableSeats;
+    }
+
+    @Override
+    public int getReleased() {
+        return totalTicketsReleased;
+    }
+
+    @Override
+    public int getSold() {
+        return totalTicketsSold;
+    }
+
+    @Override
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+}
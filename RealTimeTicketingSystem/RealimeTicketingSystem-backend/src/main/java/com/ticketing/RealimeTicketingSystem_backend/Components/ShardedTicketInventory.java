@@ -0,0 +1,190 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sharded inventory engine.
+ * Available tickets are split across stripes, each thread is given a home stripe the first time it uses the inventory,
+ * so the threads of different cores release into and buy from different stripes,
+ * stealing from the neighbouring stripes when their own is empty.
+ * A purchase no single stripe can cover gathers the tickets from several stripes under the gather lock,
+ * so two gatherers never each hold part of the tickets and both fail while enough are available.
+ * Only the released count is global, so the maximum capacity still holds exactly,
+ * and tickets are only sold after being taken out of a stripe, so sales never exceed releases.
+ */
+public class ShardedTicketInventory implements TicketInventory {
+
+    /**
+     * Ints between two stripes, keeps every stripe on its own cache line.
+     */
+    private static final int STRIDE = 16;
+    private static final int AVAILABLE = 0;
+    private static final int SOLD = 1;
+
+    /**
+     * Probe of each thread, handed out in turn so the threads are spread evenly across the stripes.
+     */
+    private static final AtomicInteger nextProbe = new AtomicInteger();
+    private static final ThreadLocal<Integer> threadProbe = ThreadLocal.withInitial(nextProbe::getAndIncrement);
+
+    private final int stripes;
+    private final AtomicIntegerArray counts;
+    private final AtomicLong released = new AtomicLong();
+    private final ReentrantLock gatherLock = new ReentrantLock();
+    private volatile int maxCapacity;
+
+    /**
+     * Constructor for ShardedTicketInventory
+     * @param stripes (number of stripes the tickets are split across)
+     */
+    public ShardedTicketInventory(int stripes) {
+        this.stripes = Math.max(1, stripes);
+        this.counts = new AtomicIntegerArray(this.stripes * STRIDE);
+    }
+
+    @Override
+    public void reset(int maxCapacity, int initialTickets) {
+        this.maxCapacity = maxCapacity;
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+
+        int ticketsToAdd = Math.max(0, Math.min(initialTickets, maxCapacity));
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            // Spread the initial tickets evenly, the first stripes get the remainder
+            counts.set(index(stripe, AVAILABLE), ticketsToAdd / stripes + (stripe < ticketsToAdd % stripes ? 1 : 0));
+        }
+        released.set(ticketsToAdd);
+    }
+
+    @Override
+    public int release(String vendorId, int numTickets) {
+        while (true) {
+            long current = released.get();
+            long remainingCapacity = maxCapacity - current;
+            if (remainingCapacity <= 0) {
+                return 0;
+            }
+
+            int ticketsToAdd = (int) Math.min(numTickets, remainingCapacity);
+            if (released.compareAndSet(current, current + ticketsToAdd)) {
+                counts.addAndGet(index(homeStripe(), AVAILABLE), ticketsToAdd);
+                return ticketsToAdd;
+            }
+        }
+    }
+
+    @Override
+    public boolean reserve(String customerId, int numTickets) {
+        int home = homeStripe();
+
+        // Look for a single stripe holding all the tickets, starting with the home stripe
+        for (int i = 0; i < stripes; i++) {
+            if (take(index((home + i) % stripes, AVAILABLE), numTickets, numTickets) == numTickets) {
+                counts.addAndGet(index(home, SOLD), numTickets);
+                return true;
+            }
+        }
+
+        // No stripe has enough on its own, gather them from all the stripes
+        gatherLock.lock();
+        try {
+            int[] taken = new int[stripes];
+            int remaining = numTickets;
+            for (int i = 0; i < stripes && remaining > 0; i++) {
+                int stripe = (home + i) % stripes;
+                taken[stripe] = take(index(stripe, AVAILABLE), 1, remaining);
+                remaining -= taken[stripe];
+            }
+
+            if (remaining > 0) {
+                for (int stripe = 0; stripe < stripes; stripe++) {
+                    if (taken[stripe] > 0) {
+                        counts.addAndGet(index(stripe, AVAILABLE), taken[stripe]);
+                    }
+                }
+                return false;
+            }
+        } finally {
+            gatherLock.unlock();
+        }
+
+        counts.addAndGet(index(home, SOLD), numTickets);
+        return true;
+    }
+
+    @Override
+    public void returnTickets(String customerId, int[] seats, int numTickets) {
+        int home = homeStripe();
+        counts.addAndGet(index(home, SOLD), -numTickets);
+        counts.addAndGet(index(home, AVAILABLE), numTickets);
+    }
+
+    /**
+     * Takes up to the given number of tickets out of a stripe.
+     * @param slot (index of the stripe's available count)
+     * @param min (minimum number of tickets to take, takes none if fewer are available)
+     * @param max (maximum number of tickets to take)
+     * @return (number of tickets taken)
+     */
+    private int take(int slot, int min, int max) {
+        while (true) {
+            int available = counts.get(slot);
+            if (available < min) {
+                return 0;
+            }
+
+            int ticketsToTake = Math.min(available, max);
+            if (counts.compareAndSet(slot, available, available - ticketsToTake)) {
+                return ticketsToTake;
+            }
+        }
+    }
+
+    @Override
+    public int getAvailable() {
+        return sum(AVAILABLE);
+    }
+
+    @Override
+    public int getReleased() {
+        return (int) released.get();
+    }
+
+    @Override
+    public int getSold() {
+        return sum(SOLD);
+    }
+
+    @Override
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    /**
+     * Method to get the number of stripes.
+     * @return (number of stripes)
+     */
+    public int getStripes() {
+        return stripes;
+    }
+
+    private int sum(int field) {
+        int total = 0;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            total += counts.get(index(stripe, field));
+        }
+        return total;
+    }
+
+    private int homeStripe() {
+        return Math.floorMod(threadProbe.get(), stripes);
+    }
+
+    private static int index(int stripe, int field) {
+        return stripe * STRIDE + field;
+    }
+}
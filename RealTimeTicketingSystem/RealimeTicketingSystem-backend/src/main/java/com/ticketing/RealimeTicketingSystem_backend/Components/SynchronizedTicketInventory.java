@@ -0,0 +1,88 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Original inventory engine of the TicketPool.
+ * Stores one list entry per ticket and adds or removes them one at a time,
+ * every method is synchronized on the inventory.
+ * Kept to compare against the other engines.
+ */
+public class SynchronizedTicketInventory implements TicketInventory {
+
+    private final List<Integer> tickets = Collections.synchronizedList(new ArrayList<>());
+    private int maxCapacity;
+    private int totalTicketsReleased = 0;
+    private int totalTicketsSold = 0;
+
+    @Override
+    public synchronized void reset(int maxCapacity, int initialTickets) {
+        tickets.clear();
+        totalTicketsReleased = 0;
+        totalTicketsSold = 0;
+        this.maxCapacity = maxCapacity;
+
+        for (int i = 0; i < initialTickets && i < maxCapacity; i++) {
+            tickets.add(1);
+            totalTicketsReleased++;
+        }
+    }
+
+    @Override
+    public synchronized int release(String vendorId, int numTickets) {
+        int remainingCapacity = maxCapacity - totalTicketsReleased;
+        if (remainingCapacity <= 0) {
+            return 0;
+        }
+
+        int ticketsToAdd = Math.min(numTickets, remainingCapacity);
+        for (int i = 0; i < ticketsToAdd; i++) {
+            tickets.add(1);
+        }
+        totalTicketsReleased += ticketsToAdd;
+        return ticketsToAdd;
+    }
+
+    @Override
+    public synchronized boolean reserve(String customerId, int numTickets) {
+        if (tickets.size() < numTickets) {
+            return false;
+        }
+
+        for (int i = 0; i < numTickets; i++) {
+            tickets.remove(tickets.size() - 1);
+        }
+        totalTicketsSold += numTickets;
+        return true;
+    }
+
+    @Override
+    public synchronized void returnTickets(String customerId, int[] seats, int numTickets) {
+        for (int i = 0; i < numTickets; i++) {
+            tickets.add(1);
+        }
+        totalTicketsSold -= numTickets;
+    }
+
+    @Override
+    public int getAvailable() {
+        return tickets.size();
+    }
+
+    @Override
+    public synchronized int getReleased() {
+        return totalTicketsReleased;
+    }
+
+    @Override
+    public synchronized int getSold() {
+        return totalTicketsSold;
+    }
+
+    @Override
+    public synchronized int getMaxCapacity() {
+        return maxCapacity;
+    }
+}
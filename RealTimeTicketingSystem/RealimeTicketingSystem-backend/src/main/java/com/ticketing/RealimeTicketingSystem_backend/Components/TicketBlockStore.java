@@ -0,0 +1,143 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import java.time.Instant;
+
+/**
+ * Shared store the LEASED inventories of several backend nodes lease their ticket blocks from.
+ * Each event has one counter, and each node selling the event has one lease holding the tickets of its block.
+ * Every change is a single conditional update of one counter or lease, like a find-and-modify,
+ * so the nodes never need a lock or a transaction across them.
+ * The tickets of an event are always split as released = free + leased + sold + stranded,
+ * and released never exceeds the maximum capacity, so the nodes together never sell more than the capacity.
+ * Stranded tickets were leased by a node that stopped renewing its lease, they may have been sold and are never leased again.
+ */
+public interface TicketBlockStore {
+
+    /**
+     * Counter of an event, as it was after the update that returned it.
+     * @param generation (sale the counter belongs to, increased every time the event is reset)
+     * @param version (increased by every update of the counter, to tell which of two copies is newer)
+     * @param maxCapacity (maximum number of tickets that can be released)
+     * @param released (tickets released by the vendors of all nodes)
+     * @param free (released tickets not leased by any node)
+     * @param sold (tickets the nodes reported as sold)
+     * @param stranded (tickets of expired leases, which may have been sold)
+     */
+    record Counter(long generation, long version, int maxCapacity, int released, int free, int sold, int stranded) {
+
+        /**
+         * Counter of an event that was never reset.
+         */
+        public static final Counter EMPTY = new Counter(0, 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Method to get the counter of an event.
+     * @param eventId (event identifier)
+     * @return (counter of the event, Counter.EMPTY if the event was never reset)
+     */
+    Counter get(String eventId);
+
+    /**
+     * Method to start a new sale of an event, with a new generation.
+     * The leases of the previous sale are removed, nodes still holding them find out on their next update.
+     * @param eventId (event identifier)
+     * @param maxCapacity (maximum number of tickets that can be released)
+     * @param initialTickets (number of tickets released straight away)
+     * @return (counter of the new sale)
+     */
+    Counter reset(String eventId, int maxCapacity, int initialTickets);
+
+    /**
+     * Method to release tickets, if the released count is still the one the caller saw.
+     * @param eventId (event identifier)
+     * @param generation (sale the tickets are released for)
+     * @param expectedReleased (released count the caller saw)
+     * @param numTickets (number of tickets to release, within the remaining capacity)
+     * @return (updated counter, null if the counter changed since the caller saw it)
+     */
+    Counter release(String eventId, long generation, int expectedReleased, int numTickets);
+
+    /**
+     * Method to take free tickets for the block of a node, if enough are free.
+     * The caller adds them to its lease with openLease or addToLease, tickets taken by a node that stops before are lost, never sold twice.
+     * @param eventId (event identifier)
+     * @param generation (sale the tickets are taken from)
+     * @param numTickets (number of tickets to take)
+     * @return (updated counter, null if fewer tickets are free or the sale changed)
+     */
+    Counter takeFree(String eventId, long generation, int numTickets);
+
+    /**
+     * Method to open the lease of a node with tickets taken with takeFree.
+     * @param eventId (event identifier)
+     * @param generation (sale the tickets were taken from)
+     * @param nodeId (node identifier)
+     * @param numTickets (number of tickets of the new block)
+     * @param expiresAt (time the lease expires at unless it is renewed)
+     * @return (true if the lease was opened, false if the node already has a lease or the sale changed)
+     */
+    boolean openLease(String eventId, long generation, String nodeId, int numTickets, Instant expiresAt);
+
+    /**
+     * Method to add tickets taken with takeFree to the open lease of a node.
+     * Never creates a lease, a node whose lease expired must find out before it leases again,
+     * otherwise the tickets left in its old block, already counted as stranded, would be given back later.
+     * @param eventId (event identifier)
+     * @param generation (sale the tickets were taken from)
+     * @param nodeId (node identifier)
+     * @param numTickets (number of tickets to add)
+     * @param expiresAt (time the lease expires at unless it is renewed)
+     * @return (true if the tickets were added, false if the lease has expired or the sale changed)
+     */
+    boolean addToLease(String eventId, long generation, String nodeId, int numTickets, Instant expiresAt);
+
+    /**
+     * Method to renew the lease of a node and report the tickets it sold since its last report.
+     * @param eventId (event identifier)
+     * @param generation (sale the lease belongs to)
+     * @param nodeId (node identifier)
+     * @param soldTickets (tickets sold since the last report, negative if more were returned than sold)
+     * @param expiresAt (new expiry time of the lease)
+     * @return (updated counter, null if the lease has expired or the sale changed, the node must then drop its block)
+     */
+    Counter renew(String eventId, long generation, String nodeId, int soldTickets, Instant expiresAt);
+
+    /**
+     * Method to end the lease of a node, giving its unsold tickets back and reporting the last tickets it sold.
+     * @param eventId (event identifier)
+     * @param generation (sale the lease belongs to)
+     * @param nodeId (node identifier)
+     * @param unsoldTickets (tickets of the block that were not sold)
+     * @param soldTickets (tickets sold since the last report)
+     * @return (updated counter, null if the lease had already expired or the sale changed)
+     */
+    Counter giveBack(String eventId, long generation, String nodeId, int unsoldTickets, int soldTickets);
+
+    /**
+     * Method to make tickets sold from a lease the node no longer holds free again, when the customer returns them.
+     * @param eventId (event identifier)
+     * @param generation (sale the tickets were sold in)
+     * @param numTickets (tickets returned)
+     * @return (updated counter, null if the sale changed or fewer tickets are counted as sold, the tickets then stay sold)
+     */
+    Counter returnSold(String eventId, long generation, int numTickets);
+
+    /**
+     * Method to make tickets sold from a lost lease free again, when the customer returns them.
+     * The sales of a lost lease were never reported, its tickets are counted as stranded instead of sold.
+     * @param eventId (event identifier)
+     * @param generation (sale the tickets were sold in)
+     * @param numTickets (tickets returned)
+     * @return (updated counter, null if the sale changed or fewer tickets are counted as stranded, the tickets then stay stranded)
+     */
+    Counter returnStranded(String eventId, long generation, int numTickets);
+
+    /**
+     * Method to remove the leases of an event that have expired, and count their tickets as stranded.
+     * @param eventId (event identifier)
+     * @param now (current time)
+     * @return (number of leases removed)
+     */
+    int reapExpired(String eventId, Instant now);
+}
@@ -0,0 +1,206 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.Configuration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TicketEvent class holding everything the backend keeps in memory for one event.
+ * Each event has its own configuration, ticket pool, running state and agents,
+ * and publishes its updates on its own websocket topics.
+ */
+public class TicketEvent {
+
+    /**
+     * Identifier of the event served by the original /api and /topic routes.
+     */
+    public static final String DEFAULT_EVENT = "default";
+
+    private final String eventId;
+    private final String topicPrefix;
+    private final TicketPool ticketPool;
+    private volatile Configuration configuration;
+    private volatile boolean running = false;
+    private volatile long lastAccessed = System.currentTimeMillis();
+    private volatile boolean closed = false;
+    private final AtomicInteger users = new AtomicInteger(); // Callers holding the event beyond a single request
+    private final List<Thread> agentThreads = Collections.synchronizedList(new ArrayList<>());
+    private final List<TimingWheelScheduler.ScheduledTask> scheduledAgents = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Constructor for TicketEvent
+     * @param eventId (unique identifier of the event)
+     * @param topicPrefix (websocket topic prefix of the event, for example "/topic/events/{id}")
+     * @param ticketPool (ticket pool of the event)
+     * @param configuration (latest configuration of the event)
+     */
+    public TicketEvent(String eventId, String topicPrefix, TicketPool ticketPool, Configuration configuration) {
+        this.eventId = eventId;
+        this.topicPrefix = topicPrefix;
+        this.ticketPool = ticketPool;
+        this.configuration = configuration;
+    }
+
+    /**
+     * Method to get the websocket topic of the event.
+     * @param name (topic name, for example "status" or "logs")
+     * @return (full topic destination)
+     */
+    public String topic(String name) {
+        return topicPrefix + "/" + name;
+    }
+
+    /**
+     * Method to check if the simulation of the event is running.
+     * A simulation stops running once all tickets are sold.
+     * @return (true if running, false if not)
+     */
+    public boolean isRunning() {
+        return running && !ticketPool.areAllTicketsSold();
+    }
+
+    /**
+     * Method to mark the simulation of the event as running or stopped.
+     * @param running (true if running, false if stopped)
+     */
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+
+    /**
+     * Method to keep track of a thread started for the simulation of the event.
+     * @param thread (vendor, customer or monitoring thread)
+     */
+    public void addAgent(Thread thread) {
+        agentThreads.add(thread);
+    }
+
+    /**
+     * Method to keep track of a task scheduled for the simulation of the event.
+     * @param task (vendor, customer or monitoring task)
+     */
+    public void addAgent(TimingWheelScheduler.ScheduledTask task) {
+        scheduledAgents.add(task);
+    }
+
+    /**
+     * Method to check if agents were started for the simulation of the event and not stopped yet.
+     * @return (true if there are agents to stop, false if not)
+     */
+    public boolean hasAgents() {
+        return !agentThreads.isEmpty() || !scheduledAgents.isEmpty();
+    }
+
+    /**
+     * Method to check if any agent of the event is still alive.
+     * @return (true if a thread is alive or a task can still run)
+     */
+    private boolean hasLiveAgents() {
+        synchronized (agentThreads) {
+            if (agentThreads.stream().anyMatch(Thread::isAlive)) {
+                return true;
+            }
+        }
+        synchronized (scheduledAgents) {
+            return scheduledAgents.stream().anyMatch(task -> !task.isDone());
+        }
+    }
+
+    /**
+     * Method to interrupt the threads and cancel the tasks started for the simulation of the event.
+     */
+    public void stopAgents() {
+        synchronized (agentThreads) {
+            for (Thread thread : agentThreads) {
+                if (thread != null && thread.isAlive()) {
+                    thread.interrupt();
+                }
+            }
+            agentThreads.clear();
+        }
+        synchronized (scheduledAgents) {
+            for (TimingWheelScheduler.ScheduledTask task : scheduledAgents) {
+                task.cancel();
+            }
+            scheduledAgents.clear();
+        }
+    }
+
+    /**
+     * Method to check if the event can be removed from memory.
+     * @param idleMillis (time since the last access after which the event is idle)
+     * @return (true if the event is not running, holds no tickets, has no waiting requests or users
+     * and has not been accessed for idleMillis)
+     */
+    public boolean isIdle(long idleMillis) {
+        return !isRunning() && !hasLiveAgents() && ticketPool.getHeldTickets() == 0
+                && ticketPool.getWaitingRequests() == 0 && users.get() == 0
+                && System.currentTimeMillis() - lastAccessed > idleMillis;
+    }
+
+    /**
+     * Method to close the event if it is idle, called by the EventRegistry before evicting it.
+     * The event is marked closed before it is checked, and callers touch it before checking it is not closed,
+     * so either the caller sees the event closed and loads it again, or the check sees the caller's access.
+     * @param idleMillis (time since the last access after which the event is idle)
+     * @return (true if the event is closed and can be evicted, false if it is still in use)
+     */
+    boolean tryClose(long idleMillis) {
+        closed = true;
+        if (isIdle(idleMillis)) {
+            return true;
+        }
+        closed = false;
+        return false;
+    }
+
+    /**
+     * Method to check if the event was closed to be evicted, it must not be used once it is.
+     * @return (true if closed)
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Method to keep the event from being evicted while a caller still uses it beyond the current request,
+     * like a purchase waiting for its group commit. Each call must be followed by a call to release.
+     */
+    public void retain() {
+        users.incrementAndGet();
+    }
+
+    /**
+     * Method to end a use started with retain.
+     */
+    public void release() {
+        touch();
+        users.decrementAndGet();
+    }
+
+    /**
+     * Method to record an access to the event, postponing its eviction.
+     */
+    public void touch() {
+        lastAccessed = System.currentTimeMillis();
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public TicketPool getTicketPool() {
+        return ticketPool;
+    }
+
+    public Configuration getConfiguration() {
+        return configuration;
+    }
+
+    public void setConfiguration(Configuration configuration) {
+        this.configuration = configuration;
+    }
+}
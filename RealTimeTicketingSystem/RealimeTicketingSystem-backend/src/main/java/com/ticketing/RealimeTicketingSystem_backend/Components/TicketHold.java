@@ -0,0 +1,47 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.HoldResult;
+
+/**
+ * Tickets held for a customer by a TicketPool until the hold is confirmed, released or expires.
+ * The tickets are taken out of the inventory while held, the hold ends when it is removed from the pool.
+ */
+class TicketHold {
+
+    final String holdId;
+    final String customerId;
+    final int numTickets;
+    final int[] seats;
+    final long expiresAt;
+    volatile TimingWheelScheduler.ScheduledTask expiry;
+
+    /**
+     * Constructor for TicketHold
+     * @param holdId (identifier of the hold)
+     * @param customerId (customer holding the tickets)
+     * @param numTickets (number of tickets held)
+     * @param seats (seat numbers held, empty if the pool has no seat numbers)
+     * @param expiresAt (time the hold expires, in epoch milliseconds)
+     */
+    TicketHold(String holdId, String customerId, int numTickets, int[] seats, long expiresAt) {
+        this.holdId = holdId;
+        this.customerId = customerId;
+        this.numTickets = numTickets;
+        this.seats = seats;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Cancels the expiry of a hold that was confirmed or released.
+     */
+    void cancelExpiry() {
+        TimingWheelScheduler.ScheduledTask task = expiry;
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    HoldResult toResult(HoldResult.Status status) {
+        return new HoldResult(holdId, customerId, numTickets, seats, expiresAt, status);
+    }
+}
@@ -0,0 +1,110 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+/**
+ * Inventory engine used by the TicketPool to store the tickets.
+ * Only keeps track of the released, available and sold counts,
+ * logging and websocket updates are handled by the TicketPool.
+ * Implementations must be safe to call from multiple threads.
+ */
+public interface TicketInventory {
+
+    /**
+     * Returned by claimSeats when the tickets were sold by an engine without seat numbers.
+     */
+    int[] UNNUMBERED = new int[0];
+
+    /**
+     * Method to clear the inventory and release the initial tickets.
+     * @param maxCapacity (maximum number of tickets that can be released)
+     * @param initialTickets (number of tickets to release straight away)
+     */
+    void reset(int maxCapacity, int initialTickets);
+
+    /**
+     * Method to release tickets into the inventory.
+     * Never releases more than the remaining capacity.
+     * @param vendorId (vendor identifier)
+     * @param numTickets (number of tickets to release)
+     * @return (number of tickets actually released, 0 if the capacity is reached)
+     */
+    int release(String vendorId, int numTickets);
+
+    /**
+     * Method to reserve tickets for a customer as a single all-or-nothing operation.
+     * Never waits for tickets, waiting is handled by the TicketPool.
+     * @param customerId (customer identifier)
+     * @param numTickets (number of tickets to reserve)
+     * @return (true if the tickets are sold to the customer, false if not enough are available)
+     */
+    boolean reserve(String customerId, int numTickets);
+
+    /**
+     * Method to reserve tickets for a customer and get the seats they were given.
+     * Engines without seat numbers return UNNUMBERED on success.
+     * @param customerId (customer identifier)
+     * @param numTickets (number of tickets to reserve)
+     * @return (seat numbers, UNNUMBERED if the engine has no seats, null if not enough are available)
+     */
+    default int[] claimSeats(String customerId, int numTickets) {
+        return reserve(customerId, numTickets) ? UNNUMBERED : null;
+    }
+
+    /**
+     * Method to return tickets reserved by a customer to the inventory, making them available again.
+     * Only called with tickets the inventory sold to the customer, for example an expired hold.
+     * @param customerId (customer identifier)
+     * @param seats (seat numbers returned, UNNUMBERED if the engine has no seats)
+     * @param numTickets (number of tickets returned)
+     */
+    void returnTickets(String customerId, int[] seats, int numTickets);
+
+    /**
+     * Method to get the tickets currently available for customers.
+     * @return (available tickets)
+     */
+    int getAvailable();
+
+    /**
+     * Method to get the total tickets released.
+     * @return (total tickets released)
+     */
+    int getReleased();
+
+    /**
+     * Method to get the total tickets sold.
+     * @return (total tickets sold)
+     */
+    int getSold();
+
+    /**
+     * Method to get the maximum ticket capacity.
+     * @return (maximum ticket capacity)
+     */
+    int getMaxCapacity();
+
+    /**
+     * Method to check if tickets that are not available here can still come back without a vendor release,
+     * like the blocks other nodes lease, which they give back when they close.
+     * The pool is not sold out while they can.
+     * @return (true if tickets can still come back, false for the engines that hold all their tickets)
+     */
+    default boolean hasTicketsElsewhere() {
+        return false;
+    }
+
+    /**
+     * Method to set the listener told when the counts change without a call of the pool,
+     * like the sales and releases of the other nodes seen by a LEASED inventory.
+     * Engines whose counts only change through their methods never call it.
+     * @param listener (called without any lock of the inventory held)
+     */
+    default void setChangeListener(Runnable listener) {
+    }
+
+    /**
+     * Method to release the resources of the inventory, like the threads of engines that have their own.
+     * The inventory must not be used after it is closed.
+     */
+    default void close() {
+    }
+}
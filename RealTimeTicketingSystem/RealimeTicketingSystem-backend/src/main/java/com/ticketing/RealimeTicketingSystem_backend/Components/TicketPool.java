@@ -1,16 +1,24 @@
 package com.ticketing.RealimeTicketingSystem_backend.Components;
 
+import com.ticketing.RealimeTicketingSystem_backend.Models.HoldResult;
+import com.ticketing.RealimeTicketingSystem_backend.Models.PurchaseResult;
 import com.ticketing.RealimeTicketingSystem_backend.Models.SystemLogger;
 import com.ticketing.RealimeTicketingSystem_backend.Models.Configuration;
 import com.ticketing.RealimeTicketingSystem_backend.Models.TicketStatus;
-import com.ticketing.RealimeTicketingSystem_backend.Services.*;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
 
@@ -18,92 +26,253 @@ import java.util.logging.Logger;
  * TicketPool class to manage the tickets in the system.
  * For adding and removing tickets,
  * and keeping track of the total tickets released and sold.
- * Provides synchronized methods to add and remove tickets.
+ * The tickets are stored in a TicketInventory engine selected with "ticketing.pool.engine".
+ * Customers that cannot be served straight away wait in a FIFO queue,
+ * and the vendor releasing tickets hands them to the queued requests in arrival order.
+ * Each event has its own pool, created by the EventRegistry.
+ * Releases and purchases are appended to the journal of the event, which the pool is restored from after a restart.
+ * Tickets can also be held for a customer and confirmed or released later,
+ * held tickets are out of the pool but not sold, and return to the pool when the hold expires.
  */
-@Component
 public class TicketPool {
 
-    private final List<Integer> tickets = Collections.synchronizedList(new ArrayList<>());
-    private int maxCapacity;
-    private int totalTicketsReleased = 0;
-    private int totalTicketsSold = 0;
+    private final TicketInventory inventory;
+    private final PoolEngine engine;
     private static final Logger logger = Logger.getLogger(TicketPool.class.getName());
-    private boolean allTicketsReleased = false;
-    private boolean allTicketsSold = false;
-    private final SimpMessagingTemplate messagingTemplate;
+    private static final long DEFAULT_RETRY_AFTER_MILLIS = 1000;
+    private final AtomicBoolean allTicketsReleased = new AtomicBoolean(false);
+    private final AtomicBoolean allTicketsSold = new AtomicBoolean(false);
+    private final UpdateBroadcaster broadcaster;
+    private final TimingWheelScheduler scheduler;
+    private final TimingWheelScheduler holdScheduler;
+    private final PoolMetrics metrics;
+    private final String statusTopic;
+    private final String logsTopic;
+    private final AtomicBoolean recovered = new AtomicBoolean(false);
+    private EventJournal journal = EventJournal.NONE;
+    private PurchasePipeline pipeline = PurchasePipeline.INLINE;
+
+    /**
+     * FIFO queue of the purchase requests waiting for tickets, guarded by the queue lock.
+     * Requests that timed out or were cancelled stay in the queue marked as done, and are skipped.
+     * Vendors only take the lock when there are waiting requests.
+     */
+    private final ReentrantLock queueLock = new ReentrantLock();
+    private final ArrayDeque<PurchaseRequest> pendingRequests = new ArrayDeque<>();
+    private final AtomicInteger waitingRequests = new AtomicInteger();
+
+    /**
+     * Admission limits of the queue: requests beyond the maximum number of waiters are rejected straight away,
+     * and no request waits longer than the maximum queue delay, even without a timeout of its own.
+     */
+    private volatile int maxWaiters = Integer.MAX_VALUE;
+    private volatile Duration maxQueueDelay;
+
+    /**
+     * Holds that have not been confirmed, released or expired yet, keyed by hold id.
+     * Whoever removes a hold from the map ends it, so each hold ends exactly once.
+     */
+    private final ConcurrentMap<String, TicketHold> holds = new ConcurrentHashMap<>();
+    private final AtomicInteger heldTickets = new AtomicInteger();
 
     /**
      * Method to enable websocket messaging.
-     * @param messagingTemplate (messaging template for real-time updates)
+     * @param broadcaster (broadcaster sending the real-time updates in frames)
+     * @param engine (inventory engine used to store the tickets)
+     * @param topicPrefix (websocket topic prefix the status and logs are sent to)
+     * @param scheduler (timing wheel running the timeouts of the purchase requests)
+     * @param metrics (meters recording the latencies and gauges of the pool)
+     */
+    public TicketPool(UpdateBroadcaster broadcaster, PoolEngine engine, String topicPrefix,
+                      TimingWheelScheduler scheduler, PoolMetrics metrics) {
+        this(broadcaster, engine, topicPrefix, scheduler, scheduler, metrics);
+    }
+
+    /**
+     * Method to enable websocket messaging, with a separate timing wheel for the hold expiries.
+     * Holds last minutes, a wheel with a coarse tick keeps them in one bucket until they expire.
+     * @param broadcaster (broadcaster sending the real-time updates in frames)
+     * @param engine (inventory engine used to store the tickets)
+     * @param topicPrefix (websocket topic prefix the status and logs are sent to)
+     * @param scheduler (timing wheel running the timeouts of the purchase requests)
+     * @param holdScheduler (timing wheel running the expiries of the holds)
+     * @param metrics (meters recording the latencies and gauges of the pool)
+     */
+    public TicketPool(UpdateBroadcaster broadcaster, PoolEngine engine, String topicPrefix,
+                      TimingWheelScheduler scheduler, TimingWheelScheduler holdScheduler, PoolMetrics metrics) {
+        this(broadcaster, engine, engine.newInventory(), topicPrefix, scheduler, holdScheduler, metrics);
+    }
+
+    /**
+     * Method to enable websocket messaging, with an inventory created by the caller.
+     * Used for the engines whose inventories need more than newInventory provides, like the shared store of LEASED.
+     * @param broadcaster (broadcaster sending the real-time updates in frames)
+     * @param engine (inventory engine of the inventory)
+     * @param inventory (inventory storing the tickets)
+     * @param topicPrefix (websocket topic prefix the status and logs are sent to)
+     * @param scheduler (timing wheel running the timeouts of the purchase requests)
+     * @param holdScheduler (timing wheel running the expiries of the holds)
+     * @param metrics (meters recording the latencies and gauges of the pool)
      */
-    public TicketPool(SimpMessagingTemplate messagingTemplate) {
-        this.messagingTemplate = messagingTemplate;
+    public TicketPool(UpdateBroadcaster broadcaster, PoolEngine engine, TicketInventory inventory, String topicPrefix,
+                      TimingWheelScheduler scheduler, TimingWheelScheduler holdScheduler, PoolMetrics metrics) {
+        this.broadcaster = broadcaster;
+        this.engine = engine;
+        this.inventory = inventory;
+        this.scheduler = scheduler;
+        this.holdScheduler = holdScheduler;
+        this.metrics = metrics;
+        this.statusTopic = topicPrefix + "/status";
+        this.logsTopic = topicPrefix + "/logs";
+        metrics.registerGauges(this);
+        inventory.setChangeListener(this::inventoryChanged);
     }
 
     /**
      * Method to initialize the ticket pool with the user configuration.
      * Clears the existing tickets and adds the initial tickets.
+     * Requests still waiting from the previous simulation are cancelled.
      * @param config (user configuration)
      */
     public void initialize(Configuration config) {
-        synchronized (this) {
-            tickets.clear();
-            totalTicketsReleased = 0;
-            totalTicketsSold = 0;
-            allTicketsReleased = false;
-            allTicketsSold = false;
-
-            this.maxCapacity = config.getMaxTicketCapacity();
-            int initialTickets = config.getTotalTickets();
-
-            for (int i = 0; i < initialTickets && i < maxCapacity; i++) {
-                tickets.add(1);
-                totalTicketsReleased++;
-            }
+        List<PurchaseRequest> cancelled;
+        queueLock.lock();
+        try {
+            cancelled = drainPendingRequests();
+            dropHolds();
+            inventory.reset(config.getMaxTicketCapacity(), config.getTotalTickets());
+            allTicketsReleased.set(false);
+            allTicketsSold.set(false);
+            recovered.set(false);
+            pipeline.publishInitialize(this, inventory.getMaxCapacity(), inventory.getReleased());
+        } finally {
+            queueLock.unlock();
+        }
+        completeRequests(cancelled, PurchaseResult.Status.CANCELLED);
+
+        logStatus("Initialized " + engine + " ticket pool with " + inventory.getAvailable() +
+                " tickets. Maximum capacity: " + inventory.getMaxCapacity(), "INFO");
+    }
+
+    /**
+     * Method to set the journal the releases and purchases are appended to.
+     * @param journal (journal of the event)
+     */
+    public void setJournal(EventJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Method to set the pipeline journaling and broadcasting the changes of the pool.
+     * Without a pipeline the changes are journaled and broadcast by the thread making them.
+     * @param pipeline (pipeline shared by the pools)
+     */
+    public void setPipeline(PurchasePipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Method to set the admission limits of the purchase queue.
+     * Requests arriving when the queue is full are rejected with a retry after time instead of waiting.
+     * @param maxWaiters (maximum number of requests waiting for tickets)
+     * @param maxQueueDelay (maximum time a request waits for tickets, null for no maximum)
+     */
+    public void setAdmissionLimits(int maxWaiters, Duration maxQueueDelay) {
+        this.maxWaiters = Math.max(0, maxWaiters);
+        this.maxQueueDelay = maxQueueDelay;
+    }
 
-            logStatus("Initialized ticket pool with " + tickets.size() +
-                    " tickets. Maximum capacity: " + maxCapacity, "INFO");
+    /**
+     * Method to restore the pool from the state of its journal, after a restart.
+     * Releases the journaled tickets and sells the journaled purchases again,
+     * the next simulation of the event resumes the sale instead of initializing the pool.
+     * Seat numbers are not journaled, a seat map engine gives the recovered sales the lowest seats.
+     * @param state (state rebuilt from the journal)
+     */
+    public void restore(EventJournal.State state) {
+        queueLock.lock();
+        try {
+            dropHolds();
+            inventory.reset(state.maxCapacity(), state.released());
+            // A purchase can be journaled just before the release it was filled from, a torn journal may end in between
+            int sold = Math.min(state.sold(), state.released());
+            if (sold > 0) {
+                inventory.claimSeats("recovery", sold);
+            }
+            allTicketsReleased.set(inventory.getReleased() >= inventory.getMaxCapacity());
+            allTicketsSold.set(inventory.getSold() >= inventory.getMaxCapacity());
+            recovered.set(true);
+        } finally {
+            queueLock.unlock();
         }
+
+        logStatus("Recovered " + engine + " ticket pool from the journal. Total released: " +
+                inventory.getReleased() + ", total sold: " + inventory.getSold() +
+                "/" + inventory.getMaxCapacity(), "INFO");
+        notifyStatus();
+    }
+
+    /**
+     * Method to check if the next simulation resumes the sale restored from the journal.
+     * Only the first simulation after a restore resumes it, and only while tickets are left to sell.
+     * @return (true if the pool was restored and is not sold out, false if it must be initialized)
+     */
+    public boolean resumeRecovered() {
+        return recovered.getAndSet(false) && !isComplete();
     }
 
     /**
      * Method to add tickets to the pool from a vendor.
      * Checks if the pool has reached the maximum capacity,
      * and stops vendor release.
+     * Fills the waiting purchase requests with the new tickets.
      * @param vendorId (vendor identifier)
      * @param numTickets (number of tickets to add)
      * @return (true if tickets are added, false if not)
      */
-    public synchronized boolean addTickets(String vendorId, int numTickets) {
-        if (allTicketsReleased || allTicketsSold) {
-            return false;
-        }
+    public boolean addTickets(String vendorId, int numTickets) {
+        return releaseTickets(vendorId, numTickets) > 0;
+    }
 
-        int remainingCapacity = maxCapacity - totalTicketsReleased;
-        if (remainingCapacity <= 0) {
-            allTicketsReleased = true;
-            logStatus("Maximum ticket capacity reached. No more tickets can be released.", "INFO");
-            return false;
+    /**
+     * Method to add tickets to the pool from a vendor, like addTickets.
+     * The last release can be cut short by the maximum capacity.
+     * @param vendorId (vendor identifier)
+     * @param numTickets (number of tickets to add)
+     * @return (number of tickets actually added, 0 if none were)
+     */
+    public int releaseTickets(String vendorId, int numTickets) {
+        long startNanos = System.nanoTime();
+        try {
+            return addToInventory(vendorId, numTickets);
+        } finally {
+            metrics.recordRelease(startNanos);
         }
+    }
 
-        int ticketsToAdd = Math.min(numTickets, remainingCapacity);
-
-        for (int i = 0; i < ticketsToAdd; i++) {
-            tickets.add(1);
+    private int addToInventory(String vendorId, int numTickets) {
+        if (allTicketsReleased.get() || allTicketsSold.get()) {
+            return 0;
         }
-        totalTicketsReleased += ticketsToAdd;
 
-        if (totalTicketsReleased >= maxCapacity) {
-            allTicketsReleased = true;
+        int ticketsAdded = inventory.release(vendorId, numTickets);
+        if (ticketsAdded == 0) {
+            if (allTicketsReleased.compareAndSet(false, true)) {
+                logStatus("Maximum ticket capacity reached. No more tickets can be released.", "INFO");
+                fillPendingRequests();
+            }
+            return 0;
+        }
+        int maxCapacity = inventory.getMaxCapacity();
+        int totalTicketsReleased = inventory.getReleased();
+        if (totalTicketsReleased >= maxCapacity && allTicketsReleased.compareAndSet(false, true)) {
             logStatus("All " + maxCapacity + " tickets have been released. Vendors will stop releasing tickets.", "INFO");
         }
 
-        logStatus("Vendor " + vendorId + " added " + ticketsToAdd +
-                " tickets. Pool size: " + tickets.size() +
-                ". Total released: " + totalTicketsReleased + "/" + maxCapacity, "INFO");
+        pipeline.publishRelease(this, vendorId, ticketsAdded, inventory.getAvailable(), totalTicketsReleased, maxCapacity);
 
-        notifyAll();
-        return true;
+        fillPendingRequests();
+        return ticketsAdded;
     }
 
     /**
@@ -111,96 +280,606 @@ public class TicketPool {
      * Checks if all tickets are sold, and returns false.
      * Checks if there are enough tickets and all have been released,
      * and returns false.
+     * Waits in the purchase queue for vendors to release tickets when the pool is short.
+     * @param customerId (customer identifier)
+     * @param numTickets (number of tickets to remove)
+     * @return (true if tickets are removed, false if not)
+     */
+    public boolean removeTickets(String customerId, int numTickets) {
+        return purchaseSeats(customerId, numTickets, true) != null;
+    }
+
+    /**
+     * Method to remove tickets from the pool for a customer without waiting.
+     * Same checks as removeTickets, but returns false straight away when the pool is short.
+     * Used by callers that must not block, like the agents scheduled on the timing wheel.
      * @param customerId (customer identifier)
      * @param numTickets (number of tickets to remove)
      * @return (true if tickets are removed, false if not)
      */
-    public synchronized boolean removeTickets(String customerId, int numTickets) {
-        if (totalTicketsSold >= maxCapacity || (tickets.size() < numTickets && allTicketsReleased)) {
-            if (!allTicketsSold) {
-                allTicketsSold = true;
-                tickets.clear();
-                logStatus("All tickets have been sold. Stopping the system.", "INFO");
-                TicketService.isRunning = false;
-                notifyStatus();
+    public boolean tryRemoveTickets(String customerId, int numTickets) {
+        return purchaseSeats(customerId, numTickets, false) != null;
+    }
+
+    /**
+     * Method to remove tickets from the pool for a customer and get the seats they were given.
+     * Same checks as removeTickets.
+     * @param customerId (customer identifier)
+     * @param numTickets (number of tickets to remove)
+     * @param waitForTickets (true to wait for vendors when the pool is short, false to give up straight away)
+     * @return (seat numbers, empty if the engine has no seat numbers, null if no tickets were removed)
+     */
+    public int[] purchaseSeats(String customerId, int numTickets, boolean waitForTickets) {
+        long startNanos = System.nanoTime();
+        try {
+            return claimSeats(customerId, numTickets, waitForTickets);
+        } finally {
+            metrics.recordPurchase(startNanos);
+        }
+    }
+
+    private int[] claimSeats(String customerId, int numTickets, boolean waitForTickets) {
+        if (!canBeFilled(numTickets)) {
+            return null;
+        }
+
+        int[] seats = claimIfNobodyWaiting(customerId, numTickets);
+        if (seats != null || !waitForTickets) {
+            return seats;
+        }
+
+        // Logged for the first waiting customer only, a long queue would otherwise flood the logs
+        if (waitingRequests.get() == 0) {
+            logStatus("Pool has fewer than " + numTickets +
+                    " tickets. Customer " + customerId + " is waiting.", "WARNING");
+        }
+        PurchaseRequest request = enqueue(customerId, numTickets, false, null);
+        try {
+            return seatsIfFilled(request.future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // The request may have been filled before it could be cancelled, the customer keeps those tickets
+            return cancel(request) ? null : seatsIfFilled(request.future.join());
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Method to purchase tickets without blocking the caller.
+     * When the pool is short the request waits in the FIFO queue,
+     * and is filled by the vendor releasing the tickets, in the order the requests arrived.
+     * @param customerId (customer identifier)
+     * @param numTickets (number of tickets to purchase)
+     * @param timeout (time the request can wait for tickets, null to wait until the pool is sold out)
+     * @param acceptPartialFill (true to take tickets as they are released, keeping them if the request times out)
+     * @return (future completed with the result of the request)
+     */
+    public CompletableFuture<PurchaseResult> purchaseAsync(String customerId, int numTickets,
+                                                           Duration timeout, boolean acceptPartialFill) {
+        long startNanos = System.nanoTime();
+        try {
+            return reserveTickets(customerId, numTickets, timeout, acceptPartialFill);
+        } finally {
+            metrics.recordPurchase(startNanos);
+        }
+    }
+
+    /**
+     * Method to purchase tickets straight away, or not at all.
+     * Unlike tryRemoveTickets, the result tells a sold out pool apart from a pool that is only short for now.
+     * @param customerId (customer identifier)
+     * @param numTickets (number of tickets to purchase)
+     * @return (result of the purchase, FILLED, SOLD_OUT or UNAVAILABLE)
+     */
+    public PurchaseResult purchaseNow(String customerId, int numTickets) {
+        long startNanos = System.nanoTime();
+        try {
+            if (!canBeFilled(numTickets)) {
+                return new PurchaseResult(customerId, numTickets, 0, TicketInventory.UNNUMBERED,
+                        PurchaseResult.Status.SOLD_OUT);
             }
-            return false;
+            int[] seats = claimIfNobodyWaiting(customerId, numTickets);
+            return seats != null
+                    ? new PurchaseResult(customerId, numTickets, numTickets, seats, PurchaseResult.Status.FILLED)
+                    : new PurchaseResult(customerId, numTickets, 0, TicketInventory.UNNUMBERED,
+                            PurchaseResult.Status.UNAVAILABLE);
+        } finally {
+            metrics.recordPurchase(startNanos);
+        }
+    }
+
+    private CompletableFuture<PurchaseResult> reserveTickets(String customerId, int numTickets,
+                                                             Duration timeout, boolean acceptPartialFill) {
+        if (!canBeFilled(numTickets)) {
+            return CompletableFuture.completedFuture(new PurchaseResult(customerId, numTickets, 0,
+                    TicketInventory.UNNUMBERED, PurchaseResult.Status.SOLD_OUT));
+        }
+
+        int[] seats = claimIfNobodyWaiting(customerId, numTickets);
+        if (seats != null) {
+            return CompletableFuture.completedFuture(new PurchaseResult(customerId, numTickets, numTickets,
+                    seats, PurchaseResult.Status.FILLED));
+        }
+        return enqueue(customerId, numTickets, acceptPartialFill, timeout).future;
+    }
+
+    /**
+     * Method to hold tickets for a customer without purchasing them.
+     * The tickets are taken out of the pool until the hold is confirmed or released,
+     * or until the hold time has passed, when they return to the pool for the waiting customers.
+     * Never waits, and never takes tickets ahead of the customers already waiting in the queue.
+     * @param customerId (customer identifier)
+     * @param numTickets (number of tickets to hold)
+     * @param holdTime (time the tickets are held for)
+     * @return (result with the hold id, UNAVAILABLE if the pool is short, SOLD_OUT if no tickets can be held)
+     */
+    public HoldResult holdTickets(String customerId, int numTickets, Duration holdTime) {
+        if (!canBeFilled(numTickets)) {
+            return new HoldResult(null, customerId, numTickets, TicketInventory.UNNUMBERED, 0, HoldResult.Status.SOLD_OUT);
+        }
+
+        long holdMillis = Math.max(0, holdTime.toMillis());
+        TicketHold hold;
+        // Under the queue lock, so the hold cannot be counted into a pool that is being initialized
+        queueLock.lock();
+        try {
+            // Counted as held before the tickets leave the inventory, so they are never seen as sold
+            heldTickets.addAndGet(numTickets);
+            int[] seats = waitingRequests.get() > 0 ? null : inventory.claimSeats(customerId, numTickets);
+            if (seats == null) {
+                heldTickets.addAndGet(-numTickets);
+                return new HoldResult(null, customerId, numTickets, TicketInventory.UNNUMBERED, 0,
+                        HoldResult.Status.UNAVAILABLE);
+            }
+
+            hold = new TicketHold(UUID.randomUUID().toString(), customerId, numTickets, seats,
+                    System.currentTimeMillis() + holdMillis);
+            holds.put(hold.holdId, hold);
+            hold.expiry = holdScheduler.schedule(() -> expireHold(hold.holdId), holdMillis);
+        } finally {
+            queueLock.unlock();
+        }
+
+        logStatus("Customer " + customerId + " is holding " + numTickets + " tickets for " +
+                holdTime.toSeconds() + " seconds. Pool size: " + getRemainingTickets(), "INFO");
+        notifyStatus();
+        return hold.toResult(HoldResult.Status.HELD);
+    }
+
+    /**
+     * Method to purchase the tickets of a hold.
+     * @param holdId (hold identifier)
+     * @return (result of the confirmed hold, null if the hold does not exist, has expired or was released)
+     */
+    public HoldResult confirmHold(String holdId) {
+        TicketHold hold;
+        // Under the queue lock like endHold, so a pool being initialized never sees the hold half confirmed
+        queueLock.lock();
+        try {
+            hold = holds.remove(holdId);
+            if (hold == null) {
+                return null;
+            }
+            hold.cancelExpiry();
+            // The tickets were claimed from the inventory when they were held, they now count as sold
+            heldTickets.addAndGet(-hold.numTickets);
+        } finally {
+            queueLock.unlock();
+        }
+        recordPurchase(hold.customerId, hold.numTickets, hold.seats, true);
+        fillPendingRequests();
+        return hold.toResult(HoldResult.Status.CONFIRMED);
+    }
+
+    /**
+     * Method to return the tickets of a hold to the pool.
+     * @param holdId (hold identifier)
+     * @return (result of the released hold, null if the hold does not exist, has expired or was confirmed)
+     */
+    public HoldResult releaseHold(String holdId) {
+        TicketHold hold = endHold(holdId);
+        if (hold == null) {
+            return null;
+        }
+        logStatus("Customer " + hold.customerId + " released a hold of " + hold.numTickets +
+                " tickets. Pool size: " + getRemainingTickets(), "INFO");
+        notifyStatus();
+        fillPendingRequests();
+        return hold.toResult(HoldResult.Status.RELEASED);
+    }
+
+    /**
+     * Returns the tickets of a hold whose hold time has passed, run by the hold timing wheel.
+     * @param holdId (hold identifier)
+     */
+    private void expireHold(String holdId) {
+        TicketHold hold = endHold(holdId);
+        if (hold == null) {
+            return;
         }
+        logStatus("Hold of " + hold.numTickets + " tickets for customer " + hold.customerId +
+                " expired. Pool size: " + getRemainingTickets(), "INFO");
+        notifyStatus();
+        fillPendingRequests();
+    }
 
-        if (totalTicketsSold + numTickets > maxCapacity) {
+    /**
+     * Ends a hold and returns its tickets to the inventory.
+     * Runs under the queue lock, so the tickets cannot be returned into a pool that is being initialized.
+     * @param holdId (hold identifier)
+     * @return (ended hold, null if the hold had already ended)
+     */
+    private TicketHold endHold(String holdId) {
+        queueLock.lock();
+        try {
+            TicketHold hold = holds.remove(holdId);
+            if (hold == null) {
+                return null;
+            }
+            hold.cancelExpiry();
+            // Returned before the held count drops, so the tickets are never seen as sold
+            inventory.returnTickets(hold.customerId, hold.seats, hold.numTickets);
+            heldTickets.addAndGet(-hold.numTickets);
+            return hold;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * Ends all holds without returning their tickets, the inventory is reset after this.
+     * Must be called while holding the queue lock.
+     */
+    private void dropHolds() {
+        for (TicketHold hold : holds.values()) {
+            hold.cancelExpiry();
+        }
+        holds.clear();
+        heldTickets.set(0);
+    }
+
+    /**
+     * Checks if a request for this number of tickets can still be filled.
+     * Marks the pool as sold out when all tickets are sold,
+     * or when all are released and not enough are left.
+     * @param numTickets (number of tickets requested)
+     * @return (true if the request can be filled now or later, false if not)
+     */
+    private boolean canBeFilled(int numTickets) {
+        int maxCapacity = inventory.getMaxCapacity();
+        int totalTicketsSold = getTotalTicketsSold();
+        if (totalTicketsSold >= maxCapacity || (inventory.getAvailable() < numTickets && allTicketsReleased.get()
+                && heldTickets.get() == 0 && !inventory.hasTicketsElsewhere())) {
+            markAllTicketsSold();
             return false;
         }
+        return totalTicketsSold + numTickets <= maxCapacity;
+    }
+
+    /**
+     * Claims the tickets straight away, unless other customers are already waiting in the queue.
+     * @param customerId (customer identifier)
+     * @param numTickets (number of tickets to claim)
+     * @return (seat numbers, null if the tickets were not claimed)
+     */
+    private int[] claimIfNobodyWaiting(String customerId, int numTickets) {
+        if (waitingRequests.get() > 0) {
+            return null;
+        }
+        int[] seats = inventory.claimSeats(customerId, numTickets);
+        if (seats != null) {
+            recordPurchase(customerId, numTickets, seats, true);
+        }
+        return seats;
+    }
+
+    /**
+     * Adds a request to the end of the queue and schedules its timeout, capped at the maximum queue delay.
+     * Tries to fill the queue straight away, tickets may have been released since the caller last looked.
+     * When the queue already holds the maximum number of waiters, the request is rejected instead,
+     * with the maximum queue delay as the time to retry after.
+     * @param customerId (customer identifier)
+     * @param numTickets (number of tickets requested)
+     * @param acceptPartialFill (true if the request can be filled a few tickets at a time)
+     * @param timeout (time the request can wait, null for no timeout)
+     * @return (queued request, or a request already completed as rejected)
+     */
+    private PurchaseRequest enqueue(String customerId, int numTickets, boolean acceptPartialFill, Duration timeout) {
+        PurchaseRequest request = new PurchaseRequest(customerId, numTickets, acceptPartialFill);
+        Duration maxDelay = maxQueueDelay;
+        Duration wait = maxDelay == null || (timeout != null && timeout.compareTo(maxDelay) < 0) ? timeout : maxDelay;
+        // Rejected without the lock when the queue is known to be full, so a flood of requests does not contend for it
+        if (waitingRequests.get() >= maxWaiters) {
+            return reject(request, maxDelay);
+        }
+        queueLock.lock();
+        try {
+            if (waitingRequests.get() >= maxWaiters) {
+                return reject(request, maxDelay);
+            }
+            if (pendingRequests.size() >= maxWaiters) {
+                // Ended requests are normally skipped at the head of the queue, drop them now so they take no memory
+                pendingRequests.removeIf(pending -> pending.done);
+            }
+            pendingRequests.add(request);
+            waitingRequests.incrementAndGet();
+            if (wait != null) {
+                request.timeout = scheduler.schedule(() -> expire(request), wait.toMillis());
+            }
+        } finally {
+            queueLock.unlock();
+        }
+        metrics.recordAdmission(true);
+        fillPendingRequests();
+        return request;
+    }
+
+    /**
+     * Completes a request that was not admitted to the queue.
+     * @param request (request to reject)
+     * @param maxDelay (maximum queue delay, used as the time to retry after)
+     * @return (the rejected request)
+     */
+    private PurchaseRequest reject(PurchaseRequest request, Duration maxDelay) {
+        PurchaseResult rejected = request.toResult(PurchaseResult.Status.REJECTED);
+        rejected.setRetryAfterMillis(maxDelay != null ? maxDelay.toMillis() : DEFAULT_RETRY_AFTER_MILLIS);
+        request.done = true;
+        request.future.complete(rejected);
+        metrics.recordAdmission(false);
+        return request;
+    }
+
+    /**
+     * Fills the waiting requests in arrival order with the tickets in the pool.
+     * Stops at the first request that cannot be filled yet, so later requests never jump the queue.
+     * Once all tickets are released and none are held, requests that can never be filled are ended as sold out instead.
+     */
+    private void fillPendingRequests() {
+        if (waitingRequests.get() == 0) {
+            return;
+        }
+
+        List<PurchaseRequest> filled = new ArrayList<>();
+        List<PurchaseRequest> soldOut = new ArrayList<>();
+        queueLock.lock();
+        long lockedNanos = System.nanoTime();
+        try {
+            PurchaseRequest request;
+            while ((request = pendingRequests.peek()) != null) {
+                if (request.done) {
+                    pendingRequests.poll();
+                    continue;
+                }
+
+                int ticketsToClaim = request.acceptPartialFill
+                        ? Math.min(request.remaining(), inventory.getAvailable())
+                        : request.remaining();
+                int[] seats = ticketsToClaim > 0 ? inventory.claimSeats(request.customerId, ticketsToClaim) : null;
+                if (seats != null) {
+                    // Journaled in claim order, the purchase is logged once the request ends
+                    pipeline.publishPurchase(this, request.customerId, ticketsToClaim, seats, true, false, 0, 0, 0);
+                    request.fill(seats, ticketsToClaim);
+                }
+
+                if (request.remaining() == 0) {
+                    filled.add(finish(pendingRequests.poll()));
+                } else if ((allTicketsReleased.get() && heldTickets.get() == 0 && !inventory.hasTicketsElsewhere())
+                        || allTicketsSold.get()) {
+                    soldOut.add(finish(pendingRequests.poll()));
+                } else {
+                    break;
+                }
+            }
+        } finally {
+            metrics.recordLockHold(lockedNanos);
+            queueLock.unlock();
+        }
+
+        completeRequests(filled, PurchaseResult.Status.FILLED);
+        completeRequests(soldOut, PurchaseResult.Status.SOLD_OUT);
+    }
+
+    /**
+     * Ends a request whose timeout has passed, the customer keeps the tickets of a partial fill.
+     * @param request (request that timed out)
+     */
+    private void expire(PurchaseRequest request) {
+        if (end(request)) {
+            completeRequests(List.of(request), PurchaseResult.Status.TIMED_OUT);
+        }
+    }
+
+    /**
+     * Cancels a waiting request, used when the waiting customer is interrupted.
+     * @param request (request to cancel)
+     * @return (true if the request was cancelled, false if it had already ended)
+     */
+    private boolean cancel(PurchaseRequest request) {
+        if (end(request)) {
+            completeRequests(List.of(request), PurchaseResult.Status.CANCELLED);
+            return true;
+        }
+        return false;
+    }
 
-        while (tickets.size() < numTickets && !allTicketsSold && !allTicketsReleased) {
-            try {
-                logStatus("Pool has fewer than " + numTickets +
-                        " tickets. Customer " + customerId + " is waiting.", "WARNING");
-                wait();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+    /**
+     * Ends a request that is still waiting, it is skipped when it reaches the head of the queue.
+     * @param request (request to end)
+     * @return (true if the request was ended, false if it had already ended)
+     */
+    private boolean end(PurchaseRequest request) {
+        queueLock.lock();
+        try {
+            if (request.done) {
                 return false;
             }
+            finish(request);
+            return true;
+        } finally {
+            queueLock.unlock();
         }
+    }
 
-        if (tickets.size() < numTickets || totalTicketsSold + numTickets > maxCapacity) {
-            return false;
+    /**
+     * Marks a request as ended, must be called while holding the queue lock.
+     * @param request (request to end)
+     * @return (the ended request)
+     */
+    private PurchaseRequest finish(PurchaseRequest request) {
+        request.done = true;
+        waitingRequests.decrementAndGet();
+        if (request.timeout != null) {
+            request.timeout.cancel();
         }
+        return request;
+    }
 
-        for (int i = 0; i < numTickets; i++) {
-            tickets.remove(tickets.size() - 1);
+    /**
+     * Ends all waiting requests and empties the queue, must be called while holding the queue lock.
+     * @return (requests that were waiting)
+     */
+    private List<PurchaseRequest> drainPendingRequests() {
+        List<PurchaseRequest> drained = new ArrayList<>();
+        PurchaseRequest request;
+        while ((request = pendingRequests.poll()) != null) {
+            if (!request.done) {
+                drained.add(finish(request));
+            }
         }
-        totalTicketsSold += numTickets;
+        return drained;
+    }
 
+    /**
+     * Completes the futures of ended requests and logs the tickets they purchased.
+     * Called without holding the queue lock, so the callbacks of the futures cannot block the queue.
+     * @param requests (ended requests)
+     * @param unfilledStatus (status of the requests that did not get any tickets)
+     */
+    private void completeRequests(List<PurchaseRequest> requests, PurchaseResult.Status unfilledStatus) {
+        for (PurchaseRequest request : requests) {
+            PurchaseResult result = request.toResult(unfilledStatus);
+            metrics.recordQueueWait(result.getStatus(), request.enqueuedNanos);
+            if (result.getPurchasedTickets() > 0) {
+                recordPurchase(request.customerId, result.getPurchasedTickets(), result.getSeats(), false);
+            }
+            request.future.complete(result);
+        }
+    }
+
+    private static int[] seatsIfFilled(PurchaseResult result) {
+        return result.getStatus() == PurchaseResult.Status.FILLED ? result.getSeats() : null;
+    }
+
+    /**
+     * Publishes a purchase to the pipeline, which journals it if asked, logs it and broadcasts the new status.
+     * Marks the pool as sold out after the last ticket.
+     * @param customerId (customer identifier)
+     * @param numTickets (number of tickets purchased)
+     * @param seats (seat numbers purchased, empty if the engine has no seat numbers)
+     * @param journalPurchase (true to journal the purchase, false if it was journaled when the tickets were claimed)
+     */
+    private void recordPurchase(String customerId, int numTickets, int[] seats, boolean journalPurchase) {
+        int maxCapacity = inventory.getMaxCapacity();
+        int totalTicketsSold = getTotalTicketsSold();
         if (totalTicketsSold >= maxCapacity) {
-            allTicketsSold = true;
-            tickets.clear();
-            logStatus("All tickets have been sold. Stopping the system.", "INFO");
-            TicketService.isRunning = false;
+            markAllTicketsSold();
         }
 
-        logStatus("Customer " + customerId + " purchased " + numTickets +
-                " tickets. Pool size: " + tickets.size() +
-                ". Total sold: " + totalTicketsSold + "/" + maxCapacity, "INFO");
+        pipeline.publishPurchase(this, customerId, numTickets, seats, journalPurchase, true,
+                getRemainingTickets(), totalTicketsSold, maxCapacity);
+    }
 
+    /**
+     * Re-checks the released and sold out flags, called by the inventories whose counts change without the pool,
+     * like a LEASED inventory seeing the releases, sales and given back blocks of the other nodes.
+     * Fills the waiting requests with the tickets that became available.
+     */
+    private void inventoryChanged() {
+        boolean soldOut;
+        queueLock.lock();
+        try {
+            int maxCapacity = inventory.getMaxCapacity();
+            allTicketsReleased.set(inventory.getReleased() >= maxCapacity);
+            soldOut = getTotalTicketsSold() >= maxCapacity || (inventory.getAvailable() == 0 && allTicketsReleased.get()
+                    && heldTickets.get() == 0 && !inventory.hasTicketsElsewhere());
+            if (!soldOut) {
+                // Sold out was only seen from an older counter, or another node started a new sale
+                allTicketsSold.set(false);
+            }
+        } finally {
+            queueLock.unlock();
+        }
+        if (soldOut) {
+            markAllTicketsSold();
+        }
         notifyStatus();
-        notifyAll();
-        return true;
+        fillPendingRequests();
     }
 
     /**
-     * Broadcasts the current status of the ticket pool.
-     * Creates a TicketStatus object and,
-     * sends the total tickets released, remaining tickets through websocket.
+     * Marks the pool as sold out the first time it is called.
+     * Logs the sold out message and ends the waiting requests,
+     * the simulation of the event stops running once the pool is sold out.
+     */
+    private void markAllTicketsSold() {
+        if (allTicketsSold.compareAndSet(false, true)) {
+            logStatus("All tickets have been sold. Stopping the system.", "INFO");
+            notifyStatus();
+            fillPendingRequests();
+        }
+    }
+
+    /**
+     * Publishes a change of the status of the ticket pool to the pipeline, which broadcasts it.
      */
     private void notifyStatus() {
+        pipeline.publishStatus(this);
+    }
+
+    /**
+     * Broadcasts the current status of the ticket pool, called by the broadcast stage of the pipeline.
+     * Creates a TicketStatus object and,
+     * sends the total tickets released, remaining tickets in the next websocket frame.
+     */
+    void emitStatus() {
         TicketStatus status = new TicketStatus();
-        status.setRemainingTickets(allTicketsSold ? 0 : tickets.size());
-        status.setTotalTicketsReleased(totalTicketsReleased);
-        status.setAllTicketsReleased(allTicketsReleased);
-        status.setAllTicketsSold(allTicketsSold);
-        messagingTemplate.convertAndSend("/topic/status", status);
+        status.setRemainingTickets(getRemainingTickets());
+        status.setTotalTicketsReleased(inventory.getReleased());
+        status.setAllTicketsReleased(allTicketsReleased.get());
+        status.setAllTicketsSold(allTicketsSold.get());
+        broadcaster.publishStatus(statusTopic, status);
     }
 
     /**
      * Method to check if the ticket pool is complete.
      * @return (true if all tickets are sold, false if not)
      */
-    public synchronized boolean isComplete() {
-        return totalTicketsSold >= maxCapacity;
+    public boolean isComplete() {
+        return getTotalTicketsSold() >= inventory.getMaxCapacity();
     }
 
     /**
-     * Method to log the status of the ticket pool.
-     * Creates a SystemLogger object and sends the log message through websocket.
+     * Method to log the status of the ticket pool, the message is published to the pipeline which broadcasts it.
      * @param message (log message)
      * @param level (log level)
      */
     private void logStatus(String message, String level) {
+        pipeline.publishLog(this, message, level);
+    }
+
+    /**
+     * Method to send a log message of the ticket pool, called by the broadcast stage of the pipeline.
+     * Creates a SystemLogger object and sends the log message in the next websocket frame.
+     * @param message (log message)
+     * @param level (log level)
+     */
+    void emitLog(String message, String level) {
         SystemLogger log = new SystemLogger();
         log.setLogTime(LocalDateTime.now());
         log.setLevel(level);
         log.setMessage(message);
-        messagingTemplate.convertAndSend("/topic/logs", log);
+        broadcaster.publishLog(logsTopic, log);
     }
 
     /**
@@ -208,7 +887,7 @@ public class TicketPool {
      * @return (total tickets released)
      */
     public boolean areAllTicketsReleased() {
-        return allTicketsReleased;
+        return allTicketsReleased.get();
     }
 
     /**
@@ -216,7 +895,7 @@ public class TicketPool {
      * @return (total tickets sold)
      */
     public boolean areAllTicketsSold() {
-        return allTicketsSold;
+        return allTicketsSold.get();
     }
 
     /**
@@ -224,14 +903,70 @@ public class TicketPool {
      * @return (total tickets released)
      */
     public int getTotalTicketsReleased() {
-        return totalTicketsReleased;
+        return inventory.getReleased();
+    }
+
+    /**
+     * Method to get the total tickets sold.
+     * Held tickets are taken out of the inventory but are not sold until the hold is confirmed.
+     * @return (total tickets sold)
+     */
+    public int getTotalTicketsSold() {
+        return inventory.getSold() - heldTickets.get();
+    }
+
+    /**
+     * Method to get the tickets currently held for customers.
+     * @return (held tickets)
+     */
+    public int getHeldTickets() {
+        return heldTickets.get();
     }
 
     /**
      * Method to get the remaining tickets in the pool.
-     * @return (remaining tickets)
+     * @return (remaining tickets, 0 once all tickets are sold)
      */
     public int getRemainingTickets() {
-        return tickets.size();
+        return allTicketsSold.get() ? 0 : inventory.getAvailable();
+    }
+
+    /**
+     * Method to get the number of purchase requests waiting for tickets.
+     * @return (waiting requests)
+     */
+    public int getWaitingRequests() {
+        return waitingRequests.get();
+    }
+
+    /**
+     * Method to get the journal the releases and purchases are appended to.
+     * @return (journal of the event, EventJournal.NONE if the pool is not journaled)
+     */
+    public EventJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Method to get the meters of the pool.
+     * @return (pool meters)
+     */
+    public PoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Method to release the resources of the inventory, called when the event is evicted.
+     */
+    public void close() {
+        inventory.close();
+    }
+
+    /**
+     * Method to get the inventory engine backing the pool.
+     * @return (inventory engine)
+     */
+    public PoolEngine getEngine() {
+        return engine;
     }
 }
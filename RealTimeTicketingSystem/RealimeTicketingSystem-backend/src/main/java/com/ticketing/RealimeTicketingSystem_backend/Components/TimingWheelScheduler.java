@@ -0,0 +1,372 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hashed timing wheel driving the simulation agents and other delayed work.
+ * A single ticker thread advances the wheel every tick and hands the expired tasks to a small worker pool,
+ * so scheduling and cancelling a task are constant time and waiting tasks need no thread of their own.
+ * Tasks are placed in the bucket of their deadline tick, with the number of full wheel rounds left to wait.
+ * The ticker skips the ticks of empty buckets and sleeps until the next bucket holding tasks,
+ * or until a new task is scheduled, so an idle wheel costs no CPU.
+ */
+@Component
+public class TimingWheelScheduler {
+
+    private static final Logger logger = Logger.getLogger(TimingWheelScheduler.class.getName());
+
+    /**
+     * Maximum number of new tasks moved into the wheel per tick, so a burst cannot stall the ticker.
+     */
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<ScheduledTask> newTasks = new ConcurrentLinkedQueue<>();
+    private final Queue<ScheduledTask> cancelledTasks = new ConcurrentLinkedQueue<>();
+    private final ExecutorService workers;
+    private final Thread ticker;
+    private final long startNanos = System.nanoTime();
+    private volatile boolean running = true;
+    private volatile boolean sleeping = false; // True while the ticker sleeps past the next tick, submit wakes it
+    private long tick = 0;
+
+    /**
+     * Constructor for TimingWheelScheduler
+     * @param tickDuration (duration of one tick, the scheduling resolution)
+     * @param wheelSize (number of buckets, rounded up to a power of two)
+     * @param workerThreads (number of worker threads running the expired tasks, 0 for one per core)
+     */
+    public TimingWheelScheduler(@Value("${ticketing.scheduler.tick:1ms}") Duration tickDuration,
+                                @Value("${ticketing.scheduler.wheel-size:512}") int wheelSize,
+                                @Value("${ticketing.scheduler.workers:0}") int workerThreads) {
+        this.tickNanos = Math.max(1, tickDuration.toNanos());
+        int buckets = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.wheel = new Bucket[buckets];
+        for (int i = 0; i < buckets; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = buckets - 1;
+
+        int threads = workerThreads > 0 ? workerThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "wheel-worker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ticker = new Thread(this::runTicker, "wheel-ticker");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    /**
+     * Method to run a task once after a delay.
+     * @param task (task to run)
+     * @param delayMillis (delay before running the task, in milliseconds)
+     * @return (handle to cancel the task)
+     */
+    public ScheduledTask schedule(Runnable task, long delayMillis) {
+        return scheduleRepeating(() -> {
+            task.run();
+            return -1;
+        }, delayMillis);
+    }
+
+    /**
+     * Method to run a task repeatedly, the task decides the delay before its next run.
+     * @param step (task to run, returns the delay before the next run in milliseconds, negative to stop)
+     * @param initialDelayMillis (delay before the first run, in milliseconds)
+     * @return (handle to cancel the task)
+     */
+    public ScheduledTask scheduleRepeating(LongSupplier step, long initialDelayMillis) {
+        ScheduledTask task = new ScheduledTask(step);
+        submit(task, initialDelayMillis);
+        return task;
+    }
+
+    /**
+     * Method to run a task repeatedly at a fixed interval with random jitter.
+     * The first run happens after a random part of the jitter, so agents started together are spread out.
+     * @param step (task to run, returns false to stop)
+     * @param intervalMillis (interval between runs, in milliseconds)
+     * @param jitter (fraction of the interval each delay can randomly vary by, for example 0.1 for 10%)
+     * @return (handle to cancel the task)
+     */
+    public ScheduledTask scheduleAtInterval(BooleanSupplier step, long intervalMillis, double jitter) {
+        long maxJitter = (long) (intervalMillis * Math.max(0, jitter));
+        return scheduleRepeating(() -> step.getAsBoolean() ? intervalMillis + randomJitter(maxJitter) : -1,
+                randomJitter(maxJitter) + maxJitter);
+    }
+
+    private static long randomJitter(long maxJitter) {
+        return maxJitter > 0 ? ThreadLocalRandom.current().nextLong(-maxJitter, maxJitter + 1) : 0;
+    }
+
+    private void submit(ScheduledTask task, long delayMillis) {
+        task.deadline = System.nanoTime() - startNanos + Math.max(0, delayMillis) * 1_000_000L;
+        newTasks.add(task);
+        if (sleeping) {
+            LockSupport.unpark(ticker);
+        }
+    }
+
+    /**
+     * Ticker loop, waits for the end of each tick and expires the tasks of its bucket.
+     * When the bucket of the current tick is empty and no task is waiting to be moved into the wheel,
+     * sleeps until the start of the next tick whose bucket holds tasks, forever if the wheel is empty.
+     */
+    private void runTicker() {
+        while (running) {
+            long busyTick = nextBusyTick();
+            if (busyTick > tick) {
+                sleeping = true;
+                // Checked after the flag is set, so a task submitted before it was set is seen here
+                if (newTasks.isEmpty() && cancelledTasks.isEmpty()) {
+                    long wakeUp = busyTick == Long.MAX_VALUE ? Long.MAX_VALUE : tickNanos * busyTick;
+                    long sleepNanos;
+                    while (running && newTasks.isEmpty()
+                            && (sleepNanos = wakeUp - (System.nanoTime() - startNanos)) > 0) {
+                        if (wakeUp == Long.MAX_VALUE) {
+                            LockSupport.park(this);
+                        } else {
+                            LockSupport.parkNanos(this, sleepNanos);
+                        }
+                    }
+                }
+                sleeping = false;
+                removeCancelledTasks();
+                // The buckets of the ticks skipped were empty, no task expires or loses a round in them
+                tick = Math.max(tick, Math.min(busyTick, (System.nanoTime() - startNanos) / tickNanos));
+                continue;
+            }
+
+            long deadline = tickNanos * (tick + 1);
+            long sleepNanos;
+            while ((sleepNanos = deadline - (System.nanoTime() - startNanos)) > 0 && running) {
+                LockSupport.parkNanos(this, sleepNanos);
+            }
+
+            removeCancelledTasks();
+            transferNewTasks();
+            wheel[(int) (tick & mask)].expireTasks(deadline);
+            tick++;
+        }
+    }
+
+    private void transferNewTasks() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            ScheduledTask task = newTasks.poll();
+            if (task == null) {
+                return;
+            }
+            if (task.isCancelled()) {
+                continue;
+            }
+
+            long deadlineTick = task.deadline / tickNanos;
+            task.remainingRounds = (deadlineTick - tick) / wheel.length;
+            // Tasks already past their deadline expire in the current tick
+            long bucketTick = Math.max(deadlineTick, tick);
+            wheel[(int) (bucketTick & mask)].add(task);
+        }
+    }
+
+    /**
+     * Finds the next tick, from the current one, whose bucket holds tasks.
+     * @return (current tick if tasks are waiting to be moved into the wheel, Long.MAX_VALUE if the wheel is empty)
+     */
+    private long nextBusyTick() {
+        if (!newTasks.isEmpty()) {
+            return tick;
+        }
+        for (int i = 0; i < wheel.length; i++) {
+            if (wheel[(int) ((tick + i) & mask)].head != null) {
+                return tick + i;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private void removeCancelledTasks() {
+        ScheduledTask task;
+        while ((task = cancelledTasks.poll()) != null) {
+            if (task.bucket != null) {
+                task.bucket.remove(task);
+            }
+        }
+    }
+
+    private void dispatch(ScheduledTask task) {
+        if (!task.state.compareAndSet(ScheduledTask.WAITING, ScheduledTask.RUNNING)) {
+            return;
+        }
+        workers.execute(() -> {
+            long nextDelay;
+            try {
+                nextDelay = task.step.getAsLong();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Scheduled task failed, it will not run again", e);
+                nextDelay = -1;
+            }
+
+            if (nextDelay < 0) {
+                task.state.compareAndSet(ScheduledTask.RUNNING, ScheduledTask.DONE);
+            } else if (task.state.compareAndSet(ScheduledTask.RUNNING, ScheduledTask.WAITING)) {
+                submit(task, nextDelay);
+            }
+        });
+    }
+
+    /**
+     * Method to get the number of tasks waiting to be moved into the wheel.
+     * @return (number of new tasks)
+     */
+    public int getPendingTasks() {
+        return newTasks.size();
+    }
+
+    /**
+     * Stops the ticker and the worker threads when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(ticker);
+        workers.shutdownNow();
+    }
+
+    /**
+     * Handle of a task scheduled on the wheel.
+     * The same handle is reused for every run of a repeating task.
+     */
+    public final class ScheduledTask {
+
+        private static final int WAITING = 0;
+        private static final int RUNNING = 1;
+        private static final int DONE = 2;
+        private static final int CANCELLED = 3;
+
+        private final LongSupplier step;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        // Only used by the ticker thread, apart from the deadline set before the task is queued
+        private long deadline;
+        private long remainingRounds;
+        private Bucket bucket;
+        private ScheduledTask prev;
+        private ScheduledTask next;
+
+        private ScheduledTask(LongSupplier step) {
+            this.step = step;
+        }
+
+        /**
+         * Method to cancel the task, a run already in progress finishes but the task is not run again.
+         * @return (true if the task was cancelled, false if it had already finished or been cancelled)
+         */
+        public boolean cancel() {
+            while (true) {
+                int current = state.get();
+                if (current == DONE || current == CANCELLED) {
+                    return false;
+                }
+                if (state.compareAndSet(current, CANCELLED)) {
+                    if (current == WAITING) {
+                        cancelledTasks.add(this);
+                    }
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Method to check if the task was cancelled.
+         * @return (true if cancelled)
+         */
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        /**
+         * Method to check if the task has stopped, finished or cancelled.
+         * @return (true if the task will not run again)
+         */
+        public boolean isDone() {
+            int current = state.get();
+            return current == DONE || current == CANCELLED;
+        }
+    }
+
+    /**
+     * Bucket of the wheel, a doubly linked list of the tasks expiring in its ticks.
+     * Only used by the ticker thread.
+     */
+    private final class Bucket {
+        private ScheduledTask head;
+        private ScheduledTask tail;
+
+        void add(ScheduledTask task) {
+            task.bucket = this;
+            task.prev = tail;
+            task.next = null;
+            if (tail == null) {
+                head = task;
+            } else {
+                tail.next = task;
+            }
+            tail = task;
+        }
+
+        void remove(ScheduledTask task) {
+            if (task.bucket != this) {
+                return;
+            }
+            if (task.prev == null) {
+                head = task.next;
+            } else {
+                task.prev.next = task.next;
+            }
+            if (task.next == null) {
+                tail = task.prev;
+            } else {
+                task.next.prev = task.prev;
+            }
+            task.bucket = null;
+            task.prev = null;
+            task.next = null;
+        }
+
+        void expireTasks(long deadline) {
+            ScheduledTask task = head;
+            while (task != null) {
+                ScheduledTask next = task.next;
+                if (task.isCancelled()) {
+                    remove(task);
+                } else if (task.remainingRounds <= 0 && task.deadline <= deadline) {
+                    remove(task);
+                    dispatch(task);
+                } else {
+                    task.remainingRounds--;
+                }
+                task = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.SystemLogger;
+import com.ticketing.RealimeTicketingSystem_backend.Models.TicketStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Broadcaster for the status and log updates sent to the frontend through websocket.
+ * Updates are gathered in memory and published at most once per "ticketing.broadcast.frame-interval":
+ * the latest status of a topic is only sent when it changed since the last frame,
+ * and the log entries of a topic are sent together as one list.
+ * At most "ticketing.broadcast.max-logs-per-frame" log entries are sent per topic and frame,
+ * entries beyond that are dropped and counted in a warning.
+ */
+@Component
+public class UpdateBroadcaster {
+
+    /**
+     * Broadcaster dropping every update, for simulations nobody watches. It schedules no frames.
+     */
+    public static final UpdateBroadcaster NONE = new SilentBroadcaster();
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final int maxLogsPerFrame;
+    private final ConcurrentMap<String, StatusSlot> statuses = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LogBatch> logs = new ConcurrentHashMap<>();
+    private final TimingWheelScheduler.ScheduledTask frameTask;
+    private final AtomicLong framesSent = new AtomicLong();
+    private final Counter statusMessages;
+    private final Counter logMessages;
+    private final Counter logEntriesSent;
+    private final Counter logEntriesDropped;
+
+    /**
+     * Constructor for the broadcasters that override every publishing method and send no frames.
+     */
+    private UpdateBroadcaster() {
+        this.messagingTemplate = null;
+        this.maxLogsPerFrame = 0;
+        this.frameTask = null;
+        this.statusMessages = null;
+        this.logMessages = null;
+        this.logEntriesSent = null;
+        this.logEntriesDropped = null;
+    }
+
+    /**
+     * Constructor for UpdateBroadcaster
+     * @param messagingTemplate (messaging template the frames are sent with)
+     * @param scheduler (timing wheel running the frames)
+     * @param meterRegistry (registry of the websocket send rate meters)
+     * @param frameInterval (time between two frames)
+     * @param maxLogsPerFrame (maximum number of log entries sent per topic in one frame)
+     */
+    @Autowired
+    public UpdateBroadcaster(SimpMessagingTemplate messagingTemplate,
+                             TimingWheelScheduler scheduler,
+                             MeterRegistry meterRegistry,
+                             @Value("${ticketing.broadcast.frame-interval:100ms}") Duration frameInterval,
+                             @Value("${ticketing.broadcast.max-logs-per-frame:500}") int maxLogsPerFrame) {
+        this.messagingTemplate = messagingTemplate;
+        this.maxLogsPerFrame = Math.max(1, maxLogsPerFrame);
+        this.statusMessages = Counter.builder("ticketing.websocket.messages")
+                .description("Websocket messages sent").tag("type", "status").register(meterRegistry);
+        this.logMessages = Counter.builder("ticketing.websocket.messages")
+                .description("Websocket messages sent").tag("type", "logs").register(meterRegistry);
+        this.logEntriesSent = Counter.builder("ticketing.websocket.log.entries")
+                .description("Log entries published").tag("outcome", "queued").register(meterRegistry);
+        this.logEntriesDropped = Counter.builder("ticketing.websocket.log.entries")
+                .description("Log entries published").tag("outcome", "dropped").register(meterRegistry);
+        long interval = Math.max(1, frameInterval.toMillis());
+        this.frameTask = scheduler.scheduleRepeating(() -> {
+            sendFrame();
+            return interval;
+        }, interval);
+    }
+
+    /**
+     * Method to publish the status of a topic in the next frame.
+     * The status is only sent if it differs from the last status published on the topic.
+     * @param topic (websocket topic of the status)
+     * @param status (current status)
+     */
+    public void publishStatus(String topic, TicketStatus status) {
+        statuses.computeIfAbsent(topic, key -> new StatusSlot()).update(status);
+    }
+
+    /**
+     * Method to publish a log entry of a topic in the next frame.
+     * @param topic (websocket topic of the logs)
+     * @param log (log entry)
+     */
+    public void publishLog(String topic, SystemLogger log) {
+        if (logs.computeIfAbsent(topic, key -> new LogBatch()).add(log, maxLogsPerFrame)) {
+            logEntriesSent.increment();
+        } else {
+            logEntriesDropped.increment();
+        }
+    }
+
+    /**
+     * Method to publish a log entry created from a level and message.
+     * @param topic (websocket topic of the logs)
+     * @param level (log level)
+     * @param message (log message)
+     */
+    public void publishLog(String topic, String level, String message) {
+        SystemLogger log = new SystemLogger();
+        log.setLogTime(LocalDateTime.now());
+        log.setLevel(level);
+        log.setMessage(message);
+        publishLog(topic, log);
+    }
+
+    /**
+     * Method to forget a topic nobody publishes on anymore, like the topics of an evicted event.
+     * The updates of the topic not sent yet are dropped.
+     * @param topic (websocket topic)
+     */
+    public void removeTopic(String topic) {
+        statuses.remove(topic);
+        logs.remove(topic);
+    }
+
+    /**
+     * Sends the changed statuses and the gathered log entries of every topic.
+     * Only one frame is sent at a time, by the timing wheel.
+     */
+    synchronized void sendFrame() {
+        statuses.forEach((topic, slot) -> {
+            TicketStatus status = slot.takeIfChanged();
+            if (status != null) {
+                messagingTemplate.convertAndSend(topic, status);
+                statusMessages.increment();
+            }
+        });
+        logs.forEach((topic, batch) -> {
+            List<SystemLogger> entries = batch.drain(maxLogsPerFrame);
+            if (!entries.isEmpty()) {
+                messagingTemplate.convertAndSend(topic, entries);
+                logMessages.increment();
+            }
+        });
+        framesSent.incrementAndGet();
+    }
+
+    /**
+     * Method to get the number of frames sent since the application started.
+     * @return (frames sent)
+     */
+    public long getFramesSent() {
+        return framesSent.get();
+    }
+
+    /**
+     * Sends the last frame and stops the frames when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        frameTask.cancel();
+        sendFrame();
+    }
+
+    /**
+     * Broadcaster dropping every update, see NONE.
+     */
+    private static final class SilentBroadcaster extends UpdateBroadcaster {
+
+        @Override
+        public void publishStatus(String topic, TicketStatus status) {
+        }
+
+        @Override
+        public void publishLog(String topic, SystemLogger log) {
+        }
+
+        @Override
+        public void publishLog(String topic, String level, String message) {
+        }
+
+        @Override
+        public void removeTopic(String topic) {
+        }
+
+        @Override
+        synchronized void sendFrame() {
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+
+    /**
+     * Latest status of a topic, with the version it was published at and the version last sent.
+     */
+    private static final class StatusSlot {
+        private TicketStatus status;
+        private long version;
+        private long sentVersion;
+
+        synchronized void update(TicketStatus newStatus) {
+            if (!newStatus.equals(status)) {
+                status = newStatus;
+                version++;
+            }
+        }
+
+        synchronized TicketStatus takeIfChanged() {
+            if (version == sentVersion) {
+                return null;
+            }
+            sentVersion = version;
+            return status;
+        }
+    }
+
+    /**
+     * Log entries of a topic waiting for the next frame.
+     * The queue holds at most one frame of entries, the entries beyond that are counted as dropped.
+     */
+    private static final class LogBatch {
+        private final Queue<SystemLogger> entries = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicInteger dropped = new AtomicInteger();
+
+        boolean add(SystemLogger log, int maxEntries) {
+            if (size.incrementAndGet() > maxEntries) {
+                size.decrementAndGet();
+                dropped.incrementAndGet();
+                return false;
+            }
+            entries.add(log);
+            return true;
+        }
+
+        List<SystemLogger> drain(int maxEntries) {
+            List<SystemLogger> batch = new ArrayList<>();
+            SystemLogger log;
+            while (batch.size() < maxEntries && (log = entries.poll()) != null) {
+                batch.add(log);
+                size.decrementAndGet();
+            }
+            int droppedEntries = dropped.getAndSet(0);
+            if (droppedEntries > 0) {
+                SystemLogger warning = new SystemLogger();
+                warning.setLogTime(LocalDateTime.now());
+                warning.setLevel("WARNING");
+                warning.setMessage(droppedEntries + " log entries were dropped to keep up with the updates.");
+                batch.add(warning);
+            }
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.Customer;
+import com.ticketing.RealimeTicketingSystem_backend.Models.PersistenceStats;
+import com.ticketing.RealimeTicketingSystem_backend.Models.Vendor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind store for the customer purchases and vendor releases.
+ * Purchases and releases only add to a per customer and per vendor delta in memory,
+ * which are flushed to MongoDB as bulk "$inc" updates by a background thread.
+ * A flush runs every "ticketing.persistence.flush-interval",
+ * or as soon as "ticketing.persistence.batch-size" customers and vendors have pending deltas.
+ * Every batch of deltas gets a flush id, and each update only applies if the document does not list that id yet,
+ * so a failed batch is written again as it was, with the same id, before any newer delta,
+ * and the updates a failed write did apply are not applied twice. The last APPLIED_FLUSHES ids are kept per document.
+ * Every flush stamps the documents it writes with a new "version", taken from a counter document shared by all nodes,
+ * so clients can fetch only the customers and vendors changed since the last version they saw,
+ * whatever the clocks of the nodes that wrote them.
+ */
+@Component
+public class WriteBehindStore {
+
+    private static final Logger logger = Logger.getLogger(WriteBehindStore.class.getName());
+    static final int APPLIED_FLUSHES = 16;
+    static final String VERSIONS = "writeBehindVersions";
+    static final String VERSION_COUNTER = "flush";
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+    private final DeltaBuffer customerPurchases = new DeltaBuffer(Customer.class, "totalTicketsPurchased");
+    private final DeltaBuffer vendorReleases = new DeltaBuffer(Vendor.class, "totalTicketsReleased");
+    private final ScheduledExecutorService flushExecutor;
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Timer bulkWriteTimer;
+
+    /**
+     * Time the oldest delta not yet written was recorded, 0 when there is nothing to write.
+     */
+    private final AtomicLong oldestPendingNanos = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong failedFlushCount = new AtomicLong();
+    private final AtomicLong writtenDocuments = new AtomicLong();
+    private volatile long lastFlushMillis;
+
+    /**
+     * Highest version whose writes have all completed, versions come from the shared counter.
+     * Starts below the versions the counter gives out, which are never below the clock, see nextVersion.
+     */
+    private boolean counterSeeded;
+    private volatile long committedVersion = System.currentTimeMillis();
+    private volatile long lastFlushLagMillis;
+    private volatile long maxFlushLagMillis;
+
+    /**
+     * Constructor for WriteBehindStore
+     * @param mongoTemplate (template used for the bulk writes)
+     * @param meterRegistry (registry of the flush meters)
+     * @param flushInterval (maximum time between two flushes)
+     * @param batchSize (number of customers and vendors with pending deltas that triggers a flush straight away)
+     */
+    public WriteBehindStore(MongoTemplate mongoTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${ticketing.persistence.flush-interval:200ms}") Duration flushInterval,
+                            @Value("${ticketing.persistence.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.bulkWriteTimer = Timer.builder("ticketing.persistence.bulk.write")
+                .description("Latency of the bulk writes to MongoDB")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("ticketing.persistence.pending", this, WriteBehindStore::getPendingDocuments)
+                .description("Customers and vendors with deltas waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("ticketing.persistence.lag", this, store -> store.getStats().getOldestPendingMillis())
+                .description("Age of the oldest delta waiting to be written")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, flushInterval.toMillis());
+        flushExecutor.scheduleWithFixedDelay(this::flushQuietly, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Method to record tickets purchased by a customer.
+     * @param customerId (customer identifier)
+     * @param ticketsPurchased (number of tickets purchased)
+     */
+    public void recordPurchase(String customerId, int ticketsPurchased) {
+        record(customerPurchases, customerId, ticketsPurchased);
+    }
+
+    /**
+     * Method to record tickets released by a vendor.
+     * @param vendorId (vendor identifier)
+     * @param ticketsReleased (number of tickets released)
+     */
+    public void recordRelease(String vendorId, int ticketsReleased) {
+        record(vendorReleases, vendorId, ticketsReleased);
+    }
+
+    private void record(DeltaBuffer buffer, String id, int delta) {
+        oldestPendingNanos.compareAndSet(0, System.nanoTime());
+        buffer.add(id, delta);
+        if (getPendingDocuments() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            flushExecutor.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Method to write all pending deltas, called when a simulation stops.
+     * Keeps flushing until nothing is pending, or a flush fails.
+     * @return (true if everything was written, false if a flush failed)
+     */
+    public boolean drain() {
+        while (getPendingDocuments() > 0) {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Could not drain the write-behind store", e);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void flushQuietly() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Write-behind flush failed, the deltas will be retried", e);
+        }
+    }
+
+    /**
+     * Writes the pending deltas of the customers and vendors.
+     * Only one flush runs at a time, the batch of a failed write is written again by the next flush.
+     */
+    private void flush() {
+        flushLock.lock();
+        try {
+            long startNanos = oldestPendingNanos.getAndSet(0);
+            if (startNanos == 0 && getPendingDocuments() == 0) {
+                return;
+            }
+
+            long version;
+            int written;
+            try {
+                version = nextVersion();
+                written = customerPurchases.flush(version) + vendorReleases.flush(version);
+            } catch (RuntimeException e) {
+                failedFlushCount.incrementAndGet();
+                oldestPendingNanos.compareAndSet(0, startNanos);
+                throw e;
+            }
+
+            long lagMillis = startNanos == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            lastFlushLagMillis = lagMillis;
+            maxFlushLagMillis = Math.max(maxFlushLagMillis, lagMillis);
+            lastFlushMillis = System.currentTimeMillis();
+            flushCount.incrementAndGet();
+            writtenDocuments.addAndGet(written);
+            committedVersion = Math.max(committedVersion, version);
+            // Deltas recorded while the flush was running are timed from now
+            if (getPendingDocuments() > 0) {
+                oldestPendingNanos.compareAndSet(0, System.nanoTime());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Takes the next version from the counter shared by the nodes, with one findAndModify.
+     * The first time, the counter is raised to the clock, so it continues above the versions
+     * stamped from the clock before it existed. Called under the flush lock.
+     * @return (next version)
+     */
+    private long nextVersion() {
+        Query counter = Query.query(Criteria.where("_id").is(VERSION_COUNTER));
+        if (!counterSeeded) {
+            mongoTemplate.upsert(counter, new Update().max("value", System.currentTimeMillis()), VERSIONS);
+            counterSeeded = true;
+        }
+        Document updated = mongoTemplate.findAndModify(counter, new Update().inc("value", 1L),
+                FindAndModifyOptions.options().returnNew(true).upsert(true), Document.class, VERSIONS);
+        return updated.get("value", Number.class).longValue();
+    }
+
+    /**
+     * Method to get the highest version whose writes have all completed.
+     * Documents at or below this version will not change until a later flush stamps them again.
+     * @return (committed version)
+     */
+    public long getCommittedVersion() {
+        return committedVersion;
+    }
+
+    /**
+     * Method to get the number of customers and vendors with deltas waiting to be written, or written again.
+     * @return (pending documents)
+     */
+    public int getPendingDocuments() {
+        return customerPurchases.size() + vendorReleases.size();
+    }
+
+    /**
+     * Method to get the flush statistics of the store.
+     * @return (flush statistics)
+     */
+    public PersistenceStats getStats() {
+        long oldest = oldestPendingNanos.get();
+        PersistenceStats stats = new PersistenceStats();
+        stats.setPendingDocuments(getPendingDocuments());
+        stats.setOldestPendingMillis(oldest == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest));
+        stats.setLastFlushLagMillis(lastFlushLagMillis);
+        stats.setMaxFlushLagMillis(maxFlushLagMillis);
+        stats.setLastFlushTime(lastFlushMillis);
+        stats.setFlushCount(flushCount.get());
+        stats.setFailedFlushCount(failedFlushCount.get());
+        stats.setWrittenDocuments(writtenDocuments.get());
+        return stats;
+    }
+
+    /**
+     * Writes the pending deltas and stops the flush thread when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdownNow();
+        drain();
+    }
+
+    /**
+     * Deltas of one collection, keyed by document id.
+     * Removing a key returns its delta atomically, so deltas added during a flush are never lost.
+     */
+    private final class DeltaBuffer {
+        private final Class<?> entityClass;
+        private final String field;
+        private final ConcurrentHashMap<String, Integer> deltas = new ConcurrentHashMap<>();
+        private volatile Batch failedBatch; // Batch whose write failed, written again by the next flush
+
+        DeltaBuffer(Class<?> entityClass, String field) {
+            this.entityClass = entityClass;
+            this.field = field;
+        }
+
+        void add(String id, int delta) {
+            deltas.merge(id, delta, Integer::sum);
+        }
+
+        int size() {
+            Batch failed = failedBatch;
+            return deltas.size() + (failed != null ? failed.deltas.size() : 0);
+        }
+
+        /**
+         * Writes the failed batch again if there is one, then the deltas of the buffer as a new batch.
+         * @param version (version stamped on the documents written)
+         * @return (number of documents written)
+         */
+        int flush(long version) {
+            int written = 0;
+            if (failedBatch != null) {
+                // Written before the newer deltas, the documents it was applied to skip it
+                write(failedBatch, version);
+                written += failedBatch.deltas.size();
+                failedBatch = null;
+            }
+
+            List<Map.Entry<String, Integer>> batch = new ArrayList<>();
+            for (String id : deltas.keySet()) {
+                Integer delta = deltas.remove(id);
+                if (delta != null) {
+                    batch.add(Map.entry(id, delta));
+                }
+            }
+            if (batch.isEmpty()) {
+                return written;
+            }
+            Batch newBatch = new Batch(UUID.randomUUID().toString(), batch);
+            try {
+                write(newBatch, version);
+            } catch (RuntimeException e) {
+                failedBatch = newBatch;
+                throw e;
+            }
+            return written + batch.size();
+        }
+
+        /**
+         * Writes a batch as one ordered bulk write, creating the missing documents before updating them.
+         * The documents are created without a delta, so creating them again is harmless,
+         * and each update only matches a document that does not list the flush id of the batch yet.
+         * @param batch (batch to write)
+         * @param version (version stamped on the documents written)
+         */
+        private void write(Batch batch, long version) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, entityClass);
+            batch.deltas.forEach(entry -> bulk.upsert(Query.query(Criteria.where("_id").is(entry.getKey())),
+                    new Update().setOnInsert(field, 0)));
+            batch.deltas.forEach(entry -> bulk.updateOne(
+                    Query.query(Criteria.where("_id").is(entry.getKey()).and("appliedFlushes").ne(batch.flushId)),
+                    new Update().inc(field, entry.getValue()).set("version", version)
+                            .push("appliedFlushes").slice(-APPLIED_FLUSHES).each(batch.flushId)));
+            bulkWriteTimer.record(() -> bulk.execute());
+        }
+    }
+
+    /**
+     * Deltas taken out of a buffer together, with the id marking the documents they were applied to.
+     */
+    private record Batch(String flushId, List<Map.Entry<String, Integer>> deltas) {
+    }
+}
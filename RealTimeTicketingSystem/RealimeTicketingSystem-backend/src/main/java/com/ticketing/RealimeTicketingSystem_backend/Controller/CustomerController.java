@@ -1,18 +1,22 @@
 package com.ticketing.RealimeTicketingSystem_backend.Controller;
 
+import com.ticketing.RealimeTicketingSystem_backend.Models.ChangeSet;
+import com.ticketing.RealimeTicketingSystem_backend.Models.CursorPage;
 import com.ticketing.RealimeTicketingSystem_backend.Models.Customer;
 import com.ticketing.RealimeTicketingSystem_backend.Repo.CustomerRepository;
+import com.ticketing.RealimeTicketingSystem_backend.Services.RecordQueryService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.web.bind.annotation.CrossOrigin;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
 /**
  * Rest controller for customer related operations
  * Provides an endpoint to get all customers
+ * The full list is only meant for small simulations, large ones page through the customers,
+ * stream them as newline delimited JSON, or fetch the customers changed since the last version seen.
  */
 @RestController
 @RequestMapping("/api/customers")
@@ -20,14 +24,18 @@ import java.util.List;
 public class CustomerController {
 
     private final CustomerRepository customerRepository;
+    private final RecordQueryService recordQueryService;
 
     /**
      * Constructor for CustomerController
      * @param customerRepository (Repository for database operations)
+     * @param recordQueryService (Service reading the customers in pages, streams and changes)
      */
     @Autowired
-    public CustomerController(CustomerRepository customerRepository) {
+    public CustomerController(CustomerRepository customerRepository,
+                              RecordQueryService recordQueryService) {
         this.customerRepository = customerRepository;
+        this.recordQueryService = recordQueryService;
     }
 
     /**
@@ -38,4 +46,41 @@ public class CustomerController {
     public List<Customer> getAllCustomers() {
         return customerRepository.findAll();
     }
-}
\ No newline at end of file
+
+    /**
+     * Get one page of customers, in id order
+     * @param after (id of the last customer of the previous page, empty for the first page)
+     * @param limit (maximum number of customers in the page, at most {@value RecordQueryService#MAX_LIMIT})
+     * @return Page of customers with the cursor of the next page
+     */
+    @GetMapping("/page")
+    public CursorPage<Customer> getCustomerPage(@RequestParam(required = false) String after,
+                                                @RequestParam(defaultValue = "100") int limit) {
+        return recordQueryService.page(Customer.class, Customer::getCustomerId, after, limit, "totalTicketsPurchased");
+    }
+
+    /**
+     * Stream all customers as newline delimited JSON, in id order
+     * @return Response writing the customers as they are read from the database
+     */
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamCustomers() {
+        StreamingResponseBody body = out -> recordQueryService.stream(Customer.class, out, "totalTicketsPurchased");
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Get the customers changed since a version
+     * @param since (version returned by the previous call, 0 for all customers)
+     * @param after (id returned by the previous call when it had more changes)
+     * @param limit (maximum number of customers returned, at most {@value RecordQueryService#MAX_LIMIT})
+     * @return Changed customers with the version to ask from next time
+     */
+    @GetMapping("/changes")
+    public ChangeSet<Customer> getCustomerChanges(@RequestParam(defaultValue = "0") long since,
+                                                   @RequestParam(required = false) String after,
+                                                   @RequestParam(defaultValue = "500") int limit) {
+        return recordQueryService.changesSince(Customer.class, Customer::getCustomerId, Customer::getVersion,
+                since, after, limit, "totalTicketsPurchased");
+    }
+}
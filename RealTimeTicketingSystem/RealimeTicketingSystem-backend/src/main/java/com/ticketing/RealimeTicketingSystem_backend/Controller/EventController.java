@@ -0,0 +1,197 @@
+package com.ticketing.RealimeTicketingSystem_backend.Controller;
+
+import com.ticketing.RealimeTicketingSystem_backend.Components.ConfigurationCache;
+import com.ticketing.RealimeTicketingSystem_backend.Components.EventRegistry;
+import com.ticketing.RealimeTicketingSystem_backend.Components.TicketEvent;
+import com.ticketing.RealimeTicketingSystem_backend.Models.Configuration;
+import com.ticketing.RealimeTicketingSystem_backend.Models.HoldResult;
+import com.ticketing.RealimeTicketingSystem_backend.Models.SimulationReport;
+import com.ticketing.RealimeTicketingSystem_backend.Models.TicketStatus;
+import com.ticketing.RealimeTicketingSystem_backend.Services.TicketService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * REST Controller for running several events on the same backend.
+ * Every endpoint is keyed by the event id,
+ * the status and logs of an event are sent to "/topic/events/{id}/status" and "/topic/events/{id}/logs".
+ */
+@RestController
+@RequestMapping("/api/events")
+@CrossOrigin(origins = "http://localhost:4200")
+public class EventController {
+
+    private final TicketService ticketingService;
+    private final EventRegistry eventRegistry;
+    private final ConfigurationCache configurationCache;
+
+    /**
+     * Constructor for EventController
+     * @param ticketingService (handling ticket simulation logic)
+     * @param eventRegistry (managing the events and their configurations)
+     * @param configurationCache (caching the saved configurations)
+     */
+    @Autowired
+    public EventController(TicketService ticketingService, EventRegistry eventRegistry,
+                           ConfigurationCache configurationCache) {
+        this.ticketingService = ticketingService;
+        this.eventRegistry = eventRegistry;
+        this.configurationCache = configurationCache;
+    }
+
+    /**
+     * Get the ids of the events currently held in memory
+     * @return List of event ids
+     */
+    @GetMapping
+    public List<String> getEvents() {
+        return eventRegistry.getEvents().stream().map(TicketEvent::getEventId).sorted().toList();
+    }
+
+    /**
+     * Endpoint to save the configuration of an event in the database.
+     * @param eventId (Event identifier)
+     * @param config (Configuration object to be saved)
+     * @return ResponseEntity with saved Configuration object
+     */
+    @PostMapping("/{eventId}/configuration")
+    public ResponseEntity<Configuration> saveConfiguration(@PathVariable String eventId,
+                                                           @RequestBody Configuration config) {
+        return ResponseEntity.ok(eventRegistry.saveConfiguration(eventId, config));
+    }
+
+    /**
+     * Endpoint to get the latest configuration of an event, read from the configuration cache.
+     * @param eventId (Event identifier)
+     * @return ResponseEntity with the latest Configuration object, not found if the event has none
+     */
+    @GetMapping("/{eventId}/configuration")
+    public ResponseEntity<Configuration> getConfiguration(@PathVariable String eventId) {
+        Configuration config = configurationCache.getLatest(eventId);
+        return config != null ? ResponseEntity.ok(config) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Endpoint to get the last saved configurations of an event, read from the configuration cache.
+     * @param eventId (Event identifier)
+     * @return List of configurations, latest first, empty if the event has none
+     */
+    @GetMapping("/{eventId}/configuration/history")
+    public List<Configuration> getConfigurationHistory(@PathVariable String eventId) {
+        return configurationCache.getHistory(eventId);
+    }
+
+    /**
+     * Endpoint to get the current ticket status of an event.
+     * @param eventId (Event identifier)
+     * @return ResponseEntity with the TicketStatus, not found if the event has no configuration
+     */
+    @GetMapping("/{eventId}/status")
+    public ResponseEntity<TicketStatus> getStatus(@PathVariable String eventId) {
+        TicketEvent event = eventRegistry.getEvent(eventId);
+        return event != null ? ResponseEntity.ok(ticketingService.getStatus(event)) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Starts the simulation of an event using its latest configuration.
+     * @param eventId (Event identifier)
+     * @return ResponseEntity indicating success, not found if the event has no configuration
+     */
+    @PostMapping("/{eventId}/simulation/start")
+    public ResponseEntity<Void> startSimulation(@PathVariable String eventId) {
+        TicketEvent event = eventRegistry.getEvent(eventId);
+        if (event == null) {
+            return ResponseEntity.notFound().build();
+        }
+        ticketingService.startSimulation(event);
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Stops the simulation of an event.
+     * @param eventId (Event identifier)
+     * @return ResponseEntity indicating success, not found if the event has no configuration
+     */
+    @PostMapping("/{eventId}/simulation/stop")
+    public ResponseEntity<Void> stopSimulation(@PathVariable String eventId) {
+        TicketEvent event = eventRegistry.getEvent(eventId);
+        if (event == null) {
+            return ResponseEntity.notFound().build();
+        }
+        ticketingService.stopSimulation(event);
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Runs the simulation of the latest configuration of an event in virtual time and returns its report.
+     * The running simulation of the event is not affected, and nothing is saved.
+     * @param eventId (Event identifier)
+     * @param seed (Seed of the random ticket numbers and jitter, random if not given)
+     * @return ResponseEntity with the SimulationReport, not found if the event has no configuration
+     */
+    @PostMapping("/{eventId}/simulation/virtual")
+    public ResponseEntity<SimulationReport> runVirtualSimulation(@PathVariable String eventId,
+                                                                 @RequestParam(required = false) Long seed) {
+        Configuration config = configurationCache.getLatest(eventId);
+        if (config == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(ticketingService.runVirtualSimulation(config,
+                seed != null ? seed : ThreadLocalRandom.current().nextLong()));
+    }
+
+    /**
+     * Endpoint to hold tickets of an event for a customer, to be confirmed or released later.
+     * @param eventId (Event identifier)
+     * @param customerId (Customer identifier)
+     * @param tickets (Number of tickets to hold)
+     * @param holdSeconds (Seconds the tickets are held for, the configured hold time if not given)
+     * @return ResponseEntity with the HoldResult, not found if the event has no configuration
+     */
+    @PostMapping("/{eventId}/holds")
+    public ResponseEntity<HoldResult> holdTickets(@PathVariable String eventId,
+                                                  @RequestParam String customerId,
+                                                  @RequestParam int tickets,
+                                                  @RequestParam(required = false) Long holdSeconds) {
+        TicketEvent event = eventRegistry.getEvent(eventId);
+        if (event == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (tickets <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        Duration holdTime = holdSeconds != null ? Duration.ofSeconds(holdSeconds) : null;
+        return ResponseEntity.ok(ticketingService.holdTickets(event, customerId, tickets, holdTime));
+    }
+
+    /**
+     * Endpoint to purchase the tickets of a hold.
+     * @param eventId (Event identifier)
+     * @param holdId (Hold identifier)
+     * @return ResponseEntity with the confirmed HoldResult, not found if the event or hold does not exist
+     */
+    @PostMapping("/{eventId}/holds/{holdId}/confirm")
+    public ResponseEntity<HoldResult> confirmHold(@PathVariable String eventId, @PathVariable String holdId) {
+        TicketEvent event = eventRegistry.getEvent(eventId);
+        HoldResult result = event != null ? ticketingService.confirmHold(event, holdId) : null;
+        return result != null ? ResponseEntity.ok(result) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Endpoint to return the tickets of a hold to the pool.
+     * @param eventId (Event identifier)
+     * @param holdId (Hold identifier)
+     * @return ResponseEntity with the released HoldResult, not found if the event or hold does not exist
+     */
+    @DeleteMapping("/{eventId}/holds/{holdId}")
+    public ResponseEntity<HoldResult> releaseHold(@PathVariable String eventId, @PathVariable String holdId) {
+        TicketEvent event = eventRegistry.getEvent(eventId);
+        HoldResult result = event != null ? ticketingService.releaseHold(event, holdId) : null;
+        return result != null ? ResponseEntity.ok(result) : ResponseEntity.notFound().build();
+    }
+}
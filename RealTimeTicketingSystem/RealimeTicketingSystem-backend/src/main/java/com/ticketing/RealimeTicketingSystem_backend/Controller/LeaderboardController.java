@@ -0,0 +1,80 @@
+package com.ticketing.RealimeTicketingSystem_backend.Controller;
+
+import com.ticketing.RealimeTicketingSystem_backend.Components.Leaderboards;
+import com.ticketing.RealimeTicketingSystem_backend.Models.LeaderboardEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Rest controller for the customer and vendor leaderboards
+ * Provides endpoints to get the top customers and vendors, read from the in-memory leaderboards.
+ * Websocket clients subscribing to "/app/leaderboard/customers" or "/app/leaderboard/vendors" get the current top entries,
+ * and the updates are published on "/topic/leaderboard/customers" and "/topic/leaderboard/vendors".
+ */
+@RestController
+@RequestMapping("/api/leaderboard")
+@CrossOrigin(origins = "http://localhost:4200")
+public class LeaderboardController {
+
+    /**
+     * Largest number of entries returned by one request.
+     */
+    public static final int MAX_K = 1000;
+    private static final int SUBSCRIBE_K = 10;
+
+    private final Leaderboards leaderboards;
+
+    /**
+     * Constructor for LeaderboardController
+     * @param leaderboards (Leaderboards of the customers and vendors)
+     */
+    @Autowired
+    public LeaderboardController(Leaderboards leaderboards) {
+        this.leaderboards = leaderboards;
+    }
+
+    /**
+     * Get the customers who purchased the most tickets
+     * @param k (number of customers, at most {@value #MAX_K})
+     * @return Top customers, highest total first
+     */
+    @GetMapping("/customers")
+    public List<LeaderboardEntry> getTopCustomers(@RequestParam(defaultValue = "10") int k) {
+        return leaderboards.topCustomers(clamp(k));
+    }
+
+    /**
+     * Get the vendors who released the most tickets
+     * @param k (number of vendors, at most {@value #MAX_K})
+     * @return Top vendors, highest total first
+     */
+    @GetMapping("/vendors")
+    public List<LeaderboardEntry> getTopVendors(@RequestParam(defaultValue = "10") int k) {
+        return leaderboards.topVendors(clamp(k));
+    }
+
+    /**
+     * Send the top customers to a websocket client when it subscribes
+     * @return Top customers, highest total first
+     */
+    @SubscribeMapping("/leaderboard/customers")
+    public List<LeaderboardEntry> subscribeTopCustomers() {
+        return leaderboards.topCustomers(SUBSCRIBE_K);
+    }
+
+    /**
+     * Send the top vendors to a websocket client when it subscribes
+     * @return Top vendors, highest total first
+     */
+    @SubscribeMapping("/leaderboard/vendors")
+    public List<LeaderboardEntry> subscribeTopVendors() {
+        return leaderboards.topVendors(SUBSCRIBE_K);
+    }
+
+    private static int clamp(int k) {
+        return Math.max(1, Math.min(k, MAX_K));
+    }
+}
@@ -0,0 +1,136 @@
+package com.ticketing.RealimeTicketingSystem_backend.Controller;
+
+import com.ticketing.RealimeTicketingSystem_backend.Components.CustomerClassCache;
+import com.ticketing.RealimeTicketingSystem_backend.Components.EventRegistry;
+import com.ticketing.RealimeTicketingSystem_backend.Components.PurchaseBatcher;
+import com.ticketing.RealimeTicketingSystem_backend.Components.RateLimiter;
+import com.ticketing.RealimeTicketingSystem_backend.Components.TicketEvent;
+import com.ticketing.RealimeTicketingSystem_backend.Components.TicketInventory;
+import com.ticketing.RealimeTicketingSystem_backend.Models.PurchaseLine;
+import com.ticketing.RealimeTicketingSystem_backend.Models.PurchaseResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * REST Controller for purchasing tickets over HTTP.
+ * Purchases hit the same ticket pool as the simulated customers,
+ * requests arriving close together are committed as one group by the PurchaseBatcher.
+ * Every purchase line takes a permit from the rate limit bucket of its customer,
+ * sized by the class of the customer record, customers without a record or a class get the default class.
+ * Lines over the limit are not purchased, if no line of a request is within the limit the request gets 429 Too Many Requests.
+ */
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "http://localhost:4200")
+public class PurchaseController {
+
+    private final EventRegistry eventRegistry;
+    private final PurchaseBatcher purchaseBatcher;
+    private final RateLimiter rateLimiter;
+    private final CustomerClassCache customerClassCache;
+
+    /**
+     * Constructor for PurchaseController
+     * @param eventRegistry (managing the events and their ticket pools)
+     * @param purchaseBatcher (group committing the purchases)
+     * @param rateLimiter (limiting the purchase rate of the customers)
+     * @param customerClassCache (rate limit classes of the customers)
+     */
+    @Autowired
+    public PurchaseController(EventRegistry eventRegistry, PurchaseBatcher purchaseBatcher, RateLimiter rateLimiter,
+                              CustomerClassCache customerClassCache) {
+        this.eventRegistry = eventRegistry;
+        this.purchaseBatcher = purchaseBatcher;
+        this.rateLimiter = rateLimiter;
+        this.customerClassCache = customerClassCache;
+    }
+
+    /**
+     * Endpoint to purchase tickets of the default event for several customers.
+     * @param lines (customers and quantities to purchase)
+     * @return ResponseEntity with one PurchaseResult per line, in the order of the lines
+     */
+    @PostMapping("/purchases")
+    public CompletableFuture<ResponseEntity<List<PurchaseResult>>> purchase(@RequestBody List<PurchaseLine> lines) {
+        return purchase(TicketEvent.DEFAULT_EVENT, lines);
+    }
+
+    /**
+     * Endpoint to purchase tickets of the default event for one customer.
+     * @param line (customer and quantity to purchase)
+     * @return ResponseEntity with the PurchaseResult
+     */
+    @PostMapping("/purchase")
+    public CompletableFuture<ResponseEntity<PurchaseResult>> purchaseOne(@RequestBody PurchaseLine line) {
+        return purchase(TicketEvent.DEFAULT_EVENT, List.of(line))
+                .thenApply(response -> response.getBody() != null
+                        ? ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders())
+                                .body(response.getBody().get(0))
+                        : ResponseEntity.status(response.getStatusCode()).build());
+    }
+
+    /**
+     * Endpoint to purchase tickets of an event for several customers.
+     * @param eventId (Event identifier)
+     * @param lines (customers and quantities to purchase)
+     * @return ResponseEntity with one PurchaseResult per line, not found if the event has no configuration,
+     * bad request if a line has no customer or no tickets, too many requests if every line is over the rate limit
+     */
+    @PostMapping("/events/{eventId}/purchases")
+    public CompletableFuture<ResponseEntity<List<PurchaseResult>>> purchase(
+            @PathVariable String eventId,
+            @RequestBody List<PurchaseLine> lines) {
+        TicketEvent event = eventRegistry.getEvent(eventId);
+        if (event == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+        boolean valid = !lines.isEmpty() && lines.stream()
+                .allMatch(line -> line.getCustomerId() != null && !line.getCustomerId().isBlank() && line.getTickets() > 0);
+        if (!valid) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        List<PurchaseLine> allowed = new ArrayList<>(lines.size());
+        long retryAfterNanos = Long.MAX_VALUE;
+        for (PurchaseLine line : lines) {
+            RateLimiter.Limit limit = rateLimiter.limitFor(customerClassCache.classOf(line.getCustomerId()));
+            long wait = rateLimiter.tryAcquire(line.getCustomerId(), limit, 1);
+            if (wait == 0) {
+                allowed.add(line);
+            } else {
+                retryAfterNanos = Math.min(retryAfterNanos, wait);
+            }
+        }
+        if (allowed.isEmpty()) {
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(lines.stream().map(PurchaseController::rateLimited).toList()));
+        }
+        if (allowed.size() == lines.size()) {
+            return purchaseBatcher.purchase(event, lines).thenApply(ResponseEntity::ok);
+        }
+        return purchaseBatcher.purchase(event, allowed).thenApply(results -> {
+            // Put the results of the purchased lines back between the rate limited ones, in the order of the lines
+            List<PurchaseResult> merged = new ArrayList<>(lines.size());
+            int next = 0;
+            for (PurchaseLine line : lines) {
+                merged.add(next < allowed.size() && allowed.get(next) == line ? results.get(next++) : rateLimited(line));
+            }
+            return ResponseEntity.ok(merged);
+        });
+    }
+
+    private static PurchaseResult rateLimited(PurchaseLine line) {
+        return new PurchaseResult(line.getCustomerId(), line.getTickets(), 0, TicketInventory.UNNUMBERED,
+                PurchaseResult.Status.RATE_LIMITED);
+    }
+}
@@ -0,0 +1,47 @@
+package com.ticketing.RealimeTicketingSystem_backend.Controller;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.SweepRequest;
+import com.ticketing.RealimeTicketingSystem_backend.Services.SweepService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Rest controller for the parameter sweeps of the simulation
+ * Provides an endpoint simulating a grid of configurations in virtual time,
+ * the results are streamed as newline delimited JSON as the runs complete.
+ */
+@RestController
+@RequestMapping("/api/simulation/sweep")
+@CrossOrigin(origins = "http://localhost:4200")
+public class SweepController {
+
+    private final SweepService sweepService;
+
+    /**
+     * Constructor for SweepController
+     * @param sweepService (Service running the sweeps)
+     */
+    @Autowired
+    public SweepController(SweepService sweepService) {
+        this.sweepService = sweepService;
+    }
+
+    /**
+     * Run a parameter sweep and stream the result of every run as newline delimited JSON, in the order the runs complete
+     * @param request (Configuration and values of the swept fields)
+     * @return Response writing the results as the runs complete, bad request if the sweep has no configuration,
+     * a swept value out of its range or too many runs
+     */
+    @PostMapping(produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> runSweep(@RequestBody SweepRequest request) {
+        try {
+            sweepService.expand(request);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> sweepService.stream(request, out);
+        return ResponseEntity.ok(body);
+    }
+}
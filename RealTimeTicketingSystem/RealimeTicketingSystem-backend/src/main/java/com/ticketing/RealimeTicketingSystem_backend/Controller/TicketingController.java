@@ -1,14 +1,23 @@
 package com.ticketing.RealimeTicketingSystem_backend.Controller;
 
+import com.ticketing.RealimeTicketingSystem_backend.Components.ConfigurationCache;
+import com.ticketing.RealimeTicketingSystem_backend.Components.EventRegistry;
+import com.ticketing.RealimeTicketingSystem_backend.Components.TicketEvent;
+import com.ticketing.RealimeTicketingSystem_backend.Components.WriteBehindStore;
 import com.ticketing.RealimeTicketingSystem_backend.Models.Configuration;
-import com.ticketing.RealimeTicketingSystem_backend.Repo.ConfigurationRepository;
+import com.ticketing.RealimeTicketingSystem_backend.Models.PersistenceStats;
+import com.ticketing.RealimeTicketingSystem_backend.Models.SimulationReport;
 import com.ticketing.RealimeTicketingSystem_backend.Services.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * REST Controller that handles API endpoints for the Real-Time Ticketing System.
+ * These endpoints work on the default event, see EventController for the other events.
  */
 @RestController
 @RequestMapping("/api")
@@ -16,18 +25,26 @@ import org.springframework.web.bind.annotation.*;
 public class TicketingController {
 
     private final TicketService ticketingService;
-    private final ConfigurationRepository configRepository;
+    private final EventRegistry eventRegistry;
+    private final WriteBehindStore writeBehindStore;
+    private final ConfigurationCache configurationCache;
 
     /**
      * Constructor for TicketingController
      * @param ticketingService (handling ticket simulation logic)
-     * @param configRepository (managing configurations in the database)
+     * @param eventRegistry (managing the events and their configurations)
+     * @param writeBehindStore (batching the purchases and releases into the database)
+     * @param configurationCache (caching the saved configurations)
      */
     @Autowired
     public TicketingController(TicketService ticketingService,
-                               ConfigurationRepository configRepository) {
+                               EventRegistry eventRegistry,
+                               WriteBehindStore writeBehindStore,
+                               ConfigurationCache configurationCache) {
         this.ticketingService = ticketingService;
-        this.configRepository = configRepository;
+        this.eventRegistry = eventRegistry;
+        this.writeBehindStore = writeBehindStore;
+        this.configurationCache = configurationCache;
     }
 
     /**
@@ -37,20 +54,29 @@ public class TicketingController {
      */
     @PostMapping("/configuration")
     public ResponseEntity<Configuration> saveConfiguration(@RequestBody Configuration config) {
-        Configuration savedConfig = configRepository.save(config);
+        Configuration savedConfig = eventRegistry.saveConfiguration(TicketEvent.DEFAULT_EVENT, config);
         return ResponseEntity.ok(savedConfig);
     }
 
     /**
-     * Endpoint to get the latest configuration from the database.
+     * Endpoint to get the latest configuration, read from the configuration cache.
      * @return ResponseEntity with the latest Configuration object
      */
     @GetMapping("/configuration")
     public ResponseEntity<Configuration> getConfiguration() {
-        Configuration config = configRepository.findTopByOrderByIdDesc();
+        Configuration config = configurationCache.getLatest(TicketEvent.DEFAULT_EVENT);
         return config != null ? ResponseEntity.ok(config) : ResponseEntity.notFound().build();
     }
 
+    /**
+     * Endpoint to get the last saved configurations, read from the configuration cache.
+     * @return List of configurations, latest first
+     */
+    @GetMapping("/configuration/history")
+    public List<Configuration> getConfigurationHistory() {
+        return configurationCache.getHistory(TicketEvent.DEFAULT_EVENT);
+    }
+
     /**
      * Starts the simulation using the latest configuration
      * Gets the latest configuration from the database.
@@ -60,22 +86,50 @@ public class TicketingController {
      */
     @PostMapping("/simulation/start")
     public ResponseEntity<Void> startSimulation() {
-        Configuration config = configRepository.findTopByOrderByIdDesc();
-        if (config == null) {
+        TicketEvent event = eventRegistry.getEvent(TicketEvent.DEFAULT_EVENT);
+        if (event == null) {
             return ResponseEntity.badRequest().build();
         }
-        ticketingService.startSimulation(config);
+        ticketingService.startSimulation(event);
         return ResponseEntity.ok().build();
     }
 
     /**
      * Stops the simulation
-     * Stops the simulation by setting isRunning to false.
+     * Stops the simulation threads of the default event.
      * @return ResponseEntity indicating success.
      */
     @PostMapping("/simulation/stop")
     public ResponseEntity<Void> stopSimulation() {
-        ticketingService.stopSimulation();
+        TicketEvent event = eventRegistry.getEvent(TicketEvent.DEFAULT_EVENT);
+        if (event != null) {
+            ticketingService.stopSimulation(event);
+        }
         return ResponseEntity.ok().build();
     }
+
+    /**
+     * Runs the simulation of the latest configuration in virtual time and returns its report.
+     * The running simulation is not affected, and nothing is saved.
+     * @param seed (Seed of the random ticket numbers and jitter, random if not given)
+     * @return ResponseEntity with the SimulationReport, bad request if no configuration is found
+     */
+    @PostMapping("/simulation/virtual")
+    public ResponseEntity<SimulationReport> runVirtualSimulation(@RequestParam(required = false) Long seed) {
+        Configuration config = configurationCache.getLatest(TicketEvent.DEFAULT_EVENT);
+        if (config == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(ticketingService.runVirtualSimulation(config,
+                seed != null ? seed : ThreadLocalRandom.current().nextLong()));
+    }
+
+    /**
+     * Endpoint to get how far the saved purchases and releases are behind the simulation.
+     * @return ResponseEntity with the flush statistics of the write-behind store
+     */
+    @GetMapping("/persistence/stats")
+    public ResponseEntity<PersistenceStats> getPersistenceStats() {
+        return ResponseEntity.ok(writeBehindStore.getStats());
+    }
 }
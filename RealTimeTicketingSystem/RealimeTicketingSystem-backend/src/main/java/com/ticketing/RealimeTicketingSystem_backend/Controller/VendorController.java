@@ -1,18 +1,22 @@
 package com.ticketing.RealimeTicketingSystem_backend.Controller;
 
+import com.ticketing.RealimeTicketingSystem_backend.Models.ChangeSet;
+import com.ticketing.RealimeTicketingSystem_backend.Models.CursorPage;
 import com.ticketing.RealimeTicketingSystem_backend.Models.Vendor;
 import com.ticketing.RealimeTicketingSystem_backend.Repo.VendorRepository;
+import com.ticketing.RealimeTicketingSystem_backend.Services.RecordQueryService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.web.bind.annotation.CrossOrigin;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
 /**
  * Rest controller for vendor
  * Provides endpoints for getting all vendors
+ * The full list is only meant for small simulations, large ones page through the vendors,
+ * stream them as newline delimited JSON, or fetch the vendors changed since the last version seen.
  */
 @RestController
 @RequestMapping("/api/vendors")
@@ -20,14 +24,18 @@ import java.util.List;
 public class VendorController {
 
     private final VendorRepository vendorRepository;
+    private final RecordQueryService recordQueryService;
 
     /**
      * Constructor for vendor controller
      * @param vendorRepository (vendor repository for database operations)
+     * @param recordQueryService (Service reading the vendors in pages, streams and changes)
      */
     @Autowired
-    public VendorController(VendorRepository vendorRepository) {
+    public VendorController(VendorRepository vendorRepository,
+                            RecordQueryService recordQueryService) {
         this.vendorRepository = vendorRepository;
+        this.recordQueryService = recordQueryService;
     }
 
     /**
@@ -38,4 +46,41 @@ public class VendorController {
     public List<Vendor> getAllVendors() {
         return vendorRepository.findAll();
     }
-}
\ No newline at end of file
+
+    /**
+     * Get one page of vendors, in id order
+     * @param after (id of the last vendor of the previous page, empty for the first page)
+     * @param limit (maximum number of vendors in the page, at most {@value RecordQueryService#MAX_LIMIT})
+     * @return Page of vendors with the cursor of the next page
+     */
+    @GetMapping("/page")
+    public CursorPage<Vendor> getVendorPage(@RequestParam(required = false) String after,
+                                            @RequestParam(defaultValue = "100") int limit) {
+        return recordQueryService.page(Vendor.class, Vendor::getVendorId, after, limit, "totalTicketsReleased");
+    }
+
+    /**
+     * Stream all vendors as newline delimited JSON, in id order
+     * @return Response writing the vendors as they are read from the database
+     */
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamVendors() {
+        StreamingResponseBody body = out -> recordQueryService.stream(Vendor.class, out, "totalTicketsReleased");
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Get the vendors changed since a version
+     * @param since (version returned by the previous call, 0 for all vendors)
+     * @param after (id returned by the previous call when it had more changes)
+     * @param limit (maximum number of vendors returned, at most {@value RecordQueryService#MAX_LIMIT})
+     * @return Changed vendors with the version to ask from next time
+     */
+    @GetMapping("/changes")
+    public ChangeSet<Vendor> getVendorChanges(@RequestParam(defaultValue = "0") long since,
+                                               @RequestParam(required = false) String after,
+                                               @RequestParam(defaultValue = "500") int limit) {
+        return recordQueryService.changesSince(Vendor.class, Vendor::getVendorId, Vendor::getVersion,
+                since, after, limit, "totalTicketsReleased");
+    }
+}
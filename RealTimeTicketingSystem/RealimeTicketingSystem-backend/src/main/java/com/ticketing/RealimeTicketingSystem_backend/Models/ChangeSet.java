@@ -0,0 +1,31 @@
+package com.ticketing.RealimeTicketingSystem_backend.Models;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * ChangeSet class is used to return the documents changed since a version
+ * @param <T> (type of the documents)
+ */
+@Data
+public class ChangeSet<T> {
+    private List<T> items; // Documents changed since the requested version, in version order
+    private long version; // Version to ask for changes since next time
+    private String after; // Id to pass with the version when more changes are left, null when up to date
+    private boolean hasMore; // Whether more changes are left, fetched by asking again with version and after
+
+    /**
+     * Constructor to initialize the change set
+     * @param items (Documents changed since the requested version)
+     * @param version (Version to ask for changes since next time)
+     * @param after (Id to pass with the version when more changes are left)
+     * @param hasMore (Whether more changes are left)
+     */
+    public ChangeSet(List<T> items, long version, String after, boolean hasMore) {
+        this.items = items;
+        this.version = version;
+        this.after = after;
+        this.hasMore = hasMore;
+    }
+}
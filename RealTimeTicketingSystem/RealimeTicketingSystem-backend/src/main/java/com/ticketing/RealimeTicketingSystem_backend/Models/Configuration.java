@@ -19,6 +19,16 @@ public class Configuration {
     private int maxTicketCapacity; // Maximum capacity for tickets in the system.
     private int noOfVendors; // Number of vendors in the system.
     private int noOfCustomers; // Number of customers in the system.
+    private String eventId; // Event the configuration belongs to, null for the default event.
+    private ExecutionMode executionMode; // How the agents are run, scheduled on the timing wheel if not set.
+
+    /**
+     * Method to get how the simulation agents are run.
+     * @return (execution mode, SCHEDULED if not set)
+     */
+    public ExecutionMode getExecutionMode() {
+        return executionMode != null ? executionMode : ExecutionMode.SCHEDULED;
+    }
 
     /**
      * Constructor to initialize the configuration details
@@ -0,0 +1,25 @@
+package com.ticketing.RealimeTicketingSystem_backend.Models;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * CursorPage class is used to return one page of documents and the cursor of the next page
+ * @param <T> (type of the documents)
+ */
+@Data
+public class CursorPage<T> {
+    private List<T> items; // Documents of the page, in id order
+    private String nextCursor; // Id to pass as "after" to get the next page, null on the last page
+
+    /**
+     * Constructor to initialize the page
+     * @param items (Documents of the page)
+     * @param nextCursor (Id to pass as "after" to get the next page)
+     */
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -2,6 +2,7 @@ package com.ticketing.RealimeTicketingSystem_backend.Models;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
@@ -9,10 +10,13 @@ import org.springframework.data.mongodb.core.mapping.Document;
  */
 @Data
 @Document(collection = "customer_purchases")
+@CompoundIndex(name = "version_id", def = "{'version': 1, '_id': 1}")
 public class Customer {
     @Id
     private String customerId; // Unique identifier for the customer
     private int totalTicketsPurchased; // Total number of tickets purchased by the customer
+    private long version; // Version of the last write, see WriteBehindStore
+    private String customerClass; // Rate limit class of the customer, null for the default class
 
     /**
      * Constructor to initialize the customer details
@@ -0,0 +1,35 @@
+package com.ticketing.RealimeTicketingSystem_backend.Models;
+
+/**
+ * ExecutionMode enum to choose how the simulation agents are run.
+ */
+public enum ExecutionMode {
+
+    /**
+     * Agents are lightweight tasks scheduled on the shared timing wheel, no thread per agent.
+     */
+    SCHEDULED,
+
+    /**
+     * One platform (operating system) thread per vendor and customer.
+     */
+    PLATFORM,
+
+    /**
+     * One virtual thread per vendor and customer, for simulating very large numbers of agents.
+     */
+    VIRTUAL;
+
+    /**
+     * Method to create an unstarted thread of this mode.
+     * SCHEDULED agents do not get a thread, a platform thread is created if one is asked for.
+     * @param name (thread name)
+     * @param task (task the thread runs)
+     * @return (new unstarted thread)
+     */
+    public Thread newThread(String name, Runnable task) {
+        return this == VIRTUAL
+                ? Thread.ofVirtual().name(name).unstarted(task)
+                : Thread.ofPlatform().name(name).unstarted(task);
+    }
+}
@@ -0,0 +1,47 @@
+package com.ticketing.RealimeTicketingSystem_backend.Models;
+
+import lombok.Data;
+
+/**
+ * HoldResult class is used to store the outcome of a ticket hold operation
+ */
+@Data
+public class HoldResult {
+
+    /**
+     * State of a hold after an operation.
+     */
+    public enum Status {
+        HELD, // The tickets are held for the customer until the hold expires
+        CONFIRMED, // The held tickets were purchased
+        RELEASED, // The held tickets were returned to the pool by the customer
+        EXPIRED, // The hold expired and its tickets were returned to the pool
+        UNAVAILABLE, // Not enough tickets are available to hold right now
+        SOLD_OUT // No tickets can be held because the pool is sold out
+    }
+
+    private String holdId; // Identifier of the hold, null if no tickets were held
+    private String customerId; // Customer holding the tickets
+    private int tickets; // Number of tickets held
+    private int[] seats; // Seat numbers held, empty if the pool has no seat numbers
+    private long expiresAt; // Time the hold expires, in epoch milliseconds
+    private Status status; // State of the hold
+
+    /**
+     * Constructor to initialize the hold result
+     * @param holdId (Identifier of the hold)
+     * @param customerId (Customer holding the tickets)
+     * @param tickets (Number of tickets held)
+     * @param seats (Seat numbers held)
+     * @param expiresAt (Time the hold expires, in epoch milliseconds)
+     * @param status (State of the hold)
+     */
+    public HoldResult(String holdId, String customerId, int tickets, int[] seats, long expiresAt, Status status) {
+        this.holdId = holdId;
+        this.customerId = customerId;
+        this.tickets = tickets;
+        this.seats = seats;
+        this.expiresAt = expiresAt;
+        this.status = status;
+    }
+}
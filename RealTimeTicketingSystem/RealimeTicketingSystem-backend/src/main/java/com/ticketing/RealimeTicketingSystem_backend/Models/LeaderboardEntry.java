@@ -0,0 +1,25 @@
+package com.ticketing.RealimeTicketingSystem_backend.Models;
+
+import lombok.Data;
+
+/**
+ * LeaderboardEntry class is used to store the rank of a customer or vendor
+ */
+@Data
+public class LeaderboardEntry {
+    private int rank; // Position in the leaderboard, starting at 1
+    private String id; // Customer or vendor identifier
+    private long total; // Tickets purchased by the customer, or released by the vendor
+
+    /**
+     * Constructor to initialize the leaderboard entry
+     * @param rank (Position in the leaderboard)
+     * @param id (Customer or vendor identifier)
+     * @param total (Tickets purchased or released)
+     */
+    public LeaderboardEntry(int rank, String id, long total) {
+        this.rank = rank;
+        this.id = id;
+        this.total = total;
+    }
+}
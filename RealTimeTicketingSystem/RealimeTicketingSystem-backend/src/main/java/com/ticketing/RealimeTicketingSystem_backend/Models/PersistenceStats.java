@@ -0,0 +1,18 @@
+package com.ticketing.RealimeTicketingSystem_backend.Models;
+
+import lombok.Data;
+
+/**
+ * PersistenceStats class is used to report how far the write-behind store is behind the ticket pools
+ */
+@Data
+public class PersistenceStats {
+    private int pendingDocuments; // Customers and vendors with deltas waiting to be written
+    private long oldestPendingMillis; // Age of the oldest delta waiting to be written
+    private long lastFlushLagMillis; // Age of the oldest delta written by the last flush
+    private long maxFlushLagMillis; // Highest flush lag seen since the application started
+    private long lastFlushTime; // Time of the last successful flush, in epoch milliseconds
+    private long flushCount; // Number of successful flushes
+    private long failedFlushCount; // Number of flushes that failed and were retried
+    private long writtenDocuments; // Number of document upserts written
+}
@@ -0,0 +1,29 @@
+package com.ticketing.RealimeTicketingSystem_backend.Models;
+
+import lombok.Data;
+
+/**
+ * PurchaseLine class is used to store one customer and quantity of a purchase request
+ */
+@Data
+public class PurchaseLine {
+    private String customerId; // Customer buying the tickets
+    private int tickets; // Number of tickets to buy
+
+    /**
+     * Default constructor for PurchaseLine, used when reading the request body.
+     */
+    public PurchaseLine() {
+        // Default constructor
+    }
+
+    /**
+     * Constructor to initialize the purchase line
+     * @param customerId (Customer buying the tickets)
+     * @param tickets (Number of tickets to buy)
+     */
+    public PurchaseLine(String customerId, int tickets) {
+        this.customerId = customerId;
+        this.tickets = tickets;
+    }
+}
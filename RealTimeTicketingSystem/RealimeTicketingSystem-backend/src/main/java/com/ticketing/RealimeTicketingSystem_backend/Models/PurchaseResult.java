@@ -0,0 +1,48 @@
+package com.ticketing.RealimeTicketingSystem_backend.Models;
+
+import lombok.Data;
+
+/**
+ * PurchaseResult class is used to store the outcome of a ticket purchase request
+ */
+@Data
+public class PurchaseResult {
+
+    /**
+     * Outcome of a purchase request.
+     */
+    public enum Status {
+        FILLED, // All requested tickets were purchased
+        PARTIAL, // Some of the requested tickets were purchased before the request ended
+        TIMED_OUT, // No tickets were purchased before the request timed out
+        SOLD_OUT, // No tickets were purchased and no more tickets will be released
+        UNAVAILABLE, // No tickets were purchased because the pool was short, more may be released later
+        RATE_LIMITED, // No tickets were purchased because the customer made too many requests
+        REJECTED, // No tickets were purchased because too many requests were already waiting, retry after retryAfterMillis
+        CANCELLED, // The request was cancelled before any tickets were purchased
+        FAILED // No tickets were purchased because the purchase failed with an error
+    }
+
+    private String customerId; // Customer who made the request
+    private int requestedTickets; // Number of tickets requested
+    private int purchasedTickets; // Number of tickets purchased
+    private int[] seats; // Seat numbers purchased, empty if the pool has no seat numbers
+    private Status status; // Outcome of the request
+    private long retryAfterMillis; // Time to wait before retrying a rejected request, 0 otherwise
+
+    /**
+     * Constructor to initialize the purchase result
+     * @param customerId (Customer who made the request)
+     * @param requestedTickets (Number of tickets requested)
+     * @param purchasedTickets (Number of tickets purchased)
+     * @param seats (Seat numbers purchased)
+     * @param status (Outcome of the request)
+     */
+    public PurchaseResult(String customerId, int requestedTickets, int purchasedTickets, int[] seats, Status status) {
+        this.customerId = customerId;
+        this.requestedTickets = requestedTickets;
+        this.purchasedTickets = purchasedTickets;
+        this.seats = seats;
+        this.status = status;
+    }
+}
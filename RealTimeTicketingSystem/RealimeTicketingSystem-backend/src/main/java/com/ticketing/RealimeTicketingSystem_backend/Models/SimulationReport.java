@@ -0,0 +1,41 @@
+package com.ticketing.RealimeTicketingSystem_backend.Models;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * SimulationReport class is used to store the outcome of a simulation run in virtual time
+ */
+@Data
+public class SimulationReport {
+    private long virtualMillis; // Virtual time the simulation ran for, in milliseconds
+    private long wallClockMillis; // Real time the simulation took, in milliseconds
+    private long eventsProcessed; // Vendor and customer events taken from the event queue
+    private long soldOutAtMillis; // Virtual time all tickets were sold at, -1 if they were not
+    private long releasedAtMillis; // Virtual time all tickets were released at, -1 if they were not
+    private int totalTicketsReleased; // Total tickets released by the vendors and initially available
+    private int totalTicketsSold; // Total tickets sold to the customers
+    private int remainingTickets; // Tickets still available when the simulation ended
+    private boolean allTicketsReleased; // Whether all tickets were released
+    private boolean allTicketsSold; // Whether all tickets were sold
+    private long releaseAttempts; // Release attempts made by the vendors
+    private long rejectedReleases; // Release attempts rejected because the pool was full
+    private long purchaseAttempts; // Purchase attempts made by the customers
+    private long missedPurchases; // Purchase attempts that found the pool short
+    private double ticketsPerSecond; // Tickets sold per second of virtual time
+    private long purchaseWaitP50Millis; // Median virtual time customers waited for their purchases
+    private long purchaseWaitP95Millis; // 95th percentile of the purchase waits
+    private long purchaseWaitP99Millis; // 99th percentile of the purchase waits
+    private long purchaseWaitMaxMillis; // Longest purchase wait
+    private Map<String, Long> vendorReleases; // Tickets released per vendor
+    private Map<String, Long> customerPurchases; // Tickets purchased per customer
+
+    /**
+     * Default constructor for SimulationReport.
+     * The outcome is set by the simulator when the run ends.
+     */
+    public SimulationReport() {
+        // Default constructor
+    }
+}
@@ -0,0 +1,26 @@
+package com.ticketing.RealimeTicketingSystem_backend.Models;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * SweepRequest class is used to store the grid of configurations a parameter sweep simulates
+ */
+@Data
+public class SweepRequest {
+    private Configuration configuration; // Configuration the swept fields are varied from
+    private List<Integer> noOfVendors; // Numbers of vendors to simulate, the configuration value if empty
+    private List<Integer> noOfCustomers; // Numbers of customers to simulate, the configuration value if empty
+    private List<Integer> ticketReleaseRate; // Release rates to simulate, the configuration value if empty
+    private List<Integer> maxTicketCapacity; // Maximum capacities to simulate, the configuration value if empty
+    private int repetitions = 1; // Runs of every configuration, each with its own seed
+    private long seed; // Seed the seeds of the runs are derived from
+
+    /**
+     * Default constructor for SweepRequest, used when reading the request body.
+     */
+    public SweepRequest() {
+        // Default constructor
+    }
+}
@@ -0,0 +1,46 @@
+package com.ticketing.RealimeTicketingSystem_backend.Models;
+
+import lombok.Data;
+
+/**
+ * SweepResult class is used to store the outcome of one run of a parameter sweep
+ */
+@Data
+public class SweepResult {
+    private int run; // Index of the run in the sweep grid
+    private long seed; // Seed the run was simulated with
+    private int noOfVendors; // Number of vendors simulated
+    private int noOfCustomers; // Number of customers simulated
+    private int ticketReleaseRate; // Release rate simulated
+    private int maxTicketCapacity; // Maximum capacity simulated
+    private boolean allTicketsSold; // Whether all tickets were sold
+    private long soldOutAtMillis; // Virtual time all tickets were sold at, -1 if they were not
+    private double ticketsPerSecond; // Tickets sold per second of virtual time
+    private long purchaseWaitP50Millis; // Median virtual time customers waited for their purchases
+    private long purchaseWaitP95Millis; // 95th percentile of the purchase waits
+    private long purchaseWaitP99Millis; // 99th percentile of the purchase waits
+    private long wallClockMillis; // Real time the run took, in milliseconds
+
+    /**
+     * Constructor to initialize the result from the report of a run
+     * @param run (Index of the run in the sweep grid)
+     * @param seed (Seed the run was simulated with)
+     * @param config (Configuration simulated)
+     * @param report (Report of the simulation)
+     */
+    public SweepResult(int run, long seed, Configuration config, SimulationReport report) {
+        this.run = run;
+        this.seed = seed;
+        this.noOfVendors = config.getNoOfVendors();
+        this.noOfCustomers = config.getNoOfCustomers();
+        this.ticketReleaseRate = config.getTicketReleaseRate();
+        this.maxTicketCapacity = config.getMaxTicketCapacity();
+        this.allTicketsSold = report.isAllTicketsSold();
+        this.soldOutAtMillis = report.getSoldOutAtMillis();
+        this.ticketsPerSecond = report.getTicketsPerSecond();
+        this.purchaseWaitP50Millis = report.getPurchaseWaitP50Millis();
+        this.purchaseWaitP95Millis = report.getPurchaseWaitP95Millis();
+        this.purchaseWaitP99Millis = report.getPurchaseWaitP99Millis();
+        this.wallClockMillis = report.getWallClockMillis();
+    }
+}
@@ -2,6 +2,7 @@ package com.ticketing.RealimeTicketingSystem_backend.Models;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
@@ -9,10 +10,12 @@ import org.springframework.data.mongodb.core.mapping.Document;
  */
 @Data
 @Document(collection = "vendor_releases")
+@CompoundIndex(name = "version_id", def = "{'version': 1, '_id': 1}")
 public class Vendor {
     @Id
     private String vendorId; // Unique identifier for the vendor
     private int totalTicketsReleased; // Total number of tickets released by the vendor
+    private long version; // Version of the last write, see WriteBehindStore
 
     /**
      * Default constructor for Vendor.
@@ -1,16 +1,28 @@
 package com.ticketing.RealimeTicketingSystem_backend.Repo;
 
 import com.ticketing.RealimeTicketingSystem_backend.Models.Configuration;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.List;
+
 /**
  * Repository interface for accessing Configuration data stored in MongoDB.
  * Extends MongoRepository to provide CRUD operations.
  */
 public interface ConfigurationRepository extends MongoRepository<Configuration, String> {
     /**
-     * Method to find the latest configuration details.
-     * @return (Latest configuration details)
+     * Method to find the latest configurations of the default event.
+     * @param pageable (number of configurations to find)
+     * @return (Latest configurations without an event id, latest first)
+     */
+    List<Configuration> findByEventIdIsNullOrderByIdDesc(Pageable pageable);
+
+    /**
+     * Method to find the latest configurations of an event.
+     * @param eventId (Unique identifier for the event)
+     * @param pageable (number of configurations to find)
+     * @return (Latest configurations of the event, latest first)
      */
-    Configuration findTopByOrderByIdDesc();
+    List<Configuration> findByEventIdOrderByIdDesc(String eventId, Pageable pageable);
 }
@@ -1,13 +1,19 @@
 package com.ticketing.RealimeTicketingSystem_backend.Services;
 
+import com.ticketing.RealimeTicketingSystem_backend.Components.Leaderboards;
+import com.ticketing.RealimeTicketingSystem_backend.Components.RateLimiter;
+import com.ticketing.RealimeTicketingSystem_backend.Components.TicketEvent;
 import com.ticketing.RealimeTicketingSystem_backend.Components.TicketPool;
-import com.ticketing.RealimeTicketingSystem_backend.Models.*;
-import com.ticketing.RealimeTicketingSystem_backend.Repo.CustomerRepository;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import com.ticketing.RealimeTicketingSystem_backend.Components.TimingWheelScheduler;
+import com.ticketing.RealimeTicketingSystem_backend.Components.WriteBehindStore;
+import com.ticketing.RealimeTicketingSystem_backend.Models.Configuration;
+import com.ticketing.RealimeTicketingSystem_backend.Models.ExecutionMode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Service class for managing customer-related operations during the ticket simulation.
@@ -15,120 +21,147 @@ import java.util.*;
 @Service
 public class CustomerService {
 
-    private final Random random = new Random();
-    private final CustomerRepository customerRepository;
-    private final List<Thread> customerThreads = Collections.synchronizedList(new ArrayList<>());
+    private final WriteBehindStore writeBehindStore;
+    private final Leaderboards leaderboards;
+    private final RateLimiter rateLimiter;
+    private final TimingWheelScheduler scheduler;
+    private final MeterRegistry meterRegistry;
+    private final double jitter;
 
     /**
      * Constructor for CustomerService
-     * @param customerRepository (Repository for database operations)
+     * @param writeBehindStore (Store batching the customer purchases into the database)
+     * @param leaderboards (Leaderboards ranking the customers by tickets purchased)
+     * @param rateLimiter (Rate limiter pacing the customers running on their own thread)
+     * @param scheduler (Timing wheel running the scheduled customers)
+     * @param meterRegistry (Registry of the customer attempt counters)
+     * @param jitter (Fraction of the purchase interval scheduled customers randomly vary by)
      */
-    public CustomerService(CustomerRepository customerRepository) {
-        this.customerRepository = customerRepository;
+    public CustomerService(WriteBehindStore writeBehindStore,
+                           Leaderboards leaderboards,
+                           RateLimiter rateLimiter,
+                           TimingWheelScheduler scheduler,
+                           MeterRegistry meterRegistry,
+                           @Value("${ticketing.scheduler.jitter:0.1}") double jitter) {
+        this.writeBehindStore = writeBehindStore;
+        this.leaderboards = leaderboards;
+        this.rateLimiter = rateLimiter;
+        this.scheduler = scheduler;
+        this.meterRegistry = meterRegistry;
+        this.jitter = jitter;
     }
 
     /**
-     * Starts customer threads based on the configuration provided when the simulation is started.
-     * Each custer thread will purchase tickets at the given interval.
-     * @param config (Configuration for the simulation entered by the user)
-     * @param ticketPool (Shared ticket pool for the simulation)
-     * @param messagingTemplate (Template for sending messages to the frontend)
+     * Starts the customers of an event based on the configuration provided when the simulation is started.
+     * Each customer will purchase tickets at the given interval.
+     * Depending on the execution mode of the configuration, customers are tasks scheduled on the timing wheel,
+     * or run on their own platform or virtual thread.
+     * The customers are added to the event, which stops them.
+     * @param event (Event the simulation is started for)
      */
-    public void startCustomers(Configuration config, TicketPool ticketPool, SimpMessagingTemplate messagingTemplate) {
+    public void startCustomers(TicketEvent event) {
+        Configuration config = event.getConfiguration();
+        ExecutionMode mode = config.getExecutionMode();
         for (int i = 0; i < config.getNoOfCustomers(); i++) {
             String customerId = "C" + (i + 1);
-            CustomerTask task = new CustomerTask(customerId, config.getCustomerRetrievalRate(), ticketPool, messagingTemplate);
-            Thread thread = new Thread(task);
-            customerThreads.add(thread);
-            thread.start();
-        }
-    }
-
-    /**
-     * Stop customer threads when the simulation is stopped.
-     * Interrupts all customer threads and clears the list of threads.
-     */
-    public void stopCustomers() {
-        synchronized (customerThreads) {
-            for (Thread thread : customerThreads) {
-                if (thread != null && thread.isAlive()) {
-                    thread.interrupt();
-                }
+            CustomerTask task = new CustomerTask(customerId, config.getCustomerRetrievalRate(),
+                    event.getTicketPool(), event.getEventId());
+            if (mode == ExecutionMode.SCHEDULED) {
+                event.addAgent(scheduler.scheduleAtInterval(task::purchaseTickets,
+                        config.getCustomerRetrievalRate() * 1000L, jitter));
+            } else {
+                Thread thread = mode.newThread("customer-" + customerId, task);
+                event.addAgent(thread);
+                thread.start();
             }
-            customerThreads.clear();
         }
     }
 
     /**
      * Inner class for customer tasks.
-     * Each customer thread will purchase tickets at the given interval.
+     * Each customer will purchase tickets at the given interval,
+     * either in its own thread loop or as a task scheduled on the timing wheel.
      */
     private class CustomerTask implements Runnable {
         private final String customerId;
-        private final int purchaseInterval;
+        private final String bucketKey;
+        private final RateLimiter.Limit limit;
         private final TicketPool ticketPool;
-        private final SimpMessagingTemplate messagingTemplate;
+        private final Counter purchasedCounter;
+        private final Counter missedCounter;
 
         /**
          * Constructor for CustomerTask
          * @param customerId (Unique identifier for the customer)
          * @param purchaseInterval (Interval at which the customer will purchase tickets)
          * @param ticketPool (Shared ticket pool for the simulation)
-         * @param messagingTemplate (Template for sending messages to the frontend)
+         * @param eventId (Event the customer purchases tickets for, used to tag its counters)
          */
-        CustomerTask(String customerId, int purchaseInterval, TicketPool ticketPool, SimpMessagingTemplate messagingTemplate) {
+        CustomerTask(String customerId, int purchaseInterval, TicketPool ticketPool, String eventId) {
             this.customerId = customerId;
-            this.purchaseInterval = purchaseInterval;
+            this.bucketKey = eventId + "/" + customerId;
+            this.limit = RateLimiter.Limit.of(purchaseInterval > 0 ? 1.0 / purchaseInterval : 0, 1);
             this.ticketPool = ticketPool;
-            this.messagingTemplate = messagingTemplate;
+            this.purchasedCounter = meterRegistry.counter("ticketing.customer.attempts", "event", eventId, "outcome", "purchased");
+            this.missedCounter = meterRegistry.counter("ticketing.customer.attempts", "event", eventId, "outcome", "missed");
         }
 
         /**
          * Run method for the customer task.
          * Purchases tickets at the given interval and saves the customer details in the database.
+         * The interval is kept by the token bucket of the customer, one purchase attempt per token.
+         * Waits in the ticket pool when it is short.
          * Error handling is done for any exceptions that occur during the process.
          */
         @Override
         public void run() {
-            while (!Thread.currentThread().isInterrupted()) {
-                int ticketsToPurchase = random.nextInt(5) + 1; //Purchasing a random number of tickets between 1 and 5
-                synchronized (ticketPool) {
-                    boolean purchased = ticketPool.removeTickets(customerId, ticketsToPurchase);
+            try {
+                do {
+                    rateLimiter.acquire(bucketKey, limit);
+                } while (!Thread.currentThread().isInterrupted() && purchaseTickets(true));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
 
-                    if (purchased) {
-                        saveCustomerDetails(customerId, ticketsToPurchase);
+        /**
+         * Makes one purchase attempt without waiting, used by the scheduled customers.
+         * @return (false once all tickets are sold and the customer can stop)
+         */
+        boolean purchaseTickets() {
+            return purchaseTickets(false);
+        }
 
-                    }
-                }
+        /**
+         * Makes one purchase attempt and saves the customer details when tickets were purchased.
+         * @param waitForTickets (true to wait in the ticket pool when it is short)
+         * @return (false once all tickets are sold and the customer can stop)
+         */
+        private boolean purchaseTickets(boolean waitForTickets) {
+            int ticketsToPurchase = ThreadLocalRandom.current().nextInt(5) + 1; //Purchasing a random number of tickets between 1 and 5
+            boolean purchased = waitForTickets
+                    ? ticketPool.removeTickets(customerId, ticketsToPurchase)
+                    : ticketPool.tryRemoveTickets(customerId, ticketsToPurchase);
 
-                try {
-                    Thread.sleep(purchaseInterval*1000); //Sleeping for the given interval
-                                                              //converting the seconds to milliseconds
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
+            if (purchased) {
+                purchasedCounter.increment();
+                saveCustomerDetails(customerId, ticketsToPurchase);
+            } else {
+                missedCounter.increment();
             }
+            return !ticketPool.areAllTicketsSold();
         }
 
         /**
          * Method to save the customer details in the database.
-         * If the customer already exists, the total tickets purchased is updated.
-         * If the customer is new, a new entry is created in the database.
+         * The purchase is added to the total of the customer by the write-behind store,
+         * which creates the customer entry if the customer is new.
          * @param customerId (Unique identifier for the customer)
          * @param ticketsPurchased (Number of tickets purchased by the customer)
          */
-        private synchronized void saveCustomerDetails(String customerId, int ticketsPurchased) {
-            Optional<Customer> existingCustomer = customerRepository.findByCustomerId(customerId);
-            if (existingCustomer.isPresent()) {
-                Customer customer = existingCustomer.get();
-                customer.setTotalTicketsPurchased(customer.getTotalTicketsPurchased() + ticketsPurchased);
-                customerRepository.save(customer);
-            } else {
-                Customer newCustomer = new Customer(customerId, ticketsPurchased);
-                customerRepository.save(newCustomer);
-
-            }
+        private void saveCustomerDetails(String customerId, int ticketsPurchased) {
+            writeBehindStore.recordPurchase(customerId, ticketsPurchased);
+            leaderboards.recordPurchase(customerId, ticketsPurchased);
         }
     }
 }
\ No newline at end of file
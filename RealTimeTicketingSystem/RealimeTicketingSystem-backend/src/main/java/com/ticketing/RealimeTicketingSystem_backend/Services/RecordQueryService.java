@@ -0,0 +1,146 @@
+package com.ticketing.RealimeTicketingSystem_backend.Services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.RealimeTicketingSystem_backend.Components.WriteBehindStore;
+import com.ticketing.RealimeTicketingSystem_backend.Models.ChangeSet;
+import com.ticketing.RealimeTicketingSystem_backend.Models.CursorPage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Service class for reading the customer and vendor records without loading a whole collection.
+ * Records are read in pages keyed by id, streamed one by one from a Mongo cursor,
+ * or fetched by the version stamped on them by the WriteBehindStore, so clients only fetch what changed.
+ * Only the given fields are read from MongoDB, the id is always included.
+ */
+@Service
+public class RecordQueryService {
+
+    /**
+     * Largest page or change set returned by one request.
+     */
+    public static final int MAX_LIMIT = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final WriteBehindStore writeBehindStore;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor for RecordQueryService
+     * @param mongoTemplate (template used for the queries)
+     * @param writeBehindStore (store stamping the versions of the records)
+     * @param objectMapper (mapper writing the streamed records as JSON)
+     */
+    @Autowired
+    public RecordQueryService(MongoTemplate mongoTemplate, WriteBehindStore writeBehindStore, ObjectMapper objectMapper) {
+        this.mongoTemplate = mongoTemplate;
+        this.writeBehindStore = writeBehindStore;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Method to get one page of records in id order.
+     * @param type (record class)
+     * @param idOf (function getting the id of a record)
+     * @param after (id of the last record of the previous page, null for the first page)
+     * @param limit (maximum number of records in the page)
+     * @param fields (fields read besides the id)
+     * @return (page of records, with the cursor of the next page)
+     * @param <T> (record type)
+     */
+    public <T> CursorPage<T> page(Class<T> type, Function<T, String> idOf, String after, int limit, String... fields) {
+        int pageSize = clamp(limit);
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(pageSize + 1);
+        if (after != null && !after.isEmpty()) {
+            query.addCriteria(Criteria.where("_id").gt(after));
+        }
+        query.fields().include(fields);
+
+        List<T> items = mongoTemplate.find(query, type);
+        if (items.size() <= pageSize) {
+            return new CursorPage<>(items, null);
+        }
+        items = items.subList(0, pageSize);
+        return new CursorPage<>(items, idOf.apply(items.get(pageSize - 1)));
+    }
+
+    /**
+     * Method to write all records to a stream as newline delimited JSON, in id order.
+     * Records are written as they come from the Mongo cursor, so only one batch of records is in memory.
+     * @param type (record class)
+     * @param out (stream the records are written to)
+     * @param fields (fields read besides the id)
+     * @throws IOException (if the stream cannot be written)
+     * @param <T> (record type)
+     */
+    public <T> void stream(Class<T> type, OutputStream out, String... fields) throws IOException {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id"));
+        query.fields().include(fields);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<T> records = mongoTemplate.stream(query, type)) {
+            Iterator<T> iterator = records.iterator();
+            while (iterator.hasNext()) {
+                writer.write(objectMapper.writeValueAsString(iterator.next()));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Method to get the records changed since a version, in version order.
+     * Only versions whose writes have all completed are returned, so no change of a version is ever skipped.
+     * When more records changed than the limit, the next call passes the returned version and "after" id.
+     * @param type (record class)
+     * @param idOf (function getting the id of a record)
+     * @param versionOf (function getting the version of a record)
+     * @param since (version of the last change the client has, 0 for all records)
+     * @param after (id of the last record of the previous change set at that version, null if up to date)
+     * @param limit (maximum number of records in the change set)
+     * @param fields (fields read besides the id and version)
+     * @return (changed records, with the version to ask from next time)
+     * @param <T> (record type)
+     */
+    public <T> ChangeSet<T> changesSince(Class<T> type, Function<T, String> idOf, ToLongFunction<T> versionOf,
+                                         long since, String after, int limit, String... fields) {
+        int pageSize = clamp(limit);
+        long committedVersion = writeBehindStore.getCommittedVersion();
+        Criteria changed = after != null && !after.isEmpty()
+                ? new Criteria().orOperator(Criteria.where("version").gt(since),
+                        Criteria.where("version").is(since).and("_id").gt(after))
+                : Criteria.where("version").gt(since);
+        Query query = Query.query(new Criteria().andOperator(changed, Criteria.where("version").lte(committedVersion)))
+                .with(Sort.by(Sort.Direction.ASC, "version", "_id"))
+                .limit(pageSize + 1);
+        query.fields().include(fields).include("version");
+
+        List<T> items = mongoTemplate.find(query, type);
+        if (items.size() <= pageSize) {
+            return new ChangeSet<>(items, Math.max(since, committedVersion), null, false);
+        }
+        items = items.subList(0, pageSize);
+        T last = items.get(pageSize - 1);
+        return new ChangeSet<>(items, versionOf.applyAsLong(last), idOf.apply(last), true);
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -0,0 +1,253 @@
+package com.ticketing.RealimeTicketingSystem_backend.Services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.RealimeTicketingSystem_backend.Models.Configuration;
+import com.ticketing.RealimeTicketingSystem_backend.Models.SimulationReport;
+import com.ticketing.RealimeTicketingSystem_backend.Models.SweepRequest;
+import com.ticketing.RealimeTicketingSystem_backend.Models.SweepResult;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Service class for running parameter sweeps of the simulation.
+ * A sweep simulates every combination of the swept configuration fields in virtual time,
+ * on a fixed pool of sweep threads shared by all sweeps, so the sweeps never use more than "ticketing.sweep.parallelism" cores.
+ * Every run simulates its own ticket pool, and its seed is derived from the seed of the sweep and its index in the grid,
+ * so a sweep gives the same results whatever order its runs complete in.
+ * Every swept value is checked before any run starts, like a saved configuration: counts and rates must be positive,
+ * a run simulates at most "ticketing.sweep.max-agents" vendors and customers and "ticketing.sweep.max-capacity" tickets,
+ * and is stopped after "ticketing.sweep.max-virtual-time" of virtual time.
+ */
+@Service
+public class SweepService {
+
+    private final TicketService ticketService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService sweepExecutor;
+    private final int maxRuns;
+    private final int maxAgents;
+    private final int maxCapacity;
+    private final Duration maxVirtualTime;
+
+    /**
+     * Constructor for SweepService
+     * @param ticketService (Service running the simulations in virtual time)
+     * @param objectMapper (Mapper writing the results as JSON)
+     * @param parallelism (Number of sweep threads, 0 for one per core)
+     * @param maxRuns (Maximum number of runs of a sweep)
+     * @param maxAgents (Maximum number of vendors and customers of a run)
+     * @param maxCapacity (Maximum ticket capacity of a run)
+     * @param maxVirtualTime (Virtual time after which a run is stopped)
+     */
+    @Autowired
+    public SweepService(TicketService ticketService,
+                        ObjectMapper objectMapper,
+                        @Value("${ticketing.sweep.parallelism:0}") int parallelism,
+                        @Value("${ticketing.sweep.max-runs:10000}") int maxRuns,
+                        @Value("${ticketing.sweep.max-agents:1000}") int maxAgents,
+                        @Value("${ticketing.sweep.max-capacity:1000000}") int maxCapacity,
+                        @Value("${ticketing.sweep.max-virtual-time:1d}") Duration maxVirtualTime) {
+        this.ticketService = ticketService;
+        this.objectMapper = objectMapper;
+        this.maxRuns = maxRuns;
+        this.maxAgents = Math.max(2, maxAgents);
+        this.maxCapacity = Math.max(1, maxCapacity);
+        this.maxVirtualTime = maxVirtualTime;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sweepExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "sweep-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Method to get the configurations of a sweep, in grid order.
+     * The capacity is varied innermost, then the release rate, the customers and the vendors,
+     * and every configuration is repeated "repetitions" times in a row.
+     * The initial tickets are capped at the capacity of the configuration.
+     * @param request (Sweep to expand)
+     * @return (configurations of the runs, by run index)
+     * @throws IllegalArgumentException (if the sweep has no configuration, a value out of its range,
+     * or more runs than "ticketing.sweep.max-runs")
+     */
+    public List<Configuration> expand(SweepRequest request) {
+        Configuration base = request.getConfiguration();
+        if (base == null) {
+            throw new IllegalArgumentException("Sweep needs a configuration to vary");
+        }
+        // Rates are seconds between two runs of an agent, an agent slower than the virtual time limit never runs
+        int maxRate = (int) Math.min(Integer.MAX_VALUE, Math.max(1, maxVirtualTime.toSeconds()));
+        List<Integer> vendors = checked("noOfVendors",
+                valuesOrDefault(request.getNoOfVendors(), base.getNoOfVendors()), maxAgents);
+        List<Integer> customers = checked("noOfCustomers",
+                valuesOrDefault(request.getNoOfCustomers(), base.getNoOfCustomers()), maxAgents);
+        List<Integer> releaseRates = checked("ticketReleaseRate",
+                valuesOrDefault(request.getTicketReleaseRate(), base.getTicketReleaseRate()), maxRate);
+        List<Integer> capacities = checked("maxTicketCapacity",
+                valuesOrDefault(request.getMaxTicketCapacity(), base.getMaxTicketCapacity()), maxCapacity);
+        checked("customerRetrievalRate", List.of(base.getCustomerRetrievalRate()), maxRate);
+        if (base.getTotalTickets() < 0) {
+            throw new IllegalArgumentException("totalTickets must not be negative, got " + base.getTotalTickets());
+        }
+        int largestAgents = vendors.stream().mapToInt(Integer::intValue).max().orElse(0)
+                + customers.stream().mapToInt(Integer::intValue).max().orElse(0);
+        if (largestAgents > maxAgents) {
+            throw new IllegalArgumentException("Runs have up to " + largestAgents + " vendors and customers, at most "
+                    + maxAgents + " are allowed");
+        }
+        int repetitions = Math.max(1, request.getRepetitions());
+
+        long runs = (long) vendors.size() * customers.size() * releaseRates.size() * capacities.size() * repetitions;
+        if (runs > maxRuns) {
+            throw new IllegalArgumentException("Sweep has " + runs + " runs, at most " + maxRuns + " are allowed");
+        }
+
+        List<Configuration> configs = new ArrayList<>((int) runs);
+        for (int noOfVendors : vendors) {
+            for (int noOfCustomers : customers) {
+                for (int releaseRate : releaseRates) {
+                    for (int capacity : capacities) {
+                        Configuration config = new Configuration(null, Math.min(base.getTotalTickets(), capacity),
+                                releaseRate, base.getCustomerRetrievalRate(), capacity, noOfVendors, noOfCustomers);
+                        config.setEventId(base.getEventId());
+                        for (int i = 0; i < repetitions; i++) {
+                            configs.add(config);
+                        }
+                    }
+                }
+            }
+        }
+        return configs;
+    }
+
+    /**
+     * Runs a sweep on the sweep threads, and passes the result of every run to the listener as soon as it completes.
+     * The listener is called by one run at a time.
+     * Cancelling the returned future skips the runs that have not started yet.
+     * @param request (Sweep to run)
+     * @param listener (Listener receiving the results, in the order the runs complete)
+     * @return (future completed once every run has completed, or completed exceptionally with the first failure)
+     * @throws IllegalArgumentException (if the sweep is not valid, see expand)
+     */
+    public CompletableFuture<Void> runSweep(SweepRequest request, Consumer<SweepResult> listener) {
+        List<Configuration> configs = expand(request);
+        // Seeds are drawn in grid order before the runs start, the seed of a run does not depend on scheduling
+        SplittableRandom seeds = new SplittableRandom(request.getSeed());
+        CompletableFuture<Void> sweep = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(configs.size());
+        if (configs.isEmpty()) {
+            sweep.complete(null);
+            return sweep;
+        }
+
+        for (int run = 0; run < configs.size(); run++) {
+            int index = run;
+            Configuration config = configs.get(run);
+            long seed = seeds.nextLong();
+            sweepExecutor.execute(() -> {
+                if (sweep.isDone()) {
+                    return;
+                }
+                try {
+                    SimulationReport report = ticketService.runVirtualSimulation(config, seed, maxVirtualTime);
+                    SweepResult result = new SweepResult(index, seed, config, report);
+                    synchronized (listener) {
+                        if (!sweep.isDone()) {
+                            listener.accept(result);
+                        }
+                    }
+                    if (remaining.decrementAndGet() == 0) {
+                        sweep.complete(null);
+                    }
+                } catch (RuntimeException e) {
+                    sweep.completeExceptionally(e);
+                }
+            });
+        }
+        return sweep;
+    }
+
+    /**
+     * Method to run a sweep and write the result of every run to a stream as newline delimited JSON.
+     * Each result is written and flushed as soon as its run completes, and the method returns once every run has completed.
+     * The runs that have not started yet are skipped when the stream cannot be written or the thread is interrupted.
+     * @param request (Sweep to run)
+     * @param out (stream the results are written to)
+     * @throws IOException (if the stream cannot be written)
+     * @throws IllegalArgumentException (if the sweep is not valid, see expand)
+     */
+    public void stream(SweepRequest request, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        CompletableFuture<Void> sweep = runSweep(request, result -> {
+            try {
+                writer.write(objectMapper.writeValueAsString(result));
+                writer.write('\n');
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        try {
+            sweep.get();
+        } catch (InterruptedException e) {
+            sweep.cancel(false);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException failedWrite) {
+                throw failedWrite.getCause();
+            }
+            throw new IllegalStateException("Sweep run failed", e.getCause());
+        }
+    }
+
+    /**
+     * Checks that every value of a swept field is positive and at most its maximum.
+     * @param field (name of the field, for the error message)
+     * @param values (values of the field)
+     * @param max (largest value allowed)
+     * @return (the values)
+     * @throws IllegalArgumentException (if a value is out of range)
+     */
+    private static List<Integer> checked(String field, List<Integer> values, int max) {
+        for (Integer value : values) {
+            if (value == null || value < 1 || value > max) {
+                throw new IllegalArgumentException(field + " must be between 1 and " + max + ", got " + value);
+            }
+        }
+        return values;
+    }
+
+    private static List<Integer> valuesOrDefault(List<Integer> values, int defaultValue) {
+        return values == null || values.isEmpty() ? List.of(defaultValue) : values;
+    }
+
+    /**
+     * Stops the sweep threads when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        sweepExecutor.shutdownNow();
+    }
+}
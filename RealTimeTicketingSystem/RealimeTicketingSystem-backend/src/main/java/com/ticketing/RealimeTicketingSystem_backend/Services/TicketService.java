@@ -1,175 +1,272 @@
 package com.ticketing.RealimeTicketingSystem_backend.Services;
 
+import com.ticketing.RealimeTicketingSystem_backend.Components.DiscreteEventSimulator;
+import com.ticketing.RealimeTicketingSystem_backend.Components.Leaderboards;
+import com.ticketing.RealimeTicketingSystem_backend.Components.PoolEngine;
+import com.ticketing.RealimeTicketingSystem_backend.Components.TicketEvent;
 import com.ticketing.RealimeTicketingSystem_backend.Components.TicketPool;
+import com.ticketing.RealimeTicketingSystem_backend.Components.TimingWheelScheduler;
+import com.ticketing.RealimeTicketingSystem_backend.Components.UpdateBroadcaster;
+import com.ticketing.RealimeTicketingSystem_backend.Components.WriteBehindStore;
 import com.ticketing.RealimeTicketingSystem_backend.Models.*;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
-import java.util.List;
-import java.util.ArrayList;
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 /**
  * Service class for managing ticket-related operations during the ticket simulation.
- * Provides methods to start and stop the simulation, and monitor the status of the tickets.
+ * Provides methods to start and stop the simulation of an event, and monitor the status of its tickets.
+ * Every event runs its own simulation, with its own ticket pool and threads.
  */
 @Service
 public class TicketService {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final UpdateBroadcaster broadcaster;
     private final VendorService vendorService;
     private final CustomerService customerService;
-    private final TicketPool ticketPool;
-
-    /**
-     * List to store all service threads currently running in the simulation.
-     * This ensures that threads can be tracked and managed (stopped or restarted).
-     */
-    private final List<Thread> serviceThreads = Collections.synchronizedList(new ArrayList<>());
-
-    /**
-     * A volatile flag indicating if the simulation is currently running.
-     * This is used to manage the simulation state across multiple threads safely.
-     */
-    public static volatile boolean isRunning = false;
+    private final TimingWheelScheduler scheduler;
+    private final WriteBehindStore writeBehindStore;
+    private final Leaderboards leaderboards;
+    private final Duration defaultHoldTime;
+    private final PoolEngine engine;
+    private final double jitter;
+    private final Duration maxVirtualTime;
 
     /**
      * Constructor for TicketService
-     * @param messagingTemplate (Template for sending messages to the frontend)
+     * @param broadcaster (Broadcaster sending the updates to the frontend)
      * @param vendorService (Service for managing vendor-related operations)
      * @param customerService (Service for managing customer-related operations)
-     * @param ticketPool (Shared ticket pool for the simulation)
+     * @param scheduler (Timing wheel running the scheduled agents and status monitoring)
+     * @param writeBehindStore (Store batching the purchases and releases into the database)
+     * @param leaderboards (Leaderboards ranking the customers and vendors)
+     * @param defaultHoldTime (Time tickets are held for when the customer does not ask for a hold time)
+     * @param engine (Inventory engine of the ticket pools simulated in virtual time)
+     * @param jitter (Fraction of the agent interval each run randomly varies by)
+     * @param maxVirtualTime (Virtual time after which a simulation in virtual time is stopped)
      */
     @Autowired
-    public TicketService(SimpMessagingTemplate messagingTemplate,
+    public TicketService(UpdateBroadcaster broadcaster,
                          VendorService vendorService,
                          CustomerService customerService,
-                         TicketPool ticketPool) {
-        this.messagingTemplate = messagingTemplate;
+                         TimingWheelScheduler scheduler,
+                         WriteBehindStore writeBehindStore,
+                         Leaderboards leaderboards,
+                         @Value("${ticketing.holds.duration:5m}") Duration defaultHoldTime,
+                         @Value("${ticketing.pool.engine:ATOMIC}") PoolEngine engine,
+                         @Value("${ticketing.scheduler.jitter:0.1}") double jitter,
+                         @Value("${ticketing.simulation.max-virtual-time:7d}") Duration maxVirtualTime) {
+        this.broadcaster = broadcaster;
         this.vendorService = vendorService;
         this.customerService = customerService;
-        this.ticketPool = ticketPool;
+        this.scheduler = scheduler;
+        this.writeBehindStore = writeBehindStore;
+        this.leaderboards = leaderboards;
+        this.defaultHoldTime = defaultHoldTime;
+        this.engine = engine;
+        this.jitter = jitter;
+        this.maxVirtualTime = maxVirtualTime;
     }
 
     /**
-     * Starts the ticket simulation with the given configuration.
-     * Initializes the ticket pool with the given configuration and starts the vendor, customer and monitoring threads.
-     * @param config (Configuration for the simulation entered by the user)
+     * Starts the ticket simulation of an event with its latest configuration.
+     * Initializes the ticket pool of the event and starts the vendor, customer and monitoring threads.
+     * @param event (Event to start the simulation for)
      */
-    public synchronized void startSimulation(Configuration config) {
-        if (isRunning) {
-            throw new IllegalStateException("Simulation is already running");
-        }
+    public void startSimulation(TicketEvent event) {
+        synchronized (event) {
+            if (event.isRunning()) {
+                throw new IllegalStateException("Simulation is already running");
+            }
+            // Agents left over from a simulation that sold out are stopped before starting again
+            event.stopAgents();
+
+            Configuration config = event.getConfiguration();
+            TicketPool ticketPool = event.getTicketPool();
+
+            // Log simulation start
+            SystemLogger startLog = new SystemLogger();
+            startLog.setLogTime(LocalDateTime.now());
+            startLog.setLevel("INFO");
+            startLog.setMessage("Starting simulation with configuration: " +
+                    "Initial Tickets=" + config.getTotalTickets() +
+                    ", Max Capacity=" + config.getMaxTicketCapacity() +
+                    ", Vendors=" + config.getNoOfVendors() +
+                    ", Customers=" + config.getNoOfCustomers() +
+                    ", Threads=" + config.getExecutionMode());
+            broadcaster.publishLog(event.topic("logs"), startLog);
+
+            // Initialize ticket pool with configuration, unless it resumes the sale recovered from its journal
+            if (!ticketPool.resumeRecovered()) {
+                ticketPool.initialize(config);
+            }
+
+            event.setRunning(true);
+
+            // Start Vendors
+            vendorService.startVendors(event, broadcaster);
 
-        // Log simulation start
-        SystemLogger startLog = new SystemLogger();
-        startLog.setLogTime(LocalDateTime.now());
-        startLog.setLevel("INFO");
-        startLog.setMessage("Starting simulation with configuration: " +
-                "Initial Tickets=" + config.getTotalTickets() +
-                ", Max Capacity=" + config.getMaxTicketCapacity() +
-                ", Vendors=" + config.getNoOfVendors() +
-                ", Customers=" + config.getNoOfCustomers());
-        messagingTemplate.convertAndSend("/topic/logs", startLog);
-
-        // Initialize ticket pool with configuration
-        ticketPool.initialize(config);
-
-        isRunning = true;
-
-        // Start Vendor Threads
-        vendorService.startVendors(config, ticketPool, messagingTemplate);
-
-        // Start Customer Threads
-        customerService.startCustomers(config, ticketPool, messagingTemplate);
-
-        // Start a monitoring thread for tracking ticket status
-        Thread monitorThread = new Thread(this::monitorTicketStatus);
-        serviceThreads.add(monitorThread);
-        monitorThread.start();
-
-        // Log successful simulation start
-        SystemLogger successLog = new SystemLogger();
-        successLog.setLogTime(LocalDateTime.now());
-        successLog.setLevel("INFO");
-        successLog.setMessage("Simulation started successfully");
-        messagingTemplate.convertAndSend("/topic/logs", successLog);
+            // Start Customers
+            customerService.startCustomers(event);
+
+            // Start monitoring the ticket status every second
+            if (config.getExecutionMode() == ExecutionMode.SCHEDULED) {
+                event.addAgent(scheduler.scheduleRepeating(() -> publishTicketStatus(event) ? 1000 : -1, 0));
+            } else {
+                Thread monitorThread = config.getExecutionMode().newThread("monitor-" + event.getEventId(),
+                        () -> monitorTicketStatus(event));
+                event.addAgent(monitorThread);
+                monitorThread.start();
+            }
+
+            // Log successful simulation start
+            SystemLogger successLog = new SystemLogger();
+            successLog.setLogTime(LocalDateTime.now());
+            successLog.setLevel("INFO");
+            successLog.setMessage("Simulation started successfully");
+            broadcaster.publishLog(event.topic("logs"), successLog);
+        }
     }
 
     /**
-     * Stops the ticket simulation.
+     * Stops the ticket simulation of an event.
      * Stops the vendor, customer and monitoring threads,
+     * writes the pending purchases and releases to the database,
      * and logs the final status of the simulation.
+     * @param event (Event to stop the simulation for)
      */
-    public synchronized void stopSimulation() {
-        if (!isRunning) {
-            return;
-        }
+    public void stopSimulation(TicketEvent event) {
+        synchronized (event) {
+            if (!event.hasAgents()) {
+                event.setRunning(false);
+                return;
+            }
+
+            // Log simulation stop
+            SystemLogger stopLog = new SystemLogger();
+            stopLog.setLogTime(LocalDateTime.now());
+            stopLog.setLevel("INFO");
+            stopLog.setMessage("Stopping simulation...");
+            broadcaster.publishLog(event.topic("logs"), stopLog);
 
-        // Log simulation stop
-        SystemLogger stopLog = new SystemLogger();
-        stopLog.setLogTime(LocalDateTime.now());
-        stopLog.setLevel("INFO");
-        stopLog.setMessage("Stopping simulation...");
-        messagingTemplate.convertAndSend("/topic/logs", stopLog);
-
-        isRunning = false;
-
-        // Stop Vendor and Customer Threads
-        vendorService.stopVendors();
-        customerService.stopCustomers();
-
-        // Stop the monitoring thread and any other service threads
-        synchronized (serviceThreads) {
-            for (Thread thread : serviceThreads) {
-                if (thread != null && thread.isAlive()) {
-                    thread.interrupt();
-                }
+            event.setRunning(false);
+
+            // Stop Vendors, Customers and monitoring
+            event.stopAgents();
+
+            // Write the purchases and releases still waiting in the write-behind store
+            if (!writeBehindStore.drain()) {
+                SystemLogger drainLog = new SystemLogger();
+                drainLog.setLogTime(LocalDateTime.now());
+                drainLog.setLevel("WARNING");
+                drainLog.setMessage("Some purchases and releases could not be saved yet, they will be retried.");
+                broadcaster.publishLog(event.topic("logs"), drainLog);
             }
-            serviceThreads.clear();
+
+            // Log final simulation status
+            TicketPool ticketPool = event.getTicketPool();
+            SystemLogger finalLog = new SystemLogger();
+            finalLog.setLogTime(LocalDateTime.now());
+            finalLog.setLevel("INFO");
+            finalLog.setMessage("Simulation stopped. Final stats: " +
+                    "Total tickets released=" + ticketPool.getTotalTicketsReleased() +
+                    ", Remaining tickets=" + ticketPool.getRemainingTickets() +
+                    ", All tickets released=" + ticketPool.areAllTicketsReleased() +
+                    ", All tickets sold=" + ticketPool.areAllTicketsSold());
+            broadcaster.publishLog(event.topic("logs"), finalLog);
+        }
+    }
+
+    /**
+     * Runs the simulation of a configuration in virtual time, as fast as the CPU allows, and reports its outcome.
+     * The vendors and customers behave like the scheduled agents of a real simulation,
+     * but run on the calling thread against a ticket pool of their own,
+     * so the running simulation of the event, the database and the leaderboards are not affected.
+     * The logs and status of the simulated ticket pool are not sent to the frontend.
+     * @param config (Configuration to simulate)
+     * @param seed (Seed of the random ticket numbers and jitter, runs with the same seed give the same report)
+     * @return (report of the simulation)
+     */
+    public SimulationReport runVirtualSimulation(Configuration config, long seed) {
+        return runVirtualSimulation(config, seed, maxVirtualTime);
+    }
+
+    /**
+     * Runs the simulation of a configuration in virtual time, stopping it at a virtual time limit of its own.
+     * @param config (Configuration to simulate)
+     * @param seed (Seed of the random ticket numbers and jitter)
+     * @param virtualTimeLimit (Virtual time after which the run is stopped, capped at "ticketing.simulation.max-virtual-time")
+     * @return (report of the simulation)
+     */
+    public SimulationReport runVirtualSimulation(Configuration config, long seed, Duration virtualTimeLimit) {
+        Duration limit = virtualTimeLimit.compareTo(maxVirtualTime) < 0 ? virtualTimeLimit : maxVirtualTime;
+        return new DiscreteEventSimulator(config, engine, UpdateBroadcaster.NONE, scheduler, jitter, seed)
+                .run(limit);
+    }
+
+    /**
+     * Method to get the current status of the tickets of an event.
+     * @param event (Event to get the status for)
+     * @return (current ticket status)
+     */
+    public TicketStatus getStatus(TicketEvent event) {
+        TicketPool ticketPool = event.getTicketPool();
+        TicketStatus status = new TicketStatus();
+        status.setRemainingTickets(ticketPool.getRemainingTickets());
+        status.setAllTicketsSold(ticketPool.areAllTicketsSold());
+        status.setTotalTicketsReleased(ticketPool.getTotalTicketsReleased());
+        status.setAllTicketsReleased(ticketPool.areAllTicketsReleased());
+        return status;
+    }
+
+    /**
+     * Holds tickets of an event for a customer until they are confirmed or released.
+     * @param event (Event to hold the tickets of)
+     * @param customerId (Customer identifier)
+     * @param numTickets (Number of tickets to hold)
+     * @param holdTime (Time the tickets are held for, null for "ticketing.holds.duration")
+     * @return (result of the hold)
+     */
+    public HoldResult holdTickets(TicketEvent event, String customerId, int numTickets, Duration holdTime) {
+        return event.getTicketPool().holdTickets(customerId, numTickets, holdTime != null ? holdTime : defaultHoldTime);
+    }
+
+    /**
+     * Purchases the tickets of a hold and records the purchase of the customer.
+     * @param event (Event the hold belongs to)
+     * @param holdId (Hold identifier)
+     * @return (result of the confirmed hold, null if the hold has ended)
+     */
+    public HoldResult confirmHold(TicketEvent event, String holdId) {
+        HoldResult result = event.getTicketPool().confirmHold(holdId);
+        if (result != null) {
+            writeBehindStore.recordPurchase(result.getCustomerId(), result.getTickets());
+            leaderboards.recordPurchase(result.getCustomerId(), result.getTickets());
         }
+        return result;
+    }
 
-        // Log final simulation status
-        SystemLogger finalLog = new SystemLogger();
-        finalLog.setLogTime(LocalDateTime.now());
-        finalLog.setLevel("INFO");
-        finalLog.setMessage("Simulation stopped. Final stats: " +
-                "Total tickets released=" + ticketPool.getTotalTicketsReleased() +
-                ", Remaining tickets=" + ticketPool.getRemainingTickets() +
-                ", All tickets released=" + ticketPool.areAllTicketsReleased() +
-                ", All tickets sold=" + ticketPool.areAllTicketsSold());
-        messagingTemplate.convertAndSend("/topic/logs", finalLog);
+    /**
+     * Returns the tickets of a hold to the ticket pool of an event.
+     * @param event (Event the hold belongs to)
+     * @param holdId (Hold identifier)
+     * @return (result of the released hold, null if the hold has ended)
+     */
+    public HoldResult releaseHold(TicketEvent event, String holdId) {
+        return event.getTicketPool().releaseHold(holdId);
     }
 
     /**
-     * Monitors the status of the tickets in the ticket pool.
+     * Monitors the status of the tickets in the ticket pool of an event.
      * Sends the status to the frontend at regular intervals.
-     * Endpoint: "/topic/status"
      * Error handling: If the thread is interrupted, stop monitoring the status.
+     * @param event (Event to monitor)
      */
-    private void monitorTicketStatus() {
-        while (isRunning) {
-            synchronized (ticketPool) {
-                TicketStatus status = new TicketStatus();
-                //If all tickets are sold, set remaining tickets to 0 and all tickets sold to true
-                if (ticketPool.isComplete()) {
-                    status.setRemainingTickets(0);
-                    status.setAllTicketsSold(true);
-                    messagingTemplate.convertAndSend("/topic/status", status);
-                    break; // Stop monitoring once the simulation is complete
-                }
-                //Otherwise, send the current status to the frontend
-                else {
-                    status.setRemainingTickets(ticketPool.getRemainingTickets());
-                    status.setAllTicketsSold(ticketPool.areAllTicketsSold());
-                    status.setTotalTicketsReleased(ticketPool.getTotalTicketsReleased());
-                    status.setAllTicketsReleased(ticketPool.areAllTicketsReleased());
-                    messagingTemplate.convertAndSend("/topic/status", status);
-                }
-            }
-
+    private void monitorTicketStatus(TicketEvent event) {
+        while (publishTicketStatus(event)) {
             try {
                 Thread.sleep(1000); // Check status every second
             } catch (InterruptedException e) {
@@ -179,4 +276,28 @@ public class TicketService {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Sends the status of the tickets of an event to the frontend.
+     * The broadcaster only sends it in the next frame if it changed since the last status.
+     * Endpoint: "/topic/status" for the default event, "/topic/events/{id}/status" for the others
+     * @param event (Event to send the status for)
+     * @return (true while the status should keep being monitored, false once the simulation is over)
+     */
+    private boolean publishTicketStatus(TicketEvent event) {
+        if (!event.isRunning()) {
+            return false;
+        }
+        //If all tickets are sold, set remaining tickets to 0 and all tickets sold to true
+        if (event.getTicketPool().isComplete()) {
+            TicketStatus status = new TicketStatus();
+            status.setRemainingTickets(0);
+            status.setAllTicketsSold(true);
+            broadcaster.publishStatus(event.topic("status"), status);
+            return false; // Stop monitoring once the simulation is complete
+        }
+        //Otherwise, send the current status to the frontend
+        broadcaster.publishStatus(event.topic("status"), getStatus(event));
+        return true;
+    }
+
+}
@@ -1,14 +1,21 @@
 package com.ticketing.RealimeTicketingSystem_backend.Services;
 
+import com.ticketing.RealimeTicketingSystem_backend.Components.Leaderboards;
+import com.ticketing.RealimeTicketingSystem_backend.Components.TicketEvent;
 import com.ticketing.RealimeTicketingSystem_backend.Components.TicketPool;
+import com.ticketing.RealimeTicketingSystem_backend.Components.TimingWheelScheduler;
+import com.ticketing.RealimeTicketingSystem_backend.Components.UpdateBroadcaster;
+import com.ticketing.RealimeTicketingSystem_backend.Components.WriteBehindStore;
 import com.ticketing.RealimeTicketingSystem_backend.Models.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import com.ticketing.RealimeTicketingSystem_backend.Repo.VendorRepository;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Service class for managing vendor-related operations during the ticket simulation.
@@ -17,73 +24,92 @@ import java.util.*;
 @Service
 public class VendorService {
 
-    private final Random random = new Random();
-    private final VendorRepository vendorRepository;
-    private final List<Thread> vendorThreads = Collections.synchronizedList(new ArrayList<>());
+    private final WriteBehindStore writeBehindStore;
+    private final Leaderboards leaderboards;
+    private final TimingWheelScheduler scheduler;
+    private final MeterRegistry meterRegistry;
+    private final double jitter;
 
     /**
      * Constructor for VendorService
-     * @param vendorRepository (Repository for database operations)
+     * @param writeBehindStore (Store batching the vendor releases into the database)
+     * @param leaderboards (Leaderboards ranking the vendors by tickets released)
+     * @param scheduler (Timing wheel running the scheduled vendors)
+     * @param meterRegistry (Registry of the vendor attempt counters)
+     * @param jitter (Fraction of the release interval scheduled vendors randomly vary by)
      */
     @Autowired
-    public VendorService(VendorRepository vendorRepository) {
-        this.vendorRepository = vendorRepository;
+    public VendorService(WriteBehindStore writeBehindStore,
+                         Leaderboards leaderboards,
+                         TimingWheelScheduler scheduler,
+                         MeterRegistry meterRegistry,
+                         @Value("${ticketing.scheduler.jitter:0.1}") double jitter) {
+        this.writeBehindStore = writeBehindStore;
+        this.leaderboards = leaderboards;
+        this.scheduler = scheduler;
+        this.meterRegistry = meterRegistry;
+        this.jitter = jitter;
     }
 
     /**
-     * Starts vendor threads based on the configuration provided when the simulation is started.
-     * Each vendor thread will release tickets at the given interval.
-     * @param config (Configuration for the simulation entered by the user)
-     * @param ticketPool (Shared ticket pool for the simulation)
-     * @param messagingTemplate (Template for sending messages to the frontend)
+     * Starts the vendors of an event based on the configuration provided when the simulation is started.
+     * Each vendor will release tickets at the given interval.
+     * Depending on the execution mode of the configuration, vendors are tasks scheduled on the timing wheel,
+     * or run on their own platform or virtual thread.
+     * The vendors are added to the event, which stops them.
+     * @param event (Event the simulation is started for)
+     * @param broadcaster (Broadcaster sending the updates to the frontend)
      */
-    public void startVendors(Configuration config, TicketPool ticketPool, SimpMessagingTemplate messagingTemplate) {
+    public void startVendors(TicketEvent event, UpdateBroadcaster broadcaster) {
+        Configuration config = event.getConfiguration();
+        ExecutionMode mode = config.getExecutionMode();
         for (int i = 0; i < config.getNoOfVendors(); i++) {
             String vendorId = "V" + (i + 1);
-            VendorTask task = new VendorTask(vendorId, config.getTicketReleaseRate(), ticketPool, messagingTemplate);
-            Thread thread = new Thread(task);
-            vendorThreads.add(thread);
-            thread.start();
-        }
-    }
-
-    /**
-     * Stop vendor threads when the simulation is stopped.
-     * Interrupts all vendor threads and clears the list of threads.
-     */
-    public void stopVendors() {
-        synchronized (vendorThreads) {
-            for (Thread thread : vendorThreads) {
-                if (thread != null && thread.isAlive()) {
-                    thread.interrupt();
-                }
+            VendorTask task = new VendorTask(vendorId, config.getTicketReleaseRate(), event.getTicketPool(),
+                    broadcaster, event.topic("logs"), event.getEventId());
+            if (mode == ExecutionMode.SCHEDULED) {
+                event.addAgent(scheduler.scheduleAtInterval(task::releaseTickets,
+                        config.getTicketReleaseRate() * 1000L, jitter));
+            } else {
+                Thread thread = mode.newThread("vendor-" + vendorId, task);
+                event.addAgent(thread);
+                thread.start();
             }
-            vendorThreads.clear();
         }
     }
 
     /**
      * Inner class to represent a vendor task.
-     * Each vendor task will release tickets at a given interval.
+     * Each vendor task will release tickets at a given interval,
+     * either in its own thread loop or as a task scheduled on the timing wheel.
      */
     private class VendorTask implements Runnable {
         private final String vendorId;
         private final int releaseInterval;
         private final TicketPool ticketPool;
-        private final SimpMessagingTemplate messagingTemplate;
+        private final UpdateBroadcaster broadcaster;
+        private final String logsTopic;
+        private final Counter releasedCounter;
+        private final Counter rejectedCounter;
 
         /**
          * Constructor for VendorTask
          * @param vendorId (ID of the vendor)
          * @param releaseInterval (Interval at which tickets are released)
          * @param ticketPool (Shared ticket pool for the simulation)
-         * @param messagingTemplate (Template for sending messages to the frontend)
+         * @param broadcaster (Broadcaster sending the updates to the frontend)
+         * @param logsTopic (Websocket topic the vendor logs are sent to)
+         * @param eventId (Event the vendor releases tickets for, used to tag its counters)
          */
-        VendorTask(String vendorId, int releaseInterval, TicketPool ticketPool, SimpMessagingTemplate messagingTemplate) {
+        VendorTask(String vendorId, int releaseInterval, TicketPool ticketPool,
+                   UpdateBroadcaster broadcaster, String logsTopic, String eventId) {
             this.vendorId = vendorId;
             this.releaseInterval = releaseInterval;
             this.ticketPool = ticketPool;
-            this.messagingTemplate = messagingTemplate;
+            this.broadcaster = broadcaster;
+            this.logsTopic = logsTopic;
+            this.releasedCounter = meterRegistry.counter("ticketing.vendor.attempts", "event", eventId, "outcome", "released");
+            this.rejectedCounter = meterRegistry.counter("ticketing.vendor.attempts", "event", eventId, "outcome", "rejected");
         }
 
         /**
@@ -94,20 +120,7 @@ public class VendorService {
          */
         @Override
         public void run() {
-            while (!Thread.currentThread().isInterrupted()) {
-                if (ticketPool.areAllTicketsReleased()) {
-                    break;
-                }
-
-                int ticketsToRelease = random.nextInt(20) + 1; // Release a random number of tickets between 1 and 20
-                synchronized (ticketPool) {
-                    boolean released = ticketPool.addTickets(vendorId, ticketsToRelease);
-
-                    if (released) {
-                        saveVendorRelease(vendorId, ticketsToRelease);
-                    }
-                }
-
+            while (!Thread.currentThread().isInterrupted() && releaseTickets()) {
                 try {
                     Thread.sleep(releaseInterval*1000); // Sleep for the given interval
                                                              // converting seconds to milliseconds
@@ -119,39 +132,43 @@ public class VendorService {
         }
 
         /**
-         * Save the details of the vendor release in the database.
-         * If the vendor already exists, update the total tickets released.
-         * If the vendor is new, create a new entry with the total tickets released.
-         * @param vendorId (ID of the vendor)
-         * @param ticketsToRelease (Number of tickets released by the vendor)
+         * Releases one batch of tickets and saves the vendor release details.
+         * @return (false once all tickets are released and the vendor can stop)
          */
-        private synchronized void saveVendorRelease(String vendorId, int ticketsToRelease) {
-            Optional<Vendor> existingVendor = vendorRepository.findById(vendorId);
+        boolean releaseTickets() {
+            if (ticketPool.areAllTicketsReleased()) {
+                return false;
+            }
 
-            if (existingVendor.isPresent()) {
-                Vendor release = existingVendor.get();
-                release.setTotalTicketsReleased(release.getTotalTicketsReleased() + ticketsToRelease);
-                vendorRepository.save(release);
+            int ticketsToRelease = ThreadLocalRandom.current().nextInt(20) + 1; // Release a random number of tickets between 1 and 20
+            // The last release can be cut short by the capacity, only the tickets actually added are recorded
+            int ticketsAdded = ticketPool.releaseTickets(vendorId, ticketsToRelease);
 
-                // Log for existing vendor
-                SystemLogger log = new SystemLogger();
-                log.setLogTime(LocalDateTime.now());
-                log.setLevel("INFO");
-                log.setMessage("Vendor " + vendorId + " released " + ticketsToRelease + " tickets. Total: " + release.getTotalTicketsReleased());
-                messagingTemplate.convertAndSend("/topic/logs", log);
+            if (ticketsAdded > 0) {
+                releasedCounter.increment();
+                saveVendorRelease(vendorId, ticketsAdded);
             } else {
-                Vendor newRelease = new Vendor();
-                newRelease.setVendorId(vendorId);
-                newRelease.setTotalTicketsReleased(ticketsToRelease);
-                vendorRepository.save(newRelease);
-
-                // Log for new vendor
-                SystemLogger log = new SystemLogger();
-                log.setLogTime(LocalDateTime.now());
-                log.setLevel("INFO");
-                log.setMessage("New Vendor " + vendorId + " released " + ticketsToRelease + " tickets");
-                messagingTemplate.convertAndSend("/topic/logs", log);
+                rejectedCounter.increment();
             }
+            return true;
+        }
+
+        /**
+         * Save the details of the vendor release in the database.
+         * The release is added to the total of the vendor by the write-behind store,
+         * which creates the vendor entry if the vendor is new.
+         * @param vendorId (ID of the vendor)
+         * @param ticketsReleased (Number of tickets actually added to the pool by the vendor)
+         */
+        private void saveVendorRelease(String vendorId, int ticketsReleased) {
+            writeBehindStore.recordRelease(vendorId, ticketsReleased);
+            leaderboards.recordRelease(vendorId, ticketsReleased);
+
+            SystemLogger log = new SystemLogger();
+            log.setLogTime(LocalDateTime.now());
+            log.setLevel("INFO");
+            log.setMessage("Vendor " + vendorId + " released " + ticketsReleased + " tickets");
+            broadcaster.publishLog(logsTopic, log);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.Configuration;
+import com.ticketing.RealimeTicketingSystem_backend.Repo.ConfigurationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ConfigurationCacheTests {
+
+	@Test
+	void readsFromMemoryAfterFirstLoadAndWritesThrough() {
+		ConfigurationRepository repository = mock(ConfigurationRepository.class);
+		Configuration first = new Configuration("1", 10, 1, 1, 100, 1, 1);
+		Configuration second = new Configuration("2", 20, 1, 1, 100, 1, 1);
+		when(repository.findByEventIdOrderByIdDesc(eq("e1"), any(Pageable.class))).thenReturn(List.of(first));
+		when(repository.save(second)).thenReturn(second);
+		ConfigurationCache cache = new ConfigurationCache(repository, 20, 100, Duration.ofMinutes(5));
+
+		assertSame(first, cache.getLatest("e1"));
+		assertSame(first, cache.getLatest("e1"));
+		assertSame(second, cache.save("e1", second));
+
+		assertSame(second, cache.getLatest("e1"));
+		assertEquals(List.of(second, first), cache.getHistory("e1"));
+		assertEquals("e1", second.getEventId());
+		verify(repository, times(1)).findByEventIdOrderByIdDesc(eq("e1"), any(Pageable.class));
+	}
+
+	@Test
+	void expiredHistoryIsLoadedAgain() {
+		ConfigurationRepository repository = mock(ConfigurationRepository.class);
+		Configuration first = new Configuration("1", 10, 1, 1, 100, 1, 1);
+		Configuration other = new Configuration("2", 20, 1, 1, 100, 1, 1);
+		when(repository.findByEventIdOrderByIdDesc(eq("e1"), any(Pageable.class)))
+				.thenReturn(List.of(first), List.of(other, first));
+		ConfigurationCache cache = new ConfigurationCache(repository, 20, 100, Duration.ZERO);
+
+		assertSame(first, cache.getLatest("e1"));
+		assertSame(other, cache.getLatest("e1"));
+		verify(repository, times(2)).findByEventIdOrderByIdDesc(eq("e1"), any(Pageable.class));
+	}
+
+	@Test
+	void firstCachedEventIsDroppedWhenFull() {
+		ConfigurationRepository repository = mock(ConfigurationRepository.class);
+		Configuration first = new Configuration("1", 10, 1, 1, 100, 1, 1);
+		when(repository.findByEventIdOrderByIdDesc(anyString(), any(Pageable.class))).thenReturn(List.of(first));
+		ConfigurationCache cache = new ConfigurationCache(repository, 20, 2, Duration.ofMinutes(5));
+
+		cache.getLatest("e1");
+		cache.getLatest("e2");
+		cache.getLatest("e3");
+		cache.getLatest("e3");
+		cache.getLatest("e2");
+		cache.getLatest("e1");
+
+		verify(repository, times(2)).findByEventIdOrderByIdDesc(eq("e1"), any(Pageable.class));
+		verify(repository, times(1)).findByEventIdOrderByIdDesc(eq("e2"), any(Pageable.class));
+		verify(repository, times(1)).findByEventIdOrderByIdDesc(eq("e3"), any(Pageable.class));
+	}
+}
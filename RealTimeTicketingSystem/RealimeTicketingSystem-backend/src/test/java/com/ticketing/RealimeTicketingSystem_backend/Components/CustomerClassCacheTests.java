@@ -0,0 +1,50 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.Customer;
+import com.ticketing.RealimeTicketingSystem_backend.Repo.CustomerRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CustomerClassCacheTests {
+
+	@Test
+	void classComesFromTheCustomerRecord() {
+		CustomerRepository repository = mock(CustomerRepository.class);
+		Customer vip = new Customer("C1", 0);
+		vip.setCustomerClass("vip");
+		when(repository.findById("C1")).thenReturn(Optional.of(vip));
+		when(repository.findById("C2")).thenReturn(Optional.of(new Customer("C2", 0)));
+		when(repository.findById("C3")).thenReturn(Optional.empty());
+		CustomerClassCache cache = new CustomerClassCache(repository, Duration.ofMinutes(1), 100);
+
+		assertEquals("vip", cache.classOf("C1"));
+		assertEquals("vip", cache.classOf("C1"));
+		assertEquals(RateLimiter.DEFAULT_CLASS, cache.classOf("C2"));
+		assertEquals(RateLimiter.DEFAULT_CLASS, cache.classOf("C3"));
+		verify(repository, times(1)).findById("C1");
+	}
+
+	@Test
+	void leastRecentlyUsedCustomerIsDroppedWhenFull() {
+		CustomerRepository repository = mock(CustomerRepository.class);
+		when(repository.findById(anyString())).thenReturn(Optional.empty());
+		CustomerClassCache cache = new CustomerClassCache(repository, Duration.ofMinutes(1), 2);
+
+		cache.classOf("C1");
+		cache.classOf("C2");
+		cache.classOf("C1");
+		cache.classOf("C3");
+		cache.classOf("C1");
+		cache.classOf("C3");
+		cache.classOf("C2");
+
+		verify(repository, times(1)).findById("C1");
+		verify(repository, times(2)).findById("C2");
+		verify(repository, times(1)).findById("C3");
+	}
+}
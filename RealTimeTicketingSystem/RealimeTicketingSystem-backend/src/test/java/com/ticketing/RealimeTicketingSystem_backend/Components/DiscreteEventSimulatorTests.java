@@ -0,0 +1,67 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.Configuration;
+import com.ticketing.RealimeTicketingSystem_backend.Models.SimulationReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiscreteEventSimulatorTests {
+
+	private final TimingWheelScheduler scheduler = new TimingWheelScheduler(Duration.ofMillis(1), 64, 1);
+	private final UpdateBroadcaster broadcaster = new UpdateBroadcaster(
+			new SimpMessagingTemplate((message, timeout) -> true), scheduler, new SimpleMeterRegistry(),
+			Duration.ofMillis(10), 100);
+
+	@AfterEach
+	void shutdown() {
+		scheduler.shutdown();
+	}
+
+	private SimulationReport run(Configuration config, long seed, Duration maxVirtualTime) {
+		return new DiscreteEventSimulator(config, PoolEngine.ATOMIC, broadcaster, scheduler, 0.1, seed)
+				.run(maxVirtualTime);
+	}
+
+	@Test
+	void hoursOfVirtualTimeSellOutWithoutSleeping() {
+		// Vendors release every minute and customers buy every 30 seconds, selling out takes hours of virtual time
+		Configuration config = new Configuration(null, 10, 60, 30, 5_000, 5, 20);
+		SimulationReport report = run(config, 42, Duration.ofDays(1));
+
+		assertTrue(report.isAllTicketsSold());
+		assertEquals(5_000, report.getTotalTicketsReleased());
+		assertEquals(5_000, report.getTotalTicketsSold());
+		assertEquals(0, report.getRemainingTickets());
+		assertTrue(report.getSoldOutAtMillis() > Duration.ofHours(1).toMillis());
+		assertTrue(report.getWallClockMillis() < report.getVirtualMillis());
+		assertEquals(5_000 - 10, report.getVendorReleases().values().stream().mapToLong(Long::longValue).sum());
+		assertEquals(5_000, report.getCustomerPurchases().values().stream().mapToLong(Long::longValue).sum());
+	}
+
+	@Test
+	void sameSeedGivesSameReport() {
+		Configuration config = new Configuration(null, 0, 5, 2, 300, 3, 10);
+		SimulationReport first = run(config, 7, Duration.ofDays(1));
+		SimulationReport second = run(config, 7, Duration.ofDays(1));
+
+		assertEquals(first.getSoldOutAtMillis(), second.getSoldOutAtMillis());
+		assertEquals(first.getEventsProcessed(), second.getEventsProcessed());
+		assertEquals(first.getCustomerPurchases(), second.getCustomerPurchases());
+	}
+
+	@Test
+	void runStopsAtMaxVirtualTime() {
+		Configuration config = new Configuration(null, 0, 60, 1, 1_000_000, 1, 1);
+		SimulationReport report = run(config, 1, Duration.ofHours(1));
+
+		assertEquals(Duration.ofHours(1).toMillis(), report.getVirtualMillis());
+		assertFalse(report.isAllTicketsSold());
+		assertEquals(-1, report.getSoldOutAtMillis());
+	}
+}
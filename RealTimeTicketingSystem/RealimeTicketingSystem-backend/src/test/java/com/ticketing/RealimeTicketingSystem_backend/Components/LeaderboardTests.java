@@ -0,0 +1,28 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.LeaderboardEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardTests {
+
+	@Test
+	void ranksByTotalAfterIncrementalUpdates() {
+		Leaderboard leaderboard = new Leaderboard();
+		leaderboard.add("C1", 5);
+		leaderboard.add("C2", 3);
+		leaderboard.add("C3", 4);
+		leaderboard.add("C2", 4);
+
+		List<LeaderboardEntry> top = leaderboard.top(2);
+
+		assertEquals(2, top.size());
+		assertEquals(new LeaderboardEntry(1, "C2", 7), top.get(0));
+		assertEquals(new LeaderboardEntry(2, "C1", 5), top.get(1));
+		assertEquals(3, leaderboard.size());
+		assertEquals(3, leaderboard.top(10).size());
+	}
+}
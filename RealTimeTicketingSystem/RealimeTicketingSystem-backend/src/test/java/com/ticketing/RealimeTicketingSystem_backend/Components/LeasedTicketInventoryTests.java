@@ -0,0 +1,208 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeasedTicketInventoryTests {
+
+	@Test
+	void nodesSharingAStoreNeverOversell() throws InterruptedException {
+		int maxCapacity = 20_000;
+		InMemoryTicketBlockStore store = new InMemoryTicketBlockStore();
+		List<LeasedTicketInventory> nodes = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			nodes.add(new LeasedTicketInventory(store, "event", "node" + i, 50, Duration.ZERO, null));
+		}
+		nodes.get(0).reset(maxCapacity, 0);
+		AtomicInteger purchased = new AtomicInteger();
+		List<Thread> threads = new ArrayList<>();
+
+		for (LeasedTicketInventory node : nodes) {
+			threads.add(new Thread(() -> {
+				while (node.release("V", 7) > 0) {
+					Thread.onSpinWait();
+				}
+			}));
+			for (int i = 0; i < 3; i++) {
+				threads.add(new Thread(() -> {
+					int misses = 0;
+					while (misses < 1000 || store.get("event").released() < maxCapacity) {
+						int tickets = 1 + misses % 3;
+						if (node.reserve("C", tickets)) {
+							purchased.addAndGet(tickets);
+							misses = 0;
+						} else {
+							misses++;
+						}
+						node.maintain();
+					}
+				}));
+			}
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		nodes.forEach(LeasedTicketInventory::close);
+
+		TicketBlockStore.Counter counter = store.get("event");
+		assertEquals(maxCapacity, counter.released());
+		assertEquals(counter.released(), counter.free() + counter.sold() + counter.stranded());
+		assertEquals(0, counter.stranded());
+		assertEquals(purchased.get(), counter.sold());
+		assertTrue(counter.free() < 3 * nodes.size());
+	}
+
+	@Test
+	void closedNodeGivesItsBlockBack() {
+		InMemoryTicketBlockStore store = new InMemoryTicketBlockStore();
+		LeasedTicketInventory first = new LeasedTicketInventory(store, "event", "first", 100, Duration.ZERO, null);
+		LeasedTicketInventory second = new LeasedTicketInventory(store, "event", "second", 100, Duration.ZERO, null);
+		first.reset(100, 100);
+
+		assertTrue(first.reserve("C1", 10));
+		assertFalse(second.reserve("C2", 1));
+		first.close();
+
+		assertTrue(second.reserve("C2", 90));
+		assertFalse(second.reserve("C2", 1));
+		second.close();
+		assertEquals(100, store.get("event").sold());
+	}
+
+	@Test
+	void closedNodeTakesNoNewLease() {
+		InMemoryTicketBlockStore store = new InMemoryTicketBlockStore();
+		LeasedTicketInventory node = new LeasedTicketInventory(store, "event", "node", 10, Duration.ZERO, null);
+		node.reset(100, 100);
+
+		assertTrue(node.reserve("C1", 5));
+		node.close();
+
+		// Without the closed flag this purchase would lease a block nobody gives back
+		assertFalse(node.reserve("C1", 1));
+		TicketBlockStore.Counter counter = store.get("event");
+		assertEquals(95, counter.free());
+		assertEquals(5, counter.sold());
+	}
+
+	@Test
+	void expiredLeaseIsStrandedAndNeverResold() throws InterruptedException {
+		InMemoryTicketBlockStore store = new InMemoryTicketBlockStore();
+		Duration ttl = Duration.ofMillis(30);
+		LeasedTicketInventory crashed = new LeasedTicketInventory(store, "event", "crashed", 40, ttl, null);
+		LeasedTicketInventory survivor = new LeasedTicketInventory(store, "event", "survivor", 40, ttl, null);
+		crashed.reset(100, 100);
+
+		assertTrue(crashed.reserve("C1", 5));
+		Thread.sleep(ttl.toMillis() * 2);
+		survivor.maintain();
+
+		TicketBlockStore.Counter counter = store.get("event");
+		assertEquals(40, counter.stranded());
+		assertEquals(60, counter.free());
+		assertTrue(survivor.reserve("C2", 60));
+		assertFalse(survivor.reserve("C2", 1));
+
+		// The crashed node comes back, finds its lease gone and drops its block instead of selling it twice
+		crashed.maintain();
+		assertFalse(crashed.reserve("C1", 1));
+		crashed.close();
+		survivor.close();
+		assertEquals(60, store.get("event").sold());
+	}
+
+	@Test
+	void returnAfterLostLeaseGoesToTheStore() throws InterruptedException {
+		InMemoryTicketBlockStore store = new InMemoryTicketBlockStore();
+		Duration ttl = Duration.ofMillis(30);
+		LeasedTicketInventory crashed = new LeasedTicketInventory(store, "event", "crashed", 40, ttl, null);
+		LeasedTicketInventory survivor = new LeasedTicketInventory(store, "event", "survivor", 40, ttl, null);
+		crashed.reset(100, 100);
+
+		int[] hold = crashed.claimSeats("C1", 5);
+		assertNotNull(hold);
+		crashed.maintain();
+		Thread.sleep(ttl.toMillis() * 2);
+		survivor.maintain();
+		crashed.maintain();
+
+		// The hold ends after the lease is lost, its tickets must not go back to a block of the crashed node
+		crashed.returnTickets("C1", hold, 5);
+		TicketBlockStore.Counter counter = store.get("event");
+		assertEquals(65, counter.free());
+		assertEquals(0, counter.sold());
+		assertEquals(35, counter.stranded());
+
+		assertTrue(survivor.reserve("C2", 65));
+		assertFalse(survivor.reserve("C2", 1));
+		assertFalse(crashed.reserve("C1", 1));
+		crashed.close();
+		survivor.close();
+		assertEquals(65, store.get("event").sold());
+	}
+
+	@Test
+	void unreportedSalesOfALostLeaseAreReturnedOutOfTheStranded() throws InterruptedException {
+		InMemoryTicketBlockStore store = new InMemoryTicketBlockStore();
+		Duration ttl = Duration.ofMillis(30);
+		LeasedTicketInventory crashed = new LeasedTicketInventory(store, "event", "crashed", 40, ttl, null);
+		LeasedTicketInventory survivor = new LeasedTicketInventory(store, "event", "survivor", 40, ttl, null);
+		crashed.reset(100, 100);
+
+		int[] reported = crashed.claimSeats("C1", 3);
+		crashed.maintain();
+		int[] unreported = crashed.claimSeats("C2", 2);
+		assertSame(reported, unreported);
+		Thread.sleep(ttl.toMillis() * 2);
+		survivor.maintain();
+		crashed.maintain();
+		TicketBlockStore.Counter counter = store.get("event");
+		assertEquals(3, counter.sold());
+		assertEquals(37, counter.stranded());
+
+		// The 2 unreported sales come out of the stranded tickets, the 3 reported ones out of the sold tickets
+		crashed.returnTickets("C2", unreported, 2);
+		crashed.returnTickets("C1", reported, 3);
+		counter = store.get("event");
+		assertEquals(65, counter.free());
+		assertEquals(0, counter.sold());
+		assertEquals(35, counter.stranded());
+		crashed.close();
+		survivor.close();
+	}
+
+	@Test
+	void blockIsToppedUpByABackgroundTask() throws InterruptedException {
+		TimingWheelScheduler scheduler = new TimingWheelScheduler(Duration.ofMillis(1), 64, 1);
+		InMemoryTicketBlockStore store = new InMemoryTicketBlockStore();
+		LeasedTicketInventory node = new LeasedTicketInventory(store, "event", "node", 10, Duration.ZERO, scheduler);
+		Semaphore changes = new Semaphore(0);
+		node.setChangeListener(changes::release);
+		node.reset(100, 100);
+
+		// The purchase does not wait for the store, it fails until the block is topped up
+		assertFalse(node.reserve("C1", 1));
+		assertTrue(changes.tryAcquire(1, TimeUnit.SECONDS));
+		assertEquals(90, store.get("event").free());
+
+		// Below half a block the block is topped up ahead of time
+		assertTrue(node.reserve("C1", 6));
+		assertTrue(changes.tryAcquire(1, TimeUnit.SECONDS));
+		assertEquals(80, store.get("event").free());
+		assertTrue(node.reserve("C1", 10));
+		node.close();
+		scheduler.shutdown();
+		assertEquals(16, store.get("event").sold());
+	}
+}
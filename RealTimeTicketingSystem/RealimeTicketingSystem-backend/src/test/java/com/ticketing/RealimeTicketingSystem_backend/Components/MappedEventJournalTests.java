@@ -0,0 +1,55 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedEventJournalTests {
+
+	@TempDir
+	Path directory;
+
+	private MappedEventJournal open(int capacity) throws IOException {
+		return new MappedEventJournal(directory.resolve("event.journal"), directory.resolve("event.snapshot"), capacity);
+	}
+
+	@Test
+	void replaysRecordsAfterReopening() throws IOException {
+		MappedEventJournal journal = open(16);
+		journal.recordInitialize(100, 10);
+		journal.recordRelease(5);
+		journal.recordPurchase(3);
+		journal.recordPurchase(2);
+		journal.close();
+
+		EventJournal.State state = open(16).getState();
+
+		assertTrue(state.initialized());
+		assertEquals(4, state.sequence());
+		assertEquals(100, state.maxCapacity());
+		assertEquals(15, state.released());
+		assertEquals(5, state.sold());
+	}
+
+	@Test
+	void startsOverAfterSnapshotWhenFull() throws IOException {
+		MappedEventJournal journal = open(4);
+		journal.recordInitialize(50, 0);
+		for (int i = 0; i < 10; i++) {
+			journal.recordRelease(2);
+			journal.recordPurchase(1);
+		}
+		assertTrue(journal.getRecords() <= 4);
+		journal.close();
+
+		EventJournal.State state = open(4).getState();
+
+		assertEquals(21, state.sequence());
+		assertEquals(20, state.released());
+		assertEquals(10, state.sold());
+	}
+}
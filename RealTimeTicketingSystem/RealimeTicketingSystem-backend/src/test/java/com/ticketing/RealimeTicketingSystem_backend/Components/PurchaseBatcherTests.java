@@ -0,0 +1,108 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.Configuration;
+import com.ticketing.RealimeTicketingSystem_backend.Models.PurchaseLine;
+import com.ticketing.RealimeTicketingSystem_backend.Models.PurchaseResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PurchaseBatcherTests {
+
+	private final TimingWheelScheduler scheduler = new TimingWheelScheduler(Duration.ofMillis(1), 64, 1);
+	private final UpdateBroadcaster broadcaster = new UpdateBroadcaster(
+			new SimpMessagingTemplate((message, timeout) -> true), scheduler, new SimpleMeterRegistry(),
+			Duration.ofMillis(10), 100);
+	private final TicketPool pool = new TicketPool(broadcaster, PoolEngine.ATOMIC, "/topic", scheduler,
+			new PoolMetrics(new SimpleMeterRegistry(), "test"));
+	private final TicketEvent event = new TicketEvent("e1", "/topic/events/e1", pool, null);
+	private final WriteBehindStore writeBehindStore = mock(WriteBehindStore.class);
+	private final Leaderboards leaderboards = mock(Leaderboards.class);
+	// A long commit window so the requests of a test are committed as one group
+	private final PurchaseBatcher batcher = new PurchaseBatcher(writeBehindStore, leaderboards,
+			PurchasePipeline.INLINE, new SimpleMeterRegistry(), Duration.ofMillis(50), 1000);
+
+	@BeforeEach
+	void initialize() {
+		pool.initialize(new Configuration(null, 0, 1, 1, 10, 1, 1));
+		pool.addTickets("v1", 5);
+	}
+
+	@AfterEach
+	void shutdown() {
+		batcher.shutdown();
+		scheduler.shutdown();
+	}
+
+	@Test
+	void groupIsRecordedOncePerCustomer() throws Exception {
+		CompletableFuture<List<PurchaseResult>> first = batcher.purchase(event,
+				List.of(new PurchaseLine("c1", 2), new PurchaseLine("c2", 1)));
+		CompletableFuture<List<PurchaseResult>> second = batcher.purchase(event,
+				List.of(new PurchaseLine("c1", 1), new PurchaseLine("c3", 4)));
+
+		List<PurchaseResult> firstResults = first.get(1, TimeUnit.SECONDS);
+		List<PurchaseResult> secondResults = second.get(1, TimeUnit.SECONDS);
+		assertEquals(PurchaseResult.Status.FILLED, firstResults.get(0).getStatus());
+		assertEquals(PurchaseResult.Status.FILLED, firstResults.get(1).getStatus());
+		assertEquals(PurchaseResult.Status.FILLED, secondResults.get(0).getStatus());
+		assertEquals(PurchaseResult.Status.UNAVAILABLE, secondResults.get(1).getStatus());
+
+		verify(writeBehindStore).recordPurchase("c1", 3);
+		verify(writeBehindStore).recordPurchase("c2", 1);
+		verify(leaderboards).recordPurchase("c1", 3);
+		verify(leaderboards).recordPurchase("c2", 1);
+		verifyNoMoreInteractions(writeBehindStore, leaderboards);
+		assertEquals(4, pool.getTotalTicketsSold());
+	}
+
+	@Test
+	void failedRecordIsRetriedAndTheSalesAreReported() throws Exception {
+		doThrow(new DataAccessResourceFailureException("MongoDB is down")).doNothing()
+				.when(writeBehindStore).recordPurchase("c1", 2);
+
+		List<PurchaseResult> results = batcher.purchase(event, List.of(new PurchaseLine("c1", 2)))
+				.get(1, TimeUnit.SECONDS);
+
+		assertEquals(PurchaseResult.Status.FILLED, results.get(0).getStatus());
+		assertEquals(2, results.get(0).getPurchasedTickets());
+		verify(writeBehindStore, times(2)).recordPurchase("c1", 2);
+		verify(leaderboards).recordPurchase("c1", 2);
+		assertEquals(2, pool.getTotalTicketsSold());
+	}
+
+	@Test
+	void failingLineFailsOnlyItself() throws Exception {
+		TicketPool failingPool = mock(TicketPool.class);
+		when(failingPool.getJournal()).thenReturn(EventJournal.NONE);
+		when(failingPool.purchaseNow("c1", 2)).thenReturn(new PurchaseResult("c1", 2, 2, new int[0],
+				PurchaseResult.Status.FILLED));
+		when(failingPool.purchaseNow("c2", 1)).thenThrow(new IllegalStateException("Pool is broken"));
+		when(failingPool.purchaseNow("c3", 1)).thenReturn(new PurchaseResult("c3", 1, 1, new int[0],
+				PurchaseResult.Status.FILLED));
+		TicketEvent failingEvent = new TicketEvent("e2", "/topic/events/e2", failingPool, null);
+
+		List<PurchaseResult> results = batcher.purchase(failingEvent, List.of(new PurchaseLine("c1", 2),
+				new PurchaseLine("c2", 1), new PurchaseLine("c3", 1))).get(1, TimeUnit.SECONDS);
+
+		assertEquals(3, results.size());
+		assertEquals(PurchaseResult.Status.FILLED, results.get(0).getStatus());
+		assertEquals(PurchaseResult.Status.FAILED, results.get(1).getStatus());
+		assertEquals(0, results.get(1).getPurchasedTickets());
+		assertEquals(PurchaseResult.Status.FILLED, results.get(2).getStatus());
+		verify(writeBehindStore).recordPurchase("c1", 2);
+		verify(writeBehindStore).recordPurchase("c3", 1);
+		verify(writeBehindStore, never()).recordPurchase(eq("c2"), anyInt());
+	}
+}
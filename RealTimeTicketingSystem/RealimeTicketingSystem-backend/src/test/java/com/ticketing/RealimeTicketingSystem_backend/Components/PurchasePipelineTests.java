@@ -0,0 +1,130 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.Configuration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PurchasePipelineTests {
+
+	@TempDir
+	Path directory;
+
+	private final TimingWheelScheduler scheduler = new TimingWheelScheduler(Duration.ofMillis(1), 64, 1);
+	private final UpdateBroadcaster broadcaster = new UpdateBroadcaster(
+			new SimpMessagingTemplate((message, timeout) -> true), scheduler, new SimpleMeterRegistry(),
+			Duration.ofMillis(10), 100);
+	// A small ring, so the producers wrap around it many times
+	private final PurchasePipeline pipeline = new PurchasePipeline(new SimpleMeterRegistry(), 8);
+
+	@AfterEach
+	void shutdown() {
+		pipeline.shutdown();
+		scheduler.shutdown();
+	}
+
+	@Test
+	void journalsEveryChangeFromConcurrentProducers() throws Exception {
+		MappedEventJournal journal = new MappedEventJournal(directory.resolve("event.journal"),
+				directory.resolve("event.snapshot"), 4096);
+		TicketPool pool = new TicketPool(broadcaster, PoolEngine.ATOMIC, "/topic", scheduler,
+				new PoolMetrics(new SimpleMeterRegistry(), "test"));
+		pool.setJournal(journal);
+		pool.setPipeline(pipeline);
+		pool.initialize(new Configuration(null, 0, 1, 1, 1000, 1, 1));
+
+		ExecutorService producers = Executors.newFixedThreadPool(4);
+		for (int i = 0; i < 4; i++) {
+			String id = String.valueOf(i);
+			producers.execute(() -> {
+				for (int j = 0; j < 100; j++) {
+					pool.addTickets("v" + id, 2);
+					pool.tryRemoveTickets("c" + id, 1);
+				}
+			});
+		}
+		producers.shutdown();
+		assertTrue(producers.awaitTermination(10, TimeUnit.SECONDS));
+		pipeline.awaitJournaled();
+
+		EventJournal.State state = journal.getState();
+		assertEquals(1000, state.maxCapacity());
+		assertEquals(pool.getTotalTicketsReleased(), state.released());
+		assertEquals(pool.getTotalTicketsSold(), state.sold());
+		journal.close();
+	}
+
+	@Test
+	void idleStagesParkAndWakeUpOnPublish() throws Exception {
+		MappedEventJournal journal = new MappedEventJournal(directory.resolve("event.journal"),
+				directory.resolve("event.snapshot"), 64);
+		TicketPool pool = new TicketPool(broadcaster, PoolEngine.ATOMIC, "/topic", scheduler,
+				new PoolMetrics(new SimpleMeterRegistry(), "test"));
+		pool.setJournal(journal);
+		pool.setPipeline(pipeline);
+		pool.initialize(new Configuration(null, 0, 1, 1, 100, 1, 1));
+		pipeline.awaitJournaled();
+
+		// Parked without a timeout, not polling in steps of a millisecond
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		Thread journalStage;
+		while ((journalStage = parkedThread("pipeline-journal")) == null && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		assertNotNull(journalStage);
+
+		pool.addTickets("v1", 5);
+		pipeline.awaitJournaled();
+		assertEquals(5, journal.getState().released());
+		journal.close();
+	}
+
+	@Test
+	void changesPublishedDuringShutdownAreJournaledOnce() throws Exception {
+		MappedEventJournal journal = new MappedEventJournal(directory.resolve("event.journal"),
+				directory.resolve("event.snapshot"), 4096);
+		TicketPool pool = new TicketPool(broadcaster, PoolEngine.ATOMIC, "/topic", scheduler,
+				new PoolMetrics(new SimpleMeterRegistry(), "test"));
+		pool.setJournal(journal);
+		pool.setPipeline(pipeline);
+		pool.initialize(new Configuration(null, 0, 1, 1, 100_000, 1, 1));
+
+		ExecutorService producers = Executors.newFixedThreadPool(4);
+		for (int i = 0; i < 4; i++) {
+			String id = String.valueOf(i);
+			producers.execute(() -> {
+				for (int j = 0; j < 5000; j++) {
+					pool.addTickets("v" + id, 2);
+					pool.tryRemoveTickets("c" + id, 1);
+				}
+			});
+		}
+		Thread.sleep(5);
+		pipeline.shutdown();
+		producers.shutdown();
+		assertTrue(producers.awaitTermination(10, TimeUnit.SECONDS));
+		pipeline.awaitJournaled();
+
+		EventJournal.State state = journal.getState();
+		assertEquals(pool.getTotalTicketsReleased(), state.released());
+		assertEquals(pool.getTotalTicketsSold(), state.sold());
+		journal.close();
+	}
+
+	private static Thread parkedThread(String name) {
+		return Thread.getAllStackTraces().keySet().stream()
+				.filter(thread -> thread.getName().equals(name) && thread.getState() == Thread.State.WAITING)
+				.findAny().orElse(null);
+	}
+}
@@ -0,0 +1,49 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTests {
+
+	private final TimingWheelScheduler scheduler = new TimingWheelScheduler(Duration.ofMillis(1), 64, 1);
+	private final RateLimiter rateLimiter = new RateLimiter(scheduler, new SimpleMeterRegistry(),
+			"default=1:1,burst=1:3", Duration.ofHours(1));
+
+	@AfterEach
+	void tearDown() {
+		rateLimiter.shutdown();
+		scheduler.shutdown();
+	}
+
+	@Test
+	void allowsBurstThenLimitsUntilRefill() {
+		RateLimiter.Limit limit = rateLimiter.limitFor("burst");
+
+		assertEquals(0, rateLimiter.tryAcquire("C1", limit, 1));
+		assertEquals(0, rateLimiter.tryAcquire("C1", limit, 1));
+		assertEquals(0, rateLimiter.tryAcquire("C1", limit, 1));
+		long wait = rateLimiter.tryAcquire("C1", limit, 1);
+
+		assertTrue(wait > 0 && wait <= Duration.ofSeconds(1).toNanos());
+		assertEquals(0, rateLimiter.tryAcquire("C2", limit, 1));
+		assertEquals(rateLimiter.limitFor("default"), rateLimiter.limitFor("unknown"));
+	}
+
+	@Test
+	void evictsOnlyFullBuckets() {
+		RateLimiter.Limit unlimitedSoon = RateLimiter.Limit.of(1_000_000, 1);
+		rateLimiter.tryAcquire("C1", rateLimiter.limitFor("default"), 1);
+		rateLimiter.tryAcquire("C2", unlimitedSoon, 1);
+		assertEquals(2, rateLimiter.getBuckets());
+
+		rateLimiter.evictFullBuckets();
+
+		assertEquals(1, rateLimiter.getBuckets());
+		assertTrue(rateLimiter.tryAcquire("C1", rateLimiter.limitFor("default"), 1) > 0);
+	}
+}
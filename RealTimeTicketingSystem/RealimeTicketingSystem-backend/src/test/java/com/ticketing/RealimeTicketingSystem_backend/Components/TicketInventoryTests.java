@@ -0,0 +1,169 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketInventoryTests {
+
+	@ParameterizedTest
+	@EnumSource(PoolEngine.class)
+	void releaseNeverExceedsMaxCapacity(PoolEngine engine) {
+		TicketInventory inventory = engine.newInventory();
+		inventory.reset(25, 10);
+
+		assertEquals(10, inventory.release("V1", 10));
+		assertEquals(5, inventory.release("V1", 10));
+		assertEquals(0, inventory.release("V1", 10));
+		assertEquals(25, inventory.getReleased());
+		assertEquals(25, inventory.getAvailable());
+	}
+
+	@ParameterizedTest
+	@EnumSource(PoolEngine.class)
+	void reserveIsAllOrNothing(PoolEngine engine) {
+		TicketInventory inventory = engine.newInventory();
+		inventory.reset(10, 3);
+
+		assertFalse(inventory.reserve("C1", 4));
+		assertTrue(inventory.reserve("C1", 3));
+		assertEquals(0, inventory.getAvailable());
+		assertEquals(3, inventory.getSold());
+	}
+
+	@ParameterizedTest
+	@EnumSource(PoolEngine.class)
+	void returnedTicketsAreAvailableAgain(PoolEngine engine) {
+		TicketInventory inventory = engine.newInventory();
+		inventory.reset(10, 5);
+
+		int[] seats = inventory.claimSeats("C1", 4);
+		inventory.returnTickets("C1", seats, 4);
+		assertEquals(5, inventory.getAvailable());
+		assertEquals(0, inventory.getSold());
+		assertTrue(inventory.reserve("C2", 5));
+	}
+
+	@Test
+	void shardedCustomerStealsFromOtherStripes() throws InterruptedException {
+		ShardedTicketInventory inventory = new ShardedTicketInventory(4);
+		inventory.reset(100, 0);
+		inventory.release("V1", 3);
+		// Each thread has its own home stripe, so the second vendor releases into another stripe
+		Thread vendor = new Thread(() -> inventory.release("V2", 3));
+		vendor.start();
+		vendor.join();
+
+		assertTrue(inventory.reserve("C1", 5));
+		assertFalse(inventory.reserve("C2", 2));
+		assertEquals(1, inventory.getAvailable());
+		assertEquals(5, inventory.getSold());
+	}
+
+	@Test
+	void shardedConcurrentGatherersBothSucceed() throws InterruptedException {
+		ShardedTicketInventory inventory = new ShardedTicketInventory(4);
+		for (int round = 0; round < 200; round++) {
+			// One ticket per stripe, so both purchases of two tickets must gather
+			inventory.reset(4, 4);
+			AtomicInteger purchased = new AtomicInteger();
+			Thread first = new Thread(() -> purchased.addAndGet(inventory.reserve("C1", 2) ? 2 : 0));
+			Thread second = new Thread(() -> purchased.addAndGet(inventory.reserve("C2", 2) ? 2 : 0));
+			first.start();
+			second.start();
+			first.join();
+			second.join();
+
+			assertEquals(4, purchased.get());
+			assertEquals(0, inventory.getAvailable());
+		}
+	}
+
+	@Test
+	void actorCallersRacingWithCloseAreNeverStranded() throws InterruptedException {
+		for (int round = 0; round < 200; round++) {
+			ActorTicketInventory inventory = new ActorTicketInventory();
+			inventory.reset(1000, 1000);
+			AtomicInteger rejected = new AtomicInteger();
+			List<Thread> customers = new ArrayList<>();
+			for (int i = 0; i < 2; i++) {
+				customers.add(new Thread(() -> {
+					try {
+						while (true) {
+							inventory.reserve("C", 1);
+						}
+					} catch (IllegalStateException e) {
+						rejected.incrementAndGet();
+					}
+				}));
+			}
+			customers.forEach(Thread::start);
+			inventory.close();
+			for (Thread customer : customers) {
+				customer.join(5000);
+				assertFalse(customer.isAlive());
+			}
+			assertEquals(2, rejected.get());
+		}
+	}
+
+	@Test
+	void seatMapClaimsLowestFreeSeatsAndReleasesThem() {
+		SeatMapTicketInventory inventory = new SeatMapTicketInventory();
+		inventory.reset(120_000, 100);
+
+		assertArrayEquals(new int[] {1, 2, 3}, inventory.claimSeats("C1", 3));
+		assertTrue(inventory.releaseSeat(2));
+		assertFalse(inventory.releaseSeat(2));
+		assertFalse(inventory.releaseSeat(101));
+		assertArrayEquals(new int[] {2, 4}, inventory.claimSeats("C2", 2));
+		assertEquals(4, inventory.getSold());
+		assertEquals(96, inventory.getAvailable());
+	}
+
+	@ParameterizedTest
+	@EnumSource(PoolEngine.class)
+	void concurrentCustomersNeverOversell(PoolEngine engine) throws InterruptedException {
+		int maxCapacity = 20_000;
+		TicketInventory inventory = engine.newInventory();
+		inventory.reset(maxCapacity, 0);
+		AtomicInteger purchased = new AtomicInteger();
+		List<Thread> threads = new ArrayList<>();
+
+		for (int i = 0; i < 4; i++) {
+			String vendorId = "V" + i;
+			threads.add(new Thread(() -> {
+				while (inventory.release(vendorId, 7) > 0) {
+					Thread.onSpinWait();
+				}
+			}));
+		}
+		for (int i = 0; i < 8; i++) {
+			String customerId = "C" + i;
+			threads.add(new Thread(() -> {
+				while (inventory.getSold() < maxCapacity) {
+					if (inventory.reserve(customerId, 1)) {
+						purchased.incrementAndGet();
+					}
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(maxCapacity, inventory.getReleased());
+		assertEquals(maxCapacity, inventory.getSold());
+		assertEquals(maxCapacity, purchased.get());
+		assertEquals(0, inventory.getAvailable());
+	}
+}
@@ -0,0 +1,211 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.Configuration;
+import com.ticketing.RealimeTicketingSystem_backend.Models.HoldResult;
+import com.ticketing.RealimeTicketingSystem_backend.Models.PurchaseResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketPoolTests {
+
+	private final TimingWheelScheduler scheduler = new TimingWheelScheduler(Duration.ofMillis(1), 64, 1);
+	private final UpdateBroadcaster broadcaster = new UpdateBroadcaster(
+			new SimpMessagingTemplate((message, timeout) -> true), scheduler, new SimpleMeterRegistry(),
+			Duration.ofMillis(10), 100);
+	private final TicketPool pool = new TicketPool(broadcaster, PoolEngine.ATOMIC, "/topic", scheduler,
+			new PoolMetrics(new SimpleMeterRegistry(), "test"));
+
+	@BeforeEach
+	void initialize() {
+		pool.initialize(new Configuration(null, 0, 1, 1, 10, 1, 1));
+	}
+
+	@AfterEach
+	void shutdown() {
+		scheduler.shutdown();
+	}
+
+	@Test
+	void queuedRequestsAreFilledInArrivalOrder() throws Exception {
+		CompletableFuture<PurchaseResult> first = pool.purchaseAsync("c1", 3, null, false);
+		CompletableFuture<PurchaseResult> second = pool.purchaseAsync("c2", 1, null, false);
+
+		// Enough for the second request only, it must not jump ahead of the first
+		pool.addTickets("v1", 2);
+		assertFalse(first.isDone());
+		assertFalse(second.isDone());
+
+		pool.addTickets("v1", 2);
+		assertEquals(PurchaseResult.Status.FILLED, first.get(1, TimeUnit.SECONDS).getStatus());
+		assertEquals(PurchaseResult.Status.FILLED, second.get(1, TimeUnit.SECONDS).getStatus());
+		assertEquals(0, pool.getWaitingRequests());
+	}
+
+	@Test
+	void partialFillKeepsTicketsWhenTimedOut() throws Exception {
+		CompletableFuture<PurchaseResult> request = pool.purchaseAsync("c1", 5, Duration.ofMillis(30), true);
+		pool.addTickets("v1", 2);
+
+		PurchaseResult result = request.get(1, TimeUnit.SECONDS);
+		assertEquals(PurchaseResult.Status.PARTIAL, result.getStatus());
+		assertEquals(2, result.getPurchasedTickets());
+		assertEquals(2, pool.getTotalTicketsSold());
+	}
+
+	@Test
+	void unfilledRequestTimesOut() throws Exception {
+		CompletableFuture<PurchaseResult> request = pool.purchaseAsync("c1", 2, Duration.ofMillis(20), false);
+
+		assertEquals(PurchaseResult.Status.TIMED_OUT, request.get(1, TimeUnit.SECONDS).getStatus());
+		assertEquals(0, pool.getWaitingRequests());
+	}
+
+	@Test
+	void restoredPoolResumesOnlyOnce() {
+		pool.restore(new EventJournal.State(3, true, 20, 12, 7));
+
+		assertEquals(12, pool.getTotalTicketsReleased());
+		assertEquals(7, pool.getTotalTicketsSold());
+		assertEquals(5, pool.getRemainingTickets());
+		assertTrue(pool.resumeRecovered());
+		assertFalse(pool.resumeRecovered());
+	}
+
+	@Test
+	void expiredHoldReturnsTicketsToWaitingCustomer() throws Exception {
+		pool.addTickets("v1", 3);
+		HoldResult hold = pool.holdTickets("c1", 3, Duration.ofMillis(30));
+		assertEquals(HoldResult.Status.HELD, hold.getStatus());
+		assertEquals(0, pool.getRemainingTickets());
+		assertEquals(0, pool.getTotalTicketsSold());
+
+		CompletableFuture<PurchaseResult> waiting = pool.purchaseAsync("c2", 2, null, false);
+
+		assertEquals(PurchaseResult.Status.FILLED, waiting.get(1, TimeUnit.SECONDS).getStatus());
+		assertNull(pool.confirmHold(hold.getHoldId()));
+		assertEquals(0, pool.getHeldTickets());
+		assertEquals(1, pool.getRemainingTickets());
+	}
+
+	@Test
+	void confirmedHoldCountsAsSold() {
+		pool.addTickets("v1", 4);
+		HoldResult hold = pool.holdTickets("c1", 3, Duration.ofMinutes(5));
+
+		assertEquals(HoldResult.Status.CONFIRMED, pool.confirmHold(hold.getHoldId()).getStatus());
+		assertNull(pool.releaseHold(hold.getHoldId()));
+		assertEquals(3, pool.getTotalTicketsSold());
+		assertEquals(1, pool.getRemainingTickets());
+	}
+
+	@Test
+	void holdsRacingWithInitializeNeverLeaveTicketsHeld() throws Exception {
+		Configuration configuration = new Configuration(null, 0, 1, 1, 1_000_000, 1, 1);
+		pool.initialize(configuration);
+		pool.addTickets("v1", 1_000_000);
+		Thread[] customers = new Thread[4];
+		for (int i = 0; i < customers.length; i++) {
+			String customerId = "c" + i;
+			customers[i] = new Thread(() -> {
+				for (int j = 0; j < 20_000; j++) {
+					HoldResult hold = pool.holdTickets(customerId, 1, Duration.ofMinutes(5));
+					if (hold.getHoldId() != null) {
+						pool.confirmHold(hold.getHoldId());
+					}
+				}
+			});
+			customers[i].start();
+		}
+		for (int i = 0; i < 200; i++) {
+			pool.initialize(configuration);
+			pool.addTickets("v1", 1_000_000);
+		}
+		for (Thread customer : customers) {
+			customer.join();
+		}
+
+		assertEquals(0, pool.getHeldTickets());
+		assertTrue(pool.getTotalTicketsSold() <= pool.getTotalTicketsReleased());
+	}
+
+	@Test
+	void leasedPoolWaitsForTheBlocksOfOtherNodes() throws Exception {
+		InMemoryTicketBlockStore store = new InMemoryTicketBlockStore();
+		LeasedTicketInventory first = new LeasedTicketInventory(store, "event", "first", 100, Duration.ZERO, null);
+		LeasedTicketInventory second = new LeasedTicketInventory(store, "event", "second", 100, Duration.ZERO, null);
+		TicketPool firstPool = new TicketPool(broadcaster, PoolEngine.LEASED, first, "/topic/first", scheduler,
+				scheduler, new PoolMetrics(new SimpleMeterRegistry(), "first"));
+		TicketPool secondPool = new TicketPool(broadcaster, PoolEngine.LEASED, second, "/topic/second", scheduler,
+				scheduler, new PoolMetrics(new SimpleMeterRegistry(), "second"));
+		firstPool.initialize(new Configuration(null, 10, 1, 1, 10, 1, 1));
+		assertEquals(PurchaseResult.Status.FILLED, firstPool.purchaseNow("c1", 1).getStatus());
+		second.maintain();
+
+		// Every ticket is released and leased by the first node, which can still give them back
+		CompletableFuture<PurchaseResult> waiting = secondPool.purchaseAsync("c2", 3, null, false);
+		assertFalse(waiting.isDone());
+		assertFalse(secondPool.areAllTicketsSold());
+
+		firstPool.close();
+		second.maintain();
+		assertEquals(PurchaseResult.Status.FILLED, waiting.get(1, TimeUnit.SECONDS).getStatus());
+		second.close();
+	}
+
+	@Test
+	void purchaseNowTellsShortPoolFromSoldOut() {
+		pool.addTickets("v1", 10);
+		assertEquals(PurchaseResult.Status.FILLED, pool.purchaseNow("c1", 8).getStatus());
+		assertEquals(PurchaseResult.Status.SOLD_OUT, pool.purchaseNow("c2", 3).getStatus());
+
+		pool.initialize(new Configuration(null, 2, 1, 1, 10, 1, 1));
+		assertEquals(PurchaseResult.Status.UNAVAILABLE, pool.purchaseNow("c3", 3).getStatus());
+	}
+
+	@Test
+	void requestsBeyondMaxWaitersAreRejected() throws Exception {
+		pool.setAdmissionLimits(1, Duration.ofSeconds(5));
+		CompletableFuture<PurchaseResult> admitted = pool.purchaseAsync("c1", 3, null, false);
+		CompletableFuture<PurchaseResult> rejected = pool.purchaseAsync("c2", 1, null, false);
+
+		assertFalse(admitted.isDone());
+		PurchaseResult result = rejected.get(1, TimeUnit.SECONDS);
+		assertEquals(PurchaseResult.Status.REJECTED, result.getStatus());
+		assertEquals(5000, result.getRetryAfterMillis());
+		assertEquals(1, pool.getWaitingRequests());
+
+		pool.setAdmissionLimits(1, Duration.ofMillis(20));
+		pool.addTickets("v1", 3);
+		assertEquals(PurchaseResult.Status.FILLED, admitted.get(1, TimeUnit.SECONDS).getStatus());
+		assertEquals(PurchaseResult.Status.TIMED_OUT,
+				pool.purchaseAsync("c3", 5, null, false).get(1, TimeUnit.SECONDS).getStatus());
+	}
+
+	@Test
+	void eventInUseIsNotClosed() throws Exception {
+		TicketEvent event = new TicketEvent("e1", "/topic/events/e1", pool, null);
+		CompletableFuture<PurchaseResult> request = pool.purchaseAsync("c1", 2, null, false);
+		event.retain();
+		Thread.sleep(5);
+
+		assertFalse(event.tryClose(0));
+		event.release();
+		assertFalse(event.tryClose(0));
+		assertFalse(event.isClosed());
+
+		pool.addTickets("v1", 2);
+		assertEquals(PurchaseResult.Status.FILLED, request.get(1, TimeUnit.SECONDS).getStatus());
+		Thread.sleep(5);
+		assertTrue(event.tryClose(0));
+		assertTrue(event.isClosed());
+	}
+}
@@ -0,0 +1,79 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelSchedulerTests {
+
+	private final TimingWheelScheduler scheduler = new TimingWheelScheduler(Duration.ofMillis(1), 8, 2);
+
+	@AfterEach
+	void shutdown() {
+		scheduler.shutdown();
+	}
+
+	@Test
+	void runsTaskAfterDelayLongerThanOneWheelRound() throws InterruptedException {
+		CountDownLatch ran = new CountDownLatch(1);
+		long start = System.nanoTime();
+
+		scheduler.schedule(ran::countDown, 30);
+
+		assertTrue(ran.await(2, TimeUnit.SECONDS));
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(30));
+	}
+
+	@Test
+	void repeatingTaskStopsWhenStepReturnsNegativeDelay() throws InterruptedException {
+		AtomicInteger runs = new AtomicInteger();
+		CountDownLatch finished = new CountDownLatch(1);
+
+		TimingWheelScheduler.ScheduledTask task = scheduler.scheduleRepeating(() -> {
+			if (runs.incrementAndGet() < 5) {
+				return 2;
+			}
+			finished.countDown();
+			return -1;
+		}, 0);
+
+		assertTrue(finished.await(2, TimeUnit.SECONDS));
+		Thread.sleep(20);
+		assertEquals(5, runs.get());
+		assertTrue(task.isDone());
+	}
+
+	@Test
+	void cancelledTaskNeverRuns() throws InterruptedException {
+		AtomicInteger runs = new AtomicInteger();
+
+		TimingWheelScheduler.ScheduledTask task = scheduler.schedule(runs::incrementAndGet, 20);
+		assertTrue(task.cancel());
+		assertFalse(task.cancel());
+
+		Thread.sleep(60);
+		assertEquals(0, runs.get());
+	}
+
+	@Test
+	void idleWheelWakesUpForNewTask() throws InterruptedException {
+		// Let the ticker go to sleep on the empty wheel first
+		Thread.sleep(30);
+		CountDownLatch ran = new CountDownLatch(2);
+		long start = System.nanoTime();
+
+		scheduler.schedule(ran::countDown, 5);
+		scheduler.schedule(ran::countDown, 25);
+
+		assertTrue(ran.await(2, TimeUnit.SECONDS));
+		long elapsed = System.nanoTime() - start;
+		assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(25));
+		assertTrue(elapsed < TimeUnit.MILLISECONDS.toNanos(500));
+	}
+}
@@ -0,0 +1,79 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import com.ticketing.RealimeTicketingSystem_backend.Models.SystemLogger;
+import com.ticketing.RealimeTicketingSystem_backend.Models.TicketStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpdateBroadcasterTests {
+
+	private final List<Message<?>> sent = new CopyOnWriteArrayList<>();
+	private final TimingWheelScheduler scheduler = new TimingWheelScheduler(Duration.ofMillis(1), 8, 1);
+	// Frames are sent by the test, the interval only has to be longer than the test
+	private final UpdateBroadcaster broadcaster = new UpdateBroadcaster(
+			new SimpMessagingTemplate((message, timeout) -> sent.add(message)), scheduler, new SimpleMeterRegistry(),
+			Duration.ofMinutes(1), 3);
+
+	@AfterEach
+	void shutdown() {
+		scheduler.shutdown();
+	}
+
+	@Test
+	void statusIsOnlySentWhenItChanged() {
+		TicketStatus status = new TicketStatus();
+		status.setRemainingTickets(5);
+		broadcaster.publishStatus("/topic/status", status);
+		broadcaster.sendFrame();
+
+		TicketStatus sameStatus = new TicketStatus();
+		sameStatus.setRemainingTickets(5);
+		broadcaster.publishStatus("/topic/status", sameStatus);
+		broadcaster.sendFrame();
+
+		assertEquals(1, sent.size());
+	}
+
+	@Test
+	void logsAreBatchedAndCappedPerFrame() {
+		for (int i = 0; i < 5; i++) {
+			broadcaster.publishLog("/topic/logs", "INFO", "Log " + i);
+		}
+		broadcaster.sendFrame();
+
+		assertEquals(1, sent.size());
+		// 3 entries and the warning counting the 2 dropped entries
+		List<?> batch = (List<?>) sent.get(0).getPayload();
+		assertEquals(4, batch.size());
+		assertTrue(((SystemLogger) batch.get(3)).getMessage().startsWith("2 log entries were dropped"));
+	}
+
+	@Test
+	void removedTopicIsNotSentAnymore() {
+		broadcaster.publishStatus("/topic/events/e1/status", new TicketStatus());
+		broadcaster.publishLog("/topic/events/e1/logs", "INFO", "Log");
+		broadcaster.removeTopic("/topic/events/e1/status");
+		broadcaster.removeTopic("/topic/events/e1/logs");
+		broadcaster.sendFrame();
+
+		assertEquals(0, sent.size());
+	}
+
+	@Test
+	void noneDropsEveryUpdate() {
+		UpdateBroadcaster.NONE.publishStatus("/topic/status", new TicketStatus());
+		UpdateBroadcaster.NONE.publishLog("/topic/logs", "INFO", "Log");
+		UpdateBroadcaster.NONE.shutdown();
+
+		assertEquals(0, UpdateBroadcaster.NONE.getFramesSent());
+	}
+}
@@ -0,0 +1,156 @@
+package com.ticketing.RealimeTicketingSystem_backend.Components;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WriteBehindStoreTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final Map<String, Integer> applied = new HashMap<>();
+	private final Map<String, Set<Object>> appliedFlushes = new HashMap<>();
+	private final Queue<Failure> failures = new ArrayDeque<>();
+	private final List<Object> stampedVersions = new ArrayList<>();
+	// Above the clock, like a counter another node has already raised
+	private long counter = System.currentTimeMillis() + 1_000_000;
+	private int bulkWrites;
+	private final WriteBehindStore store;
+
+	WriteBehindStoreTests() {
+		when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+				eq(Document.class), eq(WriteBehindStore.VERSIONS)))
+				.thenAnswer(invocation -> new Document("_id", WriteBehindStore.VERSION_COUNTER).append("value", ++counter));
+		// Each bulk write runs its operations in order, a queued failure stops it after some of them
+		when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), any(Class.class))).thenAnswer(invocation -> {
+			List<Runnable> operations = new ArrayList<>();
+			BulkOperations bulk = mock(BulkOperations.class);
+			when(bulk.upsert(any(Query.class), any(Update.class))).thenAnswer(upsert -> {
+				String id = (String) ((Query) upsert.getArgument(0)).getQueryObject().get("_id");
+				operations.add(() -> applied.putIfAbsent(id, 0));
+				return bulk;
+			});
+			when(bulk.updateOne(any(Query.class), any(Update.class))).thenAnswer(update -> {
+				Document query = ((Query) update.getArgument(0)).getQueryObject();
+				String id = (String) query.get("_id");
+				Object flushId = ((Document) query.get("appliedFlushes")).get("$ne");
+				Document inc = (Document) ((Update) update.getArgument(1)).getUpdateObject().get("$inc");
+				stampedVersions.add(((Document) ((Update) update.getArgument(1)).getUpdateObject().get("$set")).get("version"));
+				operations.add(() -> {
+					if (applied.containsKey(id) && appliedFlushes.computeIfAbsent(id, key -> new HashSet<>()).add(flushId)) {
+						applied.merge(id, (Integer) inc.get("totalTicketsPurchased"), Integer::sum);
+					}
+				});
+				return bulk;
+			});
+			when(bulk.execute()).thenAnswer(execute -> {
+				bulkWrites++;
+				Failure failure = failures.poll();
+				int count = failure != null ? Math.min(failure.appliedOperations, operations.size()) : operations.size();
+				operations.subList(0, count).forEach(Runnable::run);
+				if (failure != null) {
+					throw failure.exception;
+				}
+				return null;
+			});
+			return bulk;
+		});
+		store = new WriteBehindStore(mongoTemplate, new SimpleMeterRegistry(), Duration.ofHours(1), 1000);
+	}
+
+	@AfterEach
+	void shutdown() {
+		store.shutdown();
+	}
+
+	@Test
+	void deltasOfACustomerAreMergedIntoOneUpdate() {
+		store.recordPurchase("C1", 3);
+		store.recordPurchase("C1", 2);
+		store.recordPurchase("C2", 1);
+
+		assertTrue(store.drain());
+		assertEquals(1, bulkWrites);
+		assertEquals(Map.of("C1", 5, "C2", 1), applied);
+		assertEquals(0, store.getPendingDocuments());
+	}
+
+	@Test
+	void writeThatTimedOutAfterBeingAppliedIsNotAppliedTwice() {
+		store.recordPurchase("C1", 3);
+		store.recordPurchase("C2", 2);
+		failures.add(new Failure(Integer.MAX_VALUE, new QueryTimeoutException("Timed out waiting for the reply")));
+
+		assertFalse(store.drain());
+		assertEquals(2, store.getPendingDocuments());
+		store.recordPurchase("C1", 1);
+		assertTrue(store.drain());
+
+		assertEquals(Map.of("C1", 4, "C2", 2), applied);
+		assertEquals(1, store.getStats().getFailedFlushCount());
+	}
+
+	@Test
+	void partiallyAppliedWriteOnlyAppliesTheRest() {
+		store.recordPurchase("C1", 3);
+		store.recordPurchase("C2", 2);
+		store.recordPurchase("C3", 1);
+		// The three documents are created and one of them updated
+		failures.add(new Failure(4, new DataAccessResourceFailureException("Connection reset")));
+
+		assertFalse(store.drain());
+		assertTrue(store.drain());
+
+		assertEquals(Map.of("C1", 3, "C2", 2, "C3", 1), applied);
+	}
+
+	@Test
+	void failureWithNothingAppliedRetriesEveryDelta() {
+		store.recordPurchase("C1", 3);
+		store.recordPurchase("C2", 2);
+		failures.add(new Failure(0, new DataAccessResourceFailureException("MongoDB is down")));
+
+		assertFalse(store.drain());
+		store.recordPurchase("C1", 1);
+		assertTrue(store.drain());
+
+		assertEquals(Map.of("C1", 4, "C2", 2), applied);
+		assertEquals(0, store.getPendingDocuments());
+	}
+
+	@Test
+	void versionsComeFromTheSharedCounter() {
+		store.recordPurchase("C1", 3);
+		assertTrue(store.drain());
+		store.recordPurchase("C2", 1);
+		assertTrue(store.drain());
+
+		assertEquals(List.of(counter - 1, counter), stampedVersions);
+		assertEquals(counter, store.getCommittedVersion());
+	}
+
+	private record Failure(int appliedOperations, RuntimeException exception) {
+	}
+}
@@ -0,0 +1,112 @@
+package com.ticketing.RealimeTicketingSystem_backend.Services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.RealimeTicketingSystem_backend.Models.Configuration;
+import com.ticketing.RealimeTicketingSystem_backend.Models.SimulationReport;
+import com.ticketing.RealimeTicketingSystem_backend.Models.SweepRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class SweepServiceTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final TicketService ticketService = mock(TicketService.class);
+	private final SweepService sweepService = new SweepService(ticketService, objectMapper, 4, 100, 20, 1000,
+			Duration.ofDays(1));
+
+	@AfterEach
+	void shutdown() {
+		sweepService.shutdown();
+	}
+
+	private SweepRequest request(long seed) {
+		SweepRequest request = new SweepRequest();
+		request.setConfiguration(new Configuration(null, 50, 1, 1, 100, 2, 10));
+		request.setNoOfVendors(List.of(1, 2, 4));
+		request.setMaxTicketCapacity(List.of(40, 100));
+		request.setRepetitions(2);
+		request.setSeed(seed);
+		return request;
+	}
+
+	private Map<Integer, Long> streamSeeds(SweepRequest request) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		sweepService.stream(request, out);
+		Map<Integer, Long> seeds = new TreeMap<>();
+		for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+			JsonNode result = objectMapper.readTree(line);
+			assertNull(seeds.put(result.get("run").asInt(), result.get("seed").asLong()));
+		}
+		return seeds;
+	}
+
+	@Test
+	void expandsGridWithCapacityInnermost() {
+		List<Configuration> configs = sweepService.expand(request(1));
+
+		assertEquals(12, configs.size());
+		assertEquals(1, configs.get(0).getNoOfVendors());
+		assertEquals(40, configs.get(1).getMaxTicketCapacity());
+		assertEquals(40, configs.get(1).getTotalTickets());
+		assertEquals(100, configs.get(2).getMaxTicketCapacity());
+		assertEquals(50, configs.get(2).getTotalTickets());
+		assertEquals(4, configs.get(11).getNoOfVendors());
+
+		SweepRequest tooLarge = request(1);
+		tooLarge.setRepetitions(20);
+		assertThrows(IllegalArgumentException.class, () -> sweepService.expand(tooLarge));
+	}
+
+	@Test
+	void rejectsValuesOutOfRange() {
+		SweepRequest zeroVendors = request(1);
+		zeroVendors.setNoOfVendors(List.of(1, 0));
+		assertThrows(IllegalArgumentException.class, () -> sweepService.expand(zeroVendors));
+
+		SweepRequest tooManyAgents = request(1);
+		tooManyAgents.setNoOfCustomers(List.of(10, 18));
+		assertThrows(IllegalArgumentException.class, () -> sweepService.expand(tooManyAgents));
+
+		SweepRequest tooManyTickets = request(1);
+		tooManyTickets.setMaxTicketCapacity(List.of(1001));
+		assertThrows(IllegalArgumentException.class, () -> sweepService.expand(tooManyTickets));
+
+		SweepRequest slowerThanTheRun = request(1);
+		slowerThanTheRun.setTicketReleaseRate(List.of((int) Duration.ofDays(2).toSeconds()));
+		assertThrows(IllegalArgumentException.class, () -> sweepService.expand(slowerThanTheRun));
+
+		SweepRequest negativeRetrieval = request(1);
+		negativeRetrieval.getConfiguration().setCustomerRetrievalRate(-1);
+		assertThrows(IllegalArgumentException.class, () -> sweepService.expand(negativeRetrieval));
+	}
+
+	@Test
+	void streamsEveryRunOnceWithSeedsFromItsIndex() throws Exception {
+		when(ticketService.runVirtualSimulation(any(Configuration.class), anyLong(), any(Duration.class)))
+				.thenAnswer(invocation -> {
+					SimulationReport report = new SimulationReport();
+					report.setSoldOutAtMillis(invocation.getArgument(1, Long.class) & 0xFFFF);
+					return report;
+				});
+
+		Map<Integer, Long> first = streamSeeds(request(7));
+		Map<Integer, Long> second = streamSeeds(request(7));
+
+		assertEquals(12, first.size());
+		assertEquals(first, second);
+		assertNotEquals(first, streamSeeds(request(8)));
+	}
+}
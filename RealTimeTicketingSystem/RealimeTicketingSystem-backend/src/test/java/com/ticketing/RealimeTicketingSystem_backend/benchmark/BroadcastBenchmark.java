@@ -0,0 +1,99 @@
+package com.ticketing.RealimeTicketingSystem_backend.benchmark;
+
+import com.ticketing.RealimeTicketingSystem_backend.Components.TimingWheelScheduler;
+import com.ticketing.RealimeTicketingSystem_backend.Components.UpdateBroadcaster;
+import com.ticketing.RealimeTicketingSystem_backend.Models.SystemLogger;
+import com.ticketing.RealimeTicketingSystem_backend.Models.TicketStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the cost of sending the SystemLogger and TicketStatus updates through the messaging template.
+ * The template serializes to JSON with Jackson like the websocket broker, and sends to a channel that drops the message.
+ * Compares one message per log entry with the batched frames of the UpdateBroadcaster.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BroadcastBenchmark {
+
+    @Param({"50"})
+    private int logsPerFrame;
+
+    private SimpMessagingTemplate messagingTemplate;
+    private TimingWheelScheduler scheduler;
+    private UpdateBroadcaster broadcaster;
+    private SystemLogger log;
+    private TicketStatus status;
+    private List<SystemLogger> frame;
+
+    @Setup(Level.Trial)
+    public void createTemplate() {
+        messagingTemplate = new SimpMessagingTemplate((message, timeout) -> true);
+        // Same object mapper setup as Spring Boot, with the java.time module for the log times
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(Jackson2ObjectMapperBuilder.json().build());
+        messagingTemplate.setMessageConverter(converter);
+        scheduler = new TimingWheelScheduler(Duration.ofMillis(1), 512, 1);
+        broadcaster = new UpdateBroadcaster(messagingTemplate, scheduler, new SimpleMeterRegistry(),
+                Duration.ofMillis(100), 500);
+
+        log = new SystemLogger();
+        log.setLogTime(LocalDateTime.now());
+        log.setLevel("INFO");
+        log.setMessage("Customer C1 purchased 3 tickets. Pool size: 42. Total sold: 58/100");
+
+        status = new TicketStatus();
+        status.setRemainingTickets(42);
+        status.setTotalTicketsReleased(100);
+
+        frame = new ArrayList<>();
+        for (int i = 0; i < logsPerFrame; i++) {
+            frame.add(log);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    @Benchmark
+    public void sendLog() {
+        messagingTemplate.convertAndSend("/topic/logs", log);
+    }
+
+    @Benchmark
+    public void sendStatus() {
+        messagingTemplate.convertAndSend("/topic/status", status);
+    }
+
+    /**
+     * Sends a frame of log entries, divide by logsPerFrame to compare with sendLog.
+     */
+    @Benchmark
+    public void sendLogFrame() {
+        messagingTemplate.convertAndSend("/topic/logs", frame);
+    }
+
+    @Benchmark
+    public void publishLogToBroadcaster() {
+        broadcaster.publishLog("/topic/logs", log);
+    }
+
+    @Benchmark
+    public void publishStatusToBroadcaster() {
+        broadcaster.publishStatus("/topic/status", status);
+    }
+}
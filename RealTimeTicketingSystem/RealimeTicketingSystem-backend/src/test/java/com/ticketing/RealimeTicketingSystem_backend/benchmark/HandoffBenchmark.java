@@ -0,0 +1,70 @@
+package com.ticketing.RealimeTicketingSystem_backend.benchmark;
+
+import com.ticketing.RealimeTicketingSystem_backend.Components.PoolEngine;
+import com.ticketing.RealimeTicketingSystem_backend.Components.PoolMetrics;
+import com.ticketing.RealimeTicketingSystem_backend.Components.TicketPool;
+import com.ticketing.RealimeTicketingSystem_backend.Components.TimingWheelScheduler;
+import com.ticketing.RealimeTicketingSystem_backend.Components.UpdateBroadcaster;
+import com.ticketing.RealimeTicketingSystem_backend.Models.Configuration;
+import com.ticketing.RealimeTicketingSystem_backend.Models.PurchaseResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the handoff between a vendor and customers waiting in the purchase queue.
+ * Customers outnumber the vendor, so the pool is short and most purchases wait for a release.
+ * Waiting customers time out after a few milliseconds, so they are not stuck when an iteration ends.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HandoffBenchmark {
+
+    private static final Duration PURCHASE_TIMEOUT = Duration.ofMillis(5);
+
+    @Param({"ATOMIC", "SHARDED"})
+    private PoolEngine engine;
+
+    private TimingWheelScheduler scheduler;
+    private TicketPool pool;
+
+    @Setup(Level.Trial)
+    public void createPool() {
+        scheduler = new TimingWheelScheduler(Duration.ofMillis(1), 512, 2);
+        UpdateBroadcaster broadcaster = new UpdateBroadcaster(
+                new SimpMessagingTemplate((message, timeout) -> true), scheduler, new SimpleMeterRegistry(),
+                Duration.ofMillis(100), 500);
+        pool = new TicketPool(broadcaster, engine, "/topic", scheduler,
+                new PoolMetrics(new SimpleMeterRegistry(), "benchmark"));
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPool() {
+        pool.initialize(new Configuration(null, 0, 1, 1, Integer.MAX_VALUE, 1, 1));
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public boolean vendor() {
+        return pool.addTickets("V1", 1);
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(4)
+    public PurchaseResult.Status customers() {
+        return pool.purchaseAsync(Thread.currentThread().getName(), 1, PURCHASE_TIMEOUT, false).join().getStatus();
+    }
+}
@@ -0,0 +1,96 @@
+package com.ticketing.RealimeTicketingSystem_backend.benchmark;
+
+import com.ticketing.RealimeTicketingSystem_backend.Components.WriteBehindStore;
+import com.ticketing.RealimeTicketingSystem_backend.Models.Customer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Benchmarks of saving the customer purchases, without a database.
+ * Compares the find and save per purchase done before the write-behind store, against an in-memory stand-in repository,
+ * with recording the purchase in the write-behind store, flushing to a stand-in MongoTemplate.
+ * The stand-ins cost next to nothing, so the numbers are the overhead of the code around the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PersistenceBenchmark {
+
+    @Param({"100", "10000"})
+    private int customers;
+
+    private InMemoryCustomerRepository repository;
+    private WriteBehindStore writeBehindStore;
+
+    @Setup(Level.Trial)
+    public void createStores() {
+        repository = new InMemoryCustomerRepository();
+
+        // Stub only mocks do not record their calls, so they do not fill up the heap
+        BulkOperations bulkOperations = mock(BulkOperations.class, withSettings().stubOnly());
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class, withSettings().stubOnly());
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), any(Class.class))).thenReturn(bulkOperations);
+        writeBehindStore = new WriteBehindStore(mongoTemplate, new SimpleMeterRegistry(), Duration.ofMillis(200), 500);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        writeBehindStore.shutdown();
+    }
+
+    @Benchmark
+    public void findAndSave() {
+        String customerId = randomCustomer();
+        Optional<Customer> existingCustomer = repository.findByCustomerId(customerId);
+        if (existingCustomer.isPresent()) {
+            Customer customer = existingCustomer.get();
+            customer.setTotalTicketsPurchased(customer.getTotalTicketsPurchased() + 1);
+            repository.save(customer);
+        } else {
+            repository.save(new Customer(customerId, 1));
+        }
+    }
+
+    @Benchmark
+    public void writeBehind() {
+        writeBehindStore.recordPurchase(randomCustomer(), 1);
+    }
+
+    private String randomCustomer() {
+        return "C" + ThreadLocalRandom.current().nextInt(customers);
+    }
+
+    /**
+     * Stand-in for the customer repository, copies the documents like a database round trip would.
+     */
+    static class InMemoryCustomerRepository {
+        private final ConcurrentMap<String, Customer> documents = new ConcurrentHashMap<>();
+
+        Optional<Customer> findByCustomerId(String customerId) {
+            Customer document = documents.get(customerId);
+            return document == null ? Optional.empty()
+                    : Optional.of(new Customer(document.getCustomerId(), document.getTotalTicketsPurchased()));
+        }
+
+        void save(Customer customer) {
+            documents.put(customer.getCustomerId(),
+                    new Customer(customer.getCustomerId(), customer.getTotalTicketsPurchased()));
+        }
+    }
+}
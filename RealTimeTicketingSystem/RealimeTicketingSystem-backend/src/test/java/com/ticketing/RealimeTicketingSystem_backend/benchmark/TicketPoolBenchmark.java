@@ -0,0 +1,79 @@
+package com.ticketing.RealimeTicketingSystem_backend.benchmark;
+
+import com.ticketing.RealimeTicketingSystem_backend.Components.PoolEngine;
+import com.ticketing.RealimeTicketingSystem_backend.Components.PoolMetrics;
+import com.ticketing.RealimeTicketingSystem_backend.Components.TicketPool;
+import com.ticketing.RealimeTicketingSystem_backend.Components.TimingWheelScheduler;
+import com.ticketing.RealimeTicketingSystem_backend.Components.UpdateBroadcaster;
+import com.ticketing.RealimeTicketingSystem_backend.Models.Configuration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of TicketPool.addTickets and removeTickets for every inventory engine.
+ * Each operation releases a batch of tickets and purchases it again, so the pool never runs dry.
+ * Run with more threads to measure contention, for example -Djmh.args="TicketPoolBenchmark -t 8".
+ * The pool is reset every iteration, SEAT_MAP gets a smaller capacity to keep its bitmap small.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TicketPoolBenchmark {
+
+    @Param({"SYNCHRONIZED", "ATOMIC", "SHARDED", "SEAT_MAP", "ACTOR", "LEASED"})
+    private PoolEngine engine;
+
+    @Param({"1", "5", "20"})
+    private int batchSize;
+
+    private TimingWheelScheduler scheduler;
+    private TicketPool pool;
+
+    @Setup(Level.Trial)
+    public void createPool() {
+        scheduler = new TimingWheelScheduler(Duration.ofMillis(1), 512, 1);
+        UpdateBroadcaster broadcaster = new UpdateBroadcaster(
+                new SimpMessagingTemplate((message, timeout) -> true), scheduler, new SimpleMeterRegistry(),
+                Duration.ofMillis(100), 500);
+        pool = new TicketPool(broadcaster, engine, "/topic", scheduler,
+                new PoolMetrics(new SimpleMeterRegistry(), "benchmark"));
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPool() {
+        int capacity = engine == PoolEngine.SEAT_MAP ? 1 << 28 : Integer.MAX_VALUE;
+        pool.initialize(new Configuration(null, 0, 1, 1, capacity, 1, 1));
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        pool.close();
+        scheduler.shutdown();
+    }
+
+    @Benchmark
+    public boolean releaseAndPurchase() {
+        String id = Thread.currentThread().getName();
+        return pool.addTickets(id, batchSize) & pool.tryRemoveTickets(id, batchSize);
+    }
+
+    @Benchmark
+    @Group("vendorsAndCustomers")
+    @GroupThreads(1)
+    public boolean vendor() {
+        return pool.addTickets("V1", batchSize);
+    }
+
+    @Benchmark
+    @Group("vendorsAndCustomers")
+    @GroupThreads(3)
+    public boolean customers() {
+        return pool.tryRemoveTickets(Thread.currentThread().getName(), batchSize);
+    }
+}
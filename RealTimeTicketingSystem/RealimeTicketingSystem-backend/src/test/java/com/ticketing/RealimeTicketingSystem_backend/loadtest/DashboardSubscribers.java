@@ -0,0 +1,168 @@
+package com.ticketing.RealimeTicketingSystem_backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.websocket.ContainerProvider;
+import jakarta.websocket.WebSocketContainer;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simulated dashboards, each a STOMP session on "/websocket" subscribed to the status and logs topics of an event,
+ * like the frontend dashboard.
+ * Counts the frames received and measures how long the log entries took to reach the dashboards,
+ * from the log time set by the backend to the time the frame was received.
+ * The backend and the load generator run on the same box, so they share the clock the lag is measured with.
+ */
+class DashboardSubscribers {
+
+    private static final int MAX_FRAME_SIZE = 4 * 1024 * 1024; // Log frames carry up to "ticketing.broadcast.max-logs-per-frame" entries
+    private static final String ALLOWED_ORIGIN = "http://localhost:4200";
+
+    private final WebSocketStompClient stompClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<StompSession> sessions = new ArrayList<>();
+    private final AtomicLong statusFrames = new AtomicLong();
+    private final AtomicLong logFrames = new AtomicLong();
+    private final AtomicLong logEntries = new AtomicLong();
+    private final AtomicLong failedConnections = new AtomicLong();
+    private final Histogram logLagMicros = new ConcurrentHistogram(TimeUnit.HOURS.toMicros(1), 3);
+    private volatile boolean recording;
+
+    /**
+     * Constructor for DashboardSubscribers
+     */
+    DashboardSubscribers() {
+        WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+        container.setDefaultMaxTextMessageBufferSize(MAX_FRAME_SIZE);
+        this.stompClient = new WebSocketStompClient(new StandardWebSocketClient(container));
+        this.stompClient.setInboundMessageSizeLimit(MAX_FRAME_SIZE);
+    }
+
+    /**
+     * Method to connect the dashboards and subscribe them to the topics of an event.
+     * @param baseUrl (http URL of the backend)
+     * @param topicPrefix (topic prefix of the event, "/topic" for the default event)
+     * @param count (number of dashboards)
+     * @param timeout (time the dashboards have to connect)
+     * @return (number of dashboards connected)
+     */
+    int connect(String baseUrl, String topicPrefix, int count, Duration timeout) {
+        String url = baseUrl.replaceFirst("^http", "ws") + "/websocket";
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        headers.setOrigin(ALLOWED_ORIGIN);
+
+        List<CompletableFuture<StompSession>> connections = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            connections.add(stompClient.connectAsync(url, headers, new StompSessionHandlerAdapter() { }));
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (CompletableFuture<StompSession> connection : connections) {
+            try {
+                StompSession session = connection.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                session.subscribe(topicPrefix + "/status", new FrameCounter(false));
+                session.subscribe(topicPrefix + "/logs", new FrameCounter(true));
+                sessions.add(session);
+            } catch (Exception e) {
+                connection.cancel(true);
+                failedConnections.incrementAndGet();
+            }
+        }
+        return sessions.size();
+    }
+
+    /**
+     * Method to start or stop recording the frames, frames received during the warmup are not counted.
+     * @param recording (true to count the frames received from now on)
+     */
+    void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Method to disconnect the dashboards.
+     */
+    void disconnect() {
+        sessions.forEach(StompSession::disconnect);
+        stompClient.stop();
+    }
+
+    long getStatusFrames() {
+        return statusFrames.get();
+    }
+
+    long getLogFrames() {
+        return logFrames.get();
+    }
+
+    long getLogEntries() {
+        return logEntries.get();
+    }
+
+    long getFailedConnections() {
+        return failedConnections.get();
+    }
+
+    Histogram getLogLagMicros() {
+        return logLagMicros;
+    }
+
+    /**
+     * Counts the frames of a topic, and records the lag of every log entry of a log frame.
+     */
+    private class FrameCounter implements StompFrameHandler {
+        private final boolean logs;
+
+        FrameCounter(boolean logs) {
+            this.logs = logs;
+        }
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return byte[].class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            if (!recording) {
+                return;
+            }
+            if (!logs) {
+                statusFrames.incrementAndGet();
+                return;
+            }
+            LocalDateTime received = LocalDateTime.now();
+            logFrames.incrementAndGet();
+            try {
+                for (JsonNode entry : objectMapper.readTree((byte[]) payload)) {
+                    logEntries.incrementAndGet();
+                    JsonNode logTime = entry.get("logTime");
+                    if (logTime != null && logTime.isTextual()) {
+                        long lag = ChronoUnit.MICROS.between(LocalDateTime.parse(logTime.asText()), received);
+                        logLagMicros.recordValue(Math.min(Math.max(0, lag), logLagMicros.getHighestTrackableValue()));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // A frame that cannot be read is still counted, only its lag is not recorded
+            }
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.ticketing.RealimeTicketingSystem_backend.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless load generator pushing client load through the REST endpoints and the "/websocket" STOMP endpoint
+ * of a backend running on the same box, to size deployments before big on-sales.
+ * Run with: mvn -P loadtest test -Dloadtest.args="rate=500 subscribers=200 duration=2m", see LoadOptions for the arguments.
+ *
+ * Requests arrive open loop: they are started at the rate asked for, whatever the latency of the backend,
+ * with an operation picked from the weighted request mix.
+ * At most "concurrency" requests are in flight, a request beyond that waits for one to complete.
+ * Latencies are measured from the time a request was meant to start, not the time it was sent,
+ * so the requests delayed by a slow backend or a full concurrency limit count the delay,
+ * which corrects the coordinated omission of a load generator that only sends once the previous request completed.
+ * The service time, from the time the request was sent, is reported next to it.
+ */
+public class LoadGenerator {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final LoadOptions options;
+    private final String baseUrl;
+    private final String eventId;
+    private final HttpClient httpClient;
+    private final SplittableRandom random = new SplittableRandom();
+    private final List<Operation> operations = new ArrayList<>();
+    private final int totalWeight;
+    private final Semaphore inFlight;
+
+    /**
+     * Constructor for LoadGenerator
+     * @param options (options of the run)
+     * @throws IllegalArgumentException (if the request mix has an unknown operation or no weight)
+     */
+    public LoadGenerator(LoadOptions options) {
+        this.options = options;
+        this.baseUrl = options.get("url").replaceAll("/+$", "");
+        this.eventId = options.get("event");
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        int weights = 0;
+        for (Map.Entry<String, Integer> entry : options.getMix().entrySet()) {
+            if (entry.getValue() > 0) {
+                operations.add(new Operation(OperationType.of(entry.getKey()), entry.getValue()));
+                weights += entry.getValue();
+            }
+        }
+        if (weights == 0) {
+            throw new IllegalArgumentException("Request mix has no operation with a weight");
+        }
+        this.totalWeight = weights;
+        this.inFlight = new Semaphore(options.getInt("concurrency"));
+    }
+
+    /**
+     * Runs the load generator and prints its report.
+     * @param args (arguments of the form "name=value", see LoadOptions)
+     */
+    public static void main(String[] args) {
+        LoadOptions options = new LoadOptions(args);
+        System.out.println("Load generator options: " + options);
+        new LoadGenerator(options).run();
+        // The websocket client leaves non-daemon threads behind
+        System.exit(0);
+    }
+
+    /**
+     * Method to connect the dashboards, send the requests for the warmup and the duration, and print the report.
+     */
+    public void run() {
+        DashboardSubscribers dashboards = new DashboardSubscribers();
+        String topicPrefix = "default".equals(eventId) ? "/topic" : "/topic/events/" + eventId;
+        int subscribers = options.getInt("subscribers");
+        int connected = dashboards.connect(baseUrl, topicPrefix, subscribers, Duration.ofSeconds(30));
+        System.out.println("Dashboards connected: " + connected + "/" + subscribers);
+
+        double rate = options.getDouble("rate");
+        boolean poisson = "poisson".equalsIgnoreCase(options.get("arrivals"));
+        long warmupNanos = options.getDuration("warmup").toNanos();
+        long durationNanos = options.getDuration("duration").toNanos();
+        long startNanos = System.nanoTime();
+        long recordFromNanos = startNanos + warmupNanos;
+        long endNanos = recordFromNanos + durationNanos;
+
+        double intendedNanos = startNanos;
+        boolean recording = false;
+        while (true) {
+            intendedNanos += poisson
+                    ? -Math.log(1 - random.nextDouble()) * 1e9 / rate
+                    : 1e9 / rate;
+            long intended = (long) intendedNanos;
+            if (intended >= endNanos) {
+                break;
+            }
+            long sleepNanos;
+            while ((sleepNanos = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(sleepNanos);
+            }
+            if (!recording && intended >= recordFromNanos) {
+                recording = true;
+                dashboards.setRecording(true);
+            }
+            send(pickOperation(), intended, recording);
+        }
+
+        // Requests still in flight are given a while to complete, the ones that do not are not reported
+        try {
+            inFlight.tryAcquire(options.getInt("concurrency"), 30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dashboards.setRecording(false);
+        dashboards.disconnect();
+        printReport(dashboards, connected, durationNanos);
+    }
+
+    private Operation pickOperation() {
+        int pick = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            pick -= operation.weight;
+            if (pick < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    /**
+     * Sends one request without waiting for its response, once a slot of the concurrency limit is free.
+     * @param operation (operation to send)
+     * @param intendedNanos (time the request was meant to start, the latency is measured from)
+     * @param recording (true to record the latency of the request)
+     */
+    private void send(Operation operation, long intendedNanos, boolean recording) {
+        HttpRequest request = operation.type.newRequest(this);
+        inFlight.acquireUninterruptibly();
+        long sentNanos = System.nanoTime();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            long completedNanos = System.nanoTime();
+            inFlight.release();
+            if (recording) {
+                operation.record(intendedNanos, sentNanos, completedNanos,
+                        failure == null ? response.statusCode() : -1);
+            }
+        });
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    private HttpRequest purchaseRequest() {
+        String customerId = "L" + (random.nextInt(options.getInt("customers")) + 1);
+        int tickets = random.nextInt(4) + 1;
+        String line = "{\"customerId\":\"" + customerId + "\",\"tickets\":" + tickets + "}";
+        HttpRequest.Builder builder = "default".equals(eventId)
+                ? request("/api/purchase").POST(HttpRequest.BodyPublishers.ofString(line))
+                : request("/api/events/" + eventId + "/purchases").POST(HttpRequest.BodyPublishers.ofString("[" + line + "]"));
+        return builder.header("Content-Type", "application/json").build();
+    }
+
+    private void printReport(DashboardSubscribers dashboards, int connected, long durationNanos) {
+        double seconds = durationNanos / 1e9;
+        System.out.println();
+        System.out.printf("%-14s %9s %9s %9s %9s %10s %10s %10s %10s  %s%n", "operation", "count", "req/s",
+                "non-2xx", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "(service p50/p99/p99.9 ms)");
+        Histogram allCorrected = new Histogram(MAX_LATENCY_MICROS, 3);
+        Histogram allService = new Histogram(MAX_LATENCY_MICROS, 3);
+        long allNon2xx = 0;
+        long allErrors = 0;
+        for (Operation operation : operations) {
+            printRow(operation.type.name, operation.corrected, operation.service,
+                    operation.non2xx.get(), operation.errors.get(), seconds);
+            allCorrected.add(operation.corrected);
+            allService.add(operation.service);
+            allNon2xx += operation.non2xx.get();
+            allErrors += operation.errors.get();
+        }
+        printRow("all", allCorrected, allService, allNon2xx, allErrors, seconds);
+
+        System.out.println();
+        System.out.printf("Dashboards: %d connected, %d failed, %.1f status frames/s, %.1f log frames/s, %.1f log entries/s%n",
+                connected, dashboards.getFailedConnections(), dashboards.getStatusFrames() / seconds,
+                dashboards.getLogFrames() / seconds, dashboards.getLogEntries() / seconds);
+        Histogram lag = dashboards.getLogLagMicros();
+        System.out.printf("Log lag: p50 %.1f ms, p99 %.1f ms, p99.9 %.1f ms, max %.1f ms%n",
+                millis(lag, 50), millis(lag, 99), millis(lag, 99.9), lag.getMaxValue() / 1000.0);
+    }
+
+    private static void printRow(String name, Histogram corrected, Histogram service,
+                                 long non2xx, long errors, double seconds) {
+        System.out.printf("%-14s %9d %9.1f %9d %9d %10.2f %10.2f %10.2f %10.2f  (%.2f/%.2f/%.2f)%n", name,
+                corrected.getTotalCount(), corrected.getTotalCount() / seconds, non2xx, errors,
+                millis(corrected, 50), millis(corrected, 99), millis(corrected, 99.9), corrected.getMaxValue() / 1000.0,
+                millis(service, 50), millis(service, 99), millis(service, 99.9));
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * Operations of the request mix, and the endpoint each one sends to.
+     */
+    private enum OperationType {
+        PURCHASE("purchase"),
+        STATUS("status"),
+        CONFIGURATION("configuration"),
+        LEADERBOARD("leaderboard"),
+        CUSTOMERS("customers"),
+        VENDORS("vendors");
+
+        private final String name;
+
+        OperationType(String name) {
+            this.name = name;
+        }
+
+        static OperationType of(String name) {
+            for (OperationType type : values()) {
+                if (type.name.equals(name)) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operation " + name + " in the request mix");
+        }
+
+        HttpRequest newRequest(LoadGenerator generator) {
+            String event = generator.eventId;
+            return switch (this) {
+                case PURCHASE -> generator.purchaseRequest();
+                case STATUS -> generator.request("/api/events/" + event + "/status").GET().build();
+                case CONFIGURATION -> generator.request("default".equals(event)
+                        ? "/api/configuration" : "/api/events/" + event + "/configuration").GET().build();
+                case LEADERBOARD -> generator.request("/api/leaderboard/customers?k=10").GET().build();
+                case CUSTOMERS -> generator.request("/api/customers/page?limit=100").GET().build();
+                case VENDORS -> generator.request("/api/vendors/page?limit=100").GET().build();
+            };
+        }
+    }
+
+    /**
+     * Operation of the request mix with its weight and the latencies and failures recorded for it.
+     */
+    private static final class Operation {
+        private final OperationType type;
+        private final int weight;
+        private final Histogram corrected = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3); // From the intended start
+        private final Histogram service = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3); // From the time it was sent
+        private final AtomicLong non2xx = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+
+        Operation(OperationType type, int weight) {
+            this.type = type;
+            this.weight = weight;
+        }
+
+        void record(long intendedNanos, long sentNanos, long completedNanos, int statusCode) {
+            corrected.recordValue(Math.min(MAX_LATENCY_MICROS, (completedNanos - intendedNanos) / 1000));
+            service.recordValue(Math.min(MAX_LATENCY_MICROS, (completedNanos - sentNanos) / 1000));
+            if (statusCode < 0) {
+                errors.incrementAndGet();
+            } else if (statusCode / 100 != 2) {
+                non2xx.incrementAndGet();
+            }
+        }
+    }
+}
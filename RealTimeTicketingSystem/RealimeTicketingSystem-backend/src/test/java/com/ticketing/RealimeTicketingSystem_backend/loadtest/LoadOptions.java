@@ -0,0 +1,85 @@
+package com.ticketing.RealimeTicketingSystem_backend.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Options of the load generator, read from "name=value" arguments.
+ * Durations use the same format as application.properties, for example "30s" or "2m".
+ */
+public class LoadOptions {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("url", "http://localhost:8080"); // Backend under load
+        DEFAULTS.put("event", "default"); // Event the requests and subscriptions are for
+        DEFAULTS.put("rate", "200"); // Requests started per second, whatever the backend latency
+        DEFAULTS.put("arrivals", "poisson"); // Time between requests, "poisson" or "uniform"
+        DEFAULTS.put("concurrency", "256"); // Requests in flight at most, later requests wait and their wait is measured
+        DEFAULTS.put("mix", "purchase:6,status:2,configuration:1,leaderboard:1,customers:1,vendors:1"); // Operation weights
+        DEFAULTS.put("customers", "10000"); // Customer ids the purchases are spread over
+        DEFAULTS.put("subscribers", "50"); // Dashboards subscribed to the status and logs topics
+        DEFAULTS.put("warmup", "5s"); // Time the load runs before latencies are recorded
+        DEFAULTS.put("duration", "60s"); // Time latencies are recorded for
+    }
+
+    private final Map<String, String> values = new LinkedHashMap<>(DEFAULTS);
+
+    /**
+     * Constructor for LoadOptions
+     * @param args (arguments of the form "name=value", the defaults are used for the missing ones)
+     * @throws IllegalArgumentException (if an argument is not of the form "name=value" or its name is unknown)
+     */
+    public LoadOptions(String[] args) {
+        for (String arg : args) {
+            String[] nameAndValue = arg.split("=", 2);
+            String name = nameAndValue[0].startsWith("--") ? nameAndValue[0].substring(2) : nameAndValue[0];
+            if (nameAndValue.length != 2 || !DEFAULTS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown argument " + arg + ", known arguments are " + DEFAULTS);
+            }
+            values.put(name, nameAndValue[1]);
+        }
+    }
+
+    String get(String name) {
+        return values.get(name);
+    }
+
+    int getInt(String name) {
+        return Integer.parseInt(values.get(name));
+    }
+
+    double getDouble(String name) {
+        return Double.parseDouble(values.get(name));
+    }
+
+    Duration getDuration(String name) {
+        return DurationStyle.detectAndParse(values.get(name));
+    }
+
+    /**
+     * Method to get the operation weights of the request mix.
+     * @return (weight by operation name, in the order they were given)
+     * @throws IllegalArgumentException (if an entry is not of the form "operation:weight")
+     */
+    Map<String, Integer> getMix() {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : values.get("mix").split(",")) {
+            String[] operationAndWeight = entry.trim().split(":");
+            if (operationAndWeight.length != 2) {
+                throw new IllegalArgumentException("Mix entries must be operation:weight, got " + entry);
+            }
+            mix.put(operationAndWeight[0], Integer.parseInt(operationAndWeight[1]));
+        }
+        return mix;
+    }
+
+    @Override
+    public String toString() {
+        return values.toString();
+    }
+}